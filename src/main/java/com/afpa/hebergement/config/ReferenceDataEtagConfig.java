@@ -0,0 +1,35 @@
+package com.afpa.hebergement.config;
+
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.service.reference.ReferenceTable;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Enregistre le filtre ETag des listes de référence servies depuis le ReferenceDataRegistry
+@Configuration
+public class ReferenceDataEtagConfig {
+
+    @Bean
+    public FilterRegistrationBean<ReferenceDataEtagFilter> referenceDataEtagFilter(ReferenceDataRegistry registry) {
+
+        // Les types de caution ne sont pas concernés : leur liste embarque les cautions, qui ne sont pas des données de référence
+        Map<String, Supplier<ReferenceTable<?>>> tablesByPath = Map.of(
+                "/api/roles", registry::roles,
+                "/api/civilities", registry::civilities,
+                "/api/days", registry::days,
+                "/api/documents-type", registry::documentTypes,
+                "/api/paymentType", registry::paymentTypes,
+                "/api/work-types", registry::workTypes,
+                "/api/reservation-motives", registry::reservationMotives,
+                "/api/guaranties-type", registry::guaranteeTypes);
+
+        FilterRegistrationBean<ReferenceDataEtagFilter> registration = new FilterRegistrationBean<>(new ReferenceDataEtagFilter(tablesByPath));
+        registration.setUrlPatterns(tablesByPath.keySet());
+        return registration;
+    }
+
+}
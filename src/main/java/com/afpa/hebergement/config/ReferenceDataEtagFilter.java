@@ -0,0 +1,86 @@
+package com.afpa.hebergement.config;
+
+import com.afpa.hebergement.service.reference.ReferenceTable;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Validation conditionnelle des listes de référence (GET /api/roles, /api/civilities...).
+ * L'ETag est celui de l'instantané en mémoire du ReferenceDataRegistry : si le client présente le même
+ * (If-None-Match), la réponse 304 est renvoyée sans appeler le contrôleur ni sérialiser la liste.
+ */
+public class ReferenceDataEtagFilter extends OncePerRequestFilter {
+
+    // Instantané courant par chemin de liste
+    private final Map<String, Supplier<ReferenceTable<?>>> tablesByPath;
+
+
+    public ReferenceDataEtagFilter(Map<String, Supplier<ReferenceTable<?>>> tablesByPath) {
+        this.tablesByPath = tablesByPath;
+    }
+
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !tablesByPath.containsKey(pathOf(request));
+    }
+
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        ReferenceTable<?> table = tablesByPath.get(pathOf(request)).get();
+        // Table vide : le contrôleur répond 204, sans ETag
+        if (table.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String etag = table.getEtag();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // Le client garde la liste mais la revalide à chaque utilisation
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+
+    // If-None-Match peut contenir plusieurs ETags séparés par des virgules, ou *
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    // Chemin de la requête sans le contexte de l'application ni la barre oblique finale
+    private static String pathOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+}
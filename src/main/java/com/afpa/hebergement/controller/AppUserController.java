@@ -1,6 +1,7 @@
 package com.afpa.hebergement.controller;
 
 import com.afpa.hebergement.model.dto.AppUserDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
 import com.afpa.hebergement.model.dto.PasswordDTO;
 import com.afpa.hebergement.model.dto.UserDTO;
 import com.afpa.hebergement.service.entity_service.AppUserService;
@@ -179,5 +180,20 @@ AppUserController {
         return ResponseEntity.noContent().build();
     }
 
-}
 
+    // Endpoint pour récupérer les utilisateurs par centre Afpa par curseur (défilement infini), sans OFFSET
+    @GetMapping("/afpa-center/{idAfpaCenter}/scroll")
+    @Operation(summary = "Get users by Afpa Center with cursor pagination")
+    public ResponseEntity<KeysetPageDTO<AppUserDTO>> getUsersByAfpaCenterScroll(
+            @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+            // Jeton de continuation renvoyé par la page précédente (absent pour la première page)
+            @RequestParam(value = "after", required = false) String after,
+            // Nombre d'éléments par page (20 par défaut, 100 au maximum)
+            @RequestParam(value = "size", defaultValue = "20") Integer size,
+            // Comptage total des éléments (requête supplémentaire), désactivé par défaut
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+
+        KeysetPageDTO<AppUserDTO> keysetPage = appUserService.scrollByAfpaCenter(idAfpaCenter, after, size, count);
+        return ResponseEntity.ok(keysetPage);
+    }
+}
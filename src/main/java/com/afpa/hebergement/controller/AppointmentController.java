@@ -1,17 +1,22 @@
 package com.afpa.hebergement.controller;
 
 import com.afpa.hebergement.model.dto.AppointmentDTO;
+import com.afpa.hebergement.model.dto.AppointmentSlotDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
+import com.afpa.hebergement.model.dto.SearchHitDTO;
 import com.afpa.hebergement.service.entity_service.AppointmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -135,4 +140,51 @@ public class AppointmentController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+
+    // Endpoint pour récupérer les rendez-vous par centre Afpa par curseur (défilement infini), sans OFFSET
+    @GetMapping("/afpa-center/{idAfpaCenter}/scroll")
+    @Operation(summary = "Get appointments by Afpa Center with cursor pagination")
+    public ResponseEntity<KeysetPageDTO<AppointmentDTO>> getAppointmentsByAfpaCenterScroll(
+            @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+            // Jeton de continuation renvoyé par la page précédente (absent pour la première page)
+            @RequestParam(value = "after", required = false) String after,
+            // Nombre d'éléments par page (20 par défaut, 100 au maximum)
+            @RequestParam(value = "size", defaultValue = "20") Integer size,
+            // Comptage total des éléments (requête supplémentaire), désactivé par défaut
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+
+        KeysetPageDTO<AppointmentDTO> keysetPage = appointmentService.scrollAppointmentsByAfpaCenter(idAfpaCenter, after, size, count);
+        return ResponseEntity.ok(keysetPage);
+    }
+
+    // Endpoint de recherche plein texte dans le motif des rendez-vous d'un centre Afpa, classés par pertinence, avec extraits surlignés
+    @GetMapping("/afpa-center/{idAfpaCenter}/search")
+    @Operation(summary = "Full-text search appointment reasons by Afpa Center, ranked with highlighted excerpts")
+    public ResponseEntity<KeysetPageDTO<SearchHitDTO>> searchAppointmentsByAfpaCenter(
+            @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+            // Texte recherché : mots, "expression exacte", OR, -exclusion (200 caractères au maximum)
+            @RequestParam("q") String query,
+            // Jeton de continuation renvoyé par la page précédente (absent pour la première page)
+            @RequestParam(value = "after", required = false) String after,
+            // Nombre d'éléments par page (20 par défaut, 100 au maximum)
+            @RequestParam(value = "size", defaultValue = "20") Integer size) {
+
+        KeysetPageDTO<SearchHitDTO> keysetPage = appointmentService.searchAppointmentsByAfpaCenter(idAfpaCenter, query, after, size);
+        return ResponseEntity.ok(keysetPage);
+    }
+
+
+    // Endpoint pour récupérer les prochains créneaux libres des intendants d'un centre Afpa
+    @GetMapping("/afpa-center/{idAfpaCenter}/free-slots")
+    @Operation(summary = "Get next free appointment slots by Afpa Center")
+    public ResponseEntity<List<AppointmentSlotDTO>> getFreeSlotsByAfpaCenter(
+            @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+            // Date/heure de début de la recherche (format "dd/MM/yyyy HH:mm"), maintenant par défaut
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "dd/MM/yyyy HH:mm") LocalDateTime from,
+            // Nombre de créneaux (10 par défaut, 100 au maximum)
+            @RequestParam(value = "count", defaultValue = "10") Integer count) {
+
+        List<AppointmentSlotDTO> slots = appointmentService.getFreeSlotsByAfpaCenter(idAfpaCenter, from, count);
+        return ResponseEntity.ok(slots);
+    }
 }
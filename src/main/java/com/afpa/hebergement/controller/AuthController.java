@@ -8,25 +8,35 @@ import com.afpa.hebergement.model.entity.Role;
 import com.afpa.hebergement.model.enum_role.RoleType;
 import com.afpa.hebergement.model.repository.*;
 import com.afpa.hebergement.security.jwt.JwtUtils;
+import com.afpa.hebergement.security.password.LoginThrottle;
 import com.afpa.hebergement.model.payload.request.LoginRequest;
+import com.afpa.hebergement.model.payload.request.RefreshTokenRequest;
 import com.afpa.hebergement.model.payload.request.SignupRequest;
 import com.afpa.hebergement.model.payload.response.JwtResponse;
 import com.afpa.hebergement.model.payload.response.MessageResponse;
 import com.afpa.hebergement.security.service.UserDetailsImpl;
+import com.afpa.hebergement.security.service.UserDetailsServiceImpl;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Objects;
 
 @CrossOrigin(origins = "*", maxAge = 1800)
 @RestController
@@ -37,31 +47,98 @@ public class AuthController {
     AuthenticationManager authManager;
     private static final String ROLE_NOT_FOUND = "Error : role not found";
     AppUserRepository appUserRepository;
-    CivilityRepository civilityRepository;
     ContactPersonRepository contactRepo;
-    RoleRepository roleRepository;
     AfpaCenterRepository centerRepo;
     CityRepository cityRepo;
     PasswordEncoder encoder;
     IntendantRepository intendantRepository;
+    ReferenceDataRegistry referenceDataRegistry;
 
     JwtUtils jwtUtils;
+    UserDetailsServiceImpl userDetailsService;
+    LoginThrottle loginThrottle;
 
     @PostMapping("/signin")
     public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        Authentication authentication = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getNumber(), loginRequest.getPassword()));
+        // Numéro bloqué après trop d'échecs : refus immédiat, sans calcul de hachage
+        long blockedForSeconds = loginThrottle.blockedForSeconds(loginRequest.getNumber());
+        if (blockedForSeconds > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(blockedForSeconds))
+                    .build();
+        }
+
+        Authentication authentication;
+        try {
+            authentication = authManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getNumber(), loginRequest.getPassword()));
+        } catch (BadCredentialsException e) {
+            loginThrottle.recordFailure(loginRequest.getNumber());
+            throw e;
+        }
+        loginThrottle.recordSuccess(loginRequest.getNumber());
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateToken(authentication);
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        return ResponseEntity.ok(buildJwtResponse(userDetails));
+    }
+
+
+    // Échange un jeton de rafraîchissement valide contre un nouveau jeton d'accès et un nouveau jeton de rafraîchissement
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        Claims claims = jwtUtils.parseRefreshToken(refreshTokenRequest.getRefreshToken());
+        if (claims == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        // Le principal est relu en base : un rôle ou un centre modifié est pris en compte au rafraîchissement
+        UserDetailsImpl userDetails;
+        try {
+            userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!Objects.equals(userDetails.getId(), claims.get(JwtUtils.CLAIM_USER_ID, Integer.class))) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        // Rotation : l'ancien jeton de rafraîchissement ne peut servir qu'une fois
+        jwtUtils.revoke(claims);
+        return ResponseEntity.ok(buildJwtResponse(userDetails));
+    }
+
+
+    // Révoque le jeton d'accès courant et le jeton de rafraîchissement fourni
+    @PostMapping("/logout")
+    public ResponseEntity<MessageResponse> logout(@RequestBody(required = false) RefreshTokenRequest refreshTokenRequest,
+                                                  @RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            Claims accessClaims = jwtUtils.parseAccessToken(authorization.substring(7));
+            if (accessClaims != null) {
+                jwtUtils.revoke(accessClaims);
+            }
+        }
+        if (refreshTokenRequest != null && refreshTokenRequest.getRefreshToken() != null) {
+            Claims refreshClaims = jwtUtils.parseRefreshToken(refreshTokenRequest.getRefreshToken());
+            if (refreshClaims != null) {
+                jwtUtils.revoke(refreshClaims);
+            }
+        }
+        return ResponseEntity.ok(new MessageResponse("User logged out successfully!"));
+    }
+
+
+    private JwtResponse buildJwtResponse(UserDetailsImpl userDetails) {
         List<String> roles = userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
-        return ResponseEntity.ok(new JwtResponse(jwt,
+        return new JwtResponse(jwtUtils.generateAccessToken(userDetails),
+                jwtUtils.generateRefreshToken(userDetails),
+                jwtUtils.getAccessTokenLifetimeSeconds(),
                 userDetails.getId(),
                 userDetails.getBeneficiaryNumber(),
                 userDetails.getEmail(),
                 userDetails.getIdAfpaCenter(),
                 roles
-        ));
+        );
     }
 
 
@@ -83,28 +160,28 @@ public class AuthController {
         AppUser user = new AppUser(signUpRequest.getFirstName(), signUpRequest.getName(), LocalDate.parse(signUpRequest.getBirthdate(), DateTimeFormatter.ofPattern("dd-MM-yyyy")), signUpRequest.getBirthPlace(), signUpRequest.getNumber(), signUpRequest.getEmail(), encoder.encode(signUpRequest.getPassword()));
         user.setIdAfpaCenter(centerRepo.findById(signUpRequest.getIdCenter()).orElseThrow(() -> new NoContentException("No Center found")));
         user.setIdCity(cityRepo.findByInseeCodeAndPostcode(signUpRequest.getInseeCode(), signUpRequest.getPostCode()).orElseThrow(() -> new NoContentException("No city found")));
-        user.setIdCivility(civilityRepository.findById(signUpRequest.getCivility()).orElseThrow(() -> new NoContentException("Civility not found")));
+        user.setIdCivility(referenceDataRegistry.civilities().findById(signUpRequest.getCivility()).orElseThrow(() -> new NoContentException("Civility not found")));
         user.setRegistrationDate(LocalDate.now());
         user.setIdContactPerson(contactRepo.findById(signUpRequest.getIdContactPerson()).orElseThrow(() -> new NoContentException("Contact not found ")));
         user.setIsBlacklisted(false);
         user.setPhoneNumber(signUpRequest.getPhone());
         user.setAddressUser(signUpRequest.getAddress());
 
-        Role strRoles = roleRepository.findByWordingRole(RoleType.valueOf(signUpRequest.getRole())).orElseThrow(() -> new NoContentException("No such role"));
+        Role strRoles = referenceDataRegistry.roles().findByWording(RoleType.valueOf(signUpRequest.getRole()).name()).orElseThrow(() -> new NoContentException("No such role"));
         Role roles;
 
         if (strRoles == null) {
 
-            roles = roleRepository.findByWordingRole(RoleType.ROLE_USER).orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND));
+            roles = referenceDataRegistry.roles().findByWording(RoleType.ROLE_USER.name()).orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND));
         } else {
 
             roles = switch (strRoles.getWordingRole()) {
                 case ROLE_INTENDANT ->
-                        roleRepository.findByWordingRole(RoleType.ROLE_INTENDANT).orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND));
+                        referenceDataRegistry.roles().findByWording(RoleType.ROLE_INTENDANT.name()).orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND));
                 case ROLE_ADMIN ->
-                        roleRepository.findByWordingRole(RoleType.ROLE_ADMIN).orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND));
+                        referenceDataRegistry.roles().findByWording(RoleType.ROLE_ADMIN.name()).orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND));
                 default ->
-                        roleRepository.findByWordingRole(RoleType.ROLE_USER).orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND));
+                        referenceDataRegistry.roles().findByWording(RoleType.ROLE_USER.name()).orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND));
             };
 
         }
@@ -2,15 +2,22 @@ package com.afpa.hebergement.controller;
 
 import com.afpa.hebergement.model.dto.BillDTO;
 import com.afpa.hebergement.model.dto.BillFormDTO;
+import com.afpa.hebergement.service.download.FileDownloader;
 import com.afpa.hebergement.service.entity_service.BillService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.hibernate.annotations.View;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Optional;
 
 @AllArgsConstructor
@@ -20,6 +27,7 @@ import java.util.Optional;
 public class BillController {
 
     private final BillService billService;
+    private final FileDownloader fileDownloader;
 
     // Endpoint pour créer une nouvelle facture
     @PostMapping("/create")
@@ -40,6 +48,20 @@ public class BillController {
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
+    // Endpoint pour télécharger le PDF d'une facture (plages et requêtes conditionnelles gérées par le FileDownloader)
+    // Tant que le PDF est en cours de rendu, répond 202 (Accepted) avec un délai avant de réessayer
+    @GetMapping("/{id}/pdf")
+    public void downloadBillPdf(@PathVariable("id") Integer id,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<Path> pdf = billService.getPdfPath(id);
+        if (pdf.isEmpty()) {
+            response.setStatus(HttpStatus.ACCEPTED.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "2");
+            return;
+        }
+        fileDownloader.send(pdf.get(), pdf.get().getFileName().toString(), MediaType.APPLICATION_PDF, request, response);
+    }
+
     // Endpoint pour supprimer une facture par son ID
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<HttpStatus> deleteBill(@PathVariable("id") Integer id){
@@ -0,0 +1,46 @@
+package com.afpa.hebergement.controller;
+
+import com.afpa.hebergement.model.dto.BillingRunDTO;
+import com.afpa.hebergement.model.dto.BillingRunFormDTO;
+import com.afpa.hebergement.service.billing_run.BillingRunner;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+
+@Tag(name = "Billing Run", description = "Endpoints to bill every active lease contract for a month")
+@RestController
+@RequestMapping("/api/factures/runs")
+@AllArgsConstructor
+public class BillingRunController {
+
+    private final BillingRunner billingRunner;
+
+
+    // Endpoint pour lancer la facturation d'un mois, pour un centre ou pour tous les centres
+    @PostMapping
+    @Operation(summary = "Bill every active lease contract for a month (runs in the background)")
+    public ResponseEntity<BillingRunDTO> startRun(@Valid @RequestBody BillingRunFormDTO billingRunFormDTO) {
+        BillingRunDTO run = billingRunner.start(billingRunFormDTO);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{runId}")
+                .buildAndExpand(run.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(run);
+    }
+
+
+    // Endpoint pour suivre l'avancement et le bilan d'une facturation
+    @GetMapping("/{runId}")
+    @Operation(summary = "Get the progress and report of a billing run")
+    public ResponseEntity<BillingRunDTO> getRun(@PathVariable("runId") Long runId) {
+        return ResponseEntity.ok(billingRunner.getRun(runId));
+    }
+
+}
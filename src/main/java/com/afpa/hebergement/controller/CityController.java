@@ -1,6 +1,7 @@
 package com.afpa.hebergement.controller;
 
 import com.afpa.hebergement.model.dto.CityDTO;
+import com.afpa.hebergement.model.dto.CitySuggestionDTO;
 import com.afpa.hebergement.service.entity_service.CityService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,6 +10,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -48,4 +50,17 @@ public class CityController {
         return cityDtoOptional.map(cityDto -> new ResponseEntity<>(cityDto, HttpStatus.OK))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
+
+    /**
+     * Autocomplétion des villes pour les formulaires d'inscription et d'utilisateur.
+     * @param query Le début du nom de la ville ou du code postal.
+     * @param limit Le nombre maximal de villes renvoyées (10 par défaut, 50 au plus).
+     * @return Une réponse HTTP avec les villes trouvées, leur département et leur région, et un statut HTTP 200 (OK).
+     */
+    @Operation(description = "Autocomplete cities by name or postcode prefix")
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<CitySuggestionDTO>> autocomplete(@RequestParam("q") String query,
+                                                                @RequestParam(value = "limit", required = false) Integer limit) {
+        return new ResponseEntity<>(cityService.autocomplete(query, limit), HttpStatus.OK);
+    }
 }
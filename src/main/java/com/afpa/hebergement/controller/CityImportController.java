@@ -0,0 +1,46 @@
+package com.afpa.hebergement.controller;
+
+import com.afpa.hebergement.model.dto.CityImportJobDTO;
+import com.afpa.hebergement.service.city_import.CityImporter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+
+
+@Tag(name = "City Import", description = "Endpoints to import the official cities, departments and regions file")
+@RestController
+@RequestMapping("/api/cities/import")
+@AllArgsConstructor
+public class CityImportController {
+
+    private final CityImporter cityImporter;
+
+
+    // Endpoint pour lancer l'import : le fichier CSV est envoyé tel quel dans le corps de la requête
+    @PostMapping(consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    @Operation(summary = "Import cities, departments and regions from a CSV file (runs in the background)")
+    public ResponseEntity<CityImportJobDTO> startImport(HttpServletRequest request) throws IOException {
+        CityImportJobDTO job = cityImporter.start(request.getInputStream());
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{jobId}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+
+    // Endpoint pour suivre l'avancement d'un import
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get the progress of a city import")
+    public ResponseEntity<CityImportJobDTO> getImport(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(cityImporter.getJob(jobId));
+    }
+
+}
@@ -2,21 +2,25 @@ package com.afpa.hebergement.controller;
 
 import com.afpa.hebergement.exception.InternalServerException;
 import com.afpa.hebergement.model.dto.DocumentCenterDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
 import com.afpa.hebergement.service.entity_service.DocumentCenterService;
-import com.afpa.hebergement.util.FileUtil;
+import com.afpa.hebergement.service.download.FileDownloader;
+import com.afpa.hebergement.service.storage.DocumentContentStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaTypeFactory;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +34,8 @@ import java.util.Optional;
 public class DocumentCenterController {
 
     private final DocumentCenterService documentCenterService;
+    private final DocumentContentStore documentContentStore;
+    private final FileDownloader fileDownloader;
 
     /**
      * Endpoint pour télécharger un fichier et retourner les informations du document du centre.
@@ -75,35 +81,22 @@ public class DocumentCenterController {
     /**
      * Endpoint pour télécharger un fichier à partir de son identifiant.
      *
+     * Gère les téléchargements par plages (Range) et les requêtes conditionnelles (304).
+     *
      * @param id L'identifiant du document
-     * @return Le fichier en tant que ressource et les informations de réponse appropriées
      */
     @Operation(description = "Download a file and returns the document center information")
     @GetMapping("/downloadFile/{id}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable("id") Integer id) {
-        Resource resource = null;
-        String fileCode = null;
-        try {
-            Optional<DocumentCenterDTO> documentCenterDto = documentCenterService.getById(id);
-            if (documentCenterDto.isPresent()) {
-                fileCode = documentCenterDto.get().getDocumentCode();
-            } else {
-                throw new InternalServerException("An error occurred.");
-            }
-            // Obtient le fichier en tant que ressource à partir du code du fichier
-            resource = FileUtil.getFileAsResource(fileCode);
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
-        }
-
-        String contentType = "application/octet-stream";
-        String headerValue = "attachment; filename=\"" + resource.getFilename() + "\"";
-
-        // Retourne le fichier avec les informations appropriées pour le téléchargement
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, headerValue)
-                .body(resource);
+    public void downloadFile(@PathVariable("id") Integer id,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DocumentCenterDTO documentCenterDto = documentCenterService.getById(id)
+                .orElseThrow(() -> new InternalServerException("An error occurred."));
+
+        // Envoie le contenu du document (plages, ETag et 304 gérés par le FileDownloader) ; son empreinte sert d'ETag
+        String fileName = documentCenterDto.getDocumentName();
+        Path file = documentContentStore.getFile(documentCenterDto.getContentDigest(), documentCenterDto.getDocumentCode());
+        fileDownloader.send(file, documentCenterDto.getContentDigest(), fileName,
+                MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM), request, response);
     }
 
     @Operation(description = "Get all documents by pagination")
@@ -174,4 +167,21 @@ public class DocumentCenterController {
         documentCenterService.deleteById(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+
+    // Endpoint pour récupérer les documents par centre Afpa par curseur (défilement infini), sans OFFSET
+    @GetMapping("/documents/{id}/scroll")
+    @Operation(summary = "Get documents by Afpa Center with cursor pagination")
+    public ResponseEntity<KeysetPageDTO<DocumentCenterDTO>> getAllByAfpaCenterScroll(
+            @PathVariable("id") Integer idAfpaCenter,
+            // Jeton de continuation renvoyé par la page précédente (absent pour la première page)
+            @RequestParam(value = "after", required = false) String after,
+            // Nombre d'éléments par page (20 par défaut, 100 au maximum)
+            @RequestParam(value = "size", defaultValue = "20") Integer size,
+            // Comptage total des éléments (requête supplémentaire), désactivé par défaut
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+
+        KeysetPageDTO<DocumentCenterDTO> keysetPage = documentCenterService.scrollByAfpaCenter(idAfpaCenter, after, size, count);
+        return ResponseEntity.ok(keysetPage);
+    }
 }
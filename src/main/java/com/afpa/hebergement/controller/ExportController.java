@@ -0,0 +1,73 @@
+package com.afpa.hebergement.controller;
+
+import com.afpa.hebergement.service.export.CenterExporter;
+import com.afpa.hebergement.service.export.ExportFormat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+
+@Tag(name = "Export", description = "Endpoints to export Afpa Center data as CSV or NDJSON")
+@RestController
+@RequestMapping("/api/exports")
+@AllArgsConstructor
+public class ExportController {
+
+    private final CenterExporter centerExporter;
+
+
+    // Endpoint pour exporter les utilisateurs d'un centre Afpa
+    @GetMapping("/afpa-center/{idAfpaCenter}/users")
+    @Operation(summary = "Export users by Afpa Center (format=csv or ndjson)")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@PathVariable("idAfpaCenter") Integer idAfpaCenter,
+                                                             @RequestParam(value = "format", defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        // Vérifie le centre avant d'écrire la réponse, les lignes sont ensuite écrites au fil de la lecture
+        centerExporter.checkAfpaCenter(idAfpaCenter);
+        return stream("users-" + idAfpaCenter, exportFormat,
+                outputStream -> centerExporter.exportUsers(idAfpaCenter, exportFormat, outputStream));
+    }
+
+
+    // Endpoint pour exporter les réservations d'un centre Afpa
+    @GetMapping("/afpa-center/{idAfpaCenter}/reservations")
+    @Operation(summary = "Export reservations by Afpa Center (format=csv or ndjson)")
+    public ResponseEntity<StreamingResponseBody> exportReservations(@PathVariable("idAfpaCenter") Integer idAfpaCenter,
+                                                                    @RequestParam(value = "format", defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        centerExporter.checkAfpaCenter(idAfpaCenter);
+        return stream("reservations-" + idAfpaCenter, exportFormat,
+                outputStream -> centerExporter.exportReservations(idAfpaCenter, exportFormat, outputStream));
+    }
+
+
+    // Endpoint pour exporter les contrats de bail d'un centre Afpa
+    @GetMapping("/afpa-center/{idAfpaCenter}/lease-contracts")
+    @Operation(summary = "Export lease contracts by Afpa Center (format=csv or ndjson)")
+    public ResponseEntity<StreamingResponseBody> exportLeaseContracts(@PathVariable("idAfpaCenter") Integer idAfpaCenter,
+                                                                      @RequestParam(value = "format", defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        centerExporter.checkAfpaCenter(idAfpaCenter);
+        return stream("lease-contracts-" + idAfpaCenter, exportFormat,
+                outputStream -> centerExporter.exportLeaseContracts(idAfpaCenter, exportFormat, outputStream));
+    }
+
+
+    // Réponse en pièce jointe, écrite de manière asynchrone sans être mise en mémoire
+    private static ResponseEntity<StreamingResponseBody> stream(String fileName, ExportFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(fileName + "." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+}
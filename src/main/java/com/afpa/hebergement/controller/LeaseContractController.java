@@ -3,15 +3,23 @@ package com.afpa.hebergement.controller;
 import com.afpa.hebergement.model.dto.LeaseContractDTO;
 import com.afpa.hebergement.model.dto.LeaseContractFormDTO;
 import com.afpa.hebergement.service.entity_service.LeaseContractService;
+import com.afpa.hebergement.service.lease_document.LeaseDocument;
+import com.afpa.hebergement.service.lease_document.LeaseDocumentFormat;
+import com.afpa.hebergement.service.lease_document.LeaseDocumentRenderer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +33,7 @@ public class LeaseContractController {
 
 
     private final LeaseContractService leaseContractService;
+    private final LeaseDocumentRenderer leaseDocumentRenderer;
 
 
     // Endpoint pour créer un nouveau contrat de bail
@@ -61,6 +70,25 @@ public class LeaseContractController {
     }
 
 
+    // Endpoint pour télécharger le contrat de bail rempli (format=docx ou pdf), rendu une fois puis servi depuis le cache
+    // L'ETag permet au client de ne pas retélécharger un contrat inchangé (réponse 304)
+    @GetMapping("/{id}/document")
+    @Operation(summary = "Download the filled lease contract document (format=docx or pdf)")
+    public ResponseEntity<byte[]> getLeaseContractDocument(@PathVariable("id") Integer id,
+                                                           @RequestParam(value = "format", defaultValue = "docx") String format) {
+        LeaseDocument document = leaseDocumentRenderer.render(id, LeaseDocumentFormat.fromParameter(format));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(document.format().getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(document.fileName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(document.etag())
+                .body(document.content());
+    }
+
+
     // Endpoint pour supprimer un contrat de location par son ID
     @DeleteMapping("/delete/{id}")
     @Operation(summary = "Delete LeaseContract by ID")
@@ -2,15 +2,22 @@ package com.afpa.hebergement.controller;
 
 
 import com.afpa.hebergement.model.dto.MessageDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
+import com.afpa.hebergement.model.dto.SearchHitDTO;
+import com.afpa.hebergement.security.service.UserDetailsImpl;
 import com.afpa.hebergement.service.entity_service.MessageService;
+import com.afpa.hebergement.service.message_stream.MessageStreamHub;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +29,7 @@ import java.util.Optional;
 public class MessageController {
 
     private final MessageService messageService;
+    private final MessageStreamHub messageStreamHub;
 
 
     // Endpoint pour créer un nouveau message
@@ -109,5 +117,51 @@ public class MessageController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
-}
 
+    // Endpoint pour récupérer les messages par centre Afpa par curseur (défilement infini), sans OFFSET
+    @GetMapping("/afpa-center/{idAfpaCenter}/scroll")
+    @Operation(summary = "Get messages by Afpa Center with cursor pagination")
+    public ResponseEntity<KeysetPageDTO<MessageDTO>> getMessagesByAfpaCenterScroll(
+            @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+            // Jeton de continuation renvoyé par la page précédente (absent pour la première page)
+            @RequestParam(value = "after", required = false) String after,
+            // Nombre d'éléments par page (20 par défaut, 100 au maximum)
+            @RequestParam(value = "size", defaultValue = "20") Integer size,
+            // Comptage total des éléments (requête supplémentaire), désactivé par défaut
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+
+        KeysetPageDTO<MessageDTO> keysetPage = messageService.scrollMessagesByAfpaCenter(idAfpaCenter, after, size, count);
+        return ResponseEntity.ok(keysetPage);
+    }
+
+    // Endpoint de recherche plein texte des messages d'un centre Afpa, classés par pertinence, avec extraits surlignés
+    @GetMapping("/afpa-center/{idAfpaCenter}/search")
+    @Operation(summary = "Full-text search messages by Afpa Center, ranked with highlighted excerpts")
+    public ResponseEntity<KeysetPageDTO<SearchHitDTO>> searchMessagesByAfpaCenter(
+            @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+            // Texte recherché : mots, "expression exacte", OR, -exclusion (200 caractères au maximum)
+            @RequestParam("q") String query,
+            // Jeton de continuation renvoyé par la page précédente (absent pour la première page)
+            @RequestParam(value = "after", required = false) String after,
+            // Nombre d'éléments par page (20 par défaut, 100 au maximum)
+            @RequestParam(value = "size", defaultValue = "20") Integer size) {
+
+        KeysetPageDTO<SearchHitDTO> keysetPage = messageService.searchMessagesByAfpaCenter(idAfpaCenter, query, after, size);
+        return ResponseEntity.ok(keysetPage);
+    }
+
+
+    // Endpoint de flux des nouveaux messages de l'utilisateur connecté (locataire ou intendant), en Server-Sent Events
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream new messages of the authenticated user (Server-Sent Events)")
+    public SseEmitter streamMessages(
+            @AuthenticationPrincipal UserDetailsImpl principal,
+            // ID du dernier message reçu, envoyé automatiquement par EventSource à la reconnexion
+            @RequestHeader(value = "Last-Event-ID", required = false) Integer lastEventIdHeader,
+            // Même valeur en paramètre, pour une première connexion après lecture de la liste des messages
+            @RequestParam(value = "lastEventId", required = false) Integer lastEventId) {
+
+        // L'en-tête de reconnexion est prioritaire sur le paramètre de la première connexion
+        return messageStreamHub.subscribe(principal.getId(), lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+}
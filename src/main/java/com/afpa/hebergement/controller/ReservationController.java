@@ -1,5 +1,6 @@
 package com.afpa.hebergement.controller;
 
+import com.afpa.hebergement.model.dto.ReservationBatchResultDTO;
 import com.afpa.hebergement.model.dto.ReservationDTO;
 import com.afpa.hebergement.service.entity_service.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -45,6 +46,17 @@ public class ReservationController {
     }
 
 
+    // Endpoint pour créer un lot de réservations (rentrée d'une session de formation)
+    @PostMapping("/create/batch")
+    @Operation(summary = "Create a batch of reservations")
+    public ResponseEntity<List<ReservationBatchResultDTO>> createReservations(@RequestBody List<ReservationDTO> reservationDtos) {
+        // Appel du service pour créer les réservations du lot, chacune avec son propre résultat
+        List<ReservationBatchResultDTO> results = reservationService.createBatch(reservationDtos);
+        // Retourne le résultat de chaque réservation avec un statut HTTP 200 (OK)
+        return ResponseEntity.ok(results);
+    }
+
+
     // Endpoint pour récupérer les réservations par centre Afpa
     @GetMapping("/afpa-center/{idAfpaCenter}")
     @Operation(summary = "Get reservations by Afpa Center")
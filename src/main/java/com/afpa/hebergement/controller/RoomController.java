@@ -8,10 +8,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -77,20 +79,28 @@ public class RoomController {
     }
 
 
-    // Endpoint pour récupérer les chambres réservées par centre Afpa
+    // Endpoint pour récupérer les chambres réservées par centre Afpa (aujourd'hui, ou au jour donné dd/MM/yyyy)
     @GetMapping("/reserved/afpa-center/{idAfpaCenter}")
     @Operation(summary = "Get reserved rooms by Afpa Center")
-    public ResponseEntity<List<RoomDTO>> getRoomByReservationAndAfpaCenter(@PathVariable("idAfpaCenter") Integer idAfpaCenter) {
-        List<RoomDTO> rooms = roomService.getByReservedRoomAndIdAfpaCenter(idAfpaCenter);
+    public ResponseEntity<List<RoomDTO>> getRoomByReservationAndAfpaCenter(
+            @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate date) {
+        List<RoomDTO> rooms = date == null
+                ? roomService.getByReservedRoomAndIdAfpaCenter(idAfpaCenter)
+                : roomService.getByReservedRoomAndIdAfpaCenter(idAfpaCenter, date);
         return ResponseEntity.ok(rooms);
     }
 
 
-    // Endpoint pour récupérer les chambres libres par centre Afpa
+    // Endpoint pour récupérer les chambres libres par centre Afpa (aujourd'hui, ou au jour donné dd/MM/yyyy)
     @GetMapping("/available/afpa-center/{idAfpaCenter}")
     @Operation(summary = "Get available rooms by Afpa Center")
-    public ResponseEntity<List<RoomDTO>> getRoomByAvailabilityAndAfpaCenter(@PathVariable("idAfpaCenter") Integer idAfpaCenter) {
-        List<RoomDTO> rooms = roomService.getByAvailableRoomAndIdAfpaCenter(idAfpaCenter);
+    public ResponseEntity<List<RoomDTO>> getRoomByAvailabilityAndAfpaCenter(
+            @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate date) {
+        List<RoomDTO> rooms = date == null
+                ? roomService.getByAvailableRoomAndIdAfpaCenter(idAfpaCenter)
+                : roomService.getByAvailableRoomAndIdAfpaCenter(idAfpaCenter, date);
         return ResponseEntity.ok(rooms);
     }
 
@@ -103,6 +113,32 @@ public class RoomController {
     }
 
 
+    // Endpoint pour récupérer les chambres louées (contrat de bail) par centre Afpa (aujourd'hui, ou au jour donné dd/MM/yyyy)
+    @GetMapping("/leased/afpa-center/{idAfpaCenter}")
+    @Operation(summary = "Get leased rooms by Afpa Center")
+    public ResponseEntity<List<RoomDTO>> getByLeasedRoomAndAfpaCenter(
+            @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate date) {
+        List<RoomDTO> rooms = date == null
+                ? roomService.getByLeasedRoomAndIdAfpaCenter(idAfpaCenter)
+                : roomService.getByLeasedRoomAndIdAfpaCenter(idAfpaCenter, date);
+        return ResponseEntity.ok(rooms);
+    }
+
+
+    // Endpoint pour récupérer les chambres libres d'un centre Afpa entre deux dates (dd/MM/yyyy)
+    @GetMapping("/free/afpa-center/{idAfpaCenter}")
+    @Operation(summary = "Get free rooms by Afpa Center for a date range")
+    public ResponseEntity<List<RoomDTO>> getFreeRoomsByAfpaCenter(
+            @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+            @RequestParam("startDate") @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate endDate) {
+        // Appel du service pour obtenir les chambres libres sur la période
+        List<RoomDTO> rooms = roomService.getFreeRoomsByAfpaCenter(idAfpaCenter, startDate, endDate);
+        return ResponseEntity.ok(rooms);
+    }
+
+
     // Endpoint pour récupérer les chambres réservées aux femmes par centre Afpa
     @GetMapping("/women/afpa-center/{idAfpaCenter}")
     @Operation(summary = "Get rooms for women by Afpa Center")
@@ -1,6 +1,8 @@
 package com.afpa.hebergement.controller;
 
+import com.afpa.hebergement.model.dto.RoomAllocationResultDTO;
 import com.afpa.hebergement.model.dto.SessionFormationDTO;
+import com.afpa.hebergement.service.entity_service.RoomAllocationService;
 import com.afpa.hebergement.service.entity_service.SessionFormationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,6 +24,7 @@ import java.util.Optional;
 public class SessionFormationController {
 
     private final SessionFormationService sessionFormationService;
+    private final RoomAllocationService roomAllocationService;
 
 
     @PostMapping("/create")
@@ -57,4 +60,15 @@ public class SessionFormationController {
         Optional<SessionFormationDTO> updatedSessionFormationOpt = sessionFormationService.update(id, sessionFormationDTO);
         return updatedSessionFormationOpt.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.badRequest().build());
     }
+
+    // Attribue automatiquement les chambres d'un centre aux participants de la session et crée les réservations (simulation si dryRun)
+    @PostMapping("/{id}/allocate-rooms/afpa-center/{idAfpaCenter}/{idReservationMotive}")
+    @Operation(summary = "Allocate rooms to the participants of a SessionFormation")
+    public ResponseEntity<RoomAllocationResultDTO> allocateRooms(@PathVariable("id") Integer id,
+                                                                 @PathVariable("idAfpaCenter") Integer idAfpaCenter,
+                                                                 @PathVariable("idReservationMotive") Integer idReservationMotive,
+                                                                 @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun) {
+        RoomAllocationResultDTO allocation = roomAllocationService.allocateSession(id, idAfpaCenter, idReservationMotive, dryRun);
+        return ResponseEntity.ok(allocation);
+    }
 }
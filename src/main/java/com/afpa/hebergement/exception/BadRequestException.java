@@ -0,0 +1,23 @@
+package com.afpa.hebergement.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+
+/**
+ * Exception personnalisée pour gérer les paramètres de requête invalides.
+ * Renvoie un statut HTTP 400(Bad Request)
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends RuntimeException {
+
+
+    //constructeur prennant en parametre un message
+    public BadRequestException(String message) {
+
+        // Appel du constructeur de RuntimeException (parent) avec le message
+        super(message);
+    }
+
+}
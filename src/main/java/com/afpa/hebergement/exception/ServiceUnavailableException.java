@@ -0,0 +1,20 @@
+package com.afpa.hebergement.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception personnalisée pour gérer la saturation temporaire d'une ressource (ex : calcul des hachages de mot de passe).
+ * Renvoie un statut HTTP 503(service unavailable) : le client peut réessayer plus tard
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+
+    //constructeur prenant en paramètre un message
+    public ServiceUnavailableException(String message) {
+
+        // Appel du constructeur de RuntimeException (parent) avec le message
+        super(message);
+    }
+
+}
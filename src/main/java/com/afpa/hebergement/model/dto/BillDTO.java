@@ -1,6 +1,7 @@
 package com.afpa.hebergement.model.dto;
 
 import com.afpa.hebergement.model.entity.LeaseContract;
+import com.afpa.hebergement.model.enum_bill.BillPdfStatus;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -19,6 +20,7 @@ public class BillDTO {
     private LocalDate billDate;
     private Boolean isPayed = false;
     private LocalDate paymentDateBill;
+    private BillPdfStatus pdfStatus;
 
     //relation Many to One
     private LeaseContractDTO idLease;
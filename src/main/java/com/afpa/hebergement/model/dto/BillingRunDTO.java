@@ -0,0 +1,47 @@
+package com.afpa.hebergement.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+// État et bilan d'une exécution de la facturation en masse
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingRunDTO {
+
+    private Long id;
+
+    // Centre facturé, vide pour tous les centres
+    private Integer idAfpaCenter;
+
+    private YearMonth period;
+
+    // PENDING, RUNNING, COMPLETED ou FAILED
+    private String status;
+
+    // Contrats actifs sur le mois, dont ceux déjà facturés pour ce mois (par une exécution précédente)
+    private int leasesSelected;
+
+    private int leasesAlreadyBilled;
+
+    private int billsCreated;
+
+    // Contrats dont la facture n'a pas pu être créée : une nouvelle exécution les reprend
+    private int leasesFailed;
+
+    // Factures créées par seconde
+    private double billsPerSecond;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String error;
+
+}
@@ -0,0 +1,19 @@
+package com.afpa.hebergement.model.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.YearMonth;
+
+// Demande de facturation en masse : un mois ("2024-03"), pour un centre ou pour tous les centres
+@Getter
+@Setter
+public class BillingRunFormDTO {
+
+    private Integer idAfpaCenter;
+
+    @NotNull
+    private YearMonth period;
+
+}
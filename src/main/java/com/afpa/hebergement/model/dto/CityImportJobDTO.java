@@ -0,0 +1,48 @@
+package com.afpa.hebergement.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// État d'un import du fichier des communes (villes, départements, régions)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityImportJobDTO {
+
+    private String id;
+
+    // PENDING, RUNNING, COMPLETED ou FAILED
+    private String status;
+
+    // Lignes valides du fichier, connues après la première lecture
+    private Long totalRows;
+
+    // Lignes de villes déjà écrites
+    private long processedRows;
+
+    private int progressPercent;
+
+    private int regions;
+
+    private int departments;
+
+    // Villes ajoutées (les villes existantes sont mises à jour si leur nom ou leur département a changé)
+    private long citiesInserted;
+
+    // Lignes en double (même code INSEE et même code postal) et lignes incomplètes ou mal formées
+    private long duplicateRows;
+
+    private long rejectedRows;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String error;
+
+}
@@ -0,0 +1,29 @@
+package com.afpa.hebergement.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Ville proposée par l'autocomplétion, avec son département et sa région
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CitySuggestionDTO {
+
+    private Integer id;
+
+    private String cityName;
+
+    private String postcode;
+
+    private String inseeCode;
+
+    private String departmentCode;
+
+    private String departmentName;
+
+    private String regionName;
+
+}
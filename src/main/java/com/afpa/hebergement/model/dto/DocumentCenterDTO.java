@@ -14,6 +14,7 @@ public class DocumentCenterDTO {
     private Integer id;
     private String documentName;
     private String documentCode;
+    private String contentDigest;
 
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
     private LocalDate dateDepoDoc;
@@ -0,0 +1,27 @@
+package com.afpa.hebergement.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// Page d'une pagination par curseur (keyset) : le jeton "next" est à renvoyer dans le paramètre "after"
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDTO<T> {
+
+    private List<T> content;
+
+    // Jeton opaque de la page suivante, null sur la dernière page
+    private String next;
+
+    private boolean hasNext;
+
+    // Nombre total d'éléments, uniquement si demandé (count=true)
+    private Long totalElements;
+
+}
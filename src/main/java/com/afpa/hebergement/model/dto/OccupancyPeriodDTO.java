@@ -0,0 +1,27 @@
+package com.afpa.hebergement.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// Période d'occupation d'une chambre (réservation, contrat de bail ou travaux), lue pour l'index de disponibilité
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyPeriodDTO {
+
+    private Integer idRoom;
+
+    // ID de la réservation, du contrat de bail ou des travaux
+    private Integer sourceId;
+
+    private LocalDate startDate;
+
+    // Date de fin telle qu'enregistrée, vide si la période n'a pas de fin
+    private LocalDate endDate;
+
+}
@@ -0,0 +1,30 @@
+package com.afpa.hebergement.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Résultat de la création d'une réservation au sein d'un lot
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationBatchResultDTO {
+
+    public enum Status {
+        CREATED, INVALID, NOT_FOUND, CONFLICT
+    }
+
+    // Position de la réservation dans le lot envoyé
+    private Integer index;
+
+    private Status status;
+
+    // Réservation créée (statut CREATED uniquement)
+    private ReservationDTO reservation;
+
+    // Motif du refus (statuts INVALID, NOT_FOUND, CONFLICT)
+    private String message;
+
+}
@@ -34,6 +34,7 @@ public class ReservationDTO {
     //relation Many to One
     private RoomDTO idRoom; // Utilisation de l'ID de la chambre
     private ReservationMotiveDTO idReservationMotive; // Utilisation de l'ID du motif de réservation
+    private Integer idUser; // ID de l'occupant (facultatif)
 
 }
 
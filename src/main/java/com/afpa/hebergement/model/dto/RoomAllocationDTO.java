@@ -0,0 +1,22 @@
+package com.afpa.hebergement.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Chambre attribuée à un participant d'une session de formation
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomAllocationDTO {
+
+    private Integer idUser;
+    private String name;
+    private String firstname;
+    private Integer idRoom;
+    private String roomNumber;
+    private Integer numberFloor;
+
+}
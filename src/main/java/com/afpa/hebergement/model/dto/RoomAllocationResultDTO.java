@@ -0,0 +1,38 @@
+package com.afpa.hebergement.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Résultat de l'attribution automatique des chambres d'une session de formation
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomAllocationResultDTO {
+
+    private Integer idSession;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+    private LocalDate startDate;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
+    private LocalDate endDate;
+
+    private List<RoomAllocationDTO> allocations;
+
+    // Participants sans chambre disponible
+    private List<Integer> unplacedUserIds;
+
+    // Participants ayant déjà une réservation sur la période de la session
+    private List<Integer> alreadyReservedUserIds;
+
+    // Résultat de la création des réservations (vide en simulation)
+    private List<ReservationBatchResultDTO> reservations;
+
+}
@@ -0,0 +1,34 @@
+package com.afpa.hebergement.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Résultat d'une recherche plein texte (message ou rendez-vous), classé par pertinence
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHitDTO {
+
+    private Integer id;
+
+    // Date du message (à minuit) ou date/heure du rendez-vous
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy HH:mm")
+    private LocalDateTime date;
+
+    private Integer idUser;
+
+    private Integer idIntendant;
+
+    // Pertinence (ts_rank) : les résultats sont triés par rang décroissant
+    private Float rank;
+
+    // Extrait du texte, échappé en HTML, les termes trouvés entourés de <mark></mark>
+    private String headline;
+
+}
@@ -12,6 +12,27 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
+@NamedEntityGraph(
+        // Graphe de chargement des listes : utilisateur et intendant avec toutes les relations lues par les mappers
+        name = "Appointment.withUsers",
+        attributeNodes = {
+                @NamedAttributeNode(value = "idUser", subgraph = "user"),
+                @NamedAttributeNode(value = "idIntendant", subgraph = "intendant")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "intendant", attributeNodes = @NamedAttributeNode(value = "idUser", subgraph = "user")),
+                @NamedSubgraph(name = "user", attributeNodes = {
+                        @NamedAttributeNode("idRole"),
+                        @NamedAttributeNode("idCivility"),
+                        @NamedAttributeNode("idContactPerson"),
+                        @NamedAttributeNode(value = "idCity", subgraph = "city"),
+                        @NamedAttributeNode(value = "idAfpaCenter", subgraph = "center")
+                }),
+                @NamedSubgraph(name = "center", attributeNodes = @NamedAttributeNode(value = "idCity", subgraph = "city")),
+                @NamedSubgraph(name = "city", attributeNodes = @NamedAttributeNode(value = "idDepartment", subgraph = "department")),
+                @NamedSubgraph(name = "department", attributeNodes = @NamedAttributeNode("idRegion"))
+        }
+)
 @Table(name = "appointment")
 public class Appointment {
     @Id
@@ -39,4 +60,8 @@ public class Appointment {
     @JoinColumn(name = "id_user", nullable = false)
     private AppUser idUser;
 
+    // Centre Afpa de l'utilisateur, recopié par la base (trigger) pour la pagination par curseur d'un centre
+    @Column(name = "id_afpa_center", insertable = false, updatable = false)
+    private Integer afpaCenterId;
+
 }
\ No newline at end of file
@@ -3,12 +3,14 @@ package com.afpa.hebergement.model.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import com.afpa.hebergement.model.enum_bill.BillPdfStatus;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -43,6 +45,19 @@ public class Bill {
     @Column(name = "payment_date_bill")
     private LocalDate paymentDateBill;
 
+    // Mois facturé par la facturation en masse (premier jour du mois), vide pour une facture créée à l'unité
+    @Column(name = "billing_period")
+    private LocalDate billingPeriod;
+
+    // État du PDF, mis à jour par le rendu en arrière-plan
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "pdf_status", nullable = false, length = 10)
+    private BillPdfStatus pdfStatus = BillPdfStatus.PENDING;
+
+    @Column(name = "pdf_rendered_at")
+    private LocalDateTime pdfRenderedAt;
+
     @NotNull
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "id_lease", nullable = false)
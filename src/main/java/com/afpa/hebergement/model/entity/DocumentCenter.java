@@ -30,6 +30,11 @@ public class DocumentCenter {
     @Column(name = "document_code", nullable = false)
     private String documentCode;
 
+    // Empreinte SHA-256 du contenu partagé (table document_content), nulle pour un document antérieur stocké à son code
+    @Size(max = 64)
+    @Column(name = "content_digest", length = 64)
+    private String contentDigest;
+
     @NotNull
     @Column(name = "date_depo_doc", nullable = false)
     private LocalDate dateDepoDoc;
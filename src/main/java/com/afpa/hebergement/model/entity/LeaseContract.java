@@ -63,4 +63,9 @@ public class LeaseContract {
     @OneToMany(mappedBy = "idLease")
     private Set<WorkDemand> workDemands = new LinkedHashSet<>();
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
 }
\ No newline at end of file
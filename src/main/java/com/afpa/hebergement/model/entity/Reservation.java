@@ -14,7 +14,8 @@ import java.time.LocalDate;
 @Table(name = "reservation")
 public class Reservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_id_generator")
+    @SequenceGenerator(name = "reservation_id_generator", sequenceName = "reservation_id_reservation_seq", allocationSize = 50)
     @ColumnDefault("nextval('reservation_id_reservation_seq')")
     @Column(name = "id_reservation", nullable = false)
     private Integer id;
@@ -41,4 +42,14 @@ public class Reservation {
     @JoinColumn(name = "id_reservation_motive", nullable = false)
     private ReservationMotive idReservationMotive;
 
+    // Occupant de la chambre, renseigné par l'attribution des chambres d'une session (facultatif)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_user")
+    private AppUser idUser;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
 }
\ No newline at end of file
@@ -62,4 +62,9 @@ public class Room {
     @OneToMany(mappedBy = "idRoom")
     private Set<Work> works = new LinkedHashSet<>();
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.afpa.hebergement.model.entity;
+
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
+
+// Projection journalière de l'occupation des chambres (une ligne par jour et par réservation ou contrat de bail)
+// Alimentée dans la même transaction que les réservations et contrats, indexée par (centre, jour)
+@Getter
+@Setter
+@Entity
+@Table(name = "room_occupancy_day")
+public class RoomOccupancyDay {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ColumnDefault("nextval('room_occupancy_day_id_occupancy_day_seq')")
+    @Column(name = "id_occupancy_day", nullable = false)
+    private Long id;
+
+    @NotNull
+    @Column(name = "occupancy_day", nullable = false)
+    private LocalDate occupancyDay;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "occupancy_type", nullable = false, length = 20)
+    private OccupancyType occupancyType;
+
+    @NotNull
+    @Column(name = "id_source", nullable = false)
+    private Integer idSource;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id_room", nullable = false)
+    private Room idRoom;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "id_afpa_center", nullable = false)
+    private AfpaCenter idAfpaCenter;
+
+}
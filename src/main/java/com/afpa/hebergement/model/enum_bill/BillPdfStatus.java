@@ -0,0 +1,15 @@
+package com.afpa.hebergement.model.enum_bill;
+
+/**
+ * État du PDF d'une facture, rendu en arrière-plan après la création de la facture.
+ */
+public enum BillPdfStatus {
+
+    // Rendu en attente ou en cours
+    PENDING,
+    // PDF disponible au téléchargement
+    READY,
+    // Rendu abandonné après plusieurs échecs
+    FAILED
+
+}
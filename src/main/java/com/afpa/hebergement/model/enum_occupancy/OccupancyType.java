@@ -0,0 +1,12 @@
+package com.afpa.hebergement.model.enum_occupancy;
+
+/**
+ * Origine d'une période d'occupation d'une chambre dans le moteur de disponibilité.
+ */
+public enum OccupancyType {
+
+    RESERVATION,
+    LEASE,
+    WORK
+
+}
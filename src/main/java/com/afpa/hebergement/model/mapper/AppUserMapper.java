@@ -36,7 +36,8 @@ public class AppUserMapper {
         appUserDTO.setIdCivility(CivilityMapper.mapToCivilityDTO(appUser.getIdCivility()));
         appUserDTO.setIdCity(CityMapper.mapToCityDto(appUser.getIdCity()));
         appUserDTO.setIdAfpaCenter(AfpaCenterMapper.mapToAfpaCenterDto(appUser.getIdAfpaCenter()));
-        appUserDTO.setIdContactPerson(ContactPersonMapper.mapToContactPersonDto(appUser.getIdContactPerson()));
+        // personne à contacter facultative
+        appUserDTO.setIdContactPerson(appUser.getIdContactPerson() != null ? ContactPersonMapper.mapToContactPersonDto(appUser.getIdContactPerson()) : null);
 
         // Retourne le DTO AppUserDTO
         return appUserDTO;
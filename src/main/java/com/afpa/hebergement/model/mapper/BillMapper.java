@@ -24,6 +24,7 @@ public class BillMapper {
         billDTO.setBillDate(bill.getBillDate());
         billDTO.setIsPayed(bill.getIsPayed());
         billDTO.setPaymentDateBill(bill.getPaymentDateBill());
+        billDTO.setPdfStatus(bill.getPdfStatus());
 
         // Mappage de Many to One
         //billDTO.setIdLease(LeaseContractMapper.mapToLeaseContractDTO(bill.getIdLease()));
@@ -20,6 +20,7 @@ public class DocumentCenterMapper {
         documentCenterDTO.setId(documentCenter.getId());
         documentCenterDTO.setDocumentName(documentCenter.getDocumentName());
         documentCenterDTO.setDocumentCode(documentCenter.getDocumentCode());
+        documentCenterDTO.setContentDigest(documentCenter.getContentDigest());
         documentCenterDTO.setDateDepoDoc(documentCenter.getDateDepoDoc());
         if(documentCenter.getDocCommentary() != null){
             documentCenterDTO.setDocCommentary(documentCenter.getDocCommentary());
@@ -38,6 +39,7 @@ public class DocumentCenterMapper {
         documentCenter.setId(documentCenterDTO.getId());
         documentCenter.setDocumentName(documentCenterDTO.getDocumentName().toLowerCase().trim());
         documentCenter.setDocumentCode(documentCenterDTO.getDocumentCode().trim());
+        documentCenter.setContentDigest(documentCenterDTO.getContentDigest());
         documentCenter.setDateDepoDoc(documentCenterDTO.getDateDepoDoc());
         if(documentCenter.getDocCommentary() != null){
             documentCenter.setDocCommentary(documentCenterDTO.getDocCommentary());
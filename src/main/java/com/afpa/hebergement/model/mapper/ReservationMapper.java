@@ -24,6 +24,8 @@ public class ReservationMapper {
         //mappage des many to one
         reservationDTO.setIdRoom(RoomMapper.mapToRoomDTO(reservation.getIdRoom()));
         reservationDTO.setIdReservationMotive(ReservationMotiveMapper.mapToReservationMotiveDTO(reservation.getIdReservationMotive()));
+        // ID de l'occupant seul : lu sur la référence, sans charger l'utilisateur
+        reservationDTO.setIdUser(reservation.getIdUser() != null ? reservation.getIdUser().getId() : null);
 
         // Retourne le DTO ReservationDTO
         return reservationDTO;
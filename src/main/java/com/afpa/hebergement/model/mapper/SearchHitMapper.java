@@ -0,0 +1,24 @@
+package com.afpa.hebergement.model.mapper;
+
+
+import com.afpa.hebergement.model.dto.SearchHitDTO;
+import com.afpa.hebergement.model.repository.SearchHitRow;
+import com.afpa.hebergement.service.full_text_search.FullTextSearch;
+
+public class SearchHitMapper {
+
+
+    // Constructeur privé pour empêcher l'instanciation de cette classe
+    private SearchHitMapper() {
+
+    }
+
+
+    //Méthode pour mapper une ligne de résultat de recherche vers un DTO SearchHitDTO.
+    public static SearchHitDTO mapToSearchHitDTO(SearchHitRow row) {
+
+        return new SearchHitDTO(row.getId(), row.getDate(), row.getIdUser(), row.getIdIntendant(), row.getRank(),
+                FullTextSearch.highlight(row.getHeadline()));
+    }
+
+}
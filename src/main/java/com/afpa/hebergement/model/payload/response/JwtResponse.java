@@ -16,6 +16,9 @@ public class JwtResponse {
     private String email;
     private Integer centerId;
     private List<String> roles;
+    private String refreshToken;
+    // Durée de vie du jeton d'accès, en secondes
+    private Long expiresIn;
 
     public JwtResponse(String accessToken, Integer id, String number, String email,Integer centerId, List<String> roles) {
         this.token = accessToken;
@@ -26,4 +29,10 @@ public class JwtResponse {
         this.centerId = centerId;
     }
 
+    public JwtResponse(String accessToken, String refreshToken, Long expiresIn, Integer id, String number, String email, Integer centerId, List<String> roles) {
+        this(accessToken, id, number, email, centerId, roles);
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.afpa.hebergement.model.repository;
 import com.afpa.hebergement.model.entity.AppService;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +13,7 @@ public interface AppServiceRepository extends JpaRepository<AppService, Integer>
 
     //rechercher un service par son nom de service
     Optional<AppService> findByWordingService(String serviceName);
+
+    //rechercher des services par leurs noms de service, en une seule requête
+    List<AppService> findByWordingServiceIn(Collection<String> serviceNames);
 }
@@ -3,14 +3,22 @@ package com.afpa.hebergement.model.repository;
 import com.afpa.hebergement.model.entity.AfpaCenter;
 import com.afpa.hebergement.model.entity.AppUser;
 import com.afpa.hebergement.model.entity.SessionFormation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 public interface AppUserRepository extends JpaRepository<AppUser, Integer> {
 
@@ -21,9 +29,11 @@ public interface AppUserRepository extends JpaRepository<AppUser, Integer> {
     Optional<AppUser> findByBeneficiaryNumber(String beneficiaryNumber);
 
     //recherche d'un utilisateur par son centre afpa
+    @EntityGraph(attributePaths = {"idRole", "idCivility", "idCity.idDepartment.idRegion", "idAfpaCenter.idCity.idDepartment.idRegion", "idContactPerson"})
     List<AppUser> findByIdAfpaCenter(AfpaCenter idAfpaCenter);
 
     //rechercher tous les users par centre afpa avec pagination
+    @EntityGraph(attributePaths = {"idRole", "idCivility", "idCity.idDepartment.idRegion", "idAfpaCenter.idCity.idDepartment.idRegion", "idContactPerson"})
     Page<AppUser> findByIdAfpaCenter(AfpaCenter afpaCenter, Pageable pageable);
 
     //rechercher un utilisateur par son email
@@ -32,6 +42,35 @@ public interface AppUserRepository extends JpaRepository<AppUser, Integer> {
     //rechercher un utilisateur par son nom, prénom, date de naissance
     Optional<AppUser> findByNameAndFirstnameAndBirthdate(String name, String firstname, LocalDate birthdate);
 
+    //rechercher en une seule requête le contexte de création d'un contrat de bail : l'utilisateur avec ses relations,
+    //le centre afpa par son nom, la chambre par son numéro dans ce centre (avec étage et centre), le loyer par fréquence
+    //et la formation de la dernière session de l'utilisateur (jointures gauches : null si absent) ; la civilité, la ville
+    //et le centre de l'utilisateur sont obligatoires (nullable = false) et lus par jointure interne
+    @Query("SELECT u AS user, c.id AS idAfpaCenter, r AS room, rent AS rent, f.formationName AS formationName " +
+            "FROM AppUser u " +
+            "JOIN FETCH u.idRole " +
+            "JOIN FETCH u.idCivility " +
+            "JOIN FETCH u.idCity uc JOIN FETCH uc.idDepartment ud JOIN FETCH ud.idRegion " +
+            "JOIN FETCH u.idAfpaCenter ua JOIN FETCH ua.idCity uac JOIN FETCH uac.idDepartment uad JOIN FETCH uad.idRegion " +
+            "LEFT JOIN FETCH u.idContactPerson " +
+            "LEFT JOIN AfpaCenter c ON c.centerName = :centerName " +
+            "LEFT JOIN Room r ON r.roomNumber = :roomNumber AND r.idFloor.id IN (SELECT fl.id FROM Floor fl WHERE fl.idAfpaCenter.id = c.id) " +
+            "LEFT JOIN FETCH r.idFloor rf LEFT JOIN FETCH rf.idAfpaCenter rc LEFT JOIN FETCH rc.idCity rcc " +
+            "LEFT JOIN FETCH rcc.idDepartment rcd LEFT JOIN FETCH rcd.idRegion " +
+            "LEFT JOIN Rent rent ON rent.frequency = :frequency AND rent.idAfpaCenter.id = c.id " +
+            "LEFT JOIN Participate p ON p.idUser.id = u.id " +
+            "AND p.id.idSession = (SELECT MAX(p2.id.idSession) FROM Participate p2 WHERE p2.id.idUser = u.id) " +
+            "LEFT JOIN p.idSession s LEFT JOIN s.idFormation f " +
+            "WHERE u.name = :name AND u.firstname = :firstname AND u.birthdate = :birthdate")
+    List<LeaseCreationRow> findLeaseCreationContext(
+            @Param("name") String name, //:name
+            @Param("firstname") String firstname, //:firstname
+            @Param("birthdate") LocalDate birthdate, //:birthdate
+            @Param("centerName") String centerName, //:centerName
+            @Param("roomNumber") String roomNumber, //:roomNumber
+            @Param("frequency") String frequency //:frequency
+    );
+
     //rechercher tous les utilisateurs par session de formation
     Optional<Set<AppUser>> findAllByParticipates_IdSession(SessionFormation sessionFormation);
 
@@ -39,5 +78,27 @@ public interface AppUserRepository extends JpaRepository<AppUser, Integer> {
 
     boolean existsByEmail(String email);
 
+    //rechercher tous les utilisateurs avec rôle, civilité, ville, centre et personne à contacter (une seule requête, pour la liste)
+    @EntityGraph(attributePaths = {"idRole", "idCivility", "idCity.idDepartment.idRegion", "idAfpaCenter.idCity.idDepartment.idRegion", "idContactPerson"})
+    List<AppUser> findAllWithRelationsBy();
+
+    //rechercher tous les utilisateurs avec pagination, avec leurs relations (une requête de page et une de comptage, pour la liste)
+    @EntityGraph(attributePaths = {"idRole", "idCivility", "idCity.idDepartment.idRegion", "idAfpaCenter.idCity.idDepartment.idRegion", "idContactPerson"})
+    Page<AppUser> findAllWithRelationsBy(Pageable pageable);
+
+    //rechercher les utilisateurs d'un centre afpa par curseur : ID supérieur au dernier lu, triés par ID, en nombre limité
+    @EntityGraph(attributePaths = {"idRole", "idCivility", "idCity.idDepartment.idRegion", "idAfpaCenter.idCity.idDepartment.idRegion", "idContactPerson"})
+    List<AppUser> findByIdAfpaCenter_IdAndIdGreaterThanOrderByIdAsc(Integer idAfpaCenter, Integer id, Limit limit);
+
+    //compter les utilisateurs d'un centre afpa
+    long countByIdAfpaCenter_Id(Integer idAfpaCenter);
+
+    //lire par curseur les utilisateurs d'un centre afpa, pour l'export (à consommer dans une transaction)
+    @EntityGraph(attributePaths = {"idRole", "idCivility"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<AppUser> streamByIdAfpaCenter_IdOrderByIdAsc(Integer idAfpaCenter);
 
 }
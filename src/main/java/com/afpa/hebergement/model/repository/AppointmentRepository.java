@@ -1,9 +1,13 @@
 package com.afpa.hebergement.model.repository;
 
 import com.afpa.hebergement.model.entity.*;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,18 +20,52 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Intege
     Optional<Appointment> findByDateAppointmentAndIdIntendantAndIdUser(LocalDateTime dateAppointment, Intendant idIntendant, AppUser idUser);
 
     //rechercher les rendez-vous par centre afpa
+    @EntityGraph("Appointment.withUsers")
     List<Appointment> findByIdUser_IdAfpaCenter_Id(Integer idAfpaCenter);
 
     //rechercher tous les rendez-vous par centre afpa avec pagination
+    @EntityGraph("Appointment.withUsers")
     Page<Appointment> findByIdUser_IdAfpaCenter_Id(Integer idAfpaCenter, Pageable pageable);
 
     //rechercher les rendez-vous par id intendant
+    @EntityGraph("Appointment.withUsers")
     List<Appointment> findByIdIntendant_Id(Integer idIntendant);
 
     //rechercher les rendez-vous par id User
+    @EntityGraph("Appointment.withUsers")
     List<Appointment> findByIdUser_Id(Integer idUser);
 
     //rechercher les rendez-vous par date
+    @EntityGraph("Appointment.withUsers")
     List<Appointment> findByDateAppointmentBetween(LocalDateTime startDate, LocalDateTime endDate);
 
+    //rechercher les rendez-vous d'un centre afpa par curseur : ID supérieur au dernier lu, triés par ID, en nombre limité
+    @EntityGraph("Appointment.withUsers")
+    List<Appointment> findByAfpaCenterIdAndIdGreaterThanOrderByIdAsc(Integer idAfpaCenter, Integer id, Limit limit);
+
+    //compter les rendez-vous d'un centre afpa
+    long countByAfpaCenterId(Integer idAfpaCenter);
+
+    //rechercher les rendez-vous des intendants d'un centre afpa à partir d'une date/heure
+    List<Appointment> findByIdIntendant_IdUser_IdAfpaCenter_IdAndDateAppointmentGreaterThanEqual(Integer idAfpaCenter, LocalDateTime from);
+
+    //rechercher les rendez-vous d'un centre afpa en plein texte (français) dans le motif, classés par pertinence puis ID décroissants,
+    //après le curseur (afterRank, afterId), en nombre limité ; l'extrait n'est calculé que pour les lignes retenues
+    @Query(value = "SELECT h.id AS id, CAST(h.date_appointment AS timestamp) AS date, h.id_user AS \"idUser\", h.id_intendant AS \"idIntendant\", h.rank AS rank, " +
+            "ts_headline('french', h.reason, websearch_to_tsquery('french', :query), " +
+            "'MaxFragments=2, MaxWords=30, MinWords=10, FragmentDelimiter=\" ... \", StartSel=' || chr(2) || ', StopSel=' || chr(3)) AS headline " +
+            "FROM (SELECT r.* FROM (SELECT t.id_appointment AS id, t.reason, t.date_appointment, t.id_user, t.id_intendant, " +
+            "ts_rank(t.search_vector, websearch_to_tsquery('french', :query)) AS rank " +
+            "FROM appointment t JOIN app_user u ON u.id_user = t.id_user " +
+            "WHERE u.id_afpa_center = :idAfpaCenter AND t.search_vector @@ websearch_to_tsquery('french', :query)) r " +
+            "WHERE r.rank < CAST(:afterRank AS real) OR (r.rank = CAST(:afterRank AS real) AND r.id < :afterId) " +
+            "ORDER BY r.rank DESC, r.id DESC LIMIT :limit) h " +
+            "ORDER BY h.rank DESC, h.id DESC", nativeQuery = true)
+    List<SearchHitRow> searchByAfpaCenter(
+            @Param("idAfpaCenter") Integer idAfpaCenter, //:idAfpaCenter
+            @Param("query") String query, //:query
+            @Param("afterRank") Float afterRank, //:afterRank
+            @Param("afterId") Integer afterId, //:afterId
+            @Param("limit") int limit //:limit
+    );
 }
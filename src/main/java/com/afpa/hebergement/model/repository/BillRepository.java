@@ -3,6 +3,7 @@ package com.afpa.hebergement.model.repository;
 import com.afpa.hebergement.model.entity.Absence;
 import com.afpa.hebergement.model.entity.Bill;
 import com.afpa.hebergement.model.entity.LeaseContract;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.time.LocalDate;
@@ -12,4 +13,8 @@ public interface BillRepository extends JpaRepository<Bill,Integer> {
     //recherche par billNumber et id_leaseContract
     Optional<Bill> findByBillNumberAndIdLease(String billNumber, LeaseContract idleaseContract);
 
+    //facture avec tout ce qu'il faut pour son PDF, chargée en une requête (rendu en arrière-plan)
+    @EntityGraph(attributePaths = {"paymentTypes", "idLease.idUser.idCivility", "idLease.idRent.idAfpaCenter.idCity"})
+    Optional<Bill> findWithPdfDataById(Integer id);
+
 }
@@ -1,10 +1,23 @@
 package com.afpa.hebergement.model.repository;
 
 import com.afpa.hebergement.model.entity.City;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CityRepository extends JpaRepository<City, Integer> {
     Optional<City> findByInseeCodeAndPostcode(String inseeCode, String postCode);
+
+    //toutes les villes avec leur département et leur région, en une requête et en lecture seule (index de recherche des villes)
+    @EntityGraph(attributePaths = {"idDepartment.idRegion"})
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000")})
+    @Query("SELECT c FROM City c")
+    List<City> findAllWithDepartmentAndRegion();
 }
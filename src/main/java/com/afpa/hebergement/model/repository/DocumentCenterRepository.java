@@ -1,8 +1,10 @@
 package com.afpa.hebergement.model.repository;
 
 import com.afpa.hebergement.model.entity.DocumentCenter;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -13,4 +15,11 @@ public interface DocumentCenterRepository extends JpaRepository<DocumentCenter,
     List<DocumentCenter> findAllByIdAfpaCenter_Id(Integer idAfpaCenter);
     //rechercher tous les documents du centre afpa par centre l'id du centre avec pagination
     Page<DocumentCenter> findByIdAfpaCenter_Id(Integer afpaCenter, Pageable pageable);
+
+    //rechercher les documents d'un centre afpa par curseur : ID supérieur au dernier lu, triés par ID, en nombre limité
+    @EntityGraph(attributePaths = {"idAfpaCenter.idCity.idDepartment.idRegion", "idDocumentType"})
+    List<DocumentCenter> findByIdAfpaCenter_IdAndIdGreaterThanOrderByIdAsc(Integer idAfpaCenter, Integer id, Limit limit);
+
+    //compter les documents d'un centre afpa
+    long countByIdAfpaCenter_Id(Integer idAfpaCenter);
 }
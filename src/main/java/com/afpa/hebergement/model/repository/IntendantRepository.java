@@ -2,8 +2,11 @@ package com.afpa.hebergement.model.repository;
 
 import com.afpa.hebergement.model.entity.Intendant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 
 public interface IntendantRepository extends JpaRepository<Intendant, Integer> {
@@ -11,4 +14,8 @@ public interface IntendantRepository extends JpaRepository<Intendant, Integer> {
     //rechercher les intendants d'un centre afpa
     List<Intendant> findByIdUser_IdAfpaCenter_Id(Integer idAfpaCenter);
 
+    //rechercher l'id du centre afpa d'un intendant
+    @Query("SELECT i.idUser.idAfpaCenter.id FROM Intendant i WHERE i.id = :idIntendant")
+    Optional<Integer> findAfpaCenterIdById(@Param("idIntendant") Integer idIntendant);
+
 }
@@ -1,14 +1,48 @@
 package com.afpa.hebergement.model.repository;
 
+import com.afpa.hebergement.model.dto.OccupancyPeriodDTO;
 import com.afpa.hebergement.model.entity.AfpaCenter;
 import com.afpa.hebergement.model.entity.LeaseContract;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LeaseContractRepository  extends JpaRepository<LeaseContract, Integer> {
 
     //rechercher un contrat de bail par centre afpa
     List<LeaseContract> findByIdUser_IdAfpaCenter(AfpaCenter idAfpaCenter);
 
+    //rechercher les contrats de bail portant sur les chambres d'un centre afpa
+    List<LeaseContract> findByIdRoom_IdFloor_IdAfpaCenter_Id(Integer idAfpaCenter);
+
+    //lire les périodes des contrats de bail en cours ou à venir des chambres d'un centre afpa (index de disponibilité)
+    @Query("SELECT new com.afpa.hebergement.model.dto.OccupancyPeriodDTO(l.idRoom.id, l.id, l.startDateLease, l.endDateLease) " +
+            "FROM LeaseContract l WHERE l.idRoom.idFloor.idAfpaCenter.id = :idAfpaCenter AND l.startDateLease IS NOT NULL " +
+            "AND (l.endDateLease IS NULL OR l.endDateLease >= :today)")
+    List<OccupancyPeriodDTO> findCurrentPeriodsByAfpaCenter(
+            @Param("idAfpaCenter") Integer idAfpaCenter, //:idAfpaCenter
+            @Param("today") LocalDate today //:today
+    );
+
+    //lire par curseur les contrats de bail portant sur les chambres d'un centre afpa, pour l'export (à consommer dans une transaction)
+    @EntityGraph(attributePaths = {"idUser", "idRoom", "idRent"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<LeaseContract> streamByIdRoom_IdFloor_IdAfpaCenter_IdOrderByIdAsc(Integer idAfpaCenter);
+
+    //contrat de bail avec tout ce qu'il faut pour son document (locataire, chambre, loyer, centre et ses services)
+    @EntityGraph(attributePaths = {"idUser.idCivility", "idUser.idCity", "idRoom", "idRent.idAfpaCenter.idCity", "idRent.idAfpaCenter.appServices"})
+    Optional<LeaseContract> findWithDocumentDataById(Integer id);
+
 }
@@ -0,0 +1,25 @@
+package com.afpa.hebergement.model.repository;
+
+import com.afpa.hebergement.model.entity.AppUser;
+import com.afpa.hebergement.model.entity.Rent;
+import com.afpa.hebergement.model.entity.Room;
+
+/**
+ * Ligne renvoyée par {@link AppUserRepository#findLeaseCreationContext} :
+ * l'utilisateur avec ses relations, et ce qui a été trouvé pour le formulaire (null si absent).
+ */
+public interface LeaseCreationRow {
+
+    AppUser getUser();
+
+    // ID du centre Afpa recherché par son nom
+    Integer getIdAfpaCenter();
+
+    Room getRoom();
+
+    Rent getRent();
+
+    // Formation de la dernière session suivie par l'utilisateur
+    String getFormationName();
+
+}
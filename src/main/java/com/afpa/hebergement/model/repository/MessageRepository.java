@@ -2,9 +2,13 @@ package com.afpa.hebergement.model.repository;
 
 
 import com.afpa.hebergement.model.entity.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -12,14 +16,50 @@ import java.util.List;
 public interface MessageRepository extends JpaRepository<Message, Integer> {
 
     //rechercher les messages par id intendant
+    @EntityGraph("Message.withUsers")
     List<Message> findByIdIntendant_Id(Integer idIntendant);
 
     //rechercher les messages par id user
+    @EntityGraph("Message.withUsers")
     List<Message> findByIdUser_Id(Integer idUser);
 
     //rechercher tous les messages par centre afpa
+    @EntityGraph("Message.withUsers")
     List<Message> findByIdUser_IdAfpaCenter_Id(Integer idAfpaCenter);
 
     //rechercher tous les messages par centre afpa avec pagination
+    @EntityGraph("Message.withUsers")
     Page<Message> findByIdUser_IdAfpaCenter_Id(Integer afpaCenter, Pageable pageable);
+
+    //rechercher les messages d'un centre afpa par curseur : ID supérieur au dernier lu, triés par ID, en nombre limité
+    @EntityGraph("Message.withUsers")
+    List<Message> findByAfpaCenterIdAndIdGreaterThanOrderByIdAsc(Integer idAfpaCenter, Integer id, Limit limit);
+
+    //compter les messages d'un centre afpa
+    long countByAfpaCenterId(Integer idAfpaCenter);
+
+    //rechercher les messages d'un utilisateur (destinataire ou intendant) d'ID supérieur au dernier reçu, triés par ID, en nombre limité
+    @EntityGraph("Message.withUsers")
+    @Query("SELECT m FROM Message m WHERE m.id > :lastId AND (m.idUser.id = :idUser OR m.idIntendant.idUser.id = :idUser) ORDER BY m.id")
+    List<Message> findConversationAfter(@Param("idUser") Integer idUser, @Param("lastId") Integer lastId, Limit limit);
+
+    //rechercher les messages d'un centre afpa en plein texte (français), classés par pertinence puis ID décroissants,
+    //après le curseur (afterRank, afterId), en nombre limité ; l'extrait n'est calculé que pour les lignes retenues
+    @Query(value = "SELECT h.id AS id, CAST(h.message_date AS timestamp) AS date, h.id_user AS \"idUser\", h.id_intendant AS \"idIntendant\", h.rank AS rank, " +
+            "ts_headline('french', h.content, websearch_to_tsquery('french', :query), " +
+            "'MaxFragments=2, MaxWords=30, MinWords=10, FragmentDelimiter=\" ... \", StartSel=' || chr(2) || ', StopSel=' || chr(3)) AS headline " +
+            "FROM (SELECT r.* FROM (SELECT t.id_message AS id, t.content, t.message_date, t.id_user, t.id_intendant, " +
+            "ts_rank(t.search_vector, websearch_to_tsquery('french', :query)) AS rank " +
+            "FROM message t JOIN app_user u ON u.id_user = t.id_user " +
+            "WHERE u.id_afpa_center = :idAfpaCenter AND t.search_vector @@ websearch_to_tsquery('french', :query)) r " +
+            "WHERE r.rank < CAST(:afterRank AS real) OR (r.rank = CAST(:afterRank AS real) AND r.id < :afterId) " +
+            "ORDER BY r.rank DESC, r.id DESC LIMIT :limit) h " +
+            "ORDER BY h.rank DESC, h.id DESC", nativeQuery = true)
+    List<SearchHitRow> searchByAfpaCenter(
+            @Param("idAfpaCenter") Integer idAfpaCenter, //:idAfpaCenter
+            @Param("query") String query, //:query
+            @Param("afterRank") Float afterRank, //:afterRank
+            @Param("afterId") Integer afterId, //:afterId
+            @Param("limit") int limit //:limit
+    );
 }
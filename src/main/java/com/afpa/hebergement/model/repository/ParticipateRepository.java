@@ -3,7 +3,10 @@ package com.afpa.hebergement.model.repository;
 import com.afpa.hebergement.model.entity.Participate;
 import com.afpa.hebergement.model.entity.SessionFormation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -15,4 +18,8 @@ public interface ParticipateRepository extends JpaRepository<Participate, Intege
     //récupérer la dernière session de formation d'un utilisateur par id user et ordre décroissant de l'ID de participation
     Optional<Participate> findFirstByIdUser_IdOrderByIdDesc(Integer idUser);
 
+    //récupérer les participants d'une session avec leur utilisateur et leur civilité (facultative), en une seule requête
+    @Query("SELECT p FROM Participate p JOIN FETCH p.idUser u LEFT JOIN FETCH u.idCivility WHERE p.idSession.id = :idSession")
+    List<Participate> findWithUserByIdSession(@Param("idSession") Integer idSession);
+
 }
@@ -1,12 +1,19 @@
 package com.afpa.hebergement.model.repository;
 
+import com.afpa.hebergement.model.dto.OccupancyPeriodDTO;
 import com.afpa.hebergement.model.entity.Reservation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Integer> {
 
@@ -22,25 +29,43 @@ public interface ReservationRepository extends JpaRepository<Reservation, Intege
     //rechercher une chambre présente dans la table reservation
     List<Reservation> findByIdRoom_Id(Integer roomId);
 
+    //vérifier si une chambre a encore des réservations en cours ou à venir
+    boolean existsByIdRoom_IdAndEndDateGreaterThanEqual(Integer roomId, LocalDate date);
+
     //rechercher les reservations d'un centre afpa
+    @EntityGraph(attributePaths = {"idRoom.idFloor.idAfpaCenter.idCity.idDepartment.idRegion", "idReservationMotive"})
     List<Reservation> findByIdRoom_IdFloor_IdAfpaCenter_Id(Integer idAfpaCenter);
 
-    //vérifier si une réservation existe déjà si les dates ne se chevauchent pas
-    @Query("SELECT r FROM Reservation r WHERE r.idRoom.id = :roomId AND (r.startDate < :endDate AND r.endDate > :startDate)")
-    List<Reservation> findOverlappingReservations(
-            @Param("roomId") Integer roomId, //:roomId
+    //lire les périodes des réservations en cours ou à venir des chambres d'un centre afpa (index de disponibilité)
+    @Query("SELECT new com.afpa.hebergement.model.dto.OccupancyPeriodDTO(r.idRoom.id, r.id, r.startDate, r.endDate) " +
+            "FROM Reservation r WHERE r.idRoom.idFloor.idAfpaCenter.id = :idAfpaCenter AND r.endDate >= :today")
+    List<OccupancyPeriodDTO> findCurrentPeriodsByAfpaCenter(
+            @Param("idAfpaCenter") Integer idAfpaCenter, //:idAfpaCenter
+            @Param("today") LocalDate today //:today
+    );
+
+    //rechercher en une seule requête les réservations d'un ensemble de chambres qui chevauchent la période [startDate, endDate[
+    @Query("SELECT r FROM Reservation r WHERE r.idRoom.id IN :roomIds AND r.startDate < :endDate AND r.endDate > :startDate")
+    List<Reservation> findOverlappingForRooms(
+            @Param("roomIds") Collection<Integer> roomIds, //:roomIds
             @Param("startDate") LocalDate startDate, //:startDate
             @Param("endDate") LocalDate endDate //:endDate
     );
 
-    //vérifier si une réservation existe déjà si les dates ne se chevauchent pas, mais en excluant la reservation que l'on veut mettre à jour
-    @Query("SELECT r FROM Reservation r WHERE r.idRoom.id = :roomId AND (r.startDate < :endDate AND r.endDate > :startDate) AND r.id != :reservationId")
-    List<Reservation> findOverlappingReservationsExcludingCurrent(
-            @Param("roomId") Integer roomId, //:roomId
-            @Param("startDate") LocalDate startDate,  //:startDate
-            @Param("endDate") LocalDate endDate, //:endDate
-            @Param("reservationId") Integer reservationId //:reservationId
+    //rechercher en une seule requête les réservations d'un ensemble d'occupants qui chevauchent la période [startDate, endDate[
+    @Query("SELECT r FROM Reservation r WHERE r.idUser.id IN :userIds AND r.startDate < :endDate AND r.endDate > :startDate")
+    List<Reservation> findOverlappingForUsers(
+            @Param("userIds") Collection<Integer> userIds, //:userIds
+            @Param("startDate") LocalDate startDate, //:startDate
+            @Param("endDate") LocalDate endDate //:endDate
     );
 
+    //lire par curseur les réservations d'un centre afpa, pour l'export (à consommer dans une transaction)
+    @EntityGraph(attributePaths = {"idRoom.idFloor", "idReservationMotive"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Reservation> streamByIdRoom_IdFloor_IdAfpaCenter_IdOrderByIdAsc(Integer idAfpaCenter);
 
 }
@@ -0,0 +1,44 @@
+package com.afpa.hebergement.model.repository;
+
+import com.afpa.hebergement.model.entity.RoomOccupancyDay;
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface RoomOccupancyDayRepository extends JpaRepository<RoomOccupancyDay, Long> {
+
+    //projeter une période d'occupation [startDate, endDate[ d'une chambre, jour par jour, en une seule requête
+    @Modifying
+    @Query(value = "INSERT INTO room_occupancy_day (occupancy_day, occupancy_type, id_source, id_room, id_afpa_center) " +
+            "SELECT CAST(day AS date), :occupancyType, :idSource, r.id_room, f.id_afpa_center " +
+            "FROM room r JOIN floor f ON f.id_floor = r.id_floor " +
+            "CROSS JOIN generate_series(CAST(:startDate AS date), CAST(:endDate AS date) - 1, interval '1 day') AS day " +
+            "WHERE r.id_room = :idRoom", nativeQuery = true)
+    int insertPeriod(
+            @Param("idRoom") Integer idRoom, //:idRoom
+            @Param("occupancyType") String occupancyType, //:occupancyType
+            @Param("idSource") Integer idSource, //:idSource
+            @Param("startDate") LocalDate startDate, //:startDate
+            @Param("endDate") LocalDate endDate //:endDate
+    );
+
+    //projeter en une seule requête un lot de réservations nouvellement créées
+    @Modifying
+    @Query(value = "INSERT INTO room_occupancy_day (occupancy_day, occupancy_type, id_source, id_room, id_afpa_center) " +
+            "SELECT CAST(day AS date), 'RESERVATION', res.id_reservation, res.id_room, f.id_afpa_center " +
+            "FROM reservation res JOIN room r ON r.id_room = res.id_room JOIN floor f ON f.id_floor = r.id_floor " +
+            "CROSS JOIN generate_series(res.start_date, res.end_date - 1, interval '1 day') AS day " +
+            "WHERE res.id_reservation IN (:reservationIds)", nativeQuery = true)
+    int insertReservations(@Param("reservationIds") Collection<Integer> reservationIds);
+
+    //supprimer la projection d'une réservation ou d'un contrat de bail
+    @Modifying
+    @Query("DELETE FROM RoomOccupancyDay o WHERE o.occupancyType = :occupancyType AND o.idSource = :idSource")
+    int deleteBySource(@Param("occupancyType") OccupancyType occupancyType, @Param("idSource") Integer idSource);
+
+}
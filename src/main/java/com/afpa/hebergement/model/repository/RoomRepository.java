@@ -1,10 +1,16 @@
 package com.afpa.hebergement.model.repository;
 
 import com.afpa.hebergement.model.entity.Room;
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,21 +18,58 @@ public interface RoomRepository extends JpaRepository<Room, Integer> {
 
 
     //rechercher les chambres d'un centre afpa
+    @EntityGraph(attributePaths = {"idFloor.idAfpaCenter.idCity.idDepartment.idRegion"})
     List<Room> findByIdFloor_IdAfpaCenter_Id(Integer idAfpaCenter);
 
     //rechercher tous les users par centre afpa avec pagination
+    @EntityGraph(attributePaths = {"idFloor.idAfpaCenter.idCity.idDepartment.idRegion"})
     Page<Room> findByIdFloor_IdAfpaCenter_Id(Integer idAfpaCenter, Pageable pageable);
 
-    //Rechercher les chambres qui sont réservées et par centre afpa
-    List<Room> findByIsReservedTrueAndIdFloor_IdAfpaCenter_Id(Integer afpaCenter);
+    //rechercher les chambres d'un centre afpa avec leur étage, en une seule requête
+    @Query("SELECT r FROM Room r JOIN FETCH r.idFloor f WHERE f.idAfpaCenter.id = :idAfpaCenter")
+    List<Room> findWithFloorByAfpaCenter(@Param("idAfpaCenter") Integer idAfpaCenter);
 
-    //Rechercher les chambres libres par centre afpa = true
-    List<Room> findByIsUsableTrueAndIdFloor_IdAfpaCenter_Id(Integer afpaCenter);
+    //Rechercher les chambres d'un centre afpa occupées un jour donné par un type d'occupation (lecture de la projection indexée par centre et jour)
+    @EntityGraph(attributePaths = {"idFloor.idAfpaCenter.idCity.idDepartment.idRegion"})
+    @Query("SELECT r FROM Room r WHERE r.id IN (SELECT o.idRoom.id FROM RoomOccupancyDay o " +
+            "WHERE o.idAfpaCenter.id = :idAfpaCenter AND o.occupancyDay = :day AND o.occupancyType = :occupancyType) " +
+            "ORDER BY r.id")
+    List<Room> findOccupiedOnDay(
+            @Param("idAfpaCenter") Integer idAfpaCenter, //:idAfpaCenter
+            @Param("day") LocalDate day, //:day
+            @Param("occupancyType") OccupancyType occupancyType //:occupancyType
+    );
+
+    //Rechercher les chambres d'un centre afpa occupées un jour donné par un contrat de bail : contrats avec date de fin
+    //lus dans la projection, contrats sans date de fin (non projetés) lus directement dans lease_contract
+    @EntityGraph(attributePaths = {"idFloor.idAfpaCenter.idCity.idDepartment.idRegion"})
+    @Query("SELECT r FROM Room r WHERE r.id IN (SELECT o.idRoom.id FROM RoomOccupancyDay o " +
+            "WHERE o.idAfpaCenter.id = :idAfpaCenter AND o.occupancyDay = :day AND o.occupancyType = com.afpa.hebergement.model.enum_occupancy.OccupancyType.LEASE) " +
+            "OR (r.idFloor.idAfpaCenter.id = :idAfpaCenter AND r.id IN (SELECT lc.idRoom.id FROM LeaseContract lc " +
+            "WHERE lc.endDateLease IS NULL AND lc.startDateLease <= :day)) " +
+            "ORDER BY r.id")
+    List<Room> findLeasedOnDay(
+            @Param("idAfpaCenter") Integer idAfpaCenter, //:idAfpaCenter
+            @Param("day") LocalDate day //:day
+    );
+
+    //Rechercher les chambres utilisables d'un centre afpa sans aucune occupation un jour donné (projection et contrats sans date de fin)
+    @EntityGraph(attributePaths = {"idFloor.idAfpaCenter.idCity.idDepartment.idRegion"})
+    @Query("SELECT r FROM Room r WHERE r.idFloor.idAfpaCenter.id = :idAfpaCenter AND r.isUsable = true " +
+            "AND r.id NOT IN (SELECT o.idRoom.id FROM RoomOccupancyDay o WHERE o.idAfpaCenter.id = :idAfpaCenter AND o.occupancyDay = :day) " +
+            "AND r.id NOT IN (SELECT lc.idRoom.id FROM LeaseContract lc WHERE lc.endDateLease IS NULL AND lc.startDateLease <= :day) " +
+            "ORDER BY r.id")
+    List<Room> findAvailableOnDay(
+            @Param("idAfpaCenter") Integer idAfpaCenter, //:idAfpaCenter
+            @Param("day") LocalDate day //:day
+    );
 
     //Rechercher les chambres occupées par centre afpa = false
+    @EntityGraph(attributePaths = {"idFloor.idAfpaCenter.idCity.idDepartment.idRegion"})
     List<Room> findByIsUsableFalseAndIdFloor_IdAfpaCenter_Id(Integer afpaCenter);
 
     //Rechercher les chambres réservées aux femmes par centre afpa
+    @EntityGraph(attributePaths = {"idFloor.idAfpaCenter.idCity.idDepartment.idRegion"})
     List<Room> findByIdFloor_IsForWomenTrueAndIdFloor_IdAfpaCenter_Id(Integer afpaCenter);
 
     //Rechercher une chambre par numéro de chambre et id centre afpa
@@ -35,5 +78,8 @@ public interface RoomRepository extends JpaRepository<Room, Integer> {
     //rechercher une chambre par numéro de chambre et id floor
     Optional<Room> findByRoomNumberAndIdFloor_Id(String roomNumber, Integer floorId);
 
-}
+    //rechercher des chambres par leurs ID avec étage, centre, ville, département et région (une seule requête, pour la liste)
+    @EntityGraph(attributePaths = {"idFloor.idAfpaCenter.idCity.idDepartment.idRegion"})
+    List<Room> findAllWithRelationsByIdIn(Collection<Integer> ids);
 
+}
@@ -21,4 +21,7 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Integer> {
     //rechercher un schedule par id intendant et id day
     Optional<Schedule> findByIdIntendant_IdAndIdDay_Id(Integer intendant, Integer day);
 
+    //rechercher les schedules des intendants d'un centre afpa
+    List<Schedule> findByIdIntendant_IdUser_IdAfpaCenter_Id(Integer idAfpaCenter);
+
 }
@@ -0,0 +1,24 @@
+package com.afpa.hebergement.model.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de résultat d'une recherche plein texte (requête native) : seules les colonnes affichées sont lues,
+ * l'extrait n'est calculé que pour les lignes de la page.
+ */
+public interface SearchHitRow {
+
+    Integer getId();
+
+    LocalDateTime getDate();
+
+    Integer getIdUser();
+
+    Integer getIdIntendant();
+
+    Float getRank();
+
+    // Extrait avec les termes trouvés entre les marqueurs chr(2) et chr(3)
+    String getHeadline();
+
+}
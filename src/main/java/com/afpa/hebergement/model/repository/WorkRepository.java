@@ -1,10 +1,13 @@
 package com.afpa.hebergement.model.repository;
 
 
+import com.afpa.hebergement.model.dto.OccupancyPeriodDTO;
 import com.afpa.hebergement.model.entity.Room;
 import com.afpa.hebergement.model.entity.Work;
 import com.afpa.hebergement.model.entity.WorkType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -17,4 +20,12 @@ public interface WorkRepository extends JpaRepository<Work, Integer> {
 
     //rechercher les chambres en travaux pour un centre afpa
     List<Work> findByIdRoom_IdFloor_IdAfpaCenter_Id(Integer idAfpaCenter);
+
+    //lire les périodes des travaux en cours ou à venir des chambres d'un centre afpa (index de disponibilité)
+    @Query("SELECT new com.afpa.hebergement.model.dto.OccupancyPeriodDTO(w.idRoom.id, w.id, w.startWork, w.endWork) " +
+            "FROM Work w WHERE w.idRoom.idFloor.idAfpaCenter.id = :idAfpaCenter AND (w.endWork IS NULL OR w.endWork >= :today)")
+    List<OccupancyPeriodDTO> findCurrentPeriodsByAfpaCenter(
+            @Param("idAfpaCenter") Integer idAfpaCenter, //:idAfpaCenter
+            @Param("today") LocalDate today //:today
+    );
 }
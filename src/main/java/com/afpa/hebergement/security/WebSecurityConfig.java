@@ -2,7 +2,9 @@ package com.afpa.hebergement.security;
 
 import com.afpa.hebergement.security.jwt.AuthEntryPointJwt;
 import com.afpa.hebergement.security.jwt.AuthTokenFilter;
+import com.afpa.hebergement.security.password.BoundedPasswordEncoder;
 import com.afpa.hebergement.security.service.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,8 +22,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
@@ -40,6 +40,7 @@ public class WebSecurityConfig {
 
     private final UserDetailsServiceImpl userDetailsService; // Service personnalisé pour gérer les détails de l'utilisateur
     private final AuthEntryPointJwt unauthorizedHandler; // Gestionnaire pour les erreurs d'authentification
+    private final BoundedPasswordEncoder passwordEncoder; // Encodeur BCrypt dont les calculs sont exécutés dans un pool borné
 
     // Définition du filtre d'authentification JWT
     @Bean
@@ -52,7 +53,8 @@ public class WebSecurityConfig {
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService); // Définit le service pour charger les détails de l'utilisateur
-        authProvider.setPasswordEncoder(passwordEncoder()); // Définit l'encodeur de mot de passe
+        authProvider.setPasswordEncoder(passwordEncoder); // Définit l'encodeur de mot de passe
+        authProvider.setUserDetailsPasswordService(userDetailsService); // Recalcule le hachage à la connexion si le facteur de coût a changé
         return authProvider;
     }
 
@@ -62,12 +64,6 @@ public class WebSecurityConfig {
         return authConfig.getAuthenticationManager(); // Retourne le gestionnaire d'authentification configuré
     }
 
-    // Encodeur de mots de passe (BCrypt avec une force de 12)
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12); // Utilise BCrypt avec un facteur de force de 12 pour l'encodage des mots de passe
-    }
-
     // Chaîne de filtres de sécurité
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -79,6 +75,8 @@ public class WebSecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**", "/api/test/**").permitAll() // Autorisation pour certains endpoints publics
                         .requestMatchers(HttpMethod.GET, "/csrf/token").permitAll()
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Suite d'une réponse asynchrone déjà autorisée (flux SSE, exports)
+                        .requestMatchers(HttpMethod.GET, "/api/messages/stream").authenticated() // Flux de messages : utilisateur connecté uniquement
                         .anyRequest().permitAll() // Toutes les autres requêtes sont également autorisées
                 )
                 .httpBasic(AbstractHttpConfigurer::disable) // Désactivation de l'authentification HTTP Basic
@@ -1,8 +1,9 @@
 package com.afpa.hebergement.security.jwt;
 
-import com.afpa.hebergement.model.repository.AppUserRepository;
+import com.afpa.hebergement.security.service.UserDetailsCache;
 import com.afpa.hebergement.security.service.UserDetailsImpl;
 import com.afpa.hebergement.security.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,28 +14,34 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Objects;
 
 @Component
 @NoArgsConstructor
 @AllArgsConstructor
 public class AuthTokenFilter extends OncePerRequestFilter {
 
-    UserDetailsServiceImpl userDetailsService;
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
 
     @Autowired
     private JwtUtils jwtUtils;
 
     @Autowired
-    private AppUserRepository repo;
+    private UserDetailsCache userDetailsCache;
+
+    // Mode principal sans état : l'utilisateur est reconstruit à partir des claims du jeton, sans lecture en base ni cache
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
 
     private static final Logger Authlogger = LoggerFactory
             .getLogger(AuthTokenFilter.class);
@@ -44,18 +51,29 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     protected void doFilterInternal(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if(jwt != null && jwtUtils.validateJwtToken(jwt)){
-                String number = jwtUtils.getBenefNumberFromToken(jwt);
-                UserDetails userDetails = UserDetailsImpl.build(repo.findByBeneficiaryNumber(number).orElseThrow(() -> new RuntimeException("User not found")));
+            // Une seule analyse du jeton : vérification de la signature, du type, de la révocation et lecture des claims
+            Claims claims = jwt != null ? jwtUtils.parseAccessToken(jwt) : null;
+            if (claims != null) {
+                String number = claims.getSubject();
+                UserDetailsImpl userDetails = statelessPrincipal ? jwtUtils.getPrincipalFromClaims(claims) : null;
                 if (userDetails == null) {
-                    Authlogger.info("User {}", "Not found");
-                    return;
+                    // L'utilisateur est lu en cache, la base n'est interrogée qu'à l'expiration de l'entrée
+                    userDetails = userDetailsCache.get(number,
+                            benefNumber -> (UserDetailsImpl) userDetailsService.loadUserByUsername(benefNumber));
+                }
+
+                // Le jeton a été émis pour un autre utilisateur portant ce numéro (utilisateur supprimé puis recréé)
+                Integer tokenUserId = claims.get(JwtUtils.CLAIM_USER_ID, Integer.class);
+                if (tokenUserId != null && !Objects.equals(tokenUserId, userDetails.getId())) {
+                    Authlogger.info("User {}", "does not match the token");
+                    userDetailsCache.invalidate(number);
+                } else {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities()
+                    );
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities()
-                );
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }catch (Exception e){
             Authlogger.error("Cannot set user authentication{}" ,e.getMessage());
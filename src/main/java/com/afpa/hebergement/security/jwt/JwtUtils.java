@@ -4,55 +4,167 @@ import com.afpa.hebergement.security.service.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import lombok.AllArgsConstructor;
-import lombok.NoArgsConstructor;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
-import io.jsonwebtoken.Jwts;
-import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+
+    // Claims portés par le jeton, en plus du sujet (numéro de bénéficiaire)
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_AFPA_CENTER = "idAfpaCenter";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_TYPE = "tokenType";
+    // Date d'émission à la milliseconde (le claim iat est à la seconde), pour la révocation des jetons d'un utilisateur
+    public static final String CLAIM_ISSUED_AT_MILLIS = "iatMillis";
+
+    // Types de jeton : accès (court, envoyé à chaque requête) et rafraîchissement (long, uniquement pour /api/auth/refresh)
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
     @Value("${jwt.expiration}")
     private int jwtExpiration;
+    @Value("${jwt.refresh-expiration:604800000}")
+    private long refreshExpiration;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    // Clé HMAC et parseur construits une seule fois : le secret ne change pas pendant l'exécution et le parseur est thread-safe
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    public JwtUtils(TokenRevocationList tokenRevocationList) {
+        this.tokenRevocationList = tokenRevocationList;
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        tokenRevocationList.setMaxTokenLifetimeMillis(Math.max(jwtExpiration, refreshExpiration));
+    }
 
     public String generateToken(Authentication authentication) {
+        return generateAccessToken((UserDetailsImpl) authentication.getPrincipal());
+    }
 
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+    // Jeton d'accès : porte toutes les informations du principal, pour pouvoir le reconstruire sans lecture en base
+    public String generateAccessToken(UserDetailsImpl userDetails) {
+        Date issuedAt = new Date();
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getBeneficiaryNumber())
-                .setIssuedAt(new Date())
+                .setIssuedAt(issuedAt)
+                .claim(CLAIM_ISSUED_AT_MILLIS, issuedAt.getTime())
+                .claim(CLAIM_TOKEN_TYPE, ACCESS_TOKEN)
                 .claim("authorities", userDetails.getAuthorities())
-                .setExpiration(new Date(new Date().getTime() + jwtExpiration))
-                .signWith(key(), SignatureAlgorithm.HS256).compact();
+                .claim(CLAIM_USER_ID, userDetails.getId())
+                .claim(CLAIM_AFPA_CENTER, userDetails.getIdAfpaCenter())
+                .claim(CLAIM_ROLE, userDetails.getAuthority().getAuthority())
+                .setExpiration(new Date(issuedAt.getTime() + jwtExpiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256).compact();
 
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    // Jeton de rafraîchissement : identifie seulement l'utilisateur, le principal est relu en base lors du rafraîchissement
+    public String generateRefreshToken(UserDetailsImpl userDetails) {
+        Date issuedAt = new Date();
+
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(userDetails.getBeneficiaryNumber())
+                .setIssuedAt(issuedAt)
+                .claim(CLAIM_ISSUED_AT_MILLIS, issuedAt.getTime())
+                .claim(CLAIM_TOKEN_TYPE, REFRESH_TOKEN)
+                .claim(CLAIM_USER_ID, userDetails.getId())
+                .setExpiration(new Date(issuedAt.getTime() + refreshExpiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256).compact();
+
     }
 
-    public String getBenefNumberFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token).getBody().getSubject();
+    // Durée de vie d'un jeton d'accès, en secondes
+    public long getAccessTokenLifetimeSeconds() {
+        return jwtExpiration / 1000L;
     }
 
-    public boolean validateJwtToken(String authToken) {
-        try{
-            JwtParser jwtParser = Jwts.parserBuilder().setSigningKey(key()).build();
-            jwtParser.parseClaimsJws(authToken);
+    /**
+     * Vérifie un jeton d'accès : signature, expiration, type et révocation.
+     * Les jetons émis avant l'ajout du claim "tokenType" sont acceptés comme jetons d'accès.
+     * @return les claims du jeton, ou null si le jeton ne peut pas être utilisé pour s'authentifier
+     */
+    public Claims parseAccessToken(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null || REFRESH_TOKEN.equals(claims.get(CLAIM_TOKEN_TYPE, String.class)) || isRevoked(claims)) {
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * Vérifie un jeton de rafraîchissement : signature, expiration, type et révocation.
+     * @return les claims du jeton, ou null si le jeton ne peut pas être utilisé pour rafraîchir
+     */
+    public Claims parseRefreshToken(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null || !REFRESH_TOKEN.equals(claims.get(CLAIM_TOKEN_TYPE, String.class)) || isRevoked(claims)) {
+            return null;
+        }
+        return claims;
+    }
+
+    // Révoque le jeton jusqu'à son expiration (déconnexion, rotation du jeton de rafraîchissement)
+    public void revoke(Claims claims) {
+        tokenRevocationList.revoke(claims.getId(), claims.getExpiration().getTime());
+    }
+
+    /**
+     * Reconstruit le principal à partir des claims vérifiés, sans lecture en base.
+     * @return le principal, ou null si le jeton ne porte pas les claims nécessaires (jeton émis avant leur ajout)
+     */
+    public UserDetailsImpl getPrincipalFromClaims(Claims claims) {
+        Integer id = claims.get(CLAIM_USER_ID, Integer.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (id == null || role == null) {
+            return null;
+        }
+        return new UserDetailsImpl(id, claims.getSubject(), null, null, claims.getSubject(),
+                claims.get(CLAIM_AFPA_CENTER, Integer.class), new SimpleGrantedAuthority(role));
+    }
+
+    // Les jetons émis avant l'ajout du claim iatMillis sont datés du début de la seconde de leur claim iat
+    private boolean isRevoked(Claims claims) {
+        Long issuedAt = claims.get(CLAIM_ISSUED_AT_MILLIS, Long.class);
+        if (issuedAt == null && claims.getIssuedAt() != null) {
+            issuedAt = claims.getIssuedAt().getTime();
+        }
+        if (tokenRevocationList.isRevoked(claims.getId(), claims.get(CLAIM_USER_ID, Integer.class), issuedAt)) {
+            logger.info("JWT token is revoked");
             return true;
+        }
+        return false;
+    }
+
+    /**
+     * Vérifie le jeton et retourne ses claims en une seule analyse.
+     * @return les claims du jeton, ou null si le jeton est invalide ou expiré
+     */
+    public Claims parseClaims(String authToken) {
+        try {
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -61,11 +173,20 @@ public class JwtUtils {
             logger.error("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
-        }catch (SecurityException e){
+        } catch (io.jsonwebtoken.security.SecurityException e) {
             logger.error("JWT signature is invalid {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT token is invalid: {}", e.getMessage());
         }
 
-        return false;
+        return null;
     }
+
+    public String getBenefNumberFromToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
     }
 
+    public boolean validateJwtToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+}
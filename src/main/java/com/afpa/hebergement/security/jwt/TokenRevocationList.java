@@ -0,0 +1,106 @@
+package com.afpa.hebergement.security.jwt;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Liste de révocation des jetons, en mémoire.
+ * Un jeton révoqué n'est conservé que jusqu'à son expiration : la liste ne contient que des jetons encore valides,
+ * identifiés par leur jti (UUID stocké sous forme binaire) et associés à leur date d'expiration.
+ * Un utilisateur peut aussi être révoqué en bloc (changement de mot de passe, suppression) :
+ * tous ses jetons émis avant cet instant sont refusés, sans avoir à les connaître. La comparaison se fait
+ * à la milliseconde (claim iatMillis) : un jeton obtenu juste après la révocation, dans la même seconde, reste valide.
+ */
+@Component
+public class TokenRevocationList {
+
+    // Intervalle minimal entre deux purges des entrées expirées (en millisecondes)
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    // jti révoqué -> date d'expiration du jeton (epoch en millisecondes)
+    private final Map<UUID, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // ID utilisateur -> instant de révocation (epoch en millisecondes)
+    private final Map<Integer, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    // Durée de vie du jeton le plus long (jeton de rafraîchissement), fixée par JwtUtils
+    private volatile long maxTokenLifetimeMillis = Long.MAX_VALUE / 2;
+    private volatile long nextPurge;
+
+
+    // Révoque un jeton jusqu'à son expiration
+    public void revoke(String jti, long expiresAtMillis) {
+        UUID id = toUuid(jti);
+        if (id != null && expiresAtMillis > System.currentTimeMillis()) {
+            revokedTokens.put(id, expiresAtMillis);
+        }
+        purgeIfDue();
+    }
+
+
+    // Révoque tous les jetons de l'utilisateur émis avant maintenant
+    public void revokeUser(Integer idUser) {
+        if (idUser != null) {
+            revokedUsers.put(idUser, System.currentTimeMillis());
+        }
+        purgeIfDue();
+    }
+
+
+    /**
+     * Indique si le jeton est révoqué.
+     * @param issuedAtMillis date d'émission du jeton (epoch en millisecondes), ou null si absente
+     */
+    public boolean isRevoked(String jti, Integer idUser, Long issuedAtMillis) {
+        UUID id = toUuid(jti);
+        if (id != null && revokedTokens.containsKey(id)) {
+            return true;
+        }
+        if (idUser != null) {
+            Long revokedAt = revokedUsers.get(idUser);
+            return revokedAt != null && (issuedAtMillis == null || issuedAtMillis <= revokedAt);
+        }
+        return false;
+    }
+
+
+    // Supprime les entrées devenues inutiles : jetons expirés, et révocations d'utilisateur plus anciennes que le jeton le plus long
+    void purge() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        long oldestValidIssue = now - maxTokenLifetimeMillis;
+        revokedUsers.values().removeIf(revokedAt -> revokedAt < oldestValidIssue);
+        nextPurge = now + PURGE_INTERVAL_MILLIS;
+    }
+
+
+    int size() {
+        return revokedTokens.size() + revokedUsers.size();
+    }
+
+
+    void setMaxTokenLifetimeMillis(long maxTokenLifetimeMillis) {
+        this.maxTokenLifetimeMillis = maxTokenLifetimeMillis;
+    }
+
+    private void purgeIfDue() {
+        if (System.currentTimeMillis() >= nextPurge) {
+            purge();
+        }
+    }
+
+    private static UUID toUuid(String jti) {
+        if (jti == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(jti);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
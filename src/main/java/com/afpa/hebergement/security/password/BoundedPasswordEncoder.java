@@ -0,0 +1,48 @@
+package com.afpa.hebergement.security.password;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encodeur de mots de passe BCrypt qui délègue les calculs au {@link PasswordHashingExecutor}.
+ * C'est le bean PasswordEncoder de l'application : la connexion (DaoAuthenticationProvider), l'inscription
+ * et les mises à jour de mot de passe passent toutes par le pool borné, sans modification des appelants.
+ * Le facteur de coût est configurable ; les hachages calculés avec un autre facteur sont recalculés à la connexion.
+ */
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor hashingExecutor;
+
+    @Autowired
+    public BoundedPasswordEncoder(@Value("${security.password-hashing.strength:12}") int strength,
+                                  PasswordHashingExecutor hashingExecutor) {
+        this(new BCryptPasswordEncoder(strength), hashingExecutor);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor hashingExecutor) {
+        this.delegate = delegate;
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashingExecutor.execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hashingExecutor.execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Indique si le hachage a été calculé avec un autre facteur de coût (pas de calcul : lecture de l'en-tête du hachage)
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+}
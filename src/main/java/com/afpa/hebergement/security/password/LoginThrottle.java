@@ -0,0 +1,101 @@
+package com.afpa.hebergement.security.password;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limitation des tentatives de connexion par numéro de bénéficiaire.
+ * Après MAX_FAILURES échecs consécutifs dans la fenêtre, le numéro est bloqué pendant la durée de blocage :
+ * les tentatives suivantes sont refusées avant tout calcul de hachage, ce qui protège aussi le pool de hachage.
+ * Une connexion réussie remet le compteur à zéro. Les entrées inactives sont purgées pour borner la mémoire.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final class Attempts {
+        private int failures;
+        private long windowStart;
+        private long blockedUntil;
+    }
+
+    private final Map<String, Attempts> attempts = new ConcurrentHashMap<>();
+    private final int maxFailures;
+    private final long windowMillis;
+    private final long blockMillis;
+
+    private volatile long nextPurge;
+
+
+    public LoginThrottle(@Value("${security.login-throttle.max-failures:5}") int maxFailures,
+                         @Value("${security.login-throttle.window-seconds:900}") long windowSeconds,
+                         @Value("${security.login-throttle.block-seconds:300}") long blockSeconds) {
+        this.maxFailures = maxFailures;
+        this.windowMillis = windowSeconds * 1000;
+        this.blockMillis = blockSeconds * 1000;
+    }
+
+
+    /**
+     * Indique combien de secondes le numéro reste bloqué.
+     * @return 0 si une tentative de connexion est autorisée
+     */
+    public long blockedForSeconds(String beneficiaryNumber) {
+        Attempts entry = attempts.get(beneficiaryNumber);
+        if (entry == null) {
+            return 0;
+        }
+        synchronized (entry) {
+            long remaining = entry.blockedUntil - System.currentTimeMillis();
+            return remaining > 0 ? (remaining + 999) / 1000 : 0;
+        }
+    }
+
+
+    // Enregistre un échec de connexion, et bloque le numéro au-delà du nombre d'échecs autorisés
+    public void recordFailure(String beneficiaryNumber) {
+        long now = System.currentTimeMillis();
+        purgeIfDue(now);
+        Attempts entry = attempts.computeIfAbsent(beneficiaryNumber, number -> new Attempts());
+        synchronized (entry) {
+            if (now - entry.windowStart > windowMillis) {
+                entry.windowStart = now;
+                entry.failures = 0;
+            }
+            entry.failures++;
+            if (entry.failures >= maxFailures) {
+                entry.blockedUntil = now + blockMillis;
+                entry.failures = 0;
+                entry.windowStart = now;
+            }
+        }
+    }
+
+
+    // Remet le compteur à zéro après une connexion réussie
+    public void recordSuccess(String beneficiaryNumber) {
+        attempts.remove(beneficiaryNumber);
+    }
+
+
+    int size() {
+        return attempts.size();
+    }
+
+
+    // Supprime les entrées dont la fenêtre et le blocage sont terminés (au plus une fois par minute)
+    private void purgeIfDue(long now) {
+        if (now < nextPurge) {
+            return;
+        }
+        nextPurge = now + 60_000;
+        attempts.values().removeIf(entry -> {
+            synchronized (entry) {
+                return entry.blockedUntil <= now && now - entry.windowStart > windowMillis;
+            }
+        });
+    }
+
+}
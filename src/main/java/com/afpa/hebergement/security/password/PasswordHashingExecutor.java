@@ -0,0 +1,126 @@
+package com.afpa.hebergement.security.password;
+
+import com.afpa.hebergement.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool dédié, borné, pour les calculs de hachage de mot de passe (BCrypt : plusieurs centaines de ms de CPU par hachage).
+ * Les threads des requêtes HTTP n'exécutent plus le hachage : une rafale de connexions ne consomme au plus que
+ * le nombre de threads du pool, les autres endpoints gardent le reste du CPU.
+ * Quand la file d'attente est pleine, ou si le résultat n'arrive pas dans le délai maximal,
+ * une {@link ServiceUnavailableException} (503) est levée immédiatement au lieu d'accumuler les requêtes.
+ * Métriques : password.hashing.queue (profondeur de la file), password.hashing.active (hachages en cours),
+ * password.hashing.duration (durée d'un hachage, par opération) et password.hashing.rejected (requêtes refusées).
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    public static final String BUSY_MESSAGE = "Too many authentication requests, please try again later";
+
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+
+    public PasswordHashingExecutor(@Value("${security.password-hashing.threads:0}") int threads,
+                                   @Value("${security.password-hashing.queue-capacity:32}") int queueCapacity,
+                                   @Value("${security.password-hashing.max-wait-ms:2000}") long maxWaitMillis,
+                                   MeterRegistry meterRegistry) {
+
+        // Par défaut un thread par cœur : le hachage est purement CPU
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWaitMillis = maxWaitMillis;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("password.hashing.queue", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks running")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashing requests rejected because the pool is saturated")
+                .register(meterRegistry);
+
+        logger.info("Password hashing pool started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+
+    /**
+     * Exécute le calcul dans le pool et attend son résultat.
+     * @param operation nom de l'opération pour les métriques (encode, matches)
+     * @throws ServiceUnavailableException si le pool est saturé ou si le délai maximal est dépassé
+     */
+    public <T> T execute(String operation, Supplier<T> hashing) {
+
+        Timer timer = Timer.builder("password.hashing.duration")
+                .description("Password hashing duration, queue time excluded")
+                .tag("operation", operation)
+                .register(meterRegistry);
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.record(hashing));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException(BUSY_MESSAGE);
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceUnavailableException(BUSY_MESSAGE);
+
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(BUSY_MESSAGE);
+
+        } catch (ExecutionException e) {
+            // Erreur du calcul lui-même (ex : hachage mal formé) : relancée telle quelle
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+
+    int queueSize() {
+        return executor.getQueue().size();
+    }
+
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
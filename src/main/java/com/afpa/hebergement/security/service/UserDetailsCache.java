@@ -0,0 +1,83 @@
+package com.afpa.hebergement.security.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache borné, à durée de vie limitée, des {@link UserDetailsImpl} indexés par numéro de bénéficiaire (sujet du JWT).
+ * Évite de recharger l'utilisateur et son rôle depuis la base à chaque requête authentifiée.
+ * Les entrées sont invalidées par les services lors de la modification ou de la suppression d'un utilisateur ou d'un rôle ;
+ * la durée de vie borne le délai de prise en compte des autres modifications faites directement en base.
+ */
+@Component
+public class UserDetailsCache {
+
+    private record Entry(UserDetailsImpl userDetails, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxSize;
+
+    public UserDetailsCache(@Value("${jwt.user-cache.ttl-seconds:60}") long ttlSeconds,
+                            @Value("${jwt.user-cache.max-size:10000}") int maxSize) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxSize = maxSize;
+    }
+
+
+    /**
+     * Retourne l'utilisateur en cache, ou le charge avec le loader s'il est absent ou expiré.
+     * @param loader chargement depuis la base (peut lever une exception si l'utilisateur n'existe plus)
+     */
+    public UserDetailsImpl get(String beneficiaryNumber, Function<String, UserDetailsImpl> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(beneficiaryNumber);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.userDetails();
+        }
+
+        UserDetailsImpl userDetails = loader.apply(beneficiaryNumber);
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(beneficiaryNumber, new Entry(userDetails, now + ttlMillis));
+        return userDetails;
+    }
+
+
+    // Invalide l'utilisateur (modification, changement de mot de passe ou suppression)
+    public void invalidate(String beneficiaryNumber) {
+        if (beneficiaryNumber != null) {
+            entries.remove(beneficiaryNumber);
+        }
+    }
+
+
+    // Invalide tous les utilisateurs (modification ou suppression d'un rôle)
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+
+    int size() {
+        return entries.size();
+    }
+
+
+    // Supprime les entrées expirées, puis des entrées quelconques tant que le cache est plein
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+}
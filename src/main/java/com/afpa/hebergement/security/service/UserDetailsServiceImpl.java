@@ -5,16 +5,19 @@ import com.afpa.hebergement.model.repository.AppUserRepository;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
 @AllArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     AppUserRepository appUserRepository;
 
+    UserDetailsCache userDetailsCache;
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String number) throws UsernameNotFoundException {
@@ -22,4 +25,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return UserDetailsImpl.build(user);
     }
 
+    // Appelé après une connexion réussie quand le hachage stocké utilise un ancien facteur de coût : enregistre le nouveau hachage
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        String number = ((UserDetailsImpl) userDetails).getBeneficiaryNumber();
+        AppUser user = appUserRepository.findByBeneficiaryNumber(number).orElseThrow(() -> new UsernameNotFoundException(number));
+        user.setPassword(newPassword);
+        AppUser updatedUser = appUserRepository.save(user);
+        userDetailsCache.invalidate(number);
+        return UserDetailsImpl.build(updatedUser);
+    }
+
 }
@@ -0,0 +1,352 @@
+package com.afpa.hebergement.service.appointment_slot;
+
+import com.afpa.hebergement.model.entity.Appointment;
+import com.afpa.hebergement.model.entity.Day;
+import com.afpa.hebergement.model.entity.Intendant;
+import com.afpa.hebergement.model.entity.Schedule;
+import com.afpa.hebergement.model.repository.AppointmentRepository;
+import com.afpa.hebergement.model.repository.IntendantRepository;
+import com.afpa.hebergement.model.repository.ScheduleRepository;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Moteur de créneaux de rendez-vous des intendants, en mémoire.
+ * Chaque centre Afpa est chargé une seule fois depuis la base (intendants, horaires et rendez-vous à venir),
+ * puis maintenu à jour de manière incrémentale : un rendez-vous créé, déplacé ou supprimé ne modifie que son créneau,
+ * un changement d'horaires ne recharge que les horaires de l'intendant concerné.
+ * La vérification d'un créneau et la recherche des prochains créneaux libres ne nécessitent plus de requête.
+ * Les modifications validées pendant le chargement d'un centre sont journalisées puis rejouées sur le centre chargé.
+ */
+@Component
+public class AppointmentSlotEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentSlotEngine.class);
+
+    private final IntendantRepository intendantRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final SlotGrid grid;
+    private final int horizonDays;
+
+    // Créneaux chargés, par ID de centre Afpa
+    private final Map<Integer, CenterSlots> centers = new ConcurrentHashMap<>();
+
+    // Chargements en cours, par ID de centre Afpa
+    private final Map<Integer, PendingLoad> pendingLoads = new ConcurrentHashMap<>();
+
+    // Centre Afpa de chaque intendant déjà rencontré
+    private final Map<Integer, Integer> intendantCenters = new ConcurrentHashMap<>();
+
+    // Intendants dont les horaires ont changé, rechargés à la prochaine lecture de leur centre
+    private final Set<Integer> staleIntendants = ConcurrentHashMap.newKeySet();
+
+
+    public AppointmentSlotEngine(IntendantRepository intendantRepository,
+                                 ScheduleRepository scheduleRepository,
+                                 AppointmentRepository appointmentRepository,
+                                 ReferenceDataRegistry referenceDataRegistry,
+                                 @Value("${appointment-slot.duration-minutes:30}") int slotMinutes,
+                                 @Value("${appointment-slot.horizon-days:60}") int horizonDays) {
+        this.intendantRepository = intendantRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.grid = new SlotGrid(slotMinutes);
+        this.horizonDays = horizonDays;
+    }
+
+
+    public SlotGrid getGrid() {
+        return grid;
+    }
+
+
+    /**
+     * Prochains créneaux libres des intendants d'un centre à partir de l'heure donnée,
+     * triés par heure puis par intendant, dans la limite de l'horizon de recherche.
+     */
+    public List<CenterSlots.FreeSlot> nextFreeSlots(Integer idAfpaCenter, LocalDateTime from, int count) {
+        return getCenter(idAfpaCenter).nextFreeSlots(from, from.toLocalDate().plusDays(horizonDays), count);
+    }
+
+
+    /**
+     * État du créneau commençant à l'heure donnée pour un intendant.
+     *
+     * @param excludedAppointmentId rendez-vous à ignorer (déplacement d'un rendez-vous), ou null
+     */
+    public SlotStatus check(Integer idIntendant, LocalDateTime start, Integer excludedAppointmentId) {
+        Integer idAfpaCenter = centerOf(idIntendant);
+        if (idAfpaCenter == null) {
+            return SlotStatus.OUTSIDE_SCHEDULE;
+        }
+        return getCenter(idAfpaCenter).status(idIntendant, start, excludedAppointmentId);
+    }
+
+
+    // Enregistre (ou déplace) un rendez-vous
+    public void registerAppointment(Appointment appointment) {
+        Integer idIntendant = appointment.getIdIntendant().getId();
+        Integer idAppointment = appointment.getId();
+        LocalDateTime dateAppointment = appointment.getDateAppointment();
+
+        afterCommit(() -> {
+            // Retirer l'ancien créneau, éventuellement chez un autre intendant
+            releaseNow(idAppointment);
+
+            // Un centre non chargé lira le rendez-vous depuis la base lors de son chargement
+            Integer idAfpaCenter = intendantCenters.get(idIntendant);
+            if (idAfpaCenter != null) {
+                apply(idAfpaCenter, center -> center.book(idIntendant, idAppointment, dateAppointment));
+            }
+        });
+    }
+
+
+    // Libère le créneau d'un rendez-vous supprimé
+    public void releaseAppointment(Integer idAppointment) {
+        afterCommit(() -> releaseNow(idAppointment));
+    }
+
+
+    // Horaires ou période d'activité d'un intendant modifiés : ils seront relus à la prochaine demande
+    // (un intendant d'un centre non chargé sera lu avec son centre)
+    public void refreshIntendant(Integer idIntendant) {
+        afterCommit(() -> {
+            Integer idAfpaCenter = intendantCenters.get(idIntendant);
+            if (idAfpaCenter != null) {
+                apply(idAfpaCenter, center -> staleIntendants.add(idIntendant));
+            }
+        });
+    }
+
+
+    // Retire un intendant supprimé
+    public void removeIntendant(Integer idIntendant) {
+        afterCommit(() -> {
+            staleIntendants.remove(idIntendant);
+            Integer idAfpaCenter = intendantCenters.remove(idIntendant);
+            if (idAfpaCenter != null) {
+                apply(idAfpaCenter, center -> {
+                    center.removeIntendant(idIntendant);
+                    intendantCenters.remove(idIntendant);
+                });
+            }
+        });
+    }
+
+
+    // Invalide un centre, qui sera rechargé à la prochaine demande (un chargement en cours ne sera pas conservé)
+    public void invalidateCenter(Integer idAfpaCenter) {
+        PendingLoad pendingLoad = pendingLoads.get(idAfpaCenter);
+        if (pendingLoad != null) {
+            synchronized (pendingLoad) {
+                pendingLoad.invalidated = true;
+            }
+        }
+        centers.remove(idAfpaCenter);
+    }
+
+
+    // Vide le moteur (rechargement complet à la prochaine demande)
+    public void invalidateAll() {
+        pendingLoads.keySet().forEach(this::invalidateCenter);
+        centers.clear();
+        intendantCenters.clear();
+        staleIntendants.clear();
+    }
+
+
+    private void releaseNow(Integer idAppointment) {
+        pendingLoads.keySet().forEach(idAfpaCenter -> apply(idAfpaCenter, center -> center.release(idAppointment)));
+        centers.values().forEach(center -> center.release(idAppointment));
+    }
+
+
+    /**
+     * Applique une modification validée au centre chargé, ou la journalise si le centre est en cours de chargement :
+     * la lecture en base a pu commencer avant la validation et ne pas la voir.
+     */
+    private void apply(Integer idAfpaCenter, Consumer<CenterSlots> change) {
+        PendingLoad pendingLoad = pendingLoads.get(idAfpaCenter);
+        if (pendingLoad != null) {
+            synchronized (pendingLoad) {
+                if (!pendingLoad.published) {
+                    pendingLoad.changes.add(change);
+                    return;
+                }
+            }
+        }
+        CenterSlots center = centers.get(idAfpaCenter);
+        if (center != null) {
+            change.accept(center);
+        }
+    }
+
+
+    // Applique une modification après la validation de la transaction en cours (ou immédiatement hors transaction)
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+
+    private Integer centerOf(Integer idIntendant) {
+        Integer idAfpaCenter = intendantCenters.get(idIntendant);
+        if (idAfpaCenter == null) {
+            idAfpaCenter = intendantRepository.findAfpaCenterIdById(idIntendant).orElse(null);
+            if (idAfpaCenter != null) {
+                intendantCenters.put(idIntendant, idAfpaCenter);
+            }
+        }
+        return idAfpaCenter;
+    }
+
+
+    private CenterSlots getCenter(Integer idAfpaCenter) {
+        CenterSlots center = centers.get(idAfpaCenter);
+        if (center == null) {
+            center = loadAndPublish(idAfpaCenter);
+        }
+        if (!staleIntendants.isEmpty()) {
+            reloadStaleIntendants(center);
+        }
+        return center;
+    }
+
+
+    // Charge le centre hors de la map puis rejoue les modifications validées pendant le chargement
+    private CenterSlots loadAndPublish(Integer idAfpaCenter) {
+
+        PendingLoad pendingLoad = new PendingLoad();
+        if (pendingLoads.putIfAbsent(idAfpaCenter, pendingLoad) != null) {
+            // Centre déjà en cours de chargement par un autre thread : chargement indépendant, non conservé
+            return loadCenter(idAfpaCenter);
+        }
+
+        try {
+            // Le centre a pu être publié entre la lecture et l'enregistrement du chargement
+            CenterSlots loaded = centers.get(idAfpaCenter);
+            if (loaded != null) {
+                return loaded;
+            }
+
+            CenterSlots center = loadCenter(idAfpaCenter);
+            synchronized (pendingLoad) {
+                pendingLoad.changes.forEach(change -> change.accept(center));
+                if (!pendingLoad.invalidated) {
+                    centers.put(idAfpaCenter, center);
+                }
+                pendingLoad.published = true;
+            }
+            return center;
+
+        } finally {
+            pendingLoads.remove(idAfpaCenter, pendingLoad);
+        }
+    }
+
+
+    // Relit les horaires des intendants modifiés de ce centre
+    private void reloadStaleIntendants(CenterSlots center) {
+        for (Integer idIntendant : List.copyOf(staleIntendants)) {
+            if (!center.getIdAfpaCenter().equals(intendantCenters.get(idIntendant)) || !staleIntendants.remove(idIntendant)) {
+                continue;
+            }
+            Optional<Intendant> intendant = intendantRepository.findById(idIntendant);
+            if (intendant.isEmpty()) {
+                center.removeIntendant(idIntendant);
+                intendantCenters.remove(idIntendant);
+            } else {
+                center.putIntendant(idIntendant, weekly(scheduleRepository.findByIdIntendant_Id(idIntendant)),
+                        intendant.get().getStartDateIntendant(), intendant.get().getEndDateIntendant());
+            }
+        }
+    }
+
+
+    // Charge les intendants, leurs horaires et leurs rendez-vous à venir d'un centre
+    private CenterSlots loadCenter(Integer idAfpaCenter) {
+
+        long start = System.nanoTime();
+        CenterSlots center = new CenterSlots(idAfpaCenter, grid);
+
+        Map<Integer, List<Schedule>> schedules = new HashMap<>();
+        for (Schedule schedule : scheduleRepository.findByIdIntendant_IdUser_IdAfpaCenter_Id(idAfpaCenter)) {
+            schedules.computeIfAbsent(schedule.getIdIntendant().getId(), id -> new ArrayList<>()).add(schedule);
+        }
+
+        for (Intendant intendant : intendantRepository.findByIdUser_IdAfpaCenter_Id(idAfpaCenter)) {
+            center.putIntendant(intendant.getId(), weekly(schedules.getOrDefault(intendant.getId(), List.of())),
+                    intendant.getStartDateIntendant(), intendant.getEndDateIntendant());
+            intendantCenters.put(intendant.getId(), idAfpaCenter);
+            staleIntendants.remove(intendant.getId());
+        }
+
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        for (Appointment appointment : appointmentRepository.findByIdIntendant_IdUser_IdAfpaCenter_IdAndDateAppointmentGreaterThanEqual(idAfpaCenter, today)) {
+            center.book(appointment.getIdIntendant().getId(), appointment.getId(), appointment.getDateAppointment());
+        }
+
+        logger.info("Appointment slots loaded for Afpa center {} in {} ms", idAfpaCenter, (System.nanoTime() - start) / 1_000_000);
+        return center;
+    }
+
+
+    // Modèle hebdomadaire d'un intendant : créneaux du matin et de l'après-midi de chaque jour de ses horaires
+    private long[] weekly(List<Schedule> schedules) {
+        long[] weekly = new long[7];
+        for (Schedule schedule : schedules) {
+            String wordingDay = referenceDataRegistry.days().findById(schedule.getIdDay().getId())
+                    .map(Day::getWordingDay)
+                    .orElse(null);
+            DayOfWeek dayOfWeek = SlotGrid.dayOfWeek(wordingDay);
+            if (dayOfWeek == null) {
+                logger.warn("Schedule {} ignored: unknown day {}", schedule.getId(), wordingDay);
+                continue;
+            }
+            weekly[dayOfWeek.getValue() - 1] |= grid.mask(time(schedule.getStartMorning()), time(schedule.getEndMorning()))
+                    | grid.mask(time(schedule.getStartAfternoon()), time(schedule.getEndAfternoon()));
+        }
+        return weekly;
+    }
+
+
+    private static LocalTime time(Time time) {
+        return time == null ? null : time.toLocalTime();
+    }
+
+
+    // Chargement d'un centre en cours : modifications validées à rejouer et invalidation éventuelle
+    private static class PendingLoad {
+
+        private final List<Consumer<CenterSlots>> changes = new ArrayList<>();
+        private boolean invalidated;
+        private boolean published;
+    }
+
+}
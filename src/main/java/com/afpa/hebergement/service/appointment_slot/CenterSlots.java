@@ -0,0 +1,281 @@
+package com.afpa.hebergement.service.appointment_slot;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Créneaux de rendez-vous des intendants d'un centre Afpa.
+ * Pour chaque intendant : un modèle hebdomadaire (un masque de créneaux par jour de la semaine, tiré de ses horaires)
+ * et les créneaux pris par ses rendez-vous, par date. Les créneaux libres d'une date sont le masque du jour
+ * privé des créneaux pris : l'état d'un créneau se lit en temps constant.
+ * Les lectures et écritures sont protégées par un verrou lecture/écriture.
+ */
+public class CenterSlots {
+
+    // Créneau libre d'un intendant
+    public record FreeSlot(Integer idIntendant, LocalDateTime start) {
+    }
+
+    private final Integer idAfpaCenter;
+    private final SlotGrid grid;
+
+    // Intendants du centre, triés par ID
+    private final Map<Integer, IntendantSlots> intendants = new TreeMap<>();
+
+    // Intendant de chaque rendez-vous, pour retirer un rendez-vous sans connaître son intendant
+    private final Map<Integer, Integer> intendantByAppointment = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+
+    public CenterSlots(Integer idAfpaCenter, SlotGrid grid) {
+        this.idAfpaCenter = idAfpaCenter;
+        this.grid = grid;
+    }
+
+
+    public Integer getIdAfpaCenter() {
+        return idAfpaCenter;
+    }
+
+
+    /**
+     * Déclare un intendant ou remplace ses horaires, en gardant ses rendez-vous.
+     *
+     * @param weekly masques de créneaux par jour de la semaine (indice DayOfWeek.getValue() - 1)
+     * @param from   premier jour d'activité, ou null
+     * @param to     dernier jour d'activité, ou null
+     */
+    public void putIntendant(Integer idIntendant, long[] weekly, LocalDate from, LocalDate to) {
+        lock.writeLock().lock();
+        try {
+            IntendantSlots intendant = intendants.computeIfAbsent(idIntendant, id -> new IntendantSlots());
+            intendant.weekly = weekly.clone();
+            intendant.from = from;
+            intendant.to = to;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    // Retire un intendant et ses rendez-vous
+    public void removeIntendant(Integer idIntendant) {
+        lock.writeLock().lock();
+        try {
+            IntendantSlots intendant = intendants.remove(idIntendant);
+            if (intendant != null) {
+                intendant.appointments.keySet().forEach(intendantByAppointment::remove);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    public boolean containsIntendant(Integer idIntendant) {
+        lock.readLock().lock();
+        try {
+            return intendants.containsKey(idIntendant);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    // Ajoute ou déplace un rendez-vous ; il occupe le créneau qui contient son heure
+    public void book(Integer idIntendant, Integer idAppointment, LocalDateTime dateAppointment) {
+        lock.writeLock().lock();
+        try {
+            removeAppointment(idAppointment);
+            IntendantSlots intendant = intendants.computeIfAbsent(idIntendant, id -> new IntendantSlots());
+            intendant.book(idAppointment, dateAppointment.toLocalDate(), grid.indexOf(dateAppointment.toLocalTime()));
+            intendantByAppointment.put(idAppointment, idIntendant);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    // Retire un rendez-vous et libère son créneau s'il était le seul à l'occuper
+    public void release(Integer idAppointment) {
+        lock.writeLock().lock();
+        try {
+            removeAppointment(idAppointment);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * État du créneau commençant à l'heure donnée pour un intendant.
+     *
+     * @param excludedAppointmentId rendez-vous à ignorer (déplacement d'un rendez-vous), ou null
+     */
+    public SlotStatus status(Integer idIntendant, LocalDateTime start, Integer excludedAppointmentId) {
+        if (!grid.isSlotStart(start.toLocalTime())) {
+            return SlotStatus.OFF_GRID;
+        }
+        LocalDate date = start.toLocalDate();
+        int index = grid.indexOf(start.toLocalTime());
+
+        lock.readLock().lock();
+        try {
+            IntendantSlots intendant = intendants.get(idIntendant);
+            if (intendant == null || (intendant.open(date) & (1L << index)) == 0) {
+                return SlotStatus.OUTSIDE_SCHEDULE;
+            }
+            int bookings = intendant.bookings(date, index);
+            if (excludedAppointmentId != null && intendant.isAt(excludedAppointmentId, date, index)) {
+                bookings--;
+            }
+            return bookings > 0 ? SlotStatus.BOOKED : SlotStatus.FREE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Prochains créneaux libres, tous intendants confondus, à partir de l'heure donnée et jusqu'au jour lastDay inclus.
+     * Les créneaux sont triés par heure, puis par ID d'intendant.
+     */
+    public List<FreeSlot> nextFreeSlots(LocalDateTime from, LocalDate lastDay, int count) {
+        List<FreeSlot> slots = new ArrayList<>(count);
+
+        lock.readLock().lock();
+        try {
+            int firstIndex = grid.firstIndexFrom(from.toLocalTime());
+            for (LocalDate date = from.toLocalDate(); !date.isAfter(lastDay) && slots.size() < count; date = date.plusDays(1)) {
+
+                // Créneaux à ignorer en début de première journée
+                long skipped = date.equals(from.toLocalDate()) ? lowBits(firstIndex) : 0L;
+
+                // Créneaux libres de chaque intendant, puis leur union pour parcourir la journée dans l'ordre
+                long union = 0L;
+                Map<Integer, Long> freeByIntendant = new TreeMap<>();
+                for (Map.Entry<Integer, IntendantSlots> entry : intendants.entrySet()) {
+                    long free = entry.getValue().free(date) & ~skipped;
+                    if (free != 0L) {
+                        freeByIntendant.put(entry.getKey(), free);
+                        union |= free;
+                    }
+                }
+
+                while (union != 0L && slots.size() < count) {
+                    int index = Long.numberOfTrailingZeros(union);
+                    union &= union - 1;
+                    LocalDateTime start = date.atTime(grid.startOf(index));
+                    for (Map.Entry<Integer, Long> entry : freeByIntendant.entrySet()) {
+                        if ((entry.getValue() & (1L << index)) != 0 && slots.size() < count) {
+                            slots.add(new FreeSlot(entry.getKey(), start));
+                        }
+                    }
+                }
+            }
+            return slots;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    private void removeAppointment(Integer idAppointment) {
+        Integer idIntendant = intendantByAppointment.remove(idAppointment);
+        if (idIntendant != null) {
+            intendants.get(idIntendant).release(idAppointment);
+        }
+    }
+
+
+    // Masque des créneaux 0 à index - 1
+    private static long lowBits(int index) {
+        return index >= Long.SIZE ? -1L : (1L << index) - 1;
+    }
+
+
+    // Horaires et rendez-vous d'un intendant
+    private static final class IntendantSlots {
+
+        private long[] weekly = new long[7];
+        private LocalDate from;
+        private LocalDate to;
+
+        // Créneaux pris, par date
+        private final Map<LocalDate, Long> booked = new HashMap<>();
+
+        // Créneaux occupés par plusieurs rendez-vous (données antérieures au moteur) : nombre de rendez-vous
+        private final Map<SlotKey, Integer> shared = new HashMap<>();
+
+        private final Map<Integer, SlotKey> appointments = new HashMap<>();
+
+
+        // Créneaux des horaires de l'intendant à cette date
+        long open(LocalDate date) {
+            if ((from != null && date.isBefore(from)) || (to != null && date.isAfter(to))) {
+                return 0L;
+            }
+            return weekly[date.getDayOfWeek().getValue() - 1];
+        }
+
+
+        long free(LocalDate date) {
+            return open(date) & ~booked.getOrDefault(date, 0L);
+        }
+
+
+        int bookings(LocalDate date, int index) {
+            if ((booked.getOrDefault(date, 0L) & (1L << index)) == 0) {
+                return 0;
+            }
+            return shared.getOrDefault(new SlotKey(date, index), 1);
+        }
+
+
+        boolean isAt(Integer idAppointment, LocalDate date, int index) {
+            return new SlotKey(date, index).equals(appointments.get(idAppointment));
+        }
+
+
+        void book(Integer idAppointment, LocalDate date, int index) {
+            SlotKey key = new SlotKey(date, index);
+            int bookings = bookings(date, index);
+            if (bookings > 0) {
+                shared.put(key, bookings + 1);
+            }
+            booked.merge(date, 1L << index, (a, b) -> a | b);
+            appointments.put(idAppointment, key);
+        }
+
+
+        void release(Integer idAppointment) {
+            SlotKey key = appointments.remove(idAppointment);
+            if (key == null) {
+                return;
+            }
+            int bookings = bookings(key.date(), key.index());
+            if (bookings > 2) {
+                shared.put(key, bookings - 1);
+            } else if (bookings == 2) {
+                shared.remove(key);
+            } else {
+                long mask = booked.getOrDefault(key.date(), 0L) & ~(1L << key.index());
+                if (mask == 0L) {
+                    booked.remove(key.date());
+                } else {
+                    booked.put(key.date(), mask);
+                }
+            }
+        }
+
+    }
+
+
+    private record SlotKey(LocalDate date, int index) {
+    }
+
+}
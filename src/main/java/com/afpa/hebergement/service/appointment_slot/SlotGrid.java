@@ -0,0 +1,100 @@
+package com.afpa.hebergement.service.appointment_slot;
+
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Découpage d'une journée en créneaux de même durée, numérotés à partir de minuit.
+ * Une journée compte au plus 64 créneaux : les créneaux d'un jour tiennent dans un {@code long} (bit i = créneau i).
+ */
+public record SlotGrid(int slotMinutes) {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Libellés des jours (table day), en français ou en anglais, sans accent ni majuscule
+    private static final Map<String, DayOfWeek> DAY_WORDINGS = Map.ofEntries(
+            Map.entry("lundi", DayOfWeek.MONDAY), Map.entry("monday", DayOfWeek.MONDAY),
+            Map.entry("mardi", DayOfWeek.TUESDAY), Map.entry("tuesday", DayOfWeek.TUESDAY),
+            Map.entry("mercredi", DayOfWeek.WEDNESDAY), Map.entry("wednesday", DayOfWeek.WEDNESDAY),
+            Map.entry("jeudi", DayOfWeek.THURSDAY), Map.entry("thursday", DayOfWeek.THURSDAY),
+            Map.entry("vendredi", DayOfWeek.FRIDAY), Map.entry("friday", DayOfWeek.FRIDAY),
+            Map.entry("samedi", DayOfWeek.SATURDAY), Map.entry("saturday", DayOfWeek.SATURDAY),
+            Map.entry("dimanche", DayOfWeek.SUNDAY), Map.entry("sunday", DayOfWeek.SUNDAY));
+
+    public SlotGrid {
+        if (slotMinutes <= 0 || MINUTES_PER_DAY % slotMinutes != 0 || MINUTES_PER_DAY / slotMinutes > Long.SIZE) {
+            throw new IllegalArgumentException("Slot duration must divide a day into at most 64 slots: " + slotMinutes);
+        }
+    }
+
+
+    public int slotsPerDay() {
+        return MINUTES_PER_DAY / slotMinutes;
+    }
+
+
+    // Créneau contenant l'heure donnée
+    public int indexOf(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / slotMinutes;
+    }
+
+
+    // Premier créneau commençant à l'heure donnée ou après (slotsPerDay() s'il n'y en a plus dans la journée)
+    public int firstIndexFrom(LocalTime time) {
+        int minutes = time.getHour() * 60 + time.getMinute();
+        boolean exact = minutes % slotMinutes == 0 && time.getSecond() == 0 && time.getNano() == 0;
+        return minutes / slotMinutes + (exact ? 0 : 1);
+    }
+
+
+    // Indique si l'heure est le début d'un créneau
+    public boolean isSlotStart(LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0 && (time.getHour() * 60 + time.getMinute()) % slotMinutes == 0;
+    }
+
+
+    public LocalTime startOf(int index) {
+        return LocalTime.MIN.plusMinutes((long) index * slotMinutes);
+    }
+
+
+    /**
+     * Créneaux entièrement compris dans la plage horaire [start, end[ (plage ignorée si une borne est null).
+     * La fin de journée peut être donnée par 00:00 ou 23:59.
+     */
+    public long mask(LocalTime start, LocalTime end) {
+        if (start == null || end == null) {
+            return 0L;
+        }
+        int startMinutes = start.getHour() * 60 + start.getMinute();
+        int endMinutes = end.getHour() * 60 + end.getMinute();
+        if (end.equals(LocalTime.MIDNIGHT) || end.equals(LocalTime.of(23, 59))) {
+            endMinutes = MINUTES_PER_DAY;
+        }
+
+        long mask = 0L;
+        for (int index = 0; index < slotsPerDay(); index++) {
+            int slotStart = index * slotMinutes;
+            if (slotStart >= startMinutes && slotStart + slotMinutes <= endMinutes) {
+                mask |= 1L << index;
+            }
+        }
+        return mask;
+    }
+
+
+    // Jour de la semaine correspondant au libellé d'un jour, ou null s'il n'est pas reconnu
+    public static DayOfWeek dayOfWeek(String wordingDay) {
+        if (wordingDay == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(wordingDay.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        return DAY_WORDINGS.get(normalized);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.afpa.hebergement.service.appointment_slot;
+
+/**
+ * État d'un créneau de rendez-vous pour un intendant.
+ */
+public enum SlotStatus {
+
+    // Créneau dans les horaires de l'intendant et sans rendez-vous
+    FREE,
+
+    // Créneau déjà pris par un autre rendez-vous
+    BOOKED,
+
+    // Hors des horaires de l'intendant (jour, heure ou période d'activité)
+    OUTSIDE_SCHEDULE,
+
+    // L'heure ne correspond pas au début d'un créneau
+    OFF_GRID
+
+}
@@ -0,0 +1,122 @@
+package com.afpa.hebergement.service.availability;
+
+import com.afpa.hebergement.exception.DuplicateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Exécute une écriture de réservation dans sa propre transaction, avec une politique de nouvelles tentatives bornée.
+ * L'absence de chevauchement est garantie par les contraintes d'exclusion reservation_room_period_excl (chambre)
+ * et reservation_user_period_excl (occupant) : une violation est traduite en {@link DuplicateException} (409)
+ * avec le message de la contrainte violée, sans nouvelle tentative.
+ * Les conflits de verrouillage optimiste (@Version) ou les interblocages sont rejoués jusqu'à MAX_ATTEMPTS fois.
+ */
+@Component
+public class BookingTransactionExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingTransactionExecutor.class);
+
+    public static final String RESERVATION_OVERLAP_CONSTRAINT = "reservation_room_period_excl";
+    public static final String USER_OVERLAP_CONSTRAINT = "reservation_user_period_excl";
+    public static final String USER_ALREADY_HAS_A_RESERVATION = "User already has a reservation for the given dates";
+    public static final String CONCURRENT_MODIFICATION = "The room was modified concurrently, please try again";
+
+    // Nombre maximal de tentatives, et attente de base entre deux tentatives (en millisecondes)
+    static final int MAX_ATTEMPTS = 3;
+    static final long BACKOFF_MILLIS = 20;
+
+    // Code SQLSTATE PostgreSQL d'une violation de contrainte d'exclusion
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private final TransactionTemplate transactionTemplate;
+
+
+    public BookingTransactionExecutor(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+
+    /**
+     * Exécute l'action dans une nouvelle transaction.
+     *
+     * @param conflictMessage message de la DuplicateException levée si la période chevauche une réservation existante
+     *                        de la chambre ; un chevauchement pour l'occupant lève USER_ALREADY_HAS_A_RESERVATION
+     */
+    public <T> T execute(Supplier<T> action, String conflictMessage) {
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+
+            } catch (DataIntegrityViolationException e) {
+                String constraint = violatedPeriodConstraint(e);
+                if (RESERVATION_OVERLAP_CONSTRAINT.equals(constraint)) {
+                    throw new DuplicateException(conflictMessage);
+                }
+                if (USER_OVERLAP_CONSTRAINT.equals(constraint)) {
+                    throw new DuplicateException(USER_ALREADY_HAS_A_RESERVATION);
+                }
+                throw e;
+
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    logger.warn("Booking abandoned after {} attempts: {}", attempt, e.getMessage());
+                    throw new DuplicateException(CONCURRENT_MODIFICATION);
+                }
+                logger.debug("Booking attempt {} failed on a concurrent modification, retrying", attempt);
+                pause(attempt);
+            }
+        }
+    }
+
+
+    // Indique si l'exception provient d'une des contraintes d'exclusion sur les périodes de réservation
+    public static boolean isPeriodConflict(Throwable exception) {
+        return violatedPeriodConstraint(exception) != null;
+    }
+
+
+    // Nom de la contrainte d'exclusion sur les périodes violée par l'exception, ou null s'il s'agit d'une autre erreur
+    static String violatedPeriodConstraint(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            String constraint = null;
+            if (cause instanceof ConstraintViolationException violation) {
+                constraint = violation.getConstraintName();
+            } else if (cause instanceof SQLException sqlException && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                // Le message PostgreSQL cite la contrainte : ... violates exclusion constraint "reservation_room_period_excl"
+                constraint = sqlException.getMessage();
+            }
+            if (constraint != null) {
+                if (constraint.contains(RESERVATION_OVERLAP_CONSTRAINT)) {
+                    return RESERVATION_OVERLAP_CONSTRAINT;
+                }
+                if (constraint.contains(USER_OVERLAP_CONSTRAINT)) {
+                    return USER_OVERLAP_CONSTRAINT;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    // Attente croissante avec une part aléatoire, pour désynchroniser les requêtes concurrentes
+    private static void pause(int attempt) {
+        try {
+            Thread.sleep(BACKOFF_MILLIS * attempt + ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DuplicateException(CONCURRENT_MODIFICATION);
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.afpa.hebergement.service.availability;
+
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Disponibilités des chambres d'un centre Afpa.
+ * Regroupe l'index d'occupation de chaque chambre et protège les lectures/écritures par un verrou lecture/écriture.
+ */
+public class CenterAvailability {
+
+    private final Integer idAfpaCenter;
+
+    // Index d'occupation par chambre, triés par ID de chambre
+    private final Map<Integer, RoomOccupancy> rooms = new TreeMap<>();
+
+    // Chambres non utilisables (exclues de la recherche de chambres libres)
+    private final Set<Integer> unusableRooms = new HashSet<>();
+
+    // Chambre portant chaque source, pour retirer une période sans connaître sa chambre
+    private final Map<RoomOccupancy.SlotKey, Integer> roomBySource = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+
+    public CenterAvailability(Integer idAfpaCenter) {
+        this.idAfpaCenter = idAfpaCenter;
+    }
+
+
+    public Integer getIdAfpaCenter() {
+        return idAfpaCenter;
+    }
+
+
+    // Déclare une chambre du centre
+    public void addRoom(Integer idRoom, boolean usable) {
+        lock.writeLock().lock();
+        try {
+            rooms.computeIfAbsent(idRoom, id -> new RoomOccupancy());
+            if (usable) {
+                unusableRooms.remove(idRoom);
+            } else {
+                unusableRooms.add(idRoom);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    // Ajoute ou remplace la période d'occupation d'une source sur une chambre du centre
+    public void occupy(Integer idRoom, OccupancyType type, Integer sourceId, LocalDate start, LocalDate end) {
+        lock.writeLock().lock();
+        try {
+            removeSource(type, sourceId);
+            rooms.computeIfAbsent(idRoom, id -> new RoomOccupancy()).add(type, sourceId, start, end);
+            roomBySource.put(new RoomOccupancy.SlotKey(type, sourceId), idRoom);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    // Retire la période d'occupation d'une source
+    public void release(OccupancyType type, Integer sourceId) {
+        lock.writeLock().lock();
+        try {
+            removeSource(type, sourceId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    // Renvoie les ID des chambres utilisables et libres sur toute la période [start, end[
+    public List<Integer> findFreeRooms(LocalDate start, LocalDate end) {
+        lock.readLock().lock();
+        try {
+            List<Integer> freeRooms = new ArrayList<>();
+            for (Map.Entry<Integer, RoomOccupancy> entry : rooms.entrySet()) {
+                if (!unusableRooms.contains(entry.getKey()) && !entry.getValue().overlaps(start, end, null, null)) {
+                    freeRooms.add(entry.getKey());
+                }
+            }
+            return freeRooms;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    private void removeSource(OccupancyType type, Integer sourceId) {
+        Integer idRoom = roomBySource.remove(new RoomOccupancy.SlotKey(type, sourceId));
+        if (idRoom != null) {
+            rooms.get(idRoom).remove(type, sourceId);
+        }
+    }
+
+}
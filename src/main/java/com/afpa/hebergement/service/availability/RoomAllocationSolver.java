@@ -0,0 +1,95 @@
+package com.afpa.hebergement.service.availability;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Solveur glouton d'attribution des chambres d'une session de formation (une personne par chambre).
+ * Les chambres candidates sont déjà libres et utilisables sur toute la période de la session.
+ * Contrainte : les étages réservés aux femmes n'accueillent que des femmes.
+ * Les femmes sont d'abord placées sur les étages qui leur sont réservés, les hommes sur les étages mixtes,
+ * puis les femmes restantes sur les chambres mixtes encore libres : le nombre de personnes placées est maximal.
+ * Les chambres sont remplies par étage croissant puis par ID, pour regrouper la session.
+ */
+public class RoomAllocationSolver {
+
+    // Personne à loger
+    public record Occupant(Integer idUser, boolean woman) {
+    }
+
+    // Chambre libre candidate
+    public record CandidateRoom(Integer idRoom, Integer numberFloor, boolean forWomen) {
+    }
+
+    // Chambre attribuée à une personne
+    public record Assignment(Integer idUser, Integer idRoom) {
+    }
+
+    // Résultat : attributions et personnes qui n'ont pas pu être placées
+    public record Allocation(List<Assignment> assignments, List<Integer> unplacedUserIds) {
+    }
+
+    private static final Comparator<CandidateRoom> FILL_ORDER = Comparator
+            .comparing(CandidateRoom::numberFloor, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(CandidateRoom::idRoom);
+
+
+    // Constructeur privé pour empêcher l'instanciation de cette classe
+    private RoomAllocationSolver() {
+    }
+
+
+    public static Allocation solve(List<Occupant> occupants, List<CandidateRoom> freeRooms) {
+
+        List<CandidateRoom> sortedRooms = new ArrayList<>(freeRooms);
+        sortedRooms.sort(FILL_ORDER);
+
+        Deque<CandidateRoom> womenRooms = new ArrayDeque<>();
+        Deque<CandidateRoom> mixedRooms = new ArrayDeque<>();
+        for (CandidateRoom room : sortedRooms) {
+            (room.forWomen() ? womenRooms : mixedRooms).addLast(room);
+        }
+
+        List<Assignment> assignments = new ArrayList<>(occupants.size());
+        List<Integer> unplacedUserIds = new ArrayList<>();
+        List<Occupant> womenWithoutRoom = new ArrayList<>();
+
+        // Les femmes sur les étages qui leur sont réservés
+        for (Occupant occupant : occupants) {
+            if (occupant.woman()) {
+                if (womenRooms.isEmpty()) {
+                    womenWithoutRoom.add(occupant);
+                } else {
+                    assignments.add(new Assignment(occupant.idUser(), womenRooms.pollFirst().idRoom()));
+                }
+            }
+        }
+
+        // Les hommes sur les étages mixtes
+        for (Occupant occupant : occupants) {
+            if (!occupant.woman()) {
+                assign(occupant, mixedRooms, assignments, unplacedUserIds);
+            }
+        }
+
+        // Les femmes restantes sur les chambres mixtes encore libres
+        for (Occupant occupant : womenWithoutRoom) {
+            assign(occupant, mixedRooms, assignments, unplacedUserIds);
+        }
+
+        return new Allocation(assignments, unplacedUserIds);
+    }
+
+
+    private static void assign(Occupant occupant, Deque<CandidateRoom> rooms, List<Assignment> assignments, List<Integer> unplacedUserIds) {
+        if (rooms.isEmpty()) {
+            unplacedUserIds.add(occupant.idUser());
+        } else {
+            assignments.add(new Assignment(occupant.idUser(), rooms.pollFirst().idRoom()));
+        }
+    }
+
+}
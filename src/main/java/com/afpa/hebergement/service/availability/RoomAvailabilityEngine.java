@@ -0,0 +1,257 @@
+package com.afpa.hebergement.service.availability;
+
+import com.afpa.hebergement.model.dto.OccupancyPeriodDTO;
+import com.afpa.hebergement.model.entity.LeaseContract;
+import com.afpa.hebergement.model.entity.Reservation;
+import com.afpa.hebergement.model.entity.Room;
+import com.afpa.hebergement.model.entity.Work;
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
+import com.afpa.hebergement.model.repository.LeaseContractRepository;
+import com.afpa.hebergement.model.repository.ReservationRepository;
+import com.afpa.hebergement.model.repository.RoomRepository;
+import com.afpa.hebergement.model.repository.WorkRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Moteur de disponibilité des chambres en mémoire.
+ * Chaque centre Afpa est chargé une seule fois depuis la base (réservations, contrats de bail et travaux),
+ * puis maintenu à jour de manière incrémentale par les services lors des créations, mises à jour et suppressions.
+ * Les vérifications de chevauchement et la recherche de chambres libres ne nécessitent plus de requête.
+ * Les modifications validées pendant le chargement d'un centre sont journalisées puis rejouées sur le centre chargé.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomAvailabilityEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAvailabilityEngine.class);
+
+    private final RoomRepository roomRepository;
+    private final ReservationRepository reservationRepository;
+    private final LeaseContractRepository leaseContractRepository;
+    private final WorkRepository workRepository;
+
+    // Disponibilités chargées, par ID de centre Afpa
+    private final Map<Integer, CenterAvailability> centers = new ConcurrentHashMap<>();
+
+    // Chargements en cours, par ID de centre Afpa
+    private final Map<Integer, PendingLoad> pendingLoads = new ConcurrentHashMap<>();
+
+    // Centre Afpa de chaque chambre déjà rencontrée, pour éviter de parcourir étage -> centre
+    private final Map<Integer, Integer> roomCenters = new ConcurrentHashMap<>();
+
+
+    /**
+     * Renvoie les ID des chambres utilisables et libres d'un centre sur la période [startDate, endDate[.
+     * Une chambre est libre si elle n'a ni réservation, ni contrat de bail, ni travaux sur la période.
+     */
+    public List<Integer> findFreeRoomIds(Integer idAfpaCenter, LocalDate startDate, LocalDate endDate) {
+        return getCenter(idAfpaCenter).findFreeRooms(startDate, endDate);
+    }
+
+
+    // Enregistre (ou déplace) une réservation
+    public void registerReservation(Reservation reservation, Room room) {
+        occupy(room, OccupancyType.RESERVATION, reservation.getId(), reservation.getStartDate(), reservation.getEndDate());
+    }
+
+
+    // Enregistre (ou déplace) un contrat de bail
+    public void registerLease(LeaseContract leaseContract, Room room) {
+        if (leaseContract.getStartDateLease() == null) {
+            return;
+        }
+        occupy(room, OccupancyType.LEASE, leaseContract.getId(), leaseContract.getStartDateLease(), leaseContract.getEndDateLease());
+    }
+
+
+    // Enregistre (ou déplace) des travaux, la date de fin des travaux étant incluse
+    public void registerWork(Work work, Room room) {
+        LocalDate end = work.getEndWork() == null ? null : work.getEndWork().plusDays(1);
+        occupy(room, OccupancyType.WORK, work.getId(), work.getStartWork(), end);
+    }
+
+
+    // Retire une période d'occupation (suppression de la réservation, du contrat ou des travaux)
+    public void release(OccupancyType type, Integer sourceId) {
+        afterCommit(() -> releaseNow(type, sourceId));
+    }
+
+
+    /**
+     * Invalide les centres concernés par une chambre créée, modifiée ou supprimée
+     * (changement d'étage ou du statut utilisable). Ils seront rechargés à la prochaine demande.
+     */
+    public void refreshRoom(Room room) {
+        Integer previousCenter = roomCenters.remove(room.getId());
+        if (previousCenter != null) {
+            invalidateCenter(previousCenter);
+        }
+        if (room.getIdFloor() != null && room.getIdFloor().getIdAfpaCenter() != null) {
+            invalidateCenter(room.getIdFloor().getIdAfpaCenter().getId());
+        }
+    }
+
+
+    // Invalide un centre, qui sera rechargé à la prochaine demande (un chargement en cours ne sera pas conservé)
+    public void invalidateCenter(Integer idAfpaCenter) {
+        PendingLoad pendingLoad = pendingLoads.get(idAfpaCenter);
+        if (pendingLoad != null) {
+            synchronized (pendingLoad) {
+                pendingLoad.invalidated = true;
+            }
+        }
+        centers.remove(idAfpaCenter);
+    }
+
+
+    private void occupy(Room room, OccupancyType type, Integer sourceId, LocalDate start, LocalDate end) {
+
+        Integer idAfpaCenter = centerOf(room);
+        Integer idRoom = room.getId();
+
+        afterCommit(() -> {
+            // Retirer l'ancienne période, éventuellement portée par une autre chambre ou un autre centre
+            releaseNow(type, sourceId);
+
+            // Un centre non chargé lira la donnée à jour depuis la base lors de son chargement
+            apply(idAfpaCenter, center -> center.occupy(idRoom, type, sourceId, start, end));
+        });
+    }
+
+
+    private void releaseNow(OccupancyType type, Integer sourceId) {
+        pendingLoads.keySet().forEach(idAfpaCenter -> apply(idAfpaCenter, center -> center.release(type, sourceId)));
+        centers.values().forEach(center -> center.release(type, sourceId));
+    }
+
+
+    /**
+     * Applique une modification validée au centre chargé, ou la journalise si le centre est en cours de chargement :
+     * la lecture en base a pu commencer avant la validation et ne pas la voir.
+     */
+    private void apply(Integer idAfpaCenter, Consumer<CenterAvailability> change) {
+        PendingLoad pendingLoad = pendingLoads.get(idAfpaCenter);
+        if (pendingLoad != null) {
+            synchronized (pendingLoad) {
+                if (!pendingLoad.published) {
+                    pendingLoad.changes.add(change);
+                    return;
+                }
+            }
+        }
+        CenterAvailability center = centers.get(idAfpaCenter);
+        if (center != null) {
+            change.accept(center);
+        }
+    }
+
+
+    // Applique une modification de l'index après la validation de la transaction en cours (ou immédiatement hors transaction)
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+
+    private Integer centerOf(Room room) {
+        return roomCenters.computeIfAbsent(room.getId(), id -> room.getIdFloor().getIdAfpaCenter().getId());
+    }
+
+
+    // Renvoie le centre chargé, ou le charge hors de la map puis rejoue les modifications validées pendant le chargement
+    private CenterAvailability getCenter(Integer idAfpaCenter) {
+
+        CenterAvailability loaded = centers.get(idAfpaCenter);
+        if (loaded != null) {
+            return loaded;
+        }
+
+        PendingLoad pendingLoad = new PendingLoad();
+        if (pendingLoads.putIfAbsent(idAfpaCenter, pendingLoad) != null) {
+            // Centre déjà en cours de chargement par un autre thread : chargement indépendant, non conservé
+            return loadCenter(idAfpaCenter);
+        }
+
+        try {
+            // Le centre a pu être publié entre la lecture et l'enregistrement du chargement
+            loaded = centers.get(idAfpaCenter);
+            if (loaded != null) {
+                return loaded;
+            }
+
+            CenterAvailability center = loadCenter(idAfpaCenter);
+            synchronized (pendingLoad) {
+                pendingLoad.changes.forEach(change -> change.accept(center));
+                if (!pendingLoad.invalidated) {
+                    centers.put(idAfpaCenter, center);
+                }
+                pendingLoad.published = true;
+            }
+            return center;
+
+        } finally {
+            pendingLoads.remove(idAfpaCenter, pendingLoad);
+        }
+    }
+
+
+    // Charge les chambres et les occupations en cours ou à venir d'un centre
+    private CenterAvailability loadCenter(Integer idAfpaCenter) {
+
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        CenterAvailability center = new CenterAvailability(idAfpaCenter);
+
+        for (Room room : roomRepository.findWithFloorByAfpaCenter(idAfpaCenter)) {
+            center.addRoom(room.getId(), Boolean.TRUE.equals(room.getIsUsable()));
+            roomCenters.put(room.getId(), idAfpaCenter);
+        }
+
+        // Seules les périodes en cours ou à venir sont lues, sans charger les entités
+        for (OccupancyPeriodDTO period : reservationRepository.findCurrentPeriodsByAfpaCenter(idAfpaCenter, today)) {
+            center.occupy(period.getIdRoom(), OccupancyType.RESERVATION, period.getSourceId(), period.getStartDate(), period.getEndDate());
+        }
+
+        for (OccupancyPeriodDTO period : leaseContractRepository.findCurrentPeriodsByAfpaCenter(idAfpaCenter, today)) {
+            center.occupy(period.getIdRoom(), OccupancyType.LEASE, period.getSourceId(), period.getStartDate(), period.getEndDate());
+        }
+
+        for (OccupancyPeriodDTO period : workRepository.findCurrentPeriodsByAfpaCenter(idAfpaCenter, today)) {
+            center.occupy(period.getIdRoom(), OccupancyType.WORK, period.getSourceId(), period.getStartDate(),
+                    period.getEndDate() == null ? null : period.getEndDate().plusDays(1));
+        }
+
+        logger.info("Room availability loaded for Afpa center {} in {} ms", idAfpaCenter, (System.nanoTime() - start) / 1_000_000);
+        return center;
+    }
+
+
+    // Chargement d'un centre en cours : modifications validées à rejouer et invalidation éventuelle
+    private static class PendingLoad {
+
+        private final List<Consumer<CenterAvailability>> changes = new ArrayList<>();
+        private boolean invalidated;
+        private boolean published;
+    }
+
+}
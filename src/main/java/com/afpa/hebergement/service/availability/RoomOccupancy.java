@@ -0,0 +1,155 @@
+package com.afpa.hebergement.service.availability;
+
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Index des périodes d'occupation d'une chambre.
+ * Les périodes sont des intervalles semi-ouverts [début, fin[ exprimés en jours (epoch day),
+ * indexés par jour de début. Une fin nulle correspond à une occupation sans date de fin.
+ * Cette classe n'est pas thread-safe : la synchronisation est assurée par {@link CenterAvailability}.
+ */
+public class RoomOccupancy {
+
+    // Période d'occupation d'une chambre
+    record Slot(OccupancyType type, Integer sourceId, long start, long end) {
+
+        boolean overlaps(long otherStart, long otherEnd) {
+            return start < otherEnd && end > otherStart;
+        }
+    }
+
+    // Clé identifiant la source d'une période (réservation, contrat de bail ou travaux)
+    record SlotKey(OccupancyType type, Integer sourceId) {
+    }
+
+    // Périodes bornées indexées par jour de début (plusieurs périodes peuvent commencer le même jour)
+    private final TreeMap<Long, List<Slot>> slotsByStart = new TreeMap<>();
+
+    // Périodes sans date de fin (travaux ou contrats ouverts), peu nombreuses
+    private final List<Slot> unboundedSlots = new ArrayList<>(1);
+
+    // Périodes indexées par source pour la mise à jour incrémentale
+    private final Map<SlotKey, Slot> slotsBySource = new HashMap<>();
+
+    // Durée de la plus longue période bornée : limite la fenêtre de recherche dans l'index
+    private long maxLength;
+
+
+    /**
+     * Ajoute (ou remplace) la période d'occupation d'une source.
+     *
+     * @param type     type de la source
+     * @param sourceId identifiant de la source
+     * @param start    premier jour occupé
+     * @param end      premier jour libéré, ou null si l'occupation n'a pas de fin
+     */
+    public void add(OccupancyType type, Integer sourceId, LocalDate start, LocalDate end) {
+
+        // Remplacer une éventuelle période existante pour la même source
+        remove(type, sourceId);
+
+        long startDay = start.toEpochDay();
+        long endDay = end == null ? Long.MAX_VALUE : end.toEpochDay();
+
+        // Ignorer les périodes vides
+        if (endDay <= startDay) {
+            return;
+        }
+
+        Slot slot = new Slot(type, sourceId, startDay, endDay);
+        slotsBySource.put(new SlotKey(type, sourceId), slot);
+
+        if (end == null) {
+            unboundedSlots.add(slot);
+        } else {
+            slotsByStart.computeIfAbsent(startDay, day -> new ArrayList<>(1)).add(slot);
+            maxLength = Math.max(maxLength, endDay - startDay);
+        }
+    }
+
+
+    /**
+     * Retire la période d'occupation d'une source.
+     *
+     * @return true si une période a été retirée
+     */
+    public boolean remove(OccupancyType type, Integer sourceId) {
+
+        Slot slot = slotsBySource.remove(new SlotKey(type, sourceId));
+        if (slot == null) {
+            return false;
+        }
+
+        if (slot.end() == Long.MAX_VALUE) {
+            unboundedSlots.remove(slot);
+            return true;
+        }
+
+        List<Slot> slots = slotsByStart.get(slot.start());
+        slots.remove(slot);
+        if (slots.isEmpty()) {
+            slotsByStart.remove(slot.start());
+        }
+        return true;
+    }
+
+
+    /**
+     * Indique si une période [start, end[ chevauche une occupation de la chambre.
+     *
+     * @param start            premier jour demandé
+     * @param end              premier jour libéré
+     * @param type             type d'occupation à prendre en compte, ou null pour tous les types
+     * @param excludedSourceId identifiant de source à ignorer (mise à jour), ou null
+     */
+    public boolean overlaps(LocalDate start, LocalDate end, OccupancyType type, Integer excludedSourceId) {
+
+        long startDay = start.toEpochDay();
+        long endDay = end.toEpochDay();
+
+        if (endDay <= startDay) {
+            return false;
+        }
+
+        for (Slot slot : unboundedSlots) {
+            if (matches(slot, type, excludedSourceId) && slot.overlaps(startDay, endDay)) {
+                return true;
+            }
+        }
+
+        // Seules les périodes commençant dans ]début - durée max, fin[ peuvent chevaucher la période demandée
+        NavigableMap<Long, List<Slot>> candidates = slotsByStart.subMap(startDay - maxLength, false, endDay, false);
+
+        for (List<Slot> slots : candidates.values()) {
+            for (Slot slot : slots) {
+                if (matches(slot, type, excludedSourceId) && slot.overlaps(startDay, endDay)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    // Nombre de périodes indexées
+    public int size() {
+        return slotsBySource.size();
+    }
+
+
+    private static boolean matches(Slot slot, OccupancyType type, Integer excludedSourceId) {
+        if (type != null && slot.type() != type) {
+            return false;
+        }
+        return excludedSourceId == null || !excludedSourceId.equals(slot.sourceId());
+    }
+
+}
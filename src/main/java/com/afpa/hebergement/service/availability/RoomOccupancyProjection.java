@@ -0,0 +1,69 @@
+package com.afpa.hebergement.service.availability;
+
+import com.afpa.hebergement.model.entity.LeaseContract;
+import com.afpa.hebergement.model.entity.Reservation;
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
+import com.afpa.hebergement.model.repository.RoomOccupancyDayRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Alimente la table room_occupancy_day (une ligne par chambre, jour et source d'occupation).
+ * Les méthodes doivent être appelées dans la transaction qui écrit la réservation ou le contrat de bail,
+ * afin que la projection ne puisse pas diverger des données sources.
+ * Les contrats de bail sans date de fin ne sont pas projetés (leur période n'a pas de borne) :
+ * les requêtes d'occupation les lisent directement dans lease_contract.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class RoomOccupancyProjection {
+
+    private final RoomOccupancyDayRepository roomOccupancyDayRepository;
+
+
+    // Projette (ou re-projette après modification) une réservation
+    public void projectReservation(Reservation reservation) {
+        project(OccupancyType.RESERVATION, reservation.getId(), reservation.getIdRoom().getId(),
+                reservation.getStartDate(), reservation.getEndDate());
+    }
+
+
+    // Projette en une seule requête un lot de réservations nouvellement créées (déjà écrites en base)
+    public void projectNewReservations(List<Reservation> reservations) {
+        if (!reservations.isEmpty()) {
+            roomOccupancyDayRepository.insertReservations(reservations.stream().map(Reservation::getId).toList());
+        }
+    }
+
+
+    // Projette (ou re-projette après modification) un contrat de bail ; un contrat sans date de fin n'est pas projeté
+    public void projectLease(LeaseContract leaseContract) {
+        if (leaseContract.getStartDateLease() == null || leaseContract.getEndDateLease() == null) {
+            remove(OccupancyType.LEASE, leaseContract.getId());
+            return;
+        }
+        project(OccupancyType.LEASE, leaseContract.getId(), leaseContract.getIdRoom().getId(),
+                leaseContract.getStartDateLease(), leaseContract.getEndDateLease());
+    }
+
+
+    // Supprime la projection d'une source supprimée
+    public void remove(OccupancyType type, Integer sourceId) {
+        roomOccupancyDayRepository.deleteBySource(type, sourceId);
+    }
+
+
+    private void project(OccupancyType type, Integer sourceId, Integer idRoom, LocalDate start, LocalDate end) {
+        roomOccupancyDayRepository.deleteBySource(type, sourceId);
+        if (start.isBefore(end)) {
+            roomOccupancyDayRepository.insertPeriod(idRoom, type.name(), sourceId, start, end);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.afpa.hebergement.service.bill_render;
+
+import com.afpa.hebergement.model.entity.AfpaCenter;
+import com.afpa.hebergement.model.entity.AppUser;
+import com.afpa.hebergement.model.entity.Bill;
+import com.afpa.hebergement.model.entity.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Données d'une facture nécessaires à son PDF, copiées depuis les entités dans une transaction courte :
+ * le rendu et l'écriture du fichier se font ensuite sans connexion à la base.
+ */
+public record BillPdfData(Integer idBill,
+                          String billNumber,
+                          LocalDate billDate,
+                          LocalDate paymentDate,
+                          BigDecimal totalAmount,
+                          String centerName,
+                          String centerAddress,
+                          String centerPostcode,
+                          String centerCityName,
+                          String civility,
+                          String userName,
+                          String userFirstname,
+                          List<String> paymentTypes) {
+
+    // Facture chargée avec son contrat, son locataire, le centre du loyer et les modes de règlement
+    public static BillPdfData from(Bill bill) {
+        AppUser user = bill.getIdLease().getIdUser();
+        AfpaCenter afpaCenter = bill.getIdLease().getIdRent().getIdAfpaCenter();
+
+        return new BillPdfData(
+                bill.getId(),
+                bill.getBillNumber(),
+                bill.getBillDate(),
+                bill.getPaymentDateBill(),
+                bill.getTotalAmount(),
+                afpaCenter.getCenterName(),
+                afpaCenter.getAddressCenter(),
+                afpaCenter.getIdCity().getPostcode(),
+                afpaCenter.getIdCity().getCityName(),
+                user.getIdCivility().getWordingCivility(),
+                user.getName(),
+                user.getFirstname(),
+                bill.getPaymentTypes().stream().map(PaymentType::getWordingPaymentType).distinct().toList());
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.afpa.hebergement.service.bill_render;
+
+import com.itextpdf.text.DocumentException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+
+/**
+ * Rendu du PDF d'une facture (quittance de loyer) et écriture dans le répertoire des factures.
+ * Le modèle de quittance ({@link BillPdfTemplate}) est compilé une fois au démarrage ; chaque rendu n'y appose
+ * que les champs de la facture.
+ * Le PDF est écrit dans un fichier temporaire, par un flux tamponné, puis renommé atomiquement :
+ * un téléchargement ne lit jamais un PDF à moitié écrit.
+ */
+@Component
+public class BillPdfRenderer {
+
+    // Répertoire des factures PDF générées
+    private static final Path BILL_PDF_DIRECTORY = Paths.get("documents", "bills");
+
+    private final BillPdfTemplate template;
+
+
+    public BillPdfRenderer() {
+        try {
+            this.template = BillPdfTemplate.compile();
+        } catch (DocumentException | IOException e) {
+            throw new IllegalStateException("The bill PDF template cannot be compiled", e);
+        }
+    }
+
+
+    // Emplacement du PDF d'une facture
+    public static Path pdfPath(Integer idBill) {
+        return BILL_PDF_DIRECTORY.resolve("bill_" + idBill + ".pdf");
+    }
+
+
+    public void write(BillPdfData bill) throws IOException, DocumentException {
+        Path target = pdfPath(bill.idBill());
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString() + "-", ".tmp");
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                render(bill, outputStream);
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | DocumentException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+
+    // Rendu dans un flux (le flux est fermé à la fin du rendu)
+    public void render(BillPdfData bill, OutputStream outputStream) throws DocumentException, IOException {
+        template.fill(bill, outputStream);
+    }
+
+}
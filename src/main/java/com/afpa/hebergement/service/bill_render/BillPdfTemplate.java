@@ -0,0 +1,162 @@
+package com.afpa.hebergement.service.bill_render;
+
+import com.itextpdf.text.*;
+import com.itextpdf.text.pdf.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Modèle de quittance de loyer compilé une seule fois : la mise en page, les polices et les textes fixes
+ * (titre, libellés, mention légale de bas de page) sont écrits dans un PDF modèle gardé en mémoire.
+ * Pour chaque facture, seuls les champs variables sont apposés sur une copie du modèle (PdfStamper),
+ * à des positions calculées lors de la compilation (à droite de leur libellé). Les champs de longueur variable
+ * (adresse du centre, locataire, modes de règlement) sont écrits dans une zone bornée par la marge droite,
+ * avec retour à la ligne sur au plus FIELD_MAX_LINES lignes : un texte trop long est coupé au lieu de déborder.
+ * Les objets sont partagés en lecture seule : une instance sert à tous les threads de rendu.
+ */
+final class BillPdfTemplate {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final float FONT_SIZE = 12;
+    private static final float MARGIN = 36;
+    private static final float LEADING = 16;
+    private static final float RIGHT_X = PageSize.A4.getWidth() - MARGIN;
+
+    // Nombre de lignes réservées à chaque champ de longueur variable
+    private static final int FIELD_MAX_LINES = 2;
+
+    private static final String FOOTER = "(En bas de page) Cette quittance annule tous les reçus qui auraient pu être établis précédemment en cas de paiement partiel du montant du présent terme. Elle est à conserver pendant trois ans par le locataire (loi n° 89-462 du 6 juillet 1989 : art. 7-1).";
+
+    // Lignes de la quittance, de haut en bas
+    private static final float TITLE_Y = 800;
+    private static final float PERIOD_Y = TITLE_Y - LEADING;
+    private static final float CENTER_Y = PERIOD_Y - 1.5f * LEADING;
+    private static final float CENTER_ADDRESS_Y = CENTER_Y - LEADING;
+    private static final float CENTER_CITY_Y = CENTER_ADDRESS_Y - FIELD_MAX_LINES * LEADING;
+    private static final float PLACE_Y = CENTER_CITY_Y - 1.5f * LEADING;
+    private static final float TENANT_Y = PLACE_Y - 1.5f * LEADING;
+    private static final float DETAIL_Y = TENANT_Y - (FIELD_MAX_LINES + 0.5f) * LEADING;
+    private static final float NUMBER_Y = DETAIL_Y - LEADING;
+    private static final float TOTAL_Y = NUMBER_Y - LEADING;
+    private static final float PAYMENT_TYPES_Y = TOTAL_Y - LEADING;
+    private static final float PAYMENT_DATE_Y = PAYMENT_TYPES_Y - FIELD_MAX_LINES * LEADING;
+    private static final float SIGNATURE_Y = PAYMENT_DATE_Y - 2 * LEADING;
+
+    private static final String CENTER_LABEL = "CENTRE ";
+    private static final String PLACE_LABEL = "Fait à ";
+    private static final String TENANT_LABEL = "Reçu de : ";
+    private static final String NUMBER_LABEL = "Quittance N° : ";
+    private static final String TOTAL_LABEL = "Total loyer : ";
+    private static final String PAYMENT_TYPES_LABEL = "Mode de règlement : ";
+    private static final String PAYMENT_DATE_LABEL = "Date du paiement : ";
+
+    private final Font font;
+    private final byte[] template;
+
+    // Abscisses des champs variables, juste après leur libellé
+    private final float centerX;
+    private final float placeX;
+    private final float tenantX;
+    private final float numberX;
+    private final float totalX;
+    private final float paymentTypesX;
+    private final float paymentDateX;
+
+
+    private BillPdfTemplate(Font font, byte[] template, BaseFont baseFont) {
+        this.font = font;
+        this.template = template;
+        this.centerX = MARGIN + baseFont.getWidthPoint(CENTER_LABEL, FONT_SIZE);
+        this.placeX = MARGIN + baseFont.getWidthPoint(PLACE_LABEL, FONT_SIZE);
+        this.tenantX = MARGIN + baseFont.getWidthPoint(TENANT_LABEL, FONT_SIZE);
+        this.numberX = MARGIN + baseFont.getWidthPoint(NUMBER_LABEL, FONT_SIZE);
+        this.totalX = MARGIN + baseFont.getWidthPoint(TOTAL_LABEL, FONT_SIZE);
+        this.paymentTypesX = MARGIN + baseFont.getWidthPoint(PAYMENT_TYPES_LABEL, FONT_SIZE);
+        this.paymentDateX = MARGIN + baseFont.getWidthPoint(PAYMENT_DATE_LABEL, FONT_SIZE);
+    }
+
+
+    // Compilation du modèle : une page avec tous les textes fixes
+    static BillPdfTemplate compile() throws DocumentException, IOException {
+        BaseFont baseFont = BaseFont.createFont(BaseFont.TIMES_ROMAN, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+        BaseFont boldBaseFont = BaseFont.createFont(BaseFont.TIMES_BOLD, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+        Font font = new Font(baseFont, FONT_SIZE);
+        Font boldFont = new Font(boldBaseFont, FONT_SIZE);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Document document = new Document(PageSize.A4);
+        PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+        writer.setFullCompression();
+        document.open();
+        PdfContentByte canvas = writer.getDirectContent();
+
+        line(canvas, "Quittance de loyer", boldFont, MARGIN, TITLE_Y);
+        line(canvas, CENTER_LABEL, font, MARGIN, CENTER_Y);
+        line(canvas, PLACE_LABEL, font, MARGIN, PLACE_Y);
+        line(canvas, TENANT_LABEL, font, MARGIN, TENANT_Y);
+        line(canvas, "Détail du règlement :", boldFont, MARGIN, DETAIL_Y);
+        line(canvas, NUMBER_LABEL, font, MARGIN, NUMBER_Y);
+        line(canvas, TOTAL_LABEL, font, MARGIN, TOTAL_Y);
+        line(canvas, PAYMENT_TYPES_LABEL, font, MARGIN, PAYMENT_TYPES_Y);
+        line(canvas, PAYMENT_DATE_LABEL, font, MARGIN, PAYMENT_DATE_Y);
+        line(canvas, "Signature", font, MARGIN, SIGNATURE_Y);
+
+        // Mention légale sur plusieurs lignes, en bas de page
+        ColumnText footer = new ColumnText(canvas);
+        footer.setSimpleColumn(MARGIN, MARGIN, RIGHT_X, SIGNATURE_Y - 2 * LEADING);
+        footer.setLeading(LEADING);
+        footer.addText(new Phrase(FOOTER, font));
+        footer.go();
+
+        document.close();
+        return new BillPdfTemplate(font, outputStream.toByteArray(), baseFont);
+    }
+
+
+    // Copie du modèle complétée avec les champs de la facture
+    void fill(BillPdfData bill, OutputStream outputStream) throws DocumentException, IOException {
+        PdfReader reader = new PdfReader(template);
+        try {
+            PdfStamper stamper = new PdfStamper(reader, outputStream);
+            stamper.setFullCompression();
+            PdfContentByte canvas = stamper.getOverContent(1);
+
+            line(canvas, bill.billDate().getMonth() + " " + bill.billDate().getYear(), font, MARGIN, PERIOD_Y);
+            line(canvas, bill.centerName(), font, centerX, CENTER_Y);
+            field(canvas, bill.centerAddress(), MARGIN, CENTER_ADDRESS_Y);
+            line(canvas, bill.centerPostcode() + " " + bill.centerCityName(), font, MARGIN, CENTER_CITY_Y);
+            line(canvas, bill.centerCityName() + ", le " + bill.billDate().format(DATE_FORMAT), font, placeX, PLACE_Y);
+            field(canvas, bill.civility() + " " + bill.userName() + " " + bill.userFirstname(), tenantX, TENANT_Y);
+            line(canvas, bill.billNumber(), font, numberX, NUMBER_Y);
+            line(canvas, bill.totalAmount() + " euros", font, totalX, TOTAL_Y);
+            field(canvas, String.join(", ", bill.paymentTypes()), paymentTypesX, PAYMENT_TYPES_Y);
+            if (bill.paymentDate() != null) {
+                line(canvas, "le " + bill.paymentDate().format(DATE_FORMAT), font, paymentDateX, PAYMENT_DATE_Y);
+            }
+
+            stamper.close();
+        } finally {
+            reader.close();
+        }
+    }
+
+
+    // Champ de longueur variable : première ligne sur la ligne y, retour à la ligne entre x et la marge droite
+    private void field(PdfContentByte canvas, String text, float x, float y) throws DocumentException {
+        ColumnText column = new ColumnText(canvas);
+        column.setSimpleColumn(x, y - (FIELD_MAX_LINES - 0.5f) * LEADING, RIGHT_X, y + LEADING);
+        column.setLeading(LEADING);
+        column.addText(new Phrase(text, font));
+        column.go();
+    }
+
+
+    private static void line(PdfContentByte canvas, String text, Font font, float x, float y) {
+        ColumnText.showTextAligned(canvas, Element.ALIGN_LEFT, new Phrase(text, font), x, y, 0);
+    }
+
+}
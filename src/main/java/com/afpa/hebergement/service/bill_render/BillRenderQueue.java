@@ -0,0 +1,246 @@
+package com.afpa.hebergement.service.bill_render;
+
+import com.afpa.hebergement.model.enum_bill.BillPdfStatus;
+import com.afpa.hebergement.model.repository.BillRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File durable des rendus de factures PDF (table bill_render_job), exécutée par un pool borné de threads dédiés.
+ * Le rendu est demandé dans la transaction qui crée la facture : la requête HTTP rend la main sans attendre le PDF,
+ * et une demande validée n'est jamais perdue (elle est reprise au redémarrage).
+ * Chaque thread prend le prochain rendu avec FOR UPDATE SKIP LOCKED (plusieurs instances de l'application peuvent
+ * partager la file), charge les données de la facture dans une transaction courte, puis rend et écrit le PDF
+ * sans connexion ouverte. Un rendu en échec est retenté plus tard ; après le nombre maximal d'essais,
+ * la facture passe à l'état FAILED. Un rendu interrompu (arrêt de l'application) est repris après un délai.
+ */
+@Component
+public class BillRenderQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillRenderQueue.class);
+
+    // Délai avant de reprendre un rendu resté en cours (application arrêtée pendant le rendu)
+    private static final long STALE_AFTER_SECONDS = 600;
+    // Délai avant un nouvel essai, multiplié par le nombre d'essais déjà faits
+    private static final long RETRY_DELAY_SECONDS = 60;
+
+    private static final String ENQUEUE = """
+            INSERT INTO bill_render_job (id_bill) VALUES (?)
+            ON CONFLICT DO NOTHING""";
+
+    private static final String ENQUEUE_ALL = """
+            INSERT INTO bill_render_job (id_bill) SELECT unnest(?)
+            ON CONFLICT DO NOTHING""";
+
+    private static final String CLAIM = """
+            UPDATE bill_render_job SET status = 'RUNNING', locked_at = now(), attempts = attempts + 1
+            WHERE id_job = (
+                SELECT id_job FROM bill_render_job
+                WHERE (status = 'QUEUED' AND available_at <= now())
+                   OR (status = 'RUNNING' AND locked_at < now() - make_interval(secs => ?))
+                ORDER BY id_job
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id_job, id_bill, attempts""";
+
+    private static final String RETRY = """
+            UPDATE bill_render_job SET status = 'QUEUED', locked_at = NULL, last_error = ?,
+                available_at = now() + make_interval(secs => ?)
+            WHERE id_job = ?""";
+
+    private record Job(long id, int idBill, int attempts) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final BillRepository billRepository;
+    private final BillPdfRenderer billPdfRenderer;
+    private final int threads;
+    private final long pollIntervalMillis;
+    private final int maxAttempts;
+
+    // Réveil des threads en attente quand un rendu vient d'être demandé
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final ExecutorService executor;
+
+
+    public BillRenderQueue(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           BillRepository billRepository,
+                           BillPdfRenderer billPdfRenderer,
+                           @Value("${bill-render.threads:2}") int threads,
+                           @Value("${bill-render.poll-interval-ms:30000}") long pollIntervalMillis,
+                           @Value("${bill-render.max-attempts:5}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.billRepository = billRepository;
+        this.billPdfRenderer = billPdfRenderer;
+        this.threads = threads;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxAttempts = maxAttempts;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bill-render-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * Demande le rendu du PDF de la facture, dans la transaction en cours (la demande est validée avec la facture).
+     * Les threads de rendu sont réveillés après la validation.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Integer idBill) {
+        jdbcTemplate.update(ENQUEUE, idBill);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUps.release();
+            }
+        });
+    }
+
+
+    /**
+     * Demande en une requête le rendu des PDF de plusieurs factures (facturation en masse), dans la transaction en cours.
+     * Tous les threads de rendu sont réveillés après la validation et se partagent les rendus.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<Integer> idBills) {
+        if (idBills.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(ENQUEUE_ALL, statement ->
+                statement.setArray(1, statement.getConnection().createArrayOf("integer", idBills.toArray())));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUps.release(threads);
+            }
+        });
+    }
+
+
+    // Démarre les threads de rendu une fois la base migrée ; ils reprennent les rendus restés en attente
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (int i = 0; i < threads; i++) {
+            executor.execute(this::work);
+        }
+        logger.info("Bill render queue started with {} threads", threads);
+    }
+
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+
+    // Boucle d'un thread : exécute les rendus disponibles, puis attend un réveil ou l'intervalle de scrutation
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (!runNext()) {
+                    wakeUps.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // Base indisponible : nouvel essai à la prochaine scrutation
+                logger.error("Bill render queue polling failed", e);
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Prend et exécute le prochain rendu disponible.
+     * @return false si aucun rendu n'est disponible
+     */
+    boolean runNext() {
+        List<Job> claimed = jdbcTemplate.query(CLAIM,
+                (resultSet, rowNum) -> new Job(resultSet.getLong("id_job"), resultSet.getInt("id_bill"), resultSet.getInt("attempts")),
+                STALE_AFTER_SECONDS);
+        if (claimed.isEmpty()) {
+            return false;
+        }
+
+        Job job = claimed.get(0);
+        long start = System.nanoTime();
+        try {
+            BillPdfData bill = readOnlyTransactionTemplate.execute(status ->
+                    billRepository.findWithPdfDataById(job.idBill()).map(BillPdfData::from).orElse(null));
+
+            // Facture supprimée entre-temps (le rendu est supprimé avec elle)
+            if (bill != null) {
+                billPdfRenderer.write(bill);
+            }
+            complete(job);
+            logger.debug("Bill {} rendered in {} ms", job.idBill(), (System.nanoTime() - start) / 1_000_000);
+
+        } catch (Exception e) {
+            fail(job, e);
+        }
+        return true;
+    }
+
+
+    private void complete(Job job) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE bill SET pdf_status = ?, pdf_rendered_at = now() WHERE id_bill = ?",
+                    BillPdfStatus.READY.name(), job.idBill());
+            jdbcTemplate.update("DELETE FROM bill_render_job WHERE id_job = ?", job.id());
+        });
+    }
+
+
+    private void fail(Job job, Exception e) {
+        String error = StringUtils.abbreviate(e.getClass().getSimpleName() + ": " + e.getMessage(), 2000);
+
+        if (job.attempts() < maxAttempts) {
+            logger.warn("Bill {} rendering failed (attempt {} of {}), retrying later", job.idBill(), job.attempts(), maxAttempts, e);
+            jdbcTemplate.update(RETRY, error, RETRY_DELAY_SECONDS * job.attempts(), job.id());
+            return;
+        }
+
+        logger.error("Bill {} rendering failed after {} attempts", job.idBill(), job.attempts(), e);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE bill_render_job SET status = 'FAILED', locked_at = NULL, last_error = ? WHERE id_job = ?",
+                    error, job.id());
+            jdbcTemplate.update("UPDATE bill SET pdf_status = ? WHERE id_bill = ?", BillPdfStatus.FAILED.name(), job.idBill());
+        });
+    }
+
+}
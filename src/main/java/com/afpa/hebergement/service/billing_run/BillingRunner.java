@@ -0,0 +1,326 @@
+package com.afpa.hebergement.service.billing_run;
+
+import com.afpa.hebergement.exception.BadRequestException;
+import com.afpa.hebergement.exception.DuplicateException;
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import com.afpa.hebergement.model.dto.BillingRunDTO;
+import com.afpa.hebergement.model.dto.BillingRunFormDTO;
+import com.afpa.hebergement.model.repository.AfpaCenterRepository;
+import com.afpa.hebergement.service.bill_render.BillRenderQueue;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Facturation en masse : une facture par contrat actif sur un mois, pour un centre ou pour tous les centres.
+ * Les contrats à facturer et leur loyer sont lus en une seule requête, les montants calculés en mémoire,
+ * puis les factures insérées par lots (une requête par lot, chaque lot dans sa propre transaction)
+ * avec la demande de rendu de leurs PDF, exécutés en parallèle par la file de rendu.
+ * Une exécution est idempotente par contrat et par mois (index unique bill_lease_period_uk) : relancée après
+ * une erreur ou un arrêt de l'application, elle ne crée que les factures manquantes. Les exécutions sont suivies
+ * en base (table billing_run) et celles interrompues par un arrêt sont reprises au démarrage puis périodiquement.
+ * Une exécution est prise par une mise à jour conditionnelle avant d'être lancée : avec plusieurs instances,
+ * une seule l'exécute. L'instance qui l'exécute met à jour heartbeat_at à chaque lot ; une exécution dont
+ * heartbeat_at n'avance plus (instance arrêtée) peut être reprise par une autre instance.
+ */
+@Component
+public class BillingRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillingRunner.class);
+
+    // Délai avant de reprendre une exécution restée en cours (instance arrêtée pendant l'exécution)
+    private static final long STALE_AFTER_SECONDS = 600;
+
+    private static final DateTimeFormatter BILL_NUMBER_MONTH = DateTimeFormatter.ofPattern("yyMM");
+
+    // Contrats actifs sur le mois, avec leur loyer, et s'ils sont déjà facturés pour ce mois
+    private static final String SELECT_LEASES = """
+            SELECT lc.id_lease, r.amount, r.frequency,
+                   EXISTS (SELECT 1 FROM bill b WHERE b.id_lease = lc.id_lease AND b.billing_period = ?) AS billed
+            FROM lease_contract lc
+            JOIN rent r ON r.id_rent = lc.id_rent
+            WHERE lc.start_date_lease <= ?
+              AND (lc.end_date_lease IS NULL OR lc.end_date_lease >= ?)
+              AND (CAST(? AS INTEGER) IS NULL OR r.id_afpa_center = ?)
+            ORDER BY lc.id_lease""";
+
+    // Un lot de factures en une requête ; un contrat facturé entre-temps pour ce mois est ignoré
+    private static final String INSERT_BILLS = """
+            INSERT INTO bill (bill_number, total_amount, bill_date, is_payed, id_lease, billing_period)
+            SELECT ? || lpad(nextval('bill_number_seq')::text, 5, '0'), t.amount, ?, false, t.id_lease, ?
+            FROM unnest(?, ?) AS t(id_lease, amount)
+            ON CONFLICT DO NOTHING
+            RETURNING id_bill""";
+
+    // Exécutions à reprendre : jamais lancées, ou en cours sans signe de vie de l'instance qui les exécute
+    private static final String SELECT_INTERRUPTED = """
+            SELECT id_run FROM billing_run
+            WHERE status = 'PENDING'
+               OR (status = 'RUNNING' AND (heartbeat_at IS NULL OR heartbeat_at < now() - make_interval(secs => ?)))
+            ORDER BY id_run""";
+
+    // Prise d'une exécution : une seule instance la modifie, les autres obtiennent 0 ligne et ne la lancent pas
+    private static final String CLAIM = """
+            UPDATE billing_run SET status = 'RUNNING', started_at = now(), heartbeat_at = now(), finished_at = NULL,
+                error = NULL, leases_selected = 0, leases_already_billed = 0, bills_created = 0, leases_failed = 0
+            WHERE id_run = ?
+              AND (status = 'PENDING'
+                   OR (status = 'RUNNING' AND (heartbeat_at IS NULL OR heartbeat_at < now() - make_interval(secs => ?))))""";
+
+    private static final String SELECT_RUN = """
+            SELECT id_run, id_afpa_center, billing_period, status, leases_selected, leases_already_billed,
+                   bills_created, leases_failed, started_at, finished_at, error
+            FROM billing_run WHERE id_run = ?""";
+
+    private static final String UPDATE_PROGRESS = """
+            UPDATE billing_run SET leases_already_billed = ?, bills_created = ?, leases_failed = ?, heartbeat_at = now()
+            WHERE id_run = ?""";
+
+    private record LeaseToBill(int idLease, BigDecimal amount) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AfpaCenterRepository afpaCenterRepository;
+    private final BillRenderQueue billRenderQueue;
+    private final int chunkSize;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "billing-run");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+
+    public BillingRunner(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         AfpaCenterRepository afpaCenterRepository,
+                         BillRenderQueue billRenderQueue,
+                         @Value("${billing-run.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.afpaCenterRepository = afpaCenterRepository;
+        this.billRenderQueue = billRenderQueue;
+        this.chunkSize = chunkSize;
+    }
+
+
+    /**
+     * Enregistre une exécution de la facturation et la lance en arrière-plan.
+     * @throws ResourceNotFoundException si le centre n'existe pas
+     * @throws BadRequestException       si le mois est postérieur au mois prochain
+     * @throws DuplicateException        si une exécution pour le même centre et le même mois est en cours
+     */
+    public synchronized BillingRunDTO start(BillingRunFormDTO form) {
+        Integer idAfpaCenter = form.getIdAfpaCenter();
+        YearMonth period = form.getPeriod();
+
+        if (idAfpaCenter != null && !afpaCenterRepository.existsById(idAfpaCenter)) {
+            throw new ResourceNotFoundException("Afpa center not found with id: " + idAfpaCenter);
+        }
+        if (period.isAfter(YearMonth.now().plusMonths(1))) {
+            throw new BadRequestException("Cannot bill more than one month ahead: " + period);
+        }
+
+        List<Long> running = jdbcTemplate.queryForList("""
+                        SELECT id_run FROM billing_run
+                        WHERE status IN ('PENDING', 'RUNNING') AND billing_period = ?
+                          AND id_afpa_center IS NOT DISTINCT FROM CAST(? AS INTEGER)""",
+                Long.class, period.atDay(1), idAfpaCenter);
+        if (!running.isEmpty()) {
+            throw new DuplicateException("A billing run is already running for this period: " + running.get(0));
+        }
+
+        Long id = jdbcTemplate.queryForObject(
+                "INSERT INTO billing_run (id_afpa_center, billing_period) VALUES (?, ?) RETURNING id_run",
+                Long.class, idAfpaCenter, period.atDay(1));
+        executor.execute(() -> run(id));
+        return getRun(id);
+    }
+
+
+    public BillingRunDTO getRun(Long id) {
+        List<BillingRunDTO> runs = jdbcTemplate.query(SELECT_RUN, (resultSet, rowNum) -> toDTO(resultSet), id);
+        if (runs.isEmpty()) {
+            throw new ResourceNotFoundException("Billing run not found: " + id);
+        }
+        return runs.get(0);
+    }
+
+
+    // Reprise des exécutions interrompues par un arrêt, au démarrage puis périodiquement
+    // (celles d'une instance arrêtée depuis moins de STALE_AFTER_SECONDS ne sont reprises qu'au passage suivant)
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleResume() {
+        executor.scheduleWithFixedDelay(this::resumeInterruptedRuns, 0, STALE_AFTER_SECONDS, TimeUnit.SECONDS);
+    }
+
+
+    void resumeInterruptedRuns() {
+        try {
+            List<Long> interrupted = jdbcTemplate.queryForList(SELECT_INTERRUPTED, Long.class, STALE_AFTER_SECONDS);
+            for (Long id : interrupted) {
+                executor.execute(() -> run(id));
+            }
+        } catch (RuntimeException e) {
+            // Une exception annulerait les vérifications suivantes
+            logger.error("Billing run resume check failed", e);
+        }
+    }
+
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+
+    private void run(Long id) {
+        // Exécution déjà prise par une autre instance, ou terminée entre-temps
+        if (jdbcTemplate.update(CLAIM, id, STALE_AFTER_SECONDS) == 0) {
+            return;
+        }
+        logger.info("Starting billing run {}", id);
+
+        BillingRunDTO run = getRun(id);
+        LocalDate periodStart = run.getPeriod().atDay(1);
+        LocalDate periodEnd = run.getPeriod().atEndOfMonth();
+        String billNumberPrefix = billNumberPrefix(run.getPeriod());
+        long start = System.nanoTime();
+
+        try {
+            // Sélection en une requête, montants calculés en mémoire
+            List<LeaseToBill> toBill = new ArrayList<>();
+            int[] alreadyBilled = {0};
+            jdbcTemplate.query(SELECT_LEASES,
+                    resultSet -> {
+                        if (resultSet.getBoolean("billed")) {
+                            alreadyBilled[0]++;
+                        } else {
+                            toBill.add(new LeaseToBill(resultSet.getInt("id_lease"),
+                                    RentAmounts.totalAmount(resultSet.getBigDecimal("amount"), resultSet.getString("frequency"))));
+                        }
+                    },
+                    periodStart, periodEnd, periodStart, run.getIdAfpaCenter(), run.getIdAfpaCenter());
+            jdbcTemplate.update("UPDATE billing_run SET leases_selected = ?, leases_already_billed = ?, heartbeat_at = now() WHERE id_run = ?",
+                    toBill.size() + alreadyBilled[0], alreadyBilled[0], id);
+
+            int created = 0;
+            int skipped = alreadyBilled[0];
+            int failed = 0;
+            String lastError = null;
+            LocalDate billDate = LocalDate.now();
+
+            for (int from = 0; from < toBill.size(); from += chunkSize) {
+                List<LeaseToBill> chunk = toBill.subList(from, Math.min(from + chunkSize, toBill.size()));
+                try {
+                    Integer inserted = transactionTemplate.execute(status -> insertChunk(chunk, billNumberPrefix, billDate, periodStart));
+                    int insertedCount = inserted == null ? 0 : inserted;
+                    created += insertedCount;
+                    // Contrats facturés par une autre exécution pendant celle-ci
+                    skipped += chunk.size() - insertedCount;
+                } catch (RuntimeException e) {
+                    // Le lot est annulé, les lots suivants sont tout de même traités
+                    logger.error("Billing run {}: chunk of {} leases failed", id, chunk.size(), e);
+                    failed += chunk.size();
+                    lastError = e.getMessage();
+                }
+                jdbcTemplate.update(UPDATE_PROGRESS, skipped, created, failed, id);
+            }
+
+            jdbcTemplate.update("UPDATE billing_run SET status = ?, finished_at = now(), error = ? WHERE id_run = ?",
+                    failed == 0 ? "COMPLETED" : "FAILED", StringUtils.abbreviate(lastError, 2000), id);
+
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Billing run {} ({}) finished in {} ms: {} bills created, {} leases already billed, {} leases failed",
+                    id, run.getPeriod(), elapsedMillis, created, skipped, failed);
+
+        } catch (RuntimeException e) {
+            logger.error("Billing run {} failed", id, e);
+            jdbcTemplate.update("UPDATE billing_run SET status = 'FAILED', finished_at = now(), error = ? WHERE id_run = ?",
+                    StringUtils.abbreviate(e.getMessage(), 2000), id);
+        }
+    }
+
+
+    // Un lot : factures insérées en une requête, puis rendu de leurs PDF demandé dans la même transaction
+    private int insertChunk(List<LeaseToBill> chunk, String billNumberPrefix, LocalDate billDate, LocalDate periodStart) {
+        Integer[] leaseIds = chunk.stream().map(LeaseToBill::idLease).toArray(Integer[]::new);
+        BigDecimal[] amounts = chunk.stream().map(LeaseToBill::amount).toArray(BigDecimal[]::new);
+
+        List<Integer> billIds = jdbcTemplate.query(INSERT_BILLS,
+                statement -> {
+                    statement.setString(1, billNumberPrefix);
+                    statement.setObject(2, billDate);
+                    statement.setObject(3, periodStart);
+                    statement.setArray(4, statement.getConnection().createArrayOf("integer", leaseIds));
+                    statement.setArray(5, statement.getConnection().createArrayOf("numeric", amounts));
+                },
+                (resultSet, rowNum) -> resultSet.getInt(1));
+
+        billRenderQueue.enqueueAll(billIds);
+        return billIds.size();
+    }
+
+
+    // Préfixe des numéros de facture d'un mois : Q + AAMM (les 5 derniers caractères viennent de bill_number_seq)
+    static String billNumberPrefix(YearMonth period) {
+        return "Q" + period.format(BILL_NUMBER_MONTH);
+    }
+
+
+    private static BillingRunDTO toDTO(ResultSet resultSet) throws SQLException {
+        LocalDateTime startedAt = toLocalDateTime(resultSet.getTimestamp("started_at"));
+        LocalDateTime finishedAt = toLocalDateTime(resultSet.getTimestamp("finished_at"));
+        int billsCreated = resultSet.getInt("bills_created");
+
+        double billsPerSecond = 0;
+        if (startedAt != null) {
+            long elapsedMillis = Duration.between(startedAt, finishedAt != null ? finishedAt : LocalDateTime.now()).toMillis();
+            billsPerSecond = elapsedMillis > 0 ? billsCreated * 1000.0 / elapsedMillis : 0;
+        }
+
+        return new BillingRunDTO(
+                resultSet.getLong("id_run"),
+                resultSet.getObject("id_afpa_center", Integer.class),
+                YearMonth.from(resultSet.getObject("billing_period", LocalDate.class)),
+                resultSet.getString("status"),
+                resultSet.getInt("leases_selected"),
+                resultSet.getInt("leases_already_billed"),
+                billsCreated,
+                resultSet.getInt("leases_failed"),
+                billsPerSecond,
+                startedAt,
+                finishedAt,
+                resultSet.getString("error"));
+    }
+
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.afpa.hebergement.service.billing_run;
+
+import java.math.BigDecimal;
+
+/**
+ * Montant facturé pour un loyer selon sa fréquence, commun à la création d'une facture à l'unité
+ * et à la facturation en masse.
+ */
+public final class RentAmounts {
+
+    private RentAmounts() {
+    }
+
+
+    // Montant d'une facture selon la fréquence du loyer ("daily", "weekly" ou "monthly")
+    public static BigDecimal totalAmount(BigDecimal baseAmount, String frequency) {
+        return switch (frequency.toLowerCase()) {
+            case "weekly" -> baseAmount.multiply(BigDecimal.valueOf(7));
+            case "monthly" -> baseAmount.multiply(BigDecimal.valueOf(30));
+            default -> baseAmount;
+        };
+    }
+
+}
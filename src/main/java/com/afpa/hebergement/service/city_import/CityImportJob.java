@@ -0,0 +1,91 @@
+package com.afpa.hebergement.service.city_import;
+
+import com.afpa.hebergement.model.dto.CityImportJobDTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Suivi d'un import : écrit par le thread d'import, lu par les requêtes de suivi
+class CityImportJob {
+
+    enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+
+    private volatile Status status = Status.PENDING;
+    private volatile Long totalRows;
+    private volatile long processedRows;
+    private volatile int regions;
+    private volatile int departments;
+    private volatile long citiesInserted;
+    private volatile long duplicateRows;
+    private volatile long rejectedRows;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+
+    String getId() {
+        return id;
+    }
+
+    boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    // Fin de la première lecture : taille du fichier et référentiels dédoublonnés
+    void scanned(long totalRows, long duplicateRows, long rejectedRows) {
+        this.totalRows = totalRows;
+        this.duplicateRows = duplicateRows;
+        this.rejectedRows = rejectedRows;
+    }
+
+    void referencesWritten(int regions, int departments) {
+        this.regions = regions;
+        this.departments = departments;
+    }
+
+    void progress(long processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    void complete(long citiesInserted) {
+        this.citiesInserted = citiesInserted;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+
+    CityImportJobDTO toDTO() {
+        Long total = totalRows;
+        long processed = processedRows;
+        int percent;
+        if (status == Status.COMPLETED) {
+            percent = 100;
+        } else if (total == null || total == 0) {
+            percent = 0;
+        } else {
+            percent = (int) Math.min(99, processed * 100 / total);
+        }
+        return new CityImportJobDTO(id, status.name(), total, processed, percent, regions, departments,
+                citiesInserted, duplicateRows, rejectedRows, startedAt, finishedAt, error);
+    }
+
+}
@@ -0,0 +1,283 @@
+package com.afpa.hebergement.service.city_import;
+
+import com.afpa.hebergement.exception.BadRequestException;
+import com.afpa.hebergement.exception.DuplicateException;
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import com.afpa.hebergement.model.dto.CityImportJobDTO;
+import com.afpa.hebergement.service.city_search.CityAutocompleteIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Import en masse du fichier des communes (environ 39 000 lignes) : régions, départements et villes.
+ * Le fichier reçu est copié sur disque puis lu deux fois en flux par un thread dédié :
+ * 1. les régions et départements sont dédoublonnés en mémoire (une centaine de lignes) et les doublons de villes repérés ;
+ * 2. les régions et départements sont écrits, puis les villes par lots JDBC, le tout dans une seule transaction.
+ * Toutes les écritures sont des "upsert" (INSERT ... ON CONFLICT) : un nouvel import du même fichier, ou d'une
+ * version plus récente, ajoute les nouvelles lignes et ne met à jour que celles qui ont changé.
+ * Un seul import à la fois ; son avancement est consultable par son ID.
+ */
+@Component
+public class CityImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CityImporter.class);
+
+    // Les imports terminés restent consultables une journée
+    private static final long JOB_RETENTION_HOURS = 24;
+
+    private static final String UPSERT_REGION = """
+            INSERT INTO region (region_name) VALUES (?)
+            ON CONFLICT (region_name) DO NOTHING""";
+
+    private static final String UPSERT_DEPARTMENT = """
+            INSERT INTO department (department_code, department_name, id_region) VALUES (?, ?, ?)
+            ON CONFLICT (department_code) DO UPDATE
+            SET department_name = EXCLUDED.department_name, id_region = EXCLUDED.id_region
+            WHERE (department.department_name, department.id_region) IS DISTINCT FROM (EXCLUDED.department_name, EXCLUDED.id_region)""";
+
+    private static final String UPSERT_CITY = """
+            INSERT INTO city (insee_code, postcode, city_name, id_department) VALUES (?, ?, ?, ?)
+            ON CONFLICT (insee_code, postcode) DO UPDATE
+            SET city_name = EXCLUDED.city_name, id_department = EXCLUDED.id_department
+            WHERE (city.city_name, city.id_department) IS DISTINCT FROM (EXCLUDED.city_name, EXCLUDED.id_department)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CityAutocompleteIndex cityAutocompleteIndex;
+    private final int batchSize;
+    private final long maxFileSize;
+
+    private final Map<String, CityImportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "city-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private CityImportJob currentJob;
+
+
+    public CityImporter(JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        CityAutocompleteIndex cityAutocompleteIndex,
+                        @Value("${city-import.batch-size:1000}") int batchSize,
+                        @Value("${city-import.max-file-size:52428800}") long maxFileSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cityAutocompleteIndex = cityAutocompleteIndex;
+        this.batchSize = batchSize;
+        this.maxFileSize = maxFileSize;
+    }
+
+
+    /**
+     * Reçoit le fichier et lance son import en arrière-plan.
+     * L'en-tête est vérifié avant de rendre la main.
+     * @throws DuplicateException       si un import est déjà en cours
+     * @throws BadRequestException     si le fichier est vide, trop gros ou s'il manque une colonne
+     */
+    public synchronized CityImportJobDTO start(InputStream content) throws IOException {
+
+        if (currentJob != null && !currentJob.isFinished()) {
+            throw new DuplicateException("A city import is already running: " + currentJob.getId());
+        }
+        purgeFinishedJobs();
+
+        Path file = Files.createTempFile("city-import-", ".csv");
+        try {
+            copy(content, file);
+            // Vérification de l'en-tête (colonnes obligatoires)
+            new InseeCsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8)).close();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        CityImportJob job = new CityImportJob();
+        jobs.put(job.getId(), job);
+        currentJob = job;
+        executor.execute(() -> run(job, file));
+        return job.toDTO();
+    }
+
+
+    public CityImportJobDTO getJob(String id) {
+        CityImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("City import not found: " + id);
+        }
+        return job.toDTO();
+    }
+
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+
+    private void run(CityImportJob job, Path file) {
+        job.start();
+        long start = System.nanoTime();
+        try {
+            Scan scan = scan(file);
+            job.scanned(scan.totalRows, scan.duplicateRows, scan.rejectedRows);
+
+            Long citiesInserted = transactionTemplate.execute(status -> write(job, file, scan));
+            job.complete(citiesInserted == null ? 0 : citiesInserted);
+            // Transaction validée : l'autocomplétion des villes est reconstruite avec les nouvelles données
+            cityAutocompleteIndex.refreshAfterCommit();
+
+            logger.info("City import {} completed in {} ms: {} rows, {} cities inserted", job.getId(),
+                    (System.nanoTime() - start) / 1_000_000, scan.totalRows, citiesInserted);
+        } catch (Exception e) {
+            logger.error("City import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete the city import file {}", file, e);
+            }
+        }
+    }
+
+
+    // Première lecture : régions et départements distincts, clés des villes à écrire
+    private static Scan scan(Path file) throws IOException {
+        Scan scan = new Scan();
+        try (InseeCsvReader reader = new InseeCsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            InseeCsvReader.Row row;
+            while ((row = reader.next()) != null) {
+                scan.regions.add(row.regionName());
+                // Premier libellé rencontré pour un code de département
+                scan.departments.putIfAbsent(row.departmentCode(), row);
+                if (scan.cityKeys.add(cityKey(row))) {
+                    scan.totalRows++;
+                } else {
+                    scan.duplicateRows++;
+                }
+            }
+            scan.rejectedRows = reader.getRejectedRows();
+        }
+        return scan;
+    }
+
+
+    // Seconde lecture, dans la transaction : référentiels puis villes par lots
+    private long write(CityImportJob job, Path file, Scan scan) {
+
+        jdbcTemplate.batchUpdate(UPSERT_REGION, scan.regions.stream().map(name -> new Object[]{name}).toList());
+        Map<String, Integer> regionIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id_region, region_name FROM region",
+                resultSet -> {
+                    regionIds.put(resultSet.getString(2), resultSet.getInt(1));
+                });
+
+        jdbcTemplate.batchUpdate(UPSERT_DEPARTMENT, scan.departments.values().stream()
+                .map(row -> new Object[]{row.departmentCode(), row.departmentName(), regionIds.get(row.regionName())})
+                .toList());
+        Map<String, Integer> departmentIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id_department, department_code FROM department",
+                resultSet -> {
+                    departmentIds.put(resultSet.getString(2), resultSet.getInt(1));
+                });
+        job.referencesWritten(scan.regions.size(), scan.departments.size());
+
+        long citiesBefore = countCities();
+        long processed = 0;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        try (InseeCsvReader reader = new InseeCsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            InseeCsvReader.Row row;
+            while ((row = reader.next()) != null) {
+                // Seule la première occurrence d'une ville est écrite (un même lot ne peut pas modifier deux fois la même ligne)
+                if (!scan.cityKeys.remove(cityKey(row))) {
+                    continue;
+                }
+                batch.add(new Object[]{row.inseeCode(), row.postcode(), row.cityName(), departmentIds.get(row.departmentCode())});
+                if (batch.size() == batchSize) {
+                    jdbcTemplate.batchUpdate(UPSERT_CITY, batch);
+                    processed += batch.size();
+                    batch.clear();
+                    job.progress(processed);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_CITY, batch);
+            processed += batch.size();
+            job.progress(processed);
+        }
+
+        return countCities() - citiesBefore;
+    }
+
+
+    private long countCities() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM city", Long.class);
+        return count == null ? 0 : count;
+    }
+
+
+    private void copy(InputStream content, Path file) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long size = 0;
+        try (OutputStream output = Files.newOutputStream(file)) {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                size += read;
+                if (size > maxFileSize) {
+                    throw new BadRequestException("The city file exceeds " + maxFileSize + " bytes");
+                }
+                output.write(buffer, 0, read);
+            }
+        }
+        if (size == 0) {
+            throw new BadRequestException("The city file is empty");
+        }
+    }
+
+
+    private void purgeFinishedJobs() {
+        LocalDateTime limit = LocalDateTime.now().minusHours(JOB_RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(limit));
+    }
+
+
+    private static String cityKey(InseeCsvReader.Row row) {
+        return row.inseeCode() + row.postcode();
+    }
+
+
+    // Résultat de la première lecture
+    private static final class Scan {
+        private final Set<String> regions = new LinkedHashSet<>();
+        private final Map<String, InseeCsvReader.Row> departments = new LinkedHashMap<>();
+        private final Set<String> cityKeys = new HashSet<>();
+        private long totalRows;
+        private long duplicateRows;
+        private long rejectedRows;
+    }
+
+}
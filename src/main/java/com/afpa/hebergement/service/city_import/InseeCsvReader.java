@@ -0,0 +1,244 @@
+package com.afpa.hebergement.service.city_import;
+
+import com.afpa.hebergement.exception.BadRequestException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lecture en flux du fichier des communes (fichier officiel "communes-departement-region" : code INSEE,
+ * code postal, nom de commune, code et nom du département, nom de la région).
+ * Les colonnes sont repérées par leur nom dans l'en-tête, le séparateur (virgule ou point-virgule) est détecté.
+ * Les libellés sont mis en minuscules comme à la création d'une ville par le service.
+ * Les lignes incomplètes ou mal formées sont ignorées et comptées, une ligne à la fois est gardée en mémoire.
+ */
+public class InseeCsvReader implements Closeable {
+
+    // Ligne valide du fichier, codes normalisés
+    public record Row(String inseeCode, String postcode, String cityName,
+                      String departmentCode, String departmentName, String regionName) {
+    }
+
+    enum Column {
+        INSEE_CODE(true, "code_commune_insee", "code_commune", "code_insee", "codgeo", "com"),
+        POSTCODE(true, "code_postal", "postcode"),
+        // Nom avec accents et casse de préférence au libellé postal en majuscules
+        CITY_NAME(true, "nom_commune_complet", "libelle", "nom_commune", "libelle_commune", "nccenr", "nom_commune_postal"),
+        DEPARTMENT_CODE(false, "code_departement", "dep"),
+        DEPARTMENT_NAME(true, "nom_departement", "libelle_departement"),
+        REGION_NAME(true, "nom_region", "libelle_region");
+
+        private final boolean required;
+        private final List<String> aliases;
+
+        Column(boolean required, String... aliases) {
+            this.required = required;
+            this.aliases = List.of(aliases);
+        }
+    }
+
+    private final BufferedReader reader;
+    private final char delimiter;
+    private final Map<Column, Integer> indexes = new EnumMap<>(Column.class);
+
+    private long rejectedRows;
+
+
+    /**
+     * Lit l'en-tête du fichier.
+     * @throws BadRequestException si le fichier est vide ou s'il manque une colonne obligatoire
+     */
+    public InseeCsvReader(Reader source) throws IOException {
+        this.reader = source instanceof BufferedReader bufferedReader ? bufferedReader : new BufferedReader(source);
+
+        String header = reader.readLine();
+        if (header == null || header.isBlank()) {
+            throw new BadRequestException("The city file is empty");
+        }
+        // Marque d'ordre des octets UTF-8 éventuelle
+        if (header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+        this.delimiter = header.indexOf(';') >= 0 ? ';' : ',';
+
+        List<String> names = parseLine(header).stream().map(InseeCsvReader::normalizeHeader).toList();
+        for (Column column : Column.values()) {
+            for (String alias : column.aliases) {
+                int index = names.indexOf(alias);
+                if (index >= 0) {
+                    indexes.put(column, index);
+                    break;
+                }
+            }
+            if (column.required && !indexes.containsKey(column)) {
+                throw new BadRequestException("Missing column in the city file: " + column.aliases.get(0));
+            }
+        }
+    }
+
+
+    /**
+     * Ligne valide suivante, ou null à la fin du fichier.
+     */
+    public Row next() throws IOException {
+        List<String> fields;
+        while ((fields = readRecord()) != null) {
+            Row row = toRow(fields);
+            if (row != null) {
+                return row;
+            }
+            rejectedRows++;
+        }
+        return null;
+    }
+
+
+    // Nombre de lignes ignorées depuis l'ouverture
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+
+    private Row toRow(List<String> fields) {
+        String inseeCode = padCode(field(fields, Column.INSEE_CODE));
+        String postcode = padCode(field(fields, Column.POSTCODE));
+        String cityName = field(fields, Column.CITY_NAME);
+        String departmentName = field(fields, Column.DEPARTMENT_NAME);
+        String regionName = field(fields, Column.REGION_NAME);
+
+        if (inseeCode == null || !inseeCode.matches("[0-9][0-9AB][0-9]{3}")
+                || postcode == null || !postcode.matches("[0-9]{5}")
+                || cityName == null || departmentName == null || regionName == null) {
+            return null;
+        }
+
+        String departmentCode = field(fields, Column.DEPARTMENT_CODE);
+        if (departmentCode == null) {
+            departmentCode = departmentCodeOf(inseeCode);
+        } else if (departmentCode.length() == 1) {
+            departmentCode = "0" + departmentCode;
+        }
+        if (departmentCode.length() > 3) {
+            return null;
+        }
+
+        return new Row(inseeCode, postcode, name(cityName, 255), departmentCode,
+                name(departmentName, 150), name(regionName, 150));
+    }
+
+
+    // Libellés enregistrés en minuscules, comme par les services (CityMapper, DepartmentMapper, RegionMapper)
+    private static String name(String value, int maxLength) {
+        return StringUtils.truncate(value.toLowerCase(Locale.ROOT), maxLength);
+    }
+
+
+    // Valeur de la colonne sans espaces autour, null si absente ou vide
+    private String field(List<String> fields, Column column) {
+        Integer index = indexes.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+
+    // Les tableurs suppriment souvent le zéro initial des codes (1001 pour 01001)
+    static String padCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        String value = code.toUpperCase(Locale.ROOT);
+        return value.length() == 4 && Character.isDigit(value.charAt(0)) ? "0" + value : value;
+    }
+
+
+    // Département déduit du code INSEE : 3 caractères outre-mer (971...), 2 sinon (01, 2A, 75...)
+    static String departmentCodeOf(String inseeCode) {
+        return inseeCode.startsWith("97") || inseeCode.startsWith("98") ? inseeCode.substring(0, 3) : inseeCode.substring(0, 2);
+    }
+
+
+    private static String normalizeHeader(String name) {
+        return StringUtils.stripAccents(name).trim().toLowerCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+    }
+
+
+    // Enregistrement suivant (les champs entre guillemets peuvent contenir le séparateur et des retours à la ligne)
+    private List<String> readRecord() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        StringBuilder record = new StringBuilder(line);
+        while (hasOpenQuote(record)) {
+            String continuation = reader.readLine();
+            if (continuation == null) {
+                break;
+            }
+            record.append('\n').append(continuation);
+        }
+        return parseLine(record.toString());
+    }
+
+
+    private static boolean hasOpenQuote(CharSequence record) {
+        int quotes = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+
+    // Découpage RFC 4180 : guillemets doublés dans un champ entre guillemets
+    private List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+}
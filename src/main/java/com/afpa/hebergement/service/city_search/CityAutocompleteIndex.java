@@ -0,0 +1,151 @@
+package com.afpa.hebergement.service.city_search;
+
+import com.afpa.hebergement.model.entity.City;
+import com.afpa.hebergement.model.entity.Department;
+import com.afpa.hebergement.model.repository.CityRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Index en mémoire de l'autocomplétion des villes (formulaires d'inscription et d'utilisateur).
+ * Chargé au démarrage en une requête, puis reconstruit en arrière-plan quand des villes sont créées ou importées :
+ * les recherches lisent toujours un index complet, sans verrou ni requête SQL.
+ */
+@Component
+public class CityAutocompleteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CityAutocompleteIndex.class);
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private final CityRepository cityRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Index courant, null tant qu'il n'est pas chargé
+    private volatile CityPrefixIndex index;
+
+    // Une seule reconstruction en attente : plusieurs créations rapprochées n'en déclenchent qu'une
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "city-autocomplete-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+
+    public CityAutocompleteIndex(CityRepository cityRepository, PlatformTransactionManager transactionManager) {
+        this.cityRepository = cityRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+
+    // Chargement au démarrage de l'application
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        index = loadIndex();
+    }
+
+
+    /**
+     * Villes dont le nom ou le code postal commence par le texte saisi.
+     * @param limit nombre de villes (10 par défaut, 50 au plus)
+     */
+    public List<CityPrefixIndex.Entry> search(String query, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        return currentIndex().search(query, size);
+    }
+
+
+    /**
+     * Reconstruit l'index après la validation de la transaction en cours s'il y en a une, sinon tout de suite.
+     * La reconstruction se fait en arrière-plan, l'ancien index reste utilisé jusqu'à ce qu'elle se termine.
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+
+    private void refresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                refreshPending.set(false);
+                try {
+                    index = loadIndex();
+                } catch (RuntimeException e) {
+                    logger.error("City autocomplete index refresh failed, keeping the previous index", e);
+                }
+            });
+        }
+    }
+
+
+    private CityPrefixIndex currentIndex() {
+        CityPrefixIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                if (index == null) {
+                    index = loadIndex();
+                }
+                current = index;
+            }
+        }
+        return current;
+    }
+
+
+    // Villes, départements et régions en une requête ; libellés en majuscules comme dans les DTO
+    private CityPrefixIndex loadIndex() {
+        long start = System.nanoTime();
+        List<CityPrefixIndex.Entry> entries = readOnlyTransaction.execute(status -> {
+            List<City> cities = cityRepository.findAllWithDepartmentAndRegion();
+            List<CityPrefixIndex.Entry> rows = new ArrayList<>(cities.size());
+            for (City city : cities) {
+                Department department = city.getIdDepartment();
+                rows.add(new CityPrefixIndex.Entry(city.getId(), upperCase(city.getCityName()), city.getPostcode(),
+                        city.getInseeCode(), department.getDepartmentCode(), upperCase(department.getDepartmentName()),
+                        upperCase(department.getIdRegion().getRegionName())));
+            }
+            return rows;
+        });
+        CityPrefixIndex loaded = CityPrefixIndex.build(entries == null ? List.of() : entries);
+        logger.info("City autocomplete index built with {} cities in {} ms", loaded.size(), (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+
+    private static String upperCase(String value) {
+        return value == null ? null : value.toUpperCase();
+    }
+
+}
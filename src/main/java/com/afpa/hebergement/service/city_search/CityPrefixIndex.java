@@ -0,0 +1,184 @@
+package com.afpa.hebergement.service.city_search;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Index immuable de recherche des villes par début de nom ou de code postal, insensible aux accents et à la casse.
+ * Trois tableaux triés de clés (noms complets, mots à l'intérieur des noms, codes postaux), chacun associé
+ * à un tableau d'entiers donnant la ville de chaque clé : une recherche est une recherche dichotomique suivie
+ * de la lecture des K premières clés qui commencent par le texte saisi, sans allocation par ville.
+ * Comme les clés sont triées, un nom égal au texte saisi passe avant les noms plus longs ("paris" avant "parisot").
+ */
+public final class CityPrefixIndex {
+
+    // Ville indexée, avec son département et sa région
+    public record Entry(Integer id, String cityName, String postcode, String inseeCode,
+                        String departmentCode, String departmentName, String regionName) {
+    }
+
+    private static final Pattern SEPARATORS = Pattern.compile("[-'’ ]+");
+    private static final Pattern SAINT = Pattern.compile("\\bst(e?) ");
+
+    private static final CityPrefixIndex EMPTY = build(List.of());
+
+    private final Entry[] entries;
+
+    private final String[] nameKeys;
+    private final int[] nameRows;
+
+    // Mots suivants du nom ("etienne" pour "saint-etienne")
+    private final String[] wordKeys;
+    private final int[] wordRows;
+
+    private final String[] postcodeKeys;
+    private final int[] postcodeRows;
+
+
+    private CityPrefixIndex(Entry[] entries, String[] nameKeys, int[] nameRows, String[] wordKeys, int[] wordRows,
+                            String[] postcodeKeys, int[] postcodeRows) {
+        this.entries = entries;
+        this.nameKeys = nameKeys;
+        this.nameRows = nameRows;
+        this.wordKeys = wordKeys;
+        this.wordRows = wordRows;
+        this.postcodeKeys = postcodeKeys;
+        this.postcodeRows = postcodeRows;
+    }
+
+
+    public static CityPrefixIndex empty() {
+        return EMPTY;
+    }
+
+
+    public static CityPrefixIndex build(List<Entry> cities) {
+        Entry[] entries = cities.toArray(new Entry[0]);
+
+        // Clés calculées une seule fois par ville (les tris les comparent de nombreuses fois)
+        String[] normalizedNames = new String[entries.length];
+        String[] postcodes = new String[entries.length];
+
+        List<Key> names = new ArrayList<>(entries.length);
+        List<Key> words = new ArrayList<>();
+        List<Key> postcodeKeys = new ArrayList<>(entries.length);
+        for (int row = 0; row < entries.length; row++) {
+            String name = normalize(entries[row].cityName());
+            normalizedNames[row] = name;
+            postcodes[row] = Objects.toString(entries[row].postcode(), "");
+            if (!name.isEmpty()) {
+                names.add(new Key(name, row));
+                // Chaque mot après le premier devient le début d'une clé
+                for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+                    words.add(new Key(name.substring(i + 1), row));
+                }
+            }
+            if (!postcodes[row].isEmpty()) {
+                postcodeKeys.add(new Key(postcodes[row], row));
+            }
+        }
+
+        // À clé égale, ordre par code postal (noms) ou par nom (codes postaux)
+        Comparator<Key> byPostcode = Comparator.comparing((Key key) -> key.value()).thenComparing(key -> postcodes[key.row()]);
+        names.sort(byPostcode);
+        words.sort(byPostcode);
+        postcodeKeys.sort(Comparator.comparing((Key key) -> key.value()).thenComparing(key -> normalizedNames[key.row()]));
+
+        return new CityPrefixIndex(entries,
+                values(names), rows(names), values(words), rows(words), values(postcodeKeys), rows(postcodeKeys));
+    }
+
+
+    public int size() {
+        return entries.length;
+    }
+
+
+    /**
+     * Villes dont le nom (ou un mot du nom) ou le code postal commence par le texte saisi.
+     * Un texte composé uniquement de chiffres est cherché dans les codes postaux.
+     * @param limit nombre maximal de villes renvoyées
+     */
+    public List<Entry> search(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Set<Integer> rows = new LinkedHashSet<>();
+        if (prefix.chars().allMatch(Character::isDigit)) {
+            collect(postcodeKeys, postcodeRows, prefix, limit, rows);
+        } else {
+            // Les débuts de nom passent avant les mots à l'intérieur du nom
+            collect(nameKeys, nameRows, prefix, limit, rows);
+            collect(wordKeys, wordRows, prefix, limit, rows);
+        }
+
+        List<Entry> result = new ArrayList<>(rows.size());
+        for (Integer row : rows) {
+            result.add(entries[row]);
+        }
+        return result;
+    }
+
+
+    /**
+     * Clé de recherche : sans accents, en minuscules, tirets et apostrophes remplacés par des espaces
+     * ("Saint-Étienne" et "saint etienne" donnent la même clé).
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String key = StringUtils.stripAccents(text).toLowerCase(Locale.ROOT).replace("œ", "oe").replace("æ", "ae");
+        key = SEPARATORS.matcher(key).replaceAll(" ").trim();
+        // Abréviation courante de "saint" et "sainte"
+        return SAINT.matcher(key).replaceAll("saint$1 ");
+    }
+
+
+    private static void collect(String[] keys, int[] rowsOfKeys, String prefix, int limit, Set<Integer> rows) {
+        for (int i = lowerBound(keys, prefix); i < keys.length && rows.size() < limit && keys[i].startsWith(prefix); i++) {
+            rows.add(rowsOfKeys[i]);
+        }
+    }
+
+
+    // Première position dont la clé est supérieure ou égale au préfixe
+    private static int lowerBound(String[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+
+    private record Key(String value, int row) {
+    }
+
+    private static String[] values(List<Key> keys) {
+        String[] values = new String[keys.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = keys.get(i).value();
+        }
+        return values;
+    }
+
+    private static int[] rows(List<Key> keys) {
+        int[] rows = new int[keys.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = keys.get(i).row();
+        }
+        return rows;
+    }
+
+}
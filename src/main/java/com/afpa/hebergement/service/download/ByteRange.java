@@ -0,0 +1,77 @@
+package com.afpa.hebergement.service.download;
+
+/**
+ * Plage d'octets demandée par l'en-tête Range (bornes incluses), résolue sur la taille du fichier.
+ * Seules les requêtes à une seule plage sont servies en 206 : les visionneuses PDF ne demandent qu'une plage à la fois,
+ * et un en-tête à plusieurs plages ou mal formé est ignoré (le fichier entier est renvoyé, comme le permet la RFC 9110).
+ */
+public record ByteRange(long start, long end) {
+
+    // Plage hors du fichier : réponse 416
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    private static final String BYTES_UNIT = "bytes=";
+
+
+    public long length() {
+        return end - start + 1;
+    }
+
+
+    public boolean isSatisfiable() {
+        return start >= 0;
+    }
+
+
+    // Valeur de l'en-tête Content-Range de la réponse 206
+    public String toContentRange(long fileLength) {
+        return "bytes " + start + "-" + end + "/" + fileLength;
+    }
+
+
+    /**
+     * Résout l'en-tête Range sur un fichier de la taille donnée.
+     * @return la plage demandée, {@link #UNSATISFIABLE} si elle commence au-delà du fichier,
+     * ou null si l'en-tête est absent, mal formé ou contient plusieurs plages
+     */
+    public static ByteRange parse(String header, long fileLength) {
+        if (header == null || !header.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+        String spec = header.substring(BYTES_UNIT.length()).trim();
+        if (spec.indexOf(',') >= 0) {
+            return null;
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            // Suffixe "bytes=-500" : les 500 derniers octets
+            if (first.isEmpty()) {
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength <= 0 || fileLength == 0) {
+                    return suffixLength < 0 ? null : UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, fileLength - suffixLength), fileLength - 1);
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= fileLength) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(start, Math.min(end, fileLength - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
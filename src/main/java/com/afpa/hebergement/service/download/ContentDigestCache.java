@@ -0,0 +1,94 @@
+package com.afpa.hebergement.service.download;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache borné des empreintes SHA-256 des fichiers téléchargés, qui servent d'ETag fort.
+ * Une empreinte n'est calculée qu'une fois par version de fichier : l'entrée est recalculée
+ * dès que la taille ou la date de modification du fichier change (remplacement, régénération).
+ */
+@Component
+public class ContentDigestCache {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private record Entry(long size, long lastModified, String digest) {
+    }
+
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+
+    public ContentDigestCache(@Value("${download.digest-cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+
+    // Empreinte hexadécimale du contenu du fichier, dont les attributs viennent d'être lus
+    public String digest(Path file, BasicFileAttributes attributes) throws IOException {
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        Entry entry = entries.get(file);
+        if (entry != null && entry.size() == size && entry.lastModified() == lastModified) {
+            return entry.digest();
+        }
+
+        String digest = compute(file);
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(file, new Entry(size, lastModified, digest));
+        return digest;
+    }
+
+
+    int size() {
+        return entries.size();
+    }
+
+
+    static String compute(Path file) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                messageDigest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+
+    // Supprime des entrées quelconques tant que le cache est plein
+    private void evict() {
+        Iterator<Path> iterator = entries.keySet().iterator();
+        while (entries.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.afpa.hebergement.service.download;
+
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Envoi d'un fichier stocké sur disque (documents du centre, factures PDF) en réponse à un GET.
+ * - ETag fort (SHA-256 du contenu) et Last-Modified : un GET conditionnel sur un fichier inchangé reçoit 304 sans contenu.
+ * - En-tête Range (une plage) : réponse 206 avec la seule partie demandée, pour les visionneuses PDF et les reprises de téléchargement.
+ * - Le contenu n'est pas copié par l'application : avec Tomcat, il est envoyé par sendfile après le retour du contrôleur ;
+ *   sinon, il est transféré du fichier vers la réponse par FileChannel.transferTo.
+ */
+@Component
+@AllArgsConstructor
+public class FileDownloader {
+
+    // Attributs de requête de Tomcat pour l'envoi par sendfile (connecteur NIO, useSendfile actif par défaut)
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // En dessous de cette taille, une copie directe coûte moins que sendfile (seuil de la servlet par défaut de Tomcat)
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024L;
+
+    private final ContentDigestCache contentDigestCache;
+
+
+    /**
+     * Écrit la réponse au téléchargement du fichier (200, 206, 304, 412 ou 416).
+     * @param fileName nom proposé au client (Content-Disposition)
+     * @throws ResourceNotFoundException si le fichier n'existe pas
+     */
+    public void send(Path file, String fileName, MediaType mediaType,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        send(file, null, fileName, mediaType, request, response);
+    }
+
+
+    /**
+     * Comme {@link #send(Path, String, MediaType, HttpServletRequest, HttpServletResponse)},
+     * avec l'empreinte SHA-256 du contenu quand elle est déjà connue (contenus stockés par empreinte) : elle n'est pas recalculée.
+     */
+    public void send(Path file, String contentDigest, String fileName, MediaType mediaType,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File not found");
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + (contentDigest != null ? contentDigest : contentDigestCache.digest(file, attributes)) + "\"";
+
+        // Contenu propre à l'utilisateur : conservé par le navigateur mais revalidé à chaque ouverture
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // If-None-Match / If-Modified-Since (304), If-Match / If-Unmodified-Since (412), ajoute ETag et Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setContentType(mediaType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName, StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        ByteRange range = isRangeApplicable(request, etag, lastModified)
+                ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), length)
+                : null;
+
+        if (range != null && !range.isSatisfiable()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+
+        long start = 0;
+        long count = length;
+        if (range != null) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.toContentRange(length));
+            start = range.start();
+            count = range.length();
+        }
+        response.setContentLengthLong(count);
+
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat envoie la plage du fichier directement depuis le noyau après le retour du contrôleur
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+
+        transfer(file, start, count, response.getOutputStream());
+    }
+
+
+    // If-Range : la plage n'est servie que si le fichier n'a pas changé depuis la première partie reçue par le client
+    static boolean isRangeApplicable(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        // Comparaison forte : un ETag faible ne valide jamais une plage
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+
+    // Transfert de la plage du fichier vers la réponse, sans tampon intermédiaire côté application
+    static void transfer(Path file, long position, long count, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    // Fichier raccourci depuis la lecture de sa taille
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+}
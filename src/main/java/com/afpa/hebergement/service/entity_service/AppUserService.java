@@ -1,6 +1,7 @@
 package com.afpa.hebergement.service.entity_service;
 
 import com.afpa.hebergement.model.dto.AppUserDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
 import com.afpa.hebergement.model.dto.PasswordDTO;
 import com.afpa.hebergement.model.dto.UserDTO;
 import com.afpa.hebergement.service.GenericService;
@@ -30,6 +31,6 @@ public interface AppUserService extends GenericService<AppUserDTO, Integer> {
     //récupérer un user par son email
     Optional<AppUserDTO> getByEmail(String email);
 
-
-
+    //récupérer les utilisateurs d'un centre afpa par curseur (after = jeton de la page précédente), avec comptage total optionnel
+    KeysetPageDTO<AppUserDTO> scrollByAfpaCenter(Integer idAfpaCenter, String after, Integer size, boolean withCount);
 }
@@ -1,9 +1,13 @@
 package com.afpa.hebergement.service.entity_service;
 
 import com.afpa.hebergement.model.dto.AppointmentDTO;
+import com.afpa.hebergement.model.dto.AppointmentSlotDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
+import com.afpa.hebergement.model.dto.SearchHitDTO;
 import com.afpa.hebergement.service.GenericService;
 import org.springframework.data.domain.Page;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AppointmentService extends GenericService<AppointmentDTO, Integer> {
@@ -23,4 +27,12 @@ public interface AppointmentService extends GenericService<AppointmentDTO, Integ
     //récupérer les rendez-vous par date
     List<AppointmentDTO> getAppointmentsByDate(String dateAppointment);
 
+    //récupérer les rendez-vous d'un centre afpa par curseur (after = jeton de la page précédente), avec comptage total optionnel
+    KeysetPageDTO<AppointmentDTO> scrollAppointmentsByAfpaCenter(Integer idAfpaCenter, String after, Integer size, boolean withCount);
+
+    //rechercher en plein texte les rendez-vous d'un centre afpa par motif, classés par pertinence, par curseur (after = jeton de la page précédente)
+    KeysetPageDTO<SearchHitDTO> searchAppointmentsByAfpaCenter(Integer idAfpaCenter, String query, String after, Integer size);
+
+    //récupérer les prochains créneaux libres des intendants d'un centre afpa à partir d'une date/heure (maintenant si null)
+    List<AppointmentSlotDTO> getFreeSlotsByAfpaCenter(Integer idAfpaCenter, LocalDateTime from, Integer count);
 }
@@ -4,8 +4,14 @@ import com.afpa.hebergement.model.dto.BillDTO;
 import com.afpa.hebergement.model.dto.BillFormDTO;
 import com.afpa.hebergement.service.GenericService;
 
+import java.nio.file.Path;
+import java.util.Optional;
+
 public interface BillService extends GenericService<BillDTO,Integer> {
     //méthode pour créer un BillDTO via le BillFormDTO
     BillDTO create(BillFormDTO billFormDTO);
 
+    //méthode pour obtenir l'emplacement du PDF d'une facture (vide tant que le PDF est en cours de rendu)
+    Optional<Path> getPdfPath(Integer id);
+
 }
@@ -1,6 +1,7 @@
 package com.afpa.hebergement.service.entity_service;
 
 import com.afpa.hebergement.model.dto.DocumentCenterDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
 import com.afpa.hebergement.service.GenericService;
 import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
@@ -15,4 +16,7 @@ public interface DocumentCenterService extends GenericService<DocumentCenterDTO,
     Optional<DocumentCenterDTO> updateFile(MultipartFile multipartFile, Integer idDocumentType, String commentary, Integer id);
     //récupérer les users par centre afpa avec pagination
     Page<DocumentCenterDTO> getAllByAfpaCenter(Integer idAfpaCenter, Integer page, Integer size);
+
+    //récupérer les documents d'un centre afpa par curseur (after = jeton de la page précédente), avec comptage total optionnel
+    KeysetPageDTO<DocumentCenterDTO> scrollByAfpaCenter(Integer idAfpaCenter, String after, Integer size, boolean withCount);
 }
@@ -1,6 +1,8 @@
 package com.afpa.hebergement.service.entity_service;
 
 import com.afpa.hebergement.model.dto.MessageDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
+import com.afpa.hebergement.model.dto.SearchHitDTO;
 import com.afpa.hebergement.service.GenericService;
 import org.springframework.data.domain.Page;
 
@@ -23,4 +25,9 @@ public interface MessageService extends GenericService<MessageDTO, Integer> {
     //créer un message par id intendant et id user
     MessageDTO create (MessageDTO messageDto, Integer idIntendant, Integer idUser);
 
+    //récupérer les messages d'un centre afpa par curseur (after = jeton de la page précédente), avec comptage total optionnel
+    KeysetPageDTO<MessageDTO> scrollMessagesByAfpaCenter(Integer idAfpaCenter, String after, Integer size, boolean withCount);
+
+    //rechercher en plein texte les messages d'un centre afpa, classés par pertinence, par curseur (after = jeton de la page précédente)
+    KeysetPageDTO<SearchHitDTO> searchMessagesByAfpaCenter(Integer idAfpaCenter, String query, String after, Integer size);
 }
@@ -1,5 +1,6 @@
 package com.afpa.hebergement.service.entity_service;
 
+import com.afpa.hebergement.model.dto.ReservationBatchResultDTO;
 import com.afpa.hebergement.model.dto.ReservationDTO;
 import com.afpa.hebergement.service.GenericService;
 
@@ -12,4 +13,7 @@ public interface ReservationService extends GenericService<ReservationDTO, Integ
 
     //créer une reservation par id room et id reservation motive
     ReservationDTO create (ReservationDTO reservationDto, Integer idRoom, Integer idReservationMotive);
+
+    //créer un lot de réservations, avec un résultat par réservation
+    List<ReservationBatchResultDTO> createBatch(List<ReservationDTO> reservationDtos);
 }
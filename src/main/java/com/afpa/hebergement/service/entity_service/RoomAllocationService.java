@@ -0,0 +1,9 @@
+package com.afpa.hebergement.service.entity_service;
+
+import com.afpa.hebergement.model.dto.RoomAllocationResultDTO;
+
+public interface RoomAllocationService {
+
+    //attribuer les chambres d'un centre afpa aux participants d'une session de formation, et créer les réservations sauf en simulation
+    RoomAllocationResultDTO allocateSession(Integer idSession, Integer idAfpaCenter, Integer idReservationMotive, boolean dryRun);
+}
@@ -4,6 +4,7 @@ import com.afpa.hebergement.model.dto.RoomDTO;
 import com.afpa.hebergement.service.GenericService;
 import org.springframework.data.domain.Page;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,18 +16,33 @@ public interface RoomService extends GenericService<RoomDTO, Integer> {
     //Méthode pour récupérer les chambres par centre afpa avec pagination
     Page<RoomDTO> getAllByAfpaCenter(Integer idAfpaCenter, Integer page, Integer size);
 
-    //récupérer les chambres qui sont réservées et par centre afpa
+    //récupérer les chambres qui sont réservées aujourd'hui et par centre afpa
     List<RoomDTO> getByReservedRoomAndIdAfpaCenter(Integer idAfpaCenter);
 
-    //récupérer les chambres libres par centre afpa
+    //récupérer les chambres qui sont réservées un jour donné et par centre afpa
+    List<RoomDTO> getByReservedRoomAndIdAfpaCenter(Integer idAfpaCenter, LocalDate day);
+
+    //récupérer les chambres libres aujourd'hui par centre afpa
     List<RoomDTO> getByAvailableRoomAndIdAfpaCenter(Integer idAfpaCenter);
 
-    //récupérer les chambres occupées par centre afpa
+    //récupérer les chambres libres un jour donné par centre afpa
+    List<RoomDTO> getByAvailableRoomAndIdAfpaCenter(Integer idAfpaCenter, LocalDate day);
+
+    //récupérer les chambres occupées (non utilisables) par centre afpa
     List<RoomDTO> getByOccupiedRoomAndIdAfpaCenter(Integer idAfpaCenter);
 
+    //récupérer les chambres louées (contrat de bail) aujourd'hui par centre afpa
+    List<RoomDTO> getByLeasedRoomAndIdAfpaCenter(Integer idAfpaCenter);
+
+    //récupérer les chambres louées (contrat de bail) un jour donné par centre afpa
+    List<RoomDTO> getByLeasedRoomAndIdAfpaCenter(Integer idAfpaCenter, LocalDate day);
+
     //récupérer les chambres réservées aux femmes par centre afpa
     List<RoomDTO> getByWomanRoomAndIdAfpaCenter(Integer idAfpaCenter);
 
+    //récupérer les chambres libres d'un centre afpa sur une période (sans réservation, contrat de bail ni travaux)
+    List<RoomDTO> getFreeRoomsByAfpaCenter(Integer idAfpaCenter, LocalDate startDate, LocalDate endDate);
+
     //récupérer une chambre par numéro de chambre et centre afpa
     Optional<RoomDTO> getByRoomNumberAndIdAfpaCenter(String roomNumber, Integer idAfpaCenter);
 
@@ -2,13 +2,18 @@ package com.afpa.hebergement.service.entity_service_impl;
 
 import com.afpa.hebergement.exception.*;
 import com.afpa.hebergement.model.dto.AppUserDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
 import com.afpa.hebergement.model.dto.PasswordDTO;
 import com.afpa.hebergement.model.dto.UserDTO;
 import com.afpa.hebergement.model.entity.*;
 import com.afpa.hebergement.model.enum_role.RoleType;
 import com.afpa.hebergement.model.mapper.*;
 import com.afpa.hebergement.model.repository.*;
+import com.afpa.hebergement.security.jwt.TokenRevocationList;
+import com.afpa.hebergement.security.service.UserDetailsCache;
 import com.afpa.hebergement.service.entity_service.AppUserService;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.util.KeysetPagination;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
@@ -30,12 +35,13 @@ public class AppUserServiceImpl implements AppUserService {
 
     public static final String NO_USERS_FOUND = "No users found";
     private final AppUserRepository appUserRepository;
-    private final RoleRepository roleRepository;
-    private final CivilityRepository civilityRepository;
     private final CityRepository cityRepository;
     private final AfpaCenterRepository afpaCenterRepository;
     private final ContactPersonRepository contactPersonRepository;
     private final IntendantRepository intendantRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     private PasswordEncoder passwordEncoder;
 
@@ -53,13 +59,13 @@ public class AppUserServiceImpl implements AppUserService {
         }
 
         // Recherche et validation de l'id du rôle
-        Role role = roleRepository.findById(appUserDto.getIdRole().getId()).orElse(null);
+        Role role = referenceDataRegistry.roles().findById(appUserDto.getIdRole().getId()).orElse(null);
         if (role == null) {
             throw new ResourceNotFoundException("Role not found");
         }
 
         // Recherche et validation de l'id de la civilité
-        Civility civility = civilityRepository.findById(appUserDto.getIdCivility().getId()).orElse(null);
+        Civility civility = referenceDataRegistry.civilities().findById(appUserDto.getIdCivility().getId()).orElse(null);
         if (civility == null) {
             throw new ResourceNotFoundException("Civility not found");
         }
@@ -122,7 +128,7 @@ public class AppUserServiceImpl implements AppUserService {
     public List<AppUserDTO> getAll() {
 
         // Récupère toutes les entités AppUser du repository
-        List<AppUser> appUsers = appUserRepository.findAll();
+        List<AppUser> appUsers = appUserRepository.findAllWithRelationsBy();
 
         // Vérifie si la liste est vide
         if (appUsers.isEmpty()) {
@@ -150,7 +156,7 @@ public class AppUserServiceImpl implements AppUserService {
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
 
         // Récupère toutes les entités Room du repository
-        Page<AppUser> usersPage = appUserRepository.findAll(pageable);
+        Page<AppUser> usersPage = appUserRepository.findAllWithRelationsBy(pageable);
 
         // Vérifie si la liste est vide
         if (usersPage.isEmpty()) {
@@ -331,8 +337,8 @@ public class AppUserServiceImpl implements AppUserService {
         }
 
         // Mise à jour des Many-to-One
-        // recherche l'id du role dans le repository
-        Role role = roleRepository.findById(appUserDto.getIdRole().getId())
+        // recherche l'id du role dans les données de référence
+        Role role = referenceDataRegistry.roles().findById(appUserDto.getIdRole().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Role ID not found"));
 
         // Mise à jour du role associé
@@ -345,8 +351,8 @@ public class AppUserServiceImpl implements AppUserService {
             throw new IllegalArgumentException("id role cannot be null");
         }
 
-        // Recherche de l'id de la civilité dans le repository
-        Civility civility = civilityRepository.findById(appUserDto.getIdCivility().getId())
+        // Recherche de l'id de la civilité dans les données de référence
+        Civility civility = referenceDataRegistry.civilities().findById(appUserDto.getIdCivility().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Civility ID not found"));
 
         // Mise à jour de la civilité associée
@@ -390,6 +396,10 @@ public class AppUserServiceImpl implements AppUserService {
         try {
             // Sauvegarde l'entité mise à jour dans le repository
             AppUser updatedAppUser = appUserRepository.save(appUserToUpdate);
+            // Le rôle ou le mot de passe a pu changer : l'utilisateur en cache pour l'authentification est invalidé
+            // et ses jetons déjà émis sont révoqués (ils portent l'ancien rôle)
+            userDetailsCache.invalidate(updatedAppUser.getBeneficiaryNumber());
+            tokenRevocationList.revokeUser(updatedAppUser.getId());
 
             // Vérifier si le rôle de l'utilisateur enregistré a un 'ROLE_INTENDANT' ou 'ROLE_ADMIN'
             if (updatedAppUser.getIdRole().getWordingRole() == RoleType.ROLE_INTENDANT || updatedAppUser.getIdRole().getWordingRole() == RoleType.ROLE_ADMIN) {
@@ -438,8 +448,8 @@ public class AppUserServiceImpl implements AppUserService {
 
 
         // Mise à jour des Many-to-One
-        // Recherche de l'id de la civilité dans le repository
-        Civility civility = civilityRepository.findById(userDto.getIdCivility().getId())
+        // Recherche de l'id de la civilité dans les données de référence
+        Civility civility = referenceDataRegistry.civilities().findById(userDto.getIdCivility().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Civility ID not found"));
 
 
@@ -484,6 +494,8 @@ public class AppUserServiceImpl implements AppUserService {
         try {
             // Sauvegarde l'entité mise à jour dans le repository
             AppUser updatedAppUser = appUserRepository.save(userToUpdate);
+            // Invalide l'utilisateur en cache pour l'authentification
+            userDetailsCache.invalidate(updatedAppUser.getBeneficiaryNumber());
 
             // Convertit l'entité mise à jour en DTO et la retourne
             return Optional.of(UserMapper.mapToUserDTO(updatedAppUser));
@@ -517,6 +529,9 @@ public class AppUserServiceImpl implements AppUserService {
         try {
             // Sauvegarder l'utilisateur mis à jour dans le repository
             appUserRepository.save(userToUpdate);
+            // Invalide l'utilisateur en cache pour l'authentification et révoque ses jetons déjà émis
+            userDetailsCache.invalidate(userToUpdate.getBeneficiaryNumber());
+            tokenRevocationList.revokeUser(userToUpdate.getId());
 
         } catch (Exception e) {
             // Capturer toute exception inattendue et lancer une exception avec un message d'erreur
@@ -536,6 +551,9 @@ public class AppUserServiceImpl implements AppUserService {
         try {
             // Supprime l'entité AppUser trouvée
             appUserRepository.delete(appUser);
+            // Un jeton encore valide ne doit plus authentifier l'utilisateur supprimé
+            userDetailsCache.invalidate(appUser.getBeneficiaryNumber());
+            tokenRevocationList.revokeUser(appUser.getId());
 
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
@@ -544,4 +562,28 @@ public class AppUserServiceImpl implements AppUserService {
     }
 
 
+    @Override
+    public KeysetPageDTO<AppUserDTO> scrollByAfpaCenter(Integer idAfpaCenter, String after, Integer size, boolean withCount) {
+
+        // Recherche de l'id du centre Afpa dans le repository
+        AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
+                .orElseThrow(() -> new ResourceNotFoundException("Afpa Center ID not found: " + idAfpaCenter));
+
+        // Décode le jeton de continuation et borne la taille de la page
+        int lastId = KeysetPagination.decode(after);
+        int pageSize = KeysetPagination.clampSize(size);
+
+        // Cherche les utilisateurs qui suivent le curseur (une ligne de plus pour savoir s'il existe une page suivante)
+        List<AppUser> rows = appUserRepository.findByIdAfpaCenter_IdAndIdGreaterThanOrderByIdAsc(afpaCenter.getId(), lastId, KeysetPagination.limitFor(pageSize));
+
+        try {
+            // Mappe les entités en DTO ; le comptage total n'est exécuté que s'il est demandé
+            return KeysetPagination.toPage(rows, pageSize, AppUser::getId, AppUserMapper::mapToAppUserDTO,
+                    withCount, () -> appUserRepository.countByIdAfpaCenter_Id(afpaCenter.getId()));
+
+        } catch (Exception e) {
+            // Capture toute exception inattendue et lance une exception avec un message d'erreur
+            throw new InternalServerException("Error occurred while getting user(s) by cursor");
+        }
+    }
 }
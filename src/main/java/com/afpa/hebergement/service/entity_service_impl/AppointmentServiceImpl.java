@@ -2,13 +2,22 @@ package com.afpa.hebergement.service.entity_service_impl;
 
 import com.afpa.hebergement.exception.*;
 import com.afpa.hebergement.model.dto.AppointmentDTO;
+import com.afpa.hebergement.model.dto.AppointmentSlotDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
+import com.afpa.hebergement.model.dto.SearchHitDTO;
 import com.afpa.hebergement.model.entity.*;
 import com.afpa.hebergement.model.mapper.AppointmentMapper;
+import com.afpa.hebergement.model.mapper.SearchHitMapper;
 import com.afpa.hebergement.model.repository.AfpaCenterRepository;
 import com.afpa.hebergement.model.repository.AppointmentRepository;
 import com.afpa.hebergement.model.repository.IntendantRepository;
 import com.afpa.hebergement.model.repository.AppUserRepository;
+import com.afpa.hebergement.model.repository.SearchHitRow;
+import com.afpa.hebergement.service.appointment_slot.AppointmentSlotEngine;
+import com.afpa.hebergement.service.appointment_slot.SlotStatus;
 import com.afpa.hebergement.service.entity_service.AppointmentService;
+import com.afpa.hebergement.service.full_text_search.FullTextSearch;
+import com.afpa.hebergement.util.KeysetPagination;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
@@ -32,7 +41,11 @@ public class AppointmentServiceImpl implements AppointmentService {
     private final IntendantRepository intendantRepository;
     private final AppUserRepository appUserRepository;
     private final AfpaCenterRepository afpaCenterRepository;
+    private final AppointmentSlotEngine appointmentSlotEngine;
     public static final String NO_APPOINTMENTS_FOUND = "No appointments found";
+    public static final String APPOINTMENT_SLOT_ALREADY_BOOKED = "Appointment slot already booked for this intendant";
+    public static final String APPOINTMENT_SLOT_CONSTRAINT = "appointment_intendant_slot_uk";
+    public static final int MAX_FREE_SLOTS = 100;
 
 
     // dans swagger le format appointment : "dateAppointment" : "30/08/2024 07:58"
@@ -60,6 +73,9 @@ public class AppointmentServiceImpl implements AppointmentService {
             throw new IllegalArgumentException("Cannot create an appointment for a past date");
         }
 
+        // Vérifie que le créneau est dans les horaires de l'intendant et qu'il est libre
+        checkSlot(idIntendant.getId(), appointmentDto.getDateAppointment(), null);
+
         // Vérifie si le rendez-vous existe déjà pour cette date/heure et cet utilisateur et l'intendant
         Optional<Appointment> existingAppointment = appointmentRepository.findByDateAppointmentAndIdIntendantAndIdUser(
                 appointmentDto.getDateAppointment(),
@@ -81,10 +97,17 @@ public class AppointmentServiceImpl implements AppointmentService {
             // Sauvegarde l'entité Appointment dans le repository
             Appointment savedAppointment = appointmentRepository.save(appointment);
 
+            // Occupe le créneau dans le moteur de créneaux
+            appointmentSlotEngine.registerAppointment(savedAppointment);
+
             // Mappe l'entité Appointment sauvegardée en DTO et la retourne
             return AppointmentMapper.mapToAppointmentDTO(savedAppointment);
 
         } catch (DataIntegrityViolationException e) {
+            // Créneau pris entre la vérification et l'écriture (index unique intendant / date)
+            if (isSlotConflict(e)) {
+                throw new DuplicateException(APPOINTMENT_SLOT_ALREADY_BOOKED);
+            }
             // Capturer une exception de violation d'intégrité des données
             throw new CreationException("Error occurred while creating appointment");
         }
@@ -280,6 +303,9 @@ public class AppointmentServiceImpl implements AppointmentService {
             throw new IllegalArgumentException("Cannot update an appointment for a past date");
         }
 
+        // Vérifie que le nouveau créneau est dans les horaires de l'intendant et libre (hors ce rendez-vous)
+        checkSlot(appointmentToUpdate.getIdIntendant().getId(), appointmentDto.getDateAppointment(), appointmentToUpdate.getId());
+
         // Met à jour les champs date de rendez-vous et raison de l'entité Appointment avec les valeurs du DTO
         appointmentToUpdate.setDateAppointment(appointmentDto.getDateAppointment());
 
@@ -291,9 +317,19 @@ public class AppointmentServiceImpl implements AppointmentService {
             // Sauvegarde l'entité Appointment mise à jour dans le repository
             Appointment updatedAppointment = appointmentRepository.save(appointmentToUpdate);
 
+            // Déplace le rendez-vous dans le moteur de créneaux
+            appointmentSlotEngine.registerAppointment(updatedAppointment);
+
             // Mappe l'entité Appointment mise à jour en DTO et la retourne (encapsulée) dans un Optional
             return Optional.of(AppointmentMapper.mapToAppointmentDTO(updatedAppointment));
 
+        } catch (DataIntegrityViolationException e) {
+            // Créneau pris entre la vérification et l'écriture (index unique intendant / date)
+            if (isSlotConflict(e)) {
+                throw new DuplicateException(APPOINTMENT_SLOT_ALREADY_BOOKED);
+            }
+            throw new InternalServerException("Error occurred while updating the appointment with ID: " + id);
+
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
             throw new InternalServerException("Error occurred while updating the appointment with ID: " + id);
@@ -312,10 +348,118 @@ public class AppointmentServiceImpl implements AppointmentService {
             // Supprime l'entité Appointment trouvée
             appointmentRepository.delete(appointment);
 
+            // Libère le créneau dans le moteur de créneaux
+            appointmentSlotEngine.releaseAppointment(appointment.getId());
+
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
             throw new InternalServerException("An unexpected error occurred while deleting the appointment with id: " + id);
         }
     }
 
+
+    @Override
+    public KeysetPageDTO<AppointmentDTO> scrollAppointmentsByAfpaCenter(Integer idAfpaCenter, String after, Integer size, boolean withCount) {
+
+        // Recherche de l'id du centre Afpa dans le repository
+        AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
+                .orElseThrow(() -> new ResourceNotFoundException("Afpa Center ID not found: " + idAfpaCenter));
+
+        // Décode le jeton de continuation et borne la taille de la page
+        int lastId = KeysetPagination.decode(after);
+        int pageSize = KeysetPagination.clampSize(size);
+
+        // Cherche les rendez-vous qui suivent le curseur (une ligne de plus pour savoir s'il existe une page suivante)
+        List<Appointment> rows = appointmentRepository.findByAfpaCenterIdAndIdGreaterThanOrderByIdAsc(afpaCenter.getId(), lastId, KeysetPagination.limitFor(pageSize));
+
+        try {
+            // Mappe les entités en DTO ; le comptage total n'est exécuté que s'il est demandé
+            return KeysetPagination.toPage(rows, pageSize, Appointment::getId, AppointmentMapper::mapToAppointmentDTO,
+                    withCount, () -> appointmentRepository.countByAfpaCenterId(afpaCenter.getId()));
+
+        } catch (Exception e) {
+            // Capture toute exception inattendue et lance une exception avec un message d'erreur
+            throw new InternalServerException("Error occurred to recover appointments by cursor for Afpa Center ID: " + idAfpaCenter);
+        }
+    }
+
+
+    @Override
+    public KeysetPageDTO<SearchHitDTO> searchAppointmentsByAfpaCenter(Integer idAfpaCenter, String query, String after, Integer size) {
+
+        // Recherche de l'id du centre Afpa dans le repository
+        AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
+                .orElseThrow(() -> new ResourceNotFoundException("Afpa Center ID not found: " + idAfpaCenter));
+
+        // Vérifie la requête, décode le jeton de continuation et borne la taille de la page
+        String searchQuery = FullTextSearch.normalizeQuery(query);
+        KeysetPagination.RankedCursor cursor = KeysetPagination.decodeRanked(after);
+        int pageSize = KeysetPagination.clampSize(size);
+
+        // Cherche les rendez-vous qui suivent le curseur dans l'ordre de pertinence (une ligne de plus pour savoir s'il existe une page suivante)
+        List<SearchHitRow> rows = appointmentRepository.searchByAfpaCenter(afpaCenter.getId(), searchQuery, cursor.rank(), cursor.id(), pageSize + 1);
+
+        try {
+            // Mappe les lignes en DTO, avec l'extrait surligné
+            return KeysetPagination.toRankedPage(rows, pageSize, SearchHitRow::getRank, SearchHitRow::getId, SearchHitMapper::mapToSearchHitDTO);
+
+        } catch (Exception e) {
+            // Capture toute exception inattendue et lance une exception avec un message d'erreur
+            throw new InternalServerException("Error occurred to search appointments for Afpa Center ID: " + idAfpaCenter);
+        }
+    }
+
+
+    @Override
+    public List<AppointmentSlotDTO> getFreeSlotsByAfpaCenter(Integer idAfpaCenter, LocalDateTime from, Integer count) {
+
+        // Recherche de l'id du centre Afpa dans le repository
+        AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
+                .orElseThrow(() -> new ResourceNotFoundException("Afpa Center ID not found: " + idAfpaCenter));
+
+        // Pas de créneau dans le passé ; nombre de créneaux borné
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        int slotCount = Math.clamp(count == null ? 10 : count, 1, MAX_FREE_SLOTS);
+
+        // Prochains créneaux libres, lus dans le moteur de créneaux en mémoire
+        int slotMinutes = appointmentSlotEngine.getGrid().slotMinutes();
+        List<AppointmentSlotDTO> slots = appointmentSlotEngine.nextFreeSlots(afpaCenter.getId(), start, slotCount).stream()
+                .map(slot -> new AppointmentSlotDTO(slot.idIntendant(), slot.start(), slot.start().plusMinutes(slotMinutes)))
+                .toList();
+
+        // Vérifie si la liste est vide
+        if (slots.isEmpty()) {
+            // Lance une NoContentException si aucun créneau n'est libre
+            throw new NoContentException("No free appointment slots found");
+        }
+        return slots;
+    }
+
+
+    // Refuse un rendez-vous hors d'un créneau des horaires de l'intendant, ou sur un créneau déjà pris
+    private void checkSlot(Integer idIntendant, LocalDateTime dateAppointment, Integer excludedAppointmentId) {
+        SlotStatus status = appointmentSlotEngine.check(idIntendant, dateAppointment, excludedAppointmentId);
+        switch (status) {
+            case OFF_GRID -> throw new BadRequestException("Appointment must start at the beginning of a "
+                    + appointmentSlotEngine.getGrid().slotMinutes() + "-minute slot");
+            case OUTSIDE_SCHEDULE -> throw new BadRequestException("Appointment is outside the intendant's schedule");
+            case BOOKED -> throw new DuplicateException(APPOINTMENT_SLOT_ALREADY_BOOKED);
+            default -> {
+                // Créneau libre
+            }
+        }
+    }
+
+
+    // Indique si l'exception provient de l'index unique sur le créneau d'un intendant
+    private static boolean isSlotConflict(DataIntegrityViolationException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(APPOINTMENT_SLOT_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
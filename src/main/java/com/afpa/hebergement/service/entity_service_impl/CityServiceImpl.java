@@ -5,13 +5,17 @@ import com.afpa.hebergement.exception.DuplicateException;
 import com.afpa.hebergement.exception.InternalServerException;
 import com.afpa.hebergement.exception.ResourceNotFoundException;
 import com.afpa.hebergement.model.dto.CityDTO;
+import com.afpa.hebergement.model.dto.CitySuggestionDTO;
 import com.afpa.hebergement.model.entity.City;
 import com.afpa.hebergement.model.mapper.CityMapper;
 import com.afpa.hebergement.model.repository.CityRepository;
+import com.afpa.hebergement.service.city_search.CityAutocompleteIndex;
 import com.afpa.hebergement.service.entity_service.CityService;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -23,6 +27,7 @@ import java.util.Optional;
 public class CityServiceImpl implements CityService {
 
     private final CityRepository cityRepository;
+    private final CityAutocompleteIndex cityAutocompleteIndex;
 
     private static final String NO_CITY_FOUND = "City does not exist";
 
@@ -44,6 +49,8 @@ public class CityServiceImpl implements CityService {
         try {
             City city = CityMapper.mapToCity(cityDto);
             City savedCity = cityRepository.save(city);
+            // La nouvelle ville sera proposée par l'autocomplétion dès la reconstruction de l'index
+            cityAutocompleteIndex.refreshAfterCommit();
             return CityMapper.mapToCityDto(savedCity);
         } catch (DataIntegrityViolationException e){
             throw new CreationException("Unable to create a city due to a data integrity issue.");
@@ -78,4 +85,19 @@ public class CityServiceImpl implements CityService {
                 .orElseThrow(() -> new ResourceNotFoundException(NO_CITY_FOUND));
         return Optional.of(CityMapper.mapToCityDto(city));
     }
+
+    /**
+     * Recherche les villes dont le nom ou le code postal commence par le texte saisi (autocomplétion).
+     * La recherche se fait dans l'index en mémoire, sans accès à la base de données.
+     * @param query Le début du nom de la ville ou du code postal, sans tenir compte des accents ni de la casse.
+     * @param limit Le nombre maximal de villes renvoyées (10 par défaut, 50 au plus).
+     * @return La liste des villes trouvées avec leur département et leur région, vide si aucune ne correspond.
+     */
+    @Override
+    public List<CitySuggestionDTO> autocomplete(String query, Integer limit) {
+        return cityAutocompleteIndex.search(query, limit).stream()
+                .map(city -> new CitySuggestionDTO(city.id(), city.cityName(), city.postcode(), city.inseeCode(),
+                        city.departmentCode(), city.departmentName(), city.regionName()))
+                .toList();
+    }
 }
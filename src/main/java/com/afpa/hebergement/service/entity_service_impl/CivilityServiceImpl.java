@@ -7,6 +7,8 @@ import com.afpa.hebergement.model.entity.Civility;
 import com.afpa.hebergement.model.mapper.CivilityMapper;
 import com.afpa.hebergement.model.repository.CivilityRepository;
 import com.afpa.hebergement.service.entity_service.CivilityService;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.service.reference.ReferenceType;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -21,6 +23,7 @@ public class CivilityServiceImpl implements CivilityService {
 
 
     private final CivilityRepository civilityRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
 
     @Override
@@ -40,6 +43,7 @@ public class CivilityServiceImpl implements CivilityService {
         try {
             // Sauvegarde l'entité Civility dans le repository
             Civility savedCivility = civilityRepository.save(civility);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.CIVILITY);
 
             // Mappe l'entité Civility sauvegardée en DTO et la retourne
             return CivilityMapper.mapToCivilityDTO(savedCivility);
@@ -56,7 +60,7 @@ public class CivilityServiceImpl implements CivilityService {
     public List<CivilityDTO> getAll() {
 
         // Récupère toutes les entités Role du repository
-        List<Civility> civilities = civilityRepository.findAll();
+        List<Civility> civilities = referenceDataRegistry.civilities().getAll();
 
         // Vérifie si la liste est vide
         if (civilities.isEmpty()) {
@@ -81,7 +85,7 @@ public class CivilityServiceImpl implements CivilityService {
     public Optional<CivilityDTO> getById(Integer id) {
 
         // Cherche une entité Civility par son identifiant
-        Civility findCivility = civilityRepository.findById(id)
+        Civility findCivility = referenceDataRegistry.civilities().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Civility not found with ID: " + id));
 
         try {
@@ -111,6 +115,7 @@ public class CivilityServiceImpl implements CivilityService {
 
             // Sauvegarde l'entité Civility mise à jour dans le repository
             Civility updatedCivility = civilityRepository.save(civilityToUpdate);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.CIVILITY);
 
             // Mappe et retourne l'entité Civility mise à jour en DTO encapsulé dans Optional
             return Optional.of(CivilityMapper.mapToCivilityDTO(updatedCivility));
@@ -131,6 +136,7 @@ public class CivilityServiceImpl implements CivilityService {
         try {
             // Supprime l'entité Civility par son identifiant
             civilityRepository.delete(civility);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.CIVILITY);
 
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
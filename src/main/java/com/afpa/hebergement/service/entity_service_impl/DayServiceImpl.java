@@ -6,6 +6,8 @@ import com.afpa.hebergement.model.entity.Day;
 import com.afpa.hebergement.model.mapper.DayMapper;
 import com.afpa.hebergement.model.repository.DayRepository;
 import com.afpa.hebergement.service.entity_service.DayService;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.service.reference.ReferenceType;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -19,6 +21,7 @@ import java.util.Optional;
 public class DayServiceImpl implements DayService {
 
     private final DayRepository dayRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
 
     @Override
@@ -38,6 +41,7 @@ public class DayServiceImpl implements DayService {
         try {
             // Sauvegarde l'entité Day dans le repository
             Day savedDay = dayRepository.save(day);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.DAY);
 
             // Mappe l'entité Day sauvegardée en DTO et la retourne
             return DayMapper.mapToDayDTO(savedDay);
@@ -53,7 +57,7 @@ public class DayServiceImpl implements DayService {
     public List<DayDTO> getAll() {
 
         // Récupère toutes les entités Day du repository
-        List<Day> days = dayRepository.findAll();
+        List<Day> days = referenceDataRegistry.days().getAll();
 
         // Vérifie si la liste est vide
         if (days.isEmpty()) {
@@ -78,7 +82,7 @@ public class DayServiceImpl implements DayService {
     public Optional<DayDTO> getById(Integer id) {
 
         // Cherche une entité Day par son identifiant
-        Day findDay = dayRepository.findById(id)
+        Day findDay = referenceDataRegistry.days().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Day not found with ID: " + id));
 
         try {
@@ -109,6 +113,7 @@ public class DayServiceImpl implements DayService {
 
             // Sauvegarde l'entité Day mise à jour dans le repository
             Day updatedDay = dayRepository.save(dayToUpdate);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.DAY);
 
             // Mappe l'entité Day mise à jour en DTO et la retourne (encapsulée) dans un Optional
             return Optional.of(DayMapper.mapToDayDTO(updatedDay));
@@ -130,6 +135,7 @@ public class DayServiceImpl implements DayService {
         try {
             // Supprime l'entité Day trouvée
             dayRepository.delete(day);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.DAY);
 
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
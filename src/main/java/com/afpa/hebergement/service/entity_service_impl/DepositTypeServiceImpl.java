@@ -6,6 +6,8 @@ import com.afpa.hebergement.model.entity.DepositType;
 import com.afpa.hebergement.model.mapper.DepositTypeMapper;
 import com.afpa.hebergement.model.repository.DepositTypeRepository;
 import com.afpa.hebergement.service.entity_service.DepositTypeService;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.service.reference.ReferenceType;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -19,6 +21,7 @@ import java.util.stream.Collectors;
 public class DepositTypeServiceImpl implements DepositTypeService {
 
     DepositTypeRepository repo;
+    ReferenceDataRegistry referenceDataRegistry;
 
     @Override
     public DepositTypeDTO create(DepositTypeDTO entityDto) {
@@ -32,6 +35,7 @@ public class DepositTypeServiceImpl implements DepositTypeService {
 
         try {
             DepositType savedDeposit = repo.save(depositTypeEntity);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.DEPOSIT_TYPE);
             return DepositTypeMapper.mapToDTO(savedDeposit);
         } catch (DataIntegrityViolationException e) {
             throw new CreationException("Error occured while creating deposit");
@@ -69,6 +73,7 @@ public class DepositTypeServiceImpl implements DepositTypeService {
             DepositType toUpdate = DepositTypeMapper.mapToEntity(entityDto);
             toUpdate.setId(id);
             DepositType saved = repo.save(toUpdate);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.DEPOSIT_TYPE);
 
             return Optional.of(DepositTypeMapper.mapToDTO(saved));
 
@@ -82,6 +87,7 @@ public class DepositTypeServiceImpl implements DepositTypeService {
         DepositType depo = repo.findById(id).orElseThrow(() -> new ResourceNotFoundException("DepositType not found at id : " + id));
         try {
             repo.delete(depo);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.DEPOSIT_TYPE);
         } catch (Exception e) {
             throw new InternalServerException("An unexpected error occured while deleting deposit with id : " + id);
         }
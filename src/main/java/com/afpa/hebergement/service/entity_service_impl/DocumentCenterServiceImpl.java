@@ -5,6 +5,7 @@ import com.afpa.hebergement.exception.InternalServerException;
 import com.afpa.hebergement.exception.NoContentException;
 import com.afpa.hebergement.exception.ResourceNotFoundException;
 import com.afpa.hebergement.model.dto.DocumentCenterDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
 import com.afpa.hebergement.model.entity.AfpaCenter;
 import com.afpa.hebergement.model.entity.DocumentCenter;
 import com.afpa.hebergement.model.entity.DocumentType;
@@ -13,14 +14,17 @@ import com.afpa.hebergement.model.repository.AfpaCenterRepository;
 import com.afpa.hebergement.model.repository.DocumentCenterRepository;
 import com.afpa.hebergement.model.repository.DocumentTypeRepository;
 import com.afpa.hebergement.service.entity_service.DocumentCenterService;
-import com.afpa.hebergement.util.FileUtil;
+import com.afpa.hebergement.service.storage.DocumentContentStore;
+import com.afpa.hebergement.util.KeysetPagination;
 import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -40,10 +44,14 @@ public class DocumentCenterServiceImpl implements DocumentCenterService {
     private final AfpaCenterRepository afpaCenterRepository;
     private final DocumentTypeRepository documentTypeRepository;
     private final DocumentCenterRepository documentCenterRepository;
+    private final DocumentContentStore documentContentStore;
 
     private static final String NO_DOCUMENT_CENTER_FOUND = "Document center does not exist";
     private static final String AN_ERROR_OCCURRED = "An error occurred.";
 
+    // Code public des documents : 8 caractères alphanumériques (taille de la colonne document_code)
+    private static final int DOCUMENT_CODE_LENGTH = 8;
+
     /**
      * Méthode pour télécharger un fichier et créer une entrée DocumentCenter correspondante.
      * Cette méthode permet de télécharger un fichier PDF et de créer une nouvelle entrée de document associée à un centre AFPA et un type de document.
@@ -57,6 +65,7 @@ public class DocumentCenterServiceImpl implements DocumentCenterService {
      * @throws InternalServerException En cas d'erreur lors de l'enregistrement du fichier ou de la création du document.
      */
     @Override
+    @Transactional
     public DocumentCenterDTO uploadFile(MultipartFile multipartFile, Integer idAfpaCenter, Integer idDocumentType, String commentary) {
         // Vérifie si le fichier est nul ou vide, et lance une exception si c'est le cas
         if (multipartFile == null || multipartFile.isEmpty())
@@ -86,12 +95,14 @@ public class DocumentCenterServiceImpl implements DocumentCenterService {
             // Nettoie le nom du fichier pour éviter les problèmes de chemin
             fileName = StringUtils.cleanPath(fileName);
 
-            // Enregistre le fichier dans le répertoire des fichiers téléchargés et récupère son code de fichier
-            String fileCode = FileUtil.saveFile(fileName, multipartFile);
+            // Calcule l'empreinte du contenu, puis l'enregistre s'il n'est pas déjà utilisé par un autre document
+            String contentDigest = documentContentStore.digest(multipartFile);
+            documentContentStore.acquire(contentDigest, multipartFile);
 
             DocumentCenter documentCenter = new DocumentCenter();
             documentCenter.setDocumentName(fileName);
-            documentCenter.setDocumentCode(fileCode);
+            documentCenter.setDocumentCode(RandomStringUtils.randomAlphanumeric(DOCUMENT_CODE_LENGTH));
+            documentCenter.setContentDigest(contentDigest);
             documentCenter.setDateDepoDoc(LocalDate.now());
             documentCenter.setDocCommentary(commentary);
             documentCenter.setIdAfpaCenter(afpaCenter);
@@ -177,6 +188,7 @@ public class DocumentCenterServiceImpl implements DocumentCenterService {
      * @throws InternalServerException En cas d'erreur lors de la mise à jour du fichier ou des informations du document.
      */
     @Override
+    @Transactional
     public Optional<DocumentCenterDTO> updateFile(MultipartFile multipartFile, Integer idDocumentType,
                                                   String commentary, Integer id) {
 
@@ -208,13 +220,14 @@ public class DocumentCenterServiceImpl implements DocumentCenterService {
             // Nettoie le nom du fichier pour éviter les problèmes de chemin
             newFileName = StringUtils.cleanPath(newFileName);
 
-            // Récupère le nom du document actuellement et celui du nouveau document
-            String oldFileName = documentCenter.getDocumentName();
-            oldFileName = StringUtils.cleanPath(oldFileName);
-
             try {
-                // Modifie le fichier dans le répertoire Files-Upload du serveur
-                FileUtil.updateFile(oldFileName, newFileName, multipartFile, documentCenter.getDocumentCode());
+                String contentDigest = documentContentStore.digest(multipartFile);
+                // Contenu inchangé : rien à écrire ni à compter
+                if (!contentDigest.equals(documentCenter.getContentDigest())) {
+                    documentContentStore.acquire(contentDigest, multipartFile);
+                    releaseContent(documentCenter);
+                    documentCenter.setContentDigest(contentDigest);
+                }
             } catch (Exception e) {
                 throw new InternalServerException(AN_ERROR_OCCURRED);
             }
@@ -255,14 +268,47 @@ public class DocumentCenterServiceImpl implements DocumentCenterService {
      * @throws InternalServerException En cas d'erreur lors de la suppression du fichier ou du document.
      */
     @Override
+    @Transactional
     public void deleteById(Integer id) {
         DocumentCenter documentCenter = documentCenterRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(NO_DOCUMENT_CENTER_FOUND));
         try {
-            FileUtil.deleteFile(documentCenter.getDocumentCode());
             documentCenterRepository.delete(documentCenter);
+            releaseContent(documentCenter);
         } catch (Exception e) {
             throw new InternalServerException("Une erreur s'est produite.");
         }
     }
+
+
+    // Retire la référence du document à son contenu (le fichier est supprimé après la validation s'il n'est plus utilisé)
+    private void releaseContent(DocumentCenter documentCenter) {
+        if (documentCenter.getContentDigest() != null) {
+            documentContentStore.release(documentCenter.getContentDigest());
+        } else {
+            documentContentStore.releaseLegacyFile(documentCenter.getDocumentCode());
+        }
+    }
+
+
+    @Override
+    public KeysetPageDTO<DocumentCenterDTO> scrollByAfpaCenter(Integer idAfpaCenter, String after, Integer size, boolean withCount) {
+
+        // Décode le jeton de continuation et borne la taille de la page
+        int lastId = KeysetPagination.decode(after);
+        int pageSize = KeysetPagination.clampSize(size);
+
+        // Cherche les documents qui suivent le curseur (une ligne de plus pour savoir s'il existe une page suivante)
+        List<DocumentCenter> rows = documentCenterRepository.findByIdAfpaCenter_IdAndIdGreaterThanOrderByIdAsc(idAfpaCenter, lastId, KeysetPagination.limitFor(pageSize));
+
+        try {
+            // Mappe les entités en DTO ; le comptage total n'est exécuté que s'il est demandé
+            return KeysetPagination.toPage(rows, pageSize, DocumentCenter::getId, DocumentCenterMapper::mapToDocumentCenterDTO,
+                    withCount, () -> documentCenterRepository.countByIdAfpaCenter_Id(idAfpaCenter));
+
+        } catch (Exception e) {
+            // Capture toute exception inattendue et lance une exception avec un message d'erreur
+            throw new InternalServerException("Error occurred while getting documents by cursor");
+        }
+    }
 }
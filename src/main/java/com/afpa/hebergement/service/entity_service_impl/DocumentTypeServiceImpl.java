@@ -8,6 +8,8 @@ import com.afpa.hebergement.model.entity.DocumentType;
 import com.afpa.hebergement.model.mapper.DocumentTypeMapper;
 import com.afpa.hebergement.model.repository.DocumentTypeRepository;
 import com.afpa.hebergement.service.entity_service.DocumentTypeService;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.service.reference.ReferenceType;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -23,6 +25,7 @@ import java.util.Optional;
 public class DocumentTypeServiceImpl implements DocumentTypeService {
 
     private final DocumentTypeRepository documentTypeRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     private static final String AN_ERROR_OCCURRED = "An error occurred.";
     private static final String DOCUMENT_TYPE_DOES_NOT_EXIST = "Document type does not exist";
@@ -40,6 +43,7 @@ public class DocumentTypeServiceImpl implements DocumentTypeService {
         try {
             DocumentType documentType = DocumentTypeMapper.mapToDocumentType(documentTypeDto);
             DocumentType savedDocumentType = documentTypeRepository.save(documentType);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.DOCUMENT_TYPE);
             return DocumentTypeMapper.mapToDocumentTypeDto(savedDocumentType);
         } catch (DataIntegrityViolationException e) {
             throw new CreationException("Unable to create document type due to a data integrity issue.");
@@ -56,7 +60,7 @@ public class DocumentTypeServiceImpl implements DocumentTypeService {
     @Override
     public List<DocumentTypeDTO> getAll() {
         try {
-            List<DocumentType> documentTypesList = documentTypeRepository.findAll();
+            List<DocumentType> documentTypesList = referenceDataRegistry.documentTypes().getAll();
             return documentTypesList.stream().map(DocumentTypeMapper::mapToDocumentTypeDto).toList();
         } catch (Exception e) {
             throw new InternalServerException(AN_ERROR_OCCURRED);
@@ -71,7 +75,7 @@ public class DocumentTypeServiceImpl implements DocumentTypeService {
      */
     @Override
     public Optional<DocumentTypeDTO> getById(Integer id) {
-        DocumentType documentType = documentTypeRepository.findById(id)
+        DocumentType documentType = referenceDataRegistry.documentTypes().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(DOCUMENT_TYPE_DOES_NOT_EXIST));
         return Optional.of(DocumentTypeMapper.mapToDocumentTypeDto(documentType));
     }
@@ -84,7 +88,7 @@ public class DocumentTypeServiceImpl implements DocumentTypeService {
      */
     @Override
     public Optional<DocumentTypeDTO> getByWordingDocument(String wordingDocument) {
-        DocumentType documentType = documentTypeRepository.findByWordingDocumentType(wordingDocument.toLowerCase())
+        DocumentType documentType = referenceDataRegistry.documentTypes().findByWording(wordingDocument)
                 .orElseThrow(() -> new ResourceNotFoundException(DOCUMENT_TYPE_DOES_NOT_EXIST));
         return Optional.of(DocumentTypeMapper.mapToDocumentTypeDto(documentType));
     }
@@ -104,6 +108,7 @@ public class DocumentTypeServiceImpl implements DocumentTypeService {
         try {
             documentType.setWordingDocumentType(documentTypeDto.getWordingDocumentType());
             DocumentType updatedDocumentType = documentTypeRepository.save(documentType);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.DOCUMENT_TYPE);
             return Optional.of(DocumentTypeMapper.mapToDocumentTypeDto(updatedDocumentType));
         } catch (Exception e) {
             throw new InternalServerException(AN_ERROR_OCCURRED);
@@ -121,6 +126,7 @@ public class DocumentTypeServiceImpl implements DocumentTypeService {
                 .orElseThrow(() -> new ResourceNotFoundException(DOCUMENT_TYPE_DOES_NOT_EXIST));
         try {
             documentTypeRepository.delete(documentType);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.DOCUMENT_TYPE);
         } catch (Exception e) {
             throw new InternalServerException(AN_ERROR_OCCURRED);
         }
@@ -8,6 +8,8 @@ import com.afpa.hebergement.model.entity.GuaranteeType;
 import com.afpa.hebergement.model.mapper.GuaranteeTypeMapper;
 import com.afpa.hebergement.model.repository.GuaranteeTypeRepository;
 import com.afpa.hebergement.service.entity_service.GuaranteeTypeService;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.service.reference.ReferenceType;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -24,6 +26,7 @@ import java.util.Optional;
 public class GuaranteeTypeServiceImpl implements GuaranteeTypeService {
 
     private final GuaranteeTypeRepository guaranteeTypeRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     private static final String AN_ERROR_OCCURRED = "An error occurred.";
     private static final String NO_GUARANTEE_TYPE_FOUND = "Guarantee type does not exist";
@@ -43,6 +46,7 @@ public class GuaranteeTypeServiceImpl implements GuaranteeTypeService {
         try {
             GuaranteeType guaranteeType = GuaranteeTypeMapper.mapToGuaranteeType(guaranteeTypeDto);
             GuaranteeType savedGuaranteeType = guaranteeTypeRepository.save(guaranteeType);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.GUARANTEE_TYPE);
             return GuaranteeTypeMapper.mapToGuaranteeTypeDTO(savedGuaranteeType);
         } catch (DataIntegrityViolationException e){
             throw new CreationException("Unable to create a guarantee type due to a data integrity issue.");
@@ -60,7 +64,7 @@ public class GuaranteeTypeServiceImpl implements GuaranteeTypeService {
     @Override
     public List<GuaranteeTypeDTO> getAll() {
         try {
-            List<GuaranteeType> guaranteeTypesList = guaranteeTypeRepository.findAll();
+            List<GuaranteeType> guaranteeTypesList = referenceDataRegistry.guaranteeTypes().getAll();
             return guaranteeTypesList.stream().map(GuaranteeTypeMapper::mapToGuaranteeTypeDTO).toList();
         } catch (Exception e){
             throw new InternalServerException(AN_ERROR_OCCURRED);
@@ -76,7 +80,7 @@ public class GuaranteeTypeServiceImpl implements GuaranteeTypeService {
      */
     @Override
     public Optional<GuaranteeTypeDTO> getById(Integer id) {
-        GuaranteeType guaranteeTypeOptional = guaranteeTypeRepository.findById(id)
+        GuaranteeType guaranteeTypeOptional = referenceDataRegistry.guaranteeTypes().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(NO_GUARANTEE_TYPE_FOUND));
         return Optional.of(GuaranteeTypeMapper.mapToGuaranteeTypeDTO(guaranteeTypeOptional));
     }
@@ -97,6 +101,7 @@ public class GuaranteeTypeServiceImpl implements GuaranteeTypeService {
         try {
             guaranteeType.setWordingGuaranteeType(guaranteeTypeDto.getWordingGuaranteeType());
             GuaranteeType updatedGuaranteeType = guaranteeTypeRepository.save(guaranteeType);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.GUARANTEE_TYPE);
             return Optional.of(GuaranteeTypeMapper.mapToGuaranteeTypeDTO(updatedGuaranteeType));
         } catch (Exception e){
             throw new InternalServerException(AN_ERROR_OCCURRED);
@@ -116,6 +121,7 @@ public class GuaranteeTypeServiceImpl implements GuaranteeTypeService {
                 .orElseThrow(() -> new ResourceNotFoundException(NO_GUARANTEE_TYPE_FOUND));
         try {
             guaranteeTypeRepository.delete(guaranteeType);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.GUARANTEE_TYPE);
         } catch (Exception e){
             throw new InternalServerException(AN_ERROR_OCCURRED);
         }
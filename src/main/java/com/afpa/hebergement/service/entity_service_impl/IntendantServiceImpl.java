@@ -7,6 +7,7 @@ import com.afpa.hebergement.model.entity.Intendant;
 import com.afpa.hebergement.model.mapper.IntendantMapper;
 import com.afpa.hebergement.model.repository.AfpaCenterRepository;
 import com.afpa.hebergement.model.repository.IntendantRepository;
+import com.afpa.hebergement.service.appointment_slot.AppointmentSlotEngine;
 import com.afpa.hebergement.service.entity_service.IntendantService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,7 @@ public class IntendantServiceImpl implements IntendantService {
 
     private final IntendantRepository intendantRepository;
     private final AfpaCenterRepository afpaCenterRepository;
+    private final AppointmentSlotEngine appointmentSlotEngine;
 
 
     // Récupérer tous les intendants d'un centre Afpa
@@ -88,6 +90,9 @@ public class IntendantServiceImpl implements IntendantService {
             // Sauvegarde l'entité Intendant mise à jour dans le repository
             Intendant updatedIntendant = intendantRepository.save(intendantToUpdate);
 
+            // Recalcule les créneaux de l'intendant (période d'activité)
+            appointmentSlotEngine.refreshIntendant(updatedIntendant.getId());
+
             // Mappe l'entité Intendant mise à jour en DTO et la retourne (encapsulée) dans un Optional
             return Optional.of(IntendantMapper.mapToIntendantDTO(updatedIntendant));
 
@@ -109,6 +114,9 @@ public class IntendantServiceImpl implements IntendantService {
             // Supprime l'entité Intendant trouvée
             intendantRepository.delete(intendant);
 
+            // Retire l'intendant du moteur de créneaux
+            appointmentSlotEngine.removeIntendant(intendant.getId());
+
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
             throw new InternalServerException("An unexpected error occurred while deleting the intendant with id: " + id);
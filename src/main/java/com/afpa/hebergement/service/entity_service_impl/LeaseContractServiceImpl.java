@@ -7,11 +7,18 @@ import com.afpa.hebergement.exception.ResourceNotFoundException;
 import com.afpa.hebergement.model.dto.LeaseContractDTO;
 import com.afpa.hebergement.model.dto.LeaseContractFormDTO;
 import com.afpa.hebergement.model.entity.*;
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
 import com.afpa.hebergement.model.mapper.LeaseContractMapper;
 import com.afpa.hebergement.model.repository.*;
+import com.afpa.hebergement.service.availability.RoomAvailabilityEngine;
+import com.afpa.hebergement.service.availability.RoomOccupancyProjection;
 import com.afpa.hebergement.service.entity_service.LeaseContractService;
+import com.afpa.hebergement.service.lease_creation.LeaseCreationContext;
+import com.afpa.hebergement.service.lease_creation.LeaseCreationContextLoader;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -24,16 +31,15 @@ public class LeaseContractServiceImpl implements LeaseContractService {
 
     public static final String DD_MM_YYYY = "dd/MM/yyyy";
     private final LeaseContractRepository leaseContractRepository;
-    private final RoomRepository roomRepository;
-    private final AppUserRepository appUserRepository;
     private final AfpaCenterRepository afpaCenterRepository;
-    private final CivilityRepository civilityRepository;
-    private final AppServiceRepository appServiceRepository;
-    private final RentRepository rentRepository;
-    private final ParticipateRepository participateRepository;
+    private final LeaseCreationContextLoader leaseCreationContextLoader;
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
+    private final RoomOccupancyProjection roomOccupancyProjection;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
 
     @Override
+    @Transactional
     public LeaseContractDTO create(LeaseContractFormDTO leaseContractFormDto) {
 
 
@@ -52,57 +58,24 @@ public class LeaseContractServiceImpl implements LeaseContractService {
             throw new IllegalArgumentException("The lease contract must be for a duration of at least one day.");
         }
 
-        // Rechercher un utilisateur par son nom, prénom, date de naissance
-        AppUser user = appUserRepository.findByNameAndFirstnameAndBirthdate(
-                        leaseContractFormDto.getName(),
-                        leaseContractFormDto.getFirstname(),
-                        leaseContractFormDto.getBirthdate())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        // Charger en une fois l'utilisateur (avec sa ville et son centre), le centre, la chambre et le loyer demandés,
+        // la formation de la dernière session et les services de la liste (ResourceNotFoundException si l'un manque)
+        LeaseCreationContext context = leaseCreationContextLoader.load(leaseContractFormDto);
+        AppUser user = context.user();
+        Room room = context.room();
+        Rent rent = context.rent();
 
-        //rechercher une civilité
-        Civility civility = civilityRepository.findByWordingCivility(leaseContractFormDto.getWordingCivility()).orElse(null);
+        //rechercher une civilité (données de référence en mémoire, sans tenir compte de la casse)
+        Civility civility = referenceDataRegistry.civilities().findByWording(leaseContractFormDto.getWordingCivility()).orElse(null);
         if ( civility == null) {
             throw new ResourceNotFoundException("Civility not found with wording: " + leaseContractFormDto.getWordingCivility());
         }
 
-        // Rechercher un centre Afpa par son nom de centre
-        AfpaCenter afpaCenter = afpaCenterRepository.findByCenterName(leaseContractFormDto.getCenterName())
-                .orElseThrow(() -> new ResourceNotFoundException("Afpa center not found with name " + leaseContractFormDto.getCenterName()));
-
-        // Rechercher une chambre par son numéro et par ID du centre Afpa
-        Room room = roomRepository.findByRoomNumberAndIdFloor_IdAfpaCenter_Id(
-                        leaseContractFormDto.getRoomNumber(),
-                        afpaCenter.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Room not found with room number: " + leaseContractFormDto.getRoomNumber() + " and id Afpa center: " + afpaCenter.getId()));
-
-        // Rechercher la dernière session de formation par l'ID utilisateur
-        Optional<Participate> lastSessionFormationOptional = participateRepository.findFirstByIdUser_IdOrderByIdDesc(user.getId());
-
-        // Rechercher un loyer par fréquence et par ID du centre Afpa
-        Rent rent = rentRepository.findByFrequencyAndIdAfpaCenter_Id(
-                        leaseContractFormDto.getFrequency(),
-                        afpaCenter.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Rent not found for : " + afpaCenter.getCenterName()));
-
-        // rechercher les services dans la liste, vérifier s'ils sont bien existants dans la base de données
-        List<String> listService = leaseContractFormDto.getListService();
-        for (String serviceName : listService) {
-            AppService service = appServiceRepository.findByWordingService(serviceName).orElse(null);
-            if (service == null) {
-                throw new ResourceNotFoundException("Service not found with name: " + serviceName);
-            }
-        }
-
         // Compléter les données du contrat de bail (auto-complétion) en fonction de l'utilisateur trouvé
         leaseContractFormDto.setCityName(user.getIdCity().getCityName());
 
-        // Définir le champ formationName en fonction de la session de formation trouvée
-        if (lastSessionFormationOptional.isEmpty()) {
-            leaseContractFormDto.setFormationName("");
-        } else {
-            Participate lastSessionFormation = lastSessionFormationOptional.get();
-            leaseContractFormDto.setFormationName(lastSessionFormation.getIdSession().getIdFormation().getFormationName());
-        }
+        // Définir le champ formationName en fonction de la dernière session de formation trouvée
+        leaseContractFormDto.setFormationName(context.formationName());
 
         // Compléter les informations du centre Afpa dans le DTO
         leaseContractFormDto.setWordingCivility(user.getIdCivility().getWordingCivility());
@@ -120,6 +93,10 @@ public class LeaseContractServiceImpl implements LeaseContractService {
             // Sauvegarder le contrat de location dans le repository
             LeaseContract savedLeaseContract = leaseContractRepository.save(leaseContract);
 
+            // Projeter l'occupation jour par jour dans la même transaction et mettre à jour l'index de disponibilité
+            roomOccupancyProjection.projectLease(savedLeaseContract);
+            roomAvailabilityEngine.registerLease(savedLeaseContract, room);
+
             // Retourner l'entité lease contract créée en DTO
             return LeaseContractMapper.mapToLeaseContractDTO(savedLeaseContract);
 
@@ -181,6 +158,7 @@ public class LeaseContractServiceImpl implements LeaseContractService {
 
 
     @Override
+    @Transactional
     public void deleteById(Integer id) {
 
         // Tente de trouver l'entité Lease Contract par son identifiant
@@ -191,6 +169,10 @@ public class LeaseContractServiceImpl implements LeaseContractService {
             // Supprime l'entité Lease Contract trouvée
             leaseContractRepository.deleteById(leaseContract.getId());
 
+            // Supprimer la projection et libérer la période dans l'index de disponibilité des chambres
+            roomOccupancyProjection.remove(OccupancyType.LEASE, leaseContract.getId());
+            roomAvailabilityEngine.release(OccupancyType.LEASE, leaseContract.getId());
+
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
             throw new InternalServerException("An unexpected error occurred while deleting the lease contract with id: " + id);
@@ -2,13 +2,20 @@ package com.afpa.hebergement.service.entity_service_impl;
 
 import com.afpa.hebergement.exception.*;
 import com.afpa.hebergement.model.dto.MessageDTO;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
+import com.afpa.hebergement.model.dto.SearchHitDTO;
 import com.afpa.hebergement.model.entity.*;
 import com.afpa.hebergement.model.mapper.MessageMapper;
+import com.afpa.hebergement.model.mapper.SearchHitMapper;
 import com.afpa.hebergement.model.repository.AfpaCenterRepository;
 import com.afpa.hebergement.model.repository.MessageRepository;
 import com.afpa.hebergement.model.repository.IntendantRepository;
 import com.afpa.hebergement.model.repository.AppUserRepository;
+import com.afpa.hebergement.model.repository.SearchHitRow;
 import com.afpa.hebergement.service.entity_service.MessageService;
+import com.afpa.hebergement.service.full_text_search.FullTextSearch;
+import com.afpa.hebergement.service.message_stream.MessageStreamHub;
+import com.afpa.hebergement.util.KeysetPagination;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
@@ -31,6 +38,7 @@ public class MessageServiceImpl implements MessageService {
     private final IntendantRepository intendantRepository;
     private final AppUserRepository appUserRepository;
     private final AfpaCenterRepository afpaCenterRepository;
+    private final MessageStreamHub messageStreamHub;
 
 
     //créer un message par id intendant et id user
@@ -66,8 +74,13 @@ public class MessageServiceImpl implements MessageService {
             // Sauvegarde l'entité Message dans le repository
             Message savedMessage = messageRepository.save(message);
 
-            // Mappe l'entité Message sauvegardée en DTO et la retourne
-            return MessageMapper.mapToMessageDTO(savedMessage);
+            // Mappe l'entité Message sauvegardée en DTO
+            MessageDTO savedMessageDto = MessageMapper.mapToMessageDTO(savedMessage);
+
+            // Pousse le message aux flux ouverts du destinataire et de l'intendant, après validation
+            messageStreamHub.publish(savedMessageDto, user.getId(), intendant.getIdUser().getId());
+
+            return savedMessageDto;
 
         } catch (DataIntegrityViolationException e) {
             // Capturer une exception de violation d'intégrité des données
@@ -231,4 +244,55 @@ public class MessageServiceImpl implements MessageService {
         }
     }
 
+
+    @Override
+    public KeysetPageDTO<MessageDTO> scrollMessagesByAfpaCenter(Integer idAfpaCenter, String after, Integer size, boolean withCount) {
+
+        // Recherche de l'id du centre Afpa dans le repository
+        AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
+                .orElseThrow(() -> new ResourceNotFoundException("Afpa Center ID not found: " + idAfpaCenter));
+
+        // Décode le jeton de continuation et borne la taille de la page
+        int lastId = KeysetPagination.decode(after);
+        int pageSize = KeysetPagination.clampSize(size);
+
+        // Cherche les messages qui suivent le curseur (une ligne de plus pour savoir s'il existe une page suivante)
+        List<Message> rows = messageRepository.findByAfpaCenterIdAndIdGreaterThanOrderByIdAsc(afpaCenter.getId(), lastId, KeysetPagination.limitFor(pageSize));
+
+        try {
+            // Mappe les entités en DTO ; le comptage total n'est exécuté que s'il est demandé
+            return KeysetPagination.toPage(rows, pageSize, Message::getId, MessageMapper::mapToMessageDTO,
+                    withCount, () -> messageRepository.countByAfpaCenterId(afpaCenter.getId()));
+
+        } catch (Exception e) {
+            // Capture toute exception inattendue et lance une exception avec un message d'erreur
+            throw new InternalServerException("Error occurred to recover messages by cursor for Afpa Center ID: " + idAfpaCenter);
+        }
+    }
+
+
+    @Override
+    public KeysetPageDTO<SearchHitDTO> searchMessagesByAfpaCenter(Integer idAfpaCenter, String query, String after, Integer size) {
+
+        // Recherche de l'id du centre Afpa dans le repository
+        AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
+                .orElseThrow(() -> new ResourceNotFoundException("Afpa Center ID not found: " + idAfpaCenter));
+
+        // Vérifie la requête, décode le jeton de continuation et borne la taille de la page
+        String searchQuery = FullTextSearch.normalizeQuery(query);
+        KeysetPagination.RankedCursor cursor = KeysetPagination.decodeRanked(after);
+        int pageSize = KeysetPagination.clampSize(size);
+
+        // Cherche les messages qui suivent le curseur dans l'ordre de pertinence (une ligne de plus pour savoir s'il existe une page suivante)
+        List<SearchHitRow> rows = messageRepository.searchByAfpaCenter(afpaCenter.getId(), searchQuery, cursor.rank(), cursor.id(), pageSize + 1);
+
+        try {
+            // Mappe les lignes en DTO, avec l'extrait surligné
+            return KeysetPagination.toRankedPage(rows, pageSize, SearchHitRow::getRank, SearchHitRow::getId, SearchHitMapper::mapToSearchHitDTO);
+
+        } catch (Exception e) {
+            // Capture toute exception inattendue et lance une exception avec un message d'erreur
+            throw new InternalServerException("Error occurred to search messages for Afpa Center ID: " + idAfpaCenter);
+        }
+    }
 }
@@ -6,6 +6,8 @@ import com.afpa.hebergement.model.entity.PaymentType;
 import com.afpa.hebergement.model.mapper.PaymentTypeMapper;
 import com.afpa.hebergement.model.repository.PaymentTypeRepository;
 import com.afpa.hebergement.service.entity_service.PaymentTypeService;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.service.reference.ReferenceType;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -18,6 +20,7 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class PaymentTypeServiceImpl implements PaymentTypeService {
     private final PaymentTypeRepository paymentTypeRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     @Override
     public PaymentTypeDTO create(PaymentTypeDTO paymentTypeDto) {
@@ -35,6 +38,7 @@ public class PaymentTypeServiceImpl implements PaymentTypeService {
         try {
             // Sauvegarde l'entité PaymentType dans le repository
             PaymentType savedPaymentType = paymentTypeRepository.save(paymentType);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.PAYMENT_TYPE);
             // Mappe l'entité PaymentType sauvegardée en DTO et la retourne
             return PaymentTypeMapper.mapToPaymentTypeDTO(savedPaymentType);
 
@@ -47,7 +51,7 @@ public class PaymentTypeServiceImpl implements PaymentTypeService {
     @Override
     public List<PaymentTypeDTO> getAll() {
         // Récupère toutes les entités PaymentType du repository
-        List<PaymentType> paymentType = paymentTypeRepository.findAll();
+        List<PaymentType> paymentType = referenceDataRegistry.paymentTypes().getAll();
 
         // Vérifie si la liste est vide
         if (paymentType.isEmpty()) {
@@ -70,7 +74,7 @@ public class PaymentTypeServiceImpl implements PaymentTypeService {
     @Override
     public Optional<PaymentTypeDTO> getById(Integer id) {
         // Cherche une entité PaymentType par son identifiant
-        PaymentType findPaymentType = paymentTypeRepository.findById(id)
+        PaymentType findPaymentType = referenceDataRegistry.paymentTypes().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment type not found with ID: " + id));
 
         try {
@@ -98,6 +102,7 @@ public class PaymentTypeServiceImpl implements PaymentTypeService {
 
             // Sauvegarde l'entité PaymentType mise à jour dans le repository
             PaymentType updatedPaymentType = paymentTypeRepository.save(paymentTypeToUpdate);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.PAYMENT_TYPE);
 
             // Mappe l'entité PaymentType mise à jour en DTO et la retourne encapsulée dans un Optional
             return Optional.of(PaymentTypeMapper.mapToPaymentTypeDTO(updatedPaymentType));
@@ -116,6 +121,7 @@ public class PaymentTypeServiceImpl implements PaymentTypeService {
         try {
             // Supprime l'entité PaymentType trouvée
             paymentTypeRepository.delete(paymentType);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.PAYMENT_TYPE);
 
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
@@ -7,6 +7,8 @@ import com.afpa.hebergement.model.mapper.ReservationMotiveMapper;
 import com.afpa.hebergement.model.repository.ReservationMotiveRepository;
 
 import com.afpa.hebergement.service.entity_service.ReservationMotiveService;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.service.reference.ReferenceType;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -21,6 +23,7 @@ public class ReservationMotiveServiceImpl implements ReservationMotiveService {
 
 
     private final ReservationMotiveRepository reservationMotiveRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
 
     @Override
@@ -40,6 +43,7 @@ public class ReservationMotiveServiceImpl implements ReservationMotiveService {
         try {
             // Sauvegarde l'entité ReservationMotive dans le repository
             ReservationMotive savedMotive = reservationMotiveRepository.save(reservationMotive);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.RESERVATION_MOTIVE);
             // Mappe l'entité ReservationMotive sauvegardée en DTO et la retourne
             return ReservationMotiveMapper.mapToReservationMotiveDTO(savedMotive);
 
@@ -54,7 +58,7 @@ public class ReservationMotiveServiceImpl implements ReservationMotiveService {
     public List<ReservationMotiveDTO> getAll() {
 
         // Récupère toutes les entités ReservationMotive du repository
-        List<ReservationMotive> motives = reservationMotiveRepository.findAll();
+        List<ReservationMotive> motives = referenceDataRegistry.reservationMotives().getAll();
 
         // Vérifie si la liste est vide
         if (motives.isEmpty()) {
@@ -79,7 +83,7 @@ public class ReservationMotiveServiceImpl implements ReservationMotiveService {
     public Optional<ReservationMotiveDTO> getById(Integer id) {
 
         // Cherche une entité ReservationMotive par son identifiant
-        ReservationMotive findMotive = reservationMotiveRepository.findById(id)
+        ReservationMotive findMotive = referenceDataRegistry.reservationMotives().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation motive not found with ID: " + id));
 
         try {
@@ -118,6 +122,7 @@ public class ReservationMotiveServiceImpl implements ReservationMotiveService {
 
             // Sauvegarde l'entité ReservationMotive mise à jour dans le repository
             ReservationMotive updatedMotive = reservationMotiveRepository.save(motiveToUpdate);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.RESERVATION_MOTIVE);
 
             // Mappe l'entité ReservationMotive mise à jour en DTO et la retourne (encapsulée) dans un Optional
             return Optional.of(ReservationMotiveMapper.mapToReservationMotiveDTO(updatedMotive));
@@ -137,6 +142,7 @@ public class ReservationMotiveServiceImpl implements ReservationMotiveService {
         try {
             // Supprime l'entité ReservationMotive trouvée
             reservationMotiveRepository.delete(motive);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.RESERVATION_MOTIVE);
 
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
@@ -1,24 +1,41 @@
 package com.afpa.hebergement.service.entity_service_impl;
 
 import com.afpa.hebergement.exception.*;
+import com.afpa.hebergement.model.dto.ReservationBatchResultDTO;
 import com.afpa.hebergement.model.dto.ReservationDTO;
 import com.afpa.hebergement.model.entity.AfpaCenter;
+import com.afpa.hebergement.model.entity.AppUser;
 import com.afpa.hebergement.model.entity.Reservation;
 import com.afpa.hebergement.model.entity.ReservationMotive;
 import com.afpa.hebergement.model.entity.Room;
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
 import com.afpa.hebergement.model.mapper.ReservationMapper;
 import com.afpa.hebergement.model.repository.AfpaCenterRepository;
+import com.afpa.hebergement.model.repository.AppUserRepository;
 import com.afpa.hebergement.model.repository.ReservationMotiveRepository;
 import com.afpa.hebergement.model.repository.ReservationRepository;
 import com.afpa.hebergement.model.repository.RoomRepository;
+import com.afpa.hebergement.service.availability.BookingTransactionExecutor;
+import com.afpa.hebergement.service.availability.RoomAvailabilityEngine;
+import com.afpa.hebergement.service.availability.RoomOccupancy;
+import com.afpa.hebergement.service.availability.RoomOccupancyProjection;
 import com.afpa.hebergement.service.entity_service.ReservationService;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -30,149 +47,100 @@ public class ReservationServiceImpl implements ReservationService {
     public static final String RESERVATION_ALREADY_EXIST_FOR_THE_GIVEN_ROOM_AND_DATES = "Reservation already exist for the given room and dates";
     public static final String RESERVATION_MUST_BE_FOR_AT_LEAST_ONE_DAY = "Reservation must be for at least one day.";
     public static final String ROOM_ID_NOT_FOUND = "Room ID not found: ";
+    public static final String RESERVATION_MOTIVE_ID_NOT_FOUND = "Reservation motive ID not found: ";
+    public static final String USER_ID_NOT_FOUND = "User ID not found: ";
+    public static final String USER_ALREADY_HAS_A_RESERVATION_FOR_THE_GIVEN_DATES = BookingTransactionExecutor.USER_ALREADY_HAS_A_RESERVATION;
+    public static final int MAX_BATCH_SIZE = 1000;
 
     private final ReservationRepository reservationRepository;
     private final ReservationMotiveRepository reservationMotiveRepository;
     private final RoomRepository roomRepository;
     private final AfpaCenterRepository afpaCenterRepository;
+    private final AppUserRepository appUserRepository;
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
+    private final RoomOccupancyProjection roomOccupancyProjection;
+    private final BookingTransactionExecutor bookingTransactionExecutor;
 
 
     @Override
     public ReservationDTO create(ReservationDTO reservationDto) {
 
-
-        // Vérifier que la date de début est antérieure à la date de fin
-        if (reservationDto.getStartDate().isAfter(reservationDto.getEndDate())) {
-            throw new IllegalArgumentException(ERROR_DATE);
-        }
-
-        // Vérifier que la date de début et la date de fin ne sont pas dans le passé
-        if (reservationDto.getStartDate().isBefore(LocalDate.now()) || reservationDto.getEndDate().isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException(BE_EARLIER_THAN_TODAY_S_DATE);
-        }
-
-        // Vérifier la durée minimale de réservation (par exemple, au moins 1 jour)
-        if (reservationDto.getStartDate().isEqual(reservationDto.getEndDate())) {
-            throw new IllegalArgumentException(RESERVATION_MUST_BE_FOR_AT_LEAST_ONE_DAY);
-        }
+        // Vérifier la cohérence des dates de réservation
+        validateDates(reservationDto);
 
         //mettre la date de réservation à la date du jour
         reservationDto.setReservationDate(LocalDate.now());
 
-        //recherche de l'id de la chambre dans le repository
-        Room idRoom = roomRepository.findById(reservationDto.getIdRoom().getId())
-                .orElseThrow(() -> new ResourceNotFoundException(ROOM_ID_NOT_FOUND + reservationDto.getIdRoom().getId()));
-
-        // Recherche de l'ID du motif de réservation dans le repository
-        ReservationMotive reservationMotive = reservationMotiveRepository.findById(reservationDto.getIdReservationMotive().getId()).orElse(null);
-        if (reservationMotive == null) {
-            throw new ResourceNotFoundException("Reservation motive ID not found: " + reservationDto.getIdReservationMotive().getId());
-        }
-
-        // Vérifier les chevauchements de dates avec les réservations existantes
-        List<Reservation> overlappingReservations = reservationRepository.findOverlappingReservations(
-                idRoom.getId(),
-                reservationDto.getStartDate(),
-                reservationDto.getEndDate()
-        );
-
-        if (!overlappingReservations.isEmpty()) {
-            // Lancer une exception si des chevauchements sont trouvés
-            throw new DuplicateException(RESERVATION_ALREADY_EXIST_FOR_THE_GIVEN_ROOM_AND_DATES);
-        }
+        // Le chevauchement avec une réservation existante est refusé par la contrainte d'exclusion de la base (409)
+        return bookingTransactionExecutor.execute(() -> {
 
+            //recherche de l'id de la chambre dans le repository
+            Room idRoom = roomRepository.findById(reservationDto.getIdRoom().getId())
+                    .orElseThrow(() -> new ResourceNotFoundException(ROOM_ID_NOT_FOUND + reservationDto.getIdRoom().getId()));
 
-        // Mappe le DTO en entité Reservation
-        Reservation reservation = ReservationMapper.mapToReservationEntity(reservationDto);
+            // Recherche de l'ID du motif de réservation dans le repository
+            ReservationMotive reservationMotive = reservationMotiveRepository.findById(reservationDto.getIdReservationMotive().getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Reservation motive ID not found: " + reservationDto.getIdReservationMotive().getId()));
 
-        try {
-            // Sauvegarde l'entité Reservation dans le repository
-            Reservation savedReservation = reservationRepository.save(reservation);
+            // Mappe le DTO en entité Reservation
+            Reservation reservation = ReservationMapper.mapToReservationEntity(reservationDto);
 
-            // Si la chambre n'est pas encore réservée, marquer comme réservée
-            if (Boolean.FALSE.equals(idRoom.getIsReserved())) {
-                idRoom.setIsReserved(true);
-                roomRepository.save(idRoom);  // Sauvegarder l'état mis à jour de la chambre
-            }
+            //attribuer les entités trouvées à la réservation
+            reservation.setIdRoom(idRoom);
+            reservation.setIdReservationMotive(reservationMotive);
+            reservation.setIdUser(findOccupant(reservationDto));
 
-            // Mappe l'entité Reservation sauvegardée en DTO et la retourne
-            return ReservationMapper.mapToReservationDTO(savedReservation);
+            return saveNewReservation(reservation, idRoom);
 
-        } catch (DataIntegrityViolationException e) {
-            // Capturer une exception de violation d'intégrité des données
-            throw new CreationException("Error occurred while creating reservation");
-        }
+        }, RESERVATION_ALREADY_EXIST_FOR_THE_GIVEN_ROOM_AND_DATES);
     }
 
 
     @Override
     public ReservationDTO create(ReservationDTO reservationDto, Integer roomId, Integer idReservationMotive) {
 
-
-        // Vérifier que la date de début est antérieure à la date de fin
-        if (reservationDto.getStartDate().isAfter(reservationDto.getEndDate())) {
-            throw new IllegalArgumentException(ERROR_DATE);
-        }
-
-        // Vérifier que la date de début et la date de fin ne sont pas dans le passé
-        if (reservationDto.getStartDate().isBefore(LocalDate.now()) || reservationDto.getEndDate().isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException(BE_EARLIER_THAN_TODAY_S_DATE);
-        }
-
-        // Vérifier la durée minimale de réservation (par exemple, au moins 1 jour)
-        if (reservationDto.getStartDate().isEqual(reservationDto.getEndDate())) {
-            throw new IllegalArgumentException(RESERVATION_MUST_BE_FOR_AT_LEAST_ONE_DAY);
-        }
+        // Vérifier la cohérence des dates de réservation
+        validateDates(reservationDto);
 
         //mettre la date de réservation à la date du jour
         reservationDto.setReservationDate(LocalDate.now());
 
-        //recherche de l'id de la chambre dans le repository
-        Room idRoom = roomRepository.findById(roomId)
-                .orElseThrow(() -> new ResourceNotFoundException(ROOM_ID_NOT_FOUND + roomId));
+        // Le chevauchement avec une réservation existante est refusé par la contrainte d'exclusion de la base (409)
+        return bookingTransactionExecutor.execute(() -> {
 
-        // Recherche de l'ID du motif de réservation dans le repository
-        ReservationMotive reservationMotive = reservationMotiveRepository.findById(idReservationMotive)
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation motive ID not found: " + idReservationMotive));
+            //recherche de l'id de la chambre dans le repository
+            Room idRoom = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new ResourceNotFoundException(ROOM_ID_NOT_FOUND + roomId));
 
+            // Recherche de l'ID du motif de réservation dans le repository
+            ReservationMotive reservationMotive = reservationMotiveRepository.findById(idReservationMotive)
+                    .orElseThrow(() -> new ResourceNotFoundException("Reservation motive ID not found: " + idReservationMotive));
 
-        // Vérifier les chevauchements de dates avec les réservations existantes
-        List<Reservation> overlappingReservations = reservationRepository.findOverlappingReservations(
-                roomId,
-                reservationDto.getStartDate(),
-                reservationDto.getEndDate()
-        );
+            // Mappe le DTO en entité Reservation
+            Reservation reservation = ReservationMapper.mapToReservationEntity(reservationDto);
 
-        if (!overlappingReservations.isEmpty()) {
-            // Lancer une exception si des chevauchements sont trouvés
-            throw new DuplicateException(RESERVATION_ALREADY_EXIST_FOR_THE_GIVEN_ROOM_AND_DATES);
-        }
+            //attribuer les id aux entités
+            reservation.setIdRoom(idRoom);
+            reservation.setIdReservationMotive(reservationMotive);
+            reservation.setIdUser(findOccupant(reservationDto));
 
+            return saveNewReservation(reservation, idRoom);
 
-        // Mappe le DTO en entité Reservation
-        Reservation reservation = ReservationMapper.mapToReservationEntity(reservationDto);
+        }, RESERVATION_ALREADY_EXIST_FOR_THE_GIVEN_ROOM_AND_DATES);
+    }
 
-        //attribuer les id aux entités
-        reservation.setIdRoom(idRoom);
-        reservation.setIdReservationMotive(reservationMotive);
 
-        try {
-            // Sauvegarde l'entité Reservation dans le repository
-            Reservation savedReservation = reservationRepository.save(reservation);
-
-            // Si la chambre n'est pas encore réservée, marquer comme réservée
-            if (Boolean.FALSE.equals(idRoom.getIsReserved())) {
-                idRoom.setIsReserved(true);
-                roomRepository.save(idRoom);  // Sauvegarder l'état mis à jour de la chambre
-            }
-
-            // Mappe l'entité Reservation sauvegardée en DTO et la retourne
-            return ReservationMapper.mapToReservationDTO(savedReservation);
+    @Override
+    public List<ReservationBatchResultDTO> createBatch(List<ReservationDTO> reservationDtos) {
 
-        } catch (DataIntegrityViolationException e) {
-            // Capturer une exception de violation d'intégrité des données
-            throw new CreationException("Error occurred while creating reservation");
+        // Vérifier la taille du lot
+        if (reservationDtos == null || reservationDtos.isEmpty() || reservationDtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch must contain between 1 and " + MAX_BATCH_SIZE + " reservations");
         }
+
+        // Un chevauchement introduit par une écriture concurrente entre la vérification et l'insertion rejette le lot (409)
+        return bookingTransactionExecutor.execute(() -> createBatchInTransaction(reservationDtos),
+                RESERVATION_ALREADY_EXIST_FOR_THE_GIVEN_ROOM_AND_DATES);
     }
 
 
@@ -227,9 +195,90 @@ public class ReservationServiceImpl implements ReservationService {
     @Override
     public Optional<ReservationDTO> update(Integer id, ReservationDTO reservationDto) {
 
-        // Cherche l'entité Reservation à mettre à jour par son identifiant
-        Reservation reservationToUpdate = reservationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation ID not found: " + id));
+        // Vérifier la cohérence des dates de réservation
+        validateDates(reservationDto);
+
+        // Le chevauchement avec une autre réservation est refusé par la contrainte d'exclusion de la base (409)
+        return bookingTransactionExecutor.execute(() -> {
+
+            // Cherche l'entité Reservation à mettre à jour par son identifiant
+            Reservation reservationToUpdate = reservationRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Reservation ID not found: " + id));
+
+            // Met à jour les champs date d'entrée et date de fin de l'entité Reservation avec les valeurs du DTO
+            reservationToUpdate.setStartDate(reservationDto.getStartDate());
+            reservationToUpdate.setEndDate(reservationDto.getEndDate());
+
+            // Recherche de l'id de la chambre dans le repository
+            Room existingRoom = roomRepository.findById(reservationDto.getIdRoom().getId())
+                    .orElseThrow(() -> new ResourceNotFoundException(ROOM_ID_NOT_FOUND + reservationDto.getIdRoom().getId()));
+
+            // Mise à jour de la chambre et du motif de réservation, en conservant l'ancienne chambre pour recalculer son statut
+            Room previousRoom = reservationToUpdate.getIdRoom();
+            reservationToUpdate.setIdRoom(existingRoom);
+
+            ReservationMotive reservationMotive = reservationMotiveRepository.findById(reservationDto.getIdReservationMotive().getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Reservation motive ID not found"));
+
+            reservationToUpdate.setIdReservationMotive(reservationMotive);
+
+            try {
+                // Sauvegarde l'entité Reservation mise à jour, en forçant l'écriture pour vérifier la contrainte d'exclusion
+                Reservation updatedReservation = reservationRepository.saveAndFlush(reservationToUpdate);
+
+                // Déplacer la réservation dans l'index de disponibilité des chambres
+                roomAvailabilityEngine.registerReservation(updatedReservation, existingRoom);
+
+                // Re-projeter l'occupation et recalculer le statut de l'ancienne et de la nouvelle chambre
+                roomOccupancyProjection.projectReservation(updatedReservation);
+                refreshReservedFlag(previousRoom);
+                refreshReservedFlag(existingRoom);
+
+                // Mappe l'entité Reservation mise à jour en DTO et la retourne (encapsulée) dans un Optional
+                return Optional.of(ReservationMapper.mapToReservationDTO(updatedReservation));
+
+            } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+                // Conflit de période (409) ou modification concurrente (nouvelle tentative) : traités par l'exécuteur
+                throw e;
+
+            } catch (Exception e) {
+                // Capture toute exception inattendue et lance une exception avec un message d'erreur
+                throw new InternalServerException("Error occurred while updating the reservation with ID: " + id + e.getMessage());
+            }
+
+        }, RESERVATION_ALREADY_EXIST_FOR_THE_GIVEN_ROOM_AND_DATES);
+    }
+
+
+    @Override
+    @Transactional
+    public void deleteById(Integer id) {
+
+        // Recherche de l'entité Reservation par son identifiant
+        Reservation reservation = reservationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
+
+        try {
+            // Supprime l'entité Reservation trouvée
+            reservationRepository.delete(reservation);
+
+            // Libérer la période dans l'index de disponibilité des chambres
+            roomAvailabilityEngine.release(OccupancyType.RESERVATION, reservation.getId());
+
+            // Supprimer la projection et recalculer le statut de la chambre dans la même transaction
+            roomOccupancyProjection.remove(OccupancyType.RESERVATION, reservation.getId());
+            refreshReservedFlag(reservation.getIdRoom());
+
+        } catch (Exception e) {
+            // Capture toute exception inattendue et lance une exception avec un message d'erreur
+            throw new InternalServerException("An unexpected error occurred while deleting the reservation with id: " + id);
+        }
+
+    }
+
+
+    // Vérifie les dates d'une réservation : ordre, pas dans le passé, au moins une nuit
+    private void validateDates(ReservationDTO reservationDto) {
 
         // Vérifier que la date de début est antérieure à la date de fin
         if (reservationDto.getStartDate().isAfter(reservationDto.getEndDate())) {
@@ -245,101 +294,207 @@ public class ReservationServiceImpl implements ReservationService {
         if (reservationDto.getStartDate().isEqual(reservationDto.getEndDate())) {
             throw new IllegalArgumentException(RESERVATION_MUST_BE_FOR_AT_LEAST_ONE_DAY);
         }
+    }
+
+
+    /* Création d'un lot de réservations en un nombre constant de requêtes :
+    chambres et motifs chargés en une requête chacun, chevauchements vérifiés en une requête sur la période englobante,
+    insertions par lots JDBC, projection d'occupation en une requête. */
+    private List<ReservationBatchResultDTO> createBatchInTransaction(List<ReservationDTO> reservationDtos) {
+
+        ReservationBatchResultDTO[] results = new ReservationBatchResultDTO[reservationDtos.size()];
+        LocalDate today = LocalDate.now();
+
+        // Validation unitaire des réservations et collecte des chambres, motifs et de la période englobante
+        Set<Integer> roomIds = new HashSet<>();
+        Set<Integer> motiveIds = new HashSet<>();
+        Set<Integer> userIds = new HashSet<>();
+        LocalDate minStart = null;
+        LocalDate maxEnd = null;
+
+        for (int i = 0; i < reservationDtos.size(); i++) {
+            ReservationDTO reservationDto = reservationDtos.get(i);
+
+            if (reservationDto == null || reservationDto.getStartDate() == null || reservationDto.getEndDate() == null
+                    || reservationDto.getIdRoom() == null || reservationDto.getIdRoom().getId() == null
+                    || reservationDto.getIdReservationMotive() == null || reservationDto.getIdReservationMotive().getId() == null) {
+                results[i] = rejected(i, ReservationBatchResultDTO.Status.INVALID, "Room, reservation motive, start date and end date are required");
+                continue;
+            }
+
+            try {
+                validateDates(reservationDto);
+            } catch (IllegalArgumentException e) {
+                results[i] = rejected(i, ReservationBatchResultDTO.Status.INVALID, e.getMessage());
+                continue;
+            }
 
-        // Met à jour les champs date d'entrée et date de fin de l'entité Reservation avec les valeurs du DTO
-        reservationToUpdate.setStartDate(reservationDto.getStartDate());
-        reservationToUpdate.setEndDate(reservationDto.getEndDate());
-
-        // Recherche de l'id de la chambre dans le repository
-        Room existingRoom = roomRepository.findById(reservationDto.getIdRoom().getId())
-                .orElseThrow(() -> new ResourceNotFoundException(ROOM_ID_NOT_FOUND + reservationDto.getIdRoom().getId()));
-
-        // Vérifier les chevauchements de dates avec les réservations existantes en excluant la réservation actuelle
-        List<Reservation> overlappingReservations = reservationRepository.findOverlappingReservationsExcludingCurrent(
-                existingRoom.getId(),
-                reservationDto.getStartDate(),
-                reservationDto.getEndDate(),
-                id
-        );
-
-        if (!overlappingReservations.isEmpty()) {
-            // Lancer une exception si des chevauchements sont trouvés
-            throw new DuplicateException(RESERVATION_ALREADY_EXIST_FOR_THE_GIVEN_ROOM_AND_DATES);
+            roomIds.add(reservationDto.getIdRoom().getId());
+            motiveIds.add(reservationDto.getIdReservationMotive().getId());
+            if (reservationDto.getIdUser() != null) {
+                userIds.add(reservationDto.getIdUser());
+            }
+            minStart = minStart == null || reservationDto.getStartDate().isBefore(minStart) ? reservationDto.getStartDate() : minStart;
+            maxEnd = maxEnd == null || reservationDto.getEndDate().isAfter(maxEnd) ? reservationDto.getEndDate() : maxEnd;
         }
 
-        // Mise à jour de la chambre et du motif de réservation
-        reservationToUpdate.setIdRoom(existingRoom);
+        if (roomIds.isEmpty()) {
+            return List.of(results);
+        }
 
-        ReservationMotive reservationMotive = reservationMotiveRepository.findById(reservationDto.getIdReservationMotive().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation motive ID not found"));
+        // Chargement des chambres et des motifs de réservation (une requête chacun)
+        Map<Integer, Room> rooms = roomRepository.findAllById(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        Map<Integer, ReservationMotive> motives = reservationMotiveRepository.findAllById(motiveIds).stream()
+                .collect(Collectors.toMap(ReservationMotive::getId, Function.identity()));
+
+        // Réservations existantes qui chevauchent la période englobante, indexées par chambre (une requête)
+        Map<Integer, RoomOccupancy> occupancies = new HashMap<>();
+        for (Reservation existing : reservationRepository.findOverlappingForRooms(roomIds, minStart, maxEnd)) {
+            occupancies.computeIfAbsent(existing.getIdRoom().getId(), id -> new RoomOccupancy())
+                    .add(OccupancyType.RESERVATION, existing.getId(), existing.getStartDate(), existing.getEndDate());
+        }
 
-        reservationToUpdate.setIdReservationMotive(reservationMotive);
+        // Occupants du lot et leurs réservations qui chevauchent la période englobante, indexées par occupant (une requête chacun)
+        Map<Integer, AppUser> users = new HashMap<>();
+        Map<Integer, RoomOccupancy> userOccupancies = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            appUserRepository.findAllById(userIds).forEach(user -> users.put(user.getId(), user));
+            for (Reservation existing : reservationRepository.findOverlappingForUsers(userIds, minStart, maxEnd)) {
+                userOccupancies.computeIfAbsent(existing.getIdUser().getId(), id -> new RoomOccupancy())
+                        .add(OccupancyType.RESERVATION, existing.getId(), existing.getStartDate(), existing.getEndDate());
+            }
+        }
 
-        try {
-            // Sauvegarde l'entité Reservation mise à jour dans le repository
-            Reservation updatedReservation = reservationRepository.save(reservationToUpdate);
+        // Vérification des chevauchements avec l'existant et entre les réservations du lot
+        List<Reservation> reservationsToCreate = new ArrayList<>();
+        List<Integer> createdIndexes = new ArrayList<>();
 
-            // Rechercher si la chambre qui a été remplacée est toujours présente dans la table de reservation
-            List<Reservation> roomToReplace = reservationRepository.findByIdRoom_Id(reservationToUpdate.getIdRoom().getId());
+        for (int i = 0; i < reservationDtos.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ReservationDTO reservationDto = reservationDtos.get(i);
 
-            // Si elle n'est pas présente
-            if (roomToReplace.isEmpty()) {
-                // Mettre le statut de la chambre isReserved en false
-                reservationToUpdate.getIdRoom().setIsReserved(false);
+            Room room = rooms.get(reservationDto.getIdRoom().getId());
+            if (room == null) {
+                results[i] = rejected(i, ReservationBatchResultDTO.Status.NOT_FOUND, ROOM_ID_NOT_FOUND + reservationDto.getIdRoom().getId());
+                continue;
             }
 
-            // Si la nouvelle chambre mise à jour n'est pas encore réservée, marquer comme réservée
-            if (Boolean.FALSE.equals(existingRoom.getIsReserved())) {
-                existingRoom.setIsReserved(true);
-                roomRepository.save(existingRoom);  // Sauvegarder l'état mis à jour de la chambre
+            ReservationMotive reservationMotive = motives.get(reservationDto.getIdReservationMotive().getId());
+            if (reservationMotive == null) {
+                results[i] = rejected(i, ReservationBatchResultDTO.Status.NOT_FOUND, RESERVATION_MOTIVE_ID_NOT_FOUND + reservationDto.getIdReservationMotive().getId());
+                continue;
             }
 
-            // Mappe l'entité Reservation mise à jour en DTO et la retourne (encapsulée) dans un Optional
-            return Optional.of(ReservationMapper.mapToReservationDTO(updatedReservation));
+            AppUser user = null;
+            RoomOccupancy userOccupancy = null;
+            if (reservationDto.getIdUser() != null) {
+                user = users.get(reservationDto.getIdUser());
+                if (user == null) {
+                    results[i] = rejected(i, ReservationBatchResultDTO.Status.NOT_FOUND, USER_ID_NOT_FOUND + reservationDto.getIdUser());
+                    continue;
+                }
+                userOccupancy = userOccupancies.computeIfAbsent(user.getId(), id -> new RoomOccupancy());
+                if (userOccupancy.overlaps(reservationDto.getStartDate(), reservationDto.getEndDate(), null, null)) {
+                    results[i] = rejected(i, ReservationBatchResultDTO.Status.CONFLICT, USER_ALREADY_HAS_A_RESERVATION_FOR_THE_GIVEN_DATES);
+                    continue;
+                }
+            }
 
-        } catch (Exception e) {
-            // Capture toute exception inattendue et lance une exception avec un message d'erreur
-            throw new InternalServerException("Error occurred while updating the reservation with ID: " + id + e.getMessage());
+            RoomOccupancy occupancy = occupancies.computeIfAbsent(room.getId(), id -> new RoomOccupancy());
+            if (occupancy.overlaps(reservationDto.getStartDate(), reservationDto.getEndDate(), null, null)) {
+                results[i] = rejected(i, ReservationBatchResultDTO.Status.CONFLICT, RESERVATION_ALREADY_EXIST_FOR_THE_GIVEN_ROOM_AND_DATES);
+                continue;
+            }
+
+            // Les réservations acceptées du lot occupent la chambre et l'occupant pour les suivantes (identifiant provisoire négatif)
+            occupancy.add(OccupancyType.RESERVATION, -(i + 1), reservationDto.getStartDate(), reservationDto.getEndDate());
+            if (userOccupancy != null) {
+                userOccupancy.add(OccupancyType.RESERVATION, -(i + 1), reservationDto.getStartDate(), reservationDto.getEndDate());
+            }
+
+            // Entité construite depuis les seules dates : la chambre et le motif reçus ne portent que leur ID
+            Reservation reservation = new Reservation();
+            reservation.setStartDate(reservationDto.getStartDate());
+            reservation.setEndDate(reservationDto.getEndDate());
+            reservation.setReservationDate(today);
+            reservation.setIdRoom(room);
+            reservation.setIdReservationMotive(reservationMotive);
+            reservation.setIdUser(user);
+
+            reservationsToCreate.add(reservation);
+            createdIndexes.add(i);
+        }
+
+        // Insertion par lots (identifiants alloués par la séquence, par blocs)
+        List<Reservation> savedReservations = reservationRepository.saveAll(reservationsToCreate);
+        reservationRepository.flush();
+
+        // Projection d'occupation en une requête ; les réservations créées sont en cours ou à venir, la chambre est donc réservée
+        roomOccupancyProjection.projectNewReservations(savedReservations);
+
+        for (int k = 0; k < savedReservations.size(); k++) {
+            Reservation savedReservation = savedReservations.get(k);
+            savedReservation.getIdRoom().setIsReserved(true);
+            roomAvailabilityEngine.registerReservation(savedReservation, savedReservation.getIdRoom());
+
+            int index = createdIndexes.get(k);
+            results[index] = new ReservationBatchResultDTO(index, ReservationBatchResultDTO.Status.CREATED,
+                    ReservationMapper.mapToReservationDTO(savedReservation), null);
         }
+
+        return List.of(results);
     }
 
 
-    @Override
-    public void deleteById(Integer id) {
+    // Occupant facultatif de la réservation
+    private AppUser findOccupant(ReservationDTO reservationDto) {
+        if (reservationDto.getIdUser() == null) {
+            return null;
+        }
+        return appUserRepository.findById(reservationDto.getIdUser())
+                .orElseThrow(() -> new ResourceNotFoundException(USER_ID_NOT_FOUND + reservationDto.getIdUser()));
+    }
 
-        // Recherche de l'entité Reservation par son identifiant
-        Reservation reservation = reservationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
 
-        try {
+    private static ReservationBatchResultDTO rejected(int index, ReservationBatchResultDTO.Status status, String message) {
+        return new ReservationBatchResultDTO(index, status, null, message);
+    }
 
-            // Supprime l'entité Reservation trouvée
-            reservationRepository.delete(reservation);
 
-            // Rechercher si la chambre est toujours présente dans la table de reservation sur d'autres dates
-            List<Reservation> roomReserved = reservationRepository.findByIdRoom_Id(reservation.getIdRoom().getId());
+    // Insère une nouvelle réservation et met à jour la projection, le statut de la chambre et l'index de disponibilité
+    private ReservationDTO saveNewReservation(Reservation reservation, Room room) {
 
-            // si elle n'est pas présente
-            if (roomReserved.isEmpty()) {
+        try {
+            // Sauvegarde l'entité Reservation, en forçant l'écriture pour vérifier la contrainte d'exclusion
+            Reservation savedReservation = reservationRepository.saveAndFlush(reservation);
 
-                // Rechercher la chambre en utilisant l'ID de la chambre
-                Room room = roomRepository.findById(reservation.getIdRoom().getId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + reservation.getIdRoom().getId()));
+            // Mettre à jour l'index de disponibilité des chambres
+            roomAvailabilityEngine.registerReservation(savedReservation, room);
 
-                //mettre le statut de la chambre isReserved en false
-                room.setIsReserved(false);
+            // Projeter l'occupation jour par jour et recalculer le statut de la chambre dans la même transaction
+            roomOccupancyProjection.projectReservation(savedReservation);
+            refreshReservedFlag(room);
 
-                // Sauvegarder les modifications apportées à la chambre
-                roomRepository.save(room);
-            }
+            // Mappe l'entité Reservation sauvegardée en DTO et la retourne
+            return ReservationMapper.mapToReservationDTO(savedReservation);
 
-        } catch (Exception e) {
-            // Capture toute exception inattendue et lance une exception avec un message d'erreur
-            throw new InternalServerException("An unexpected error occurred while deleting the reservation with id: " + id);
+        } catch (DataIntegrityViolationException e) {
+            // Un chevauchement de période est traduit en 409 par l'exécuteur
+            if (BookingTransactionExecutor.isPeriodConflict(e)) {
+                throw e;
+            }
+            // Capturer une exception de violation d'intégrité des données
+            throw new CreationException("Error occurred while creating reservation");
         }
-
     }
 
 
-}
+    // Recalcule le statut isReserved d'une chambre à partir de ses réservations en cours ou à venir (transaction courante)
+    private void refreshReservedFlag(Room room) {
+        room.setIsReserved(reservationRepository.existsByIdRoom_IdAndEndDateGreaterThanEqual(room.getId(), LocalDate.now()));
+    }
 
+}
@@ -5,7 +5,10 @@ import com.afpa.hebergement.model.dto.RoleDTO;
 import com.afpa.hebergement.model.entity.Role;
 import com.afpa.hebergement.model.mapper.RoleMapper;
 import com.afpa.hebergement.model.repository.RoleRepository;
+import com.afpa.hebergement.security.service.UserDetailsCache;
 import com.afpa.hebergement.service.entity_service.RoleService;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.service.reference.ReferenceType;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -21,6 +24,8 @@ public class RoleServiceImpl implements RoleService {
 
 
     private final RoleRepository roleRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final UserDetailsCache userDetailsCache;
 
 
     @Override
@@ -40,6 +45,7 @@ public class RoleServiceImpl implements RoleService {
         try {
             // Sauvegarde l'entité Role dans le repository
             Role savedRole = roleRepository.save(role);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.ROLE);
             // Mappe l'entité Role sauvegardée en DTO et la retourne
             return RoleMapper.mapToRoleDTO(savedRole);
 
@@ -55,7 +61,7 @@ public class RoleServiceImpl implements RoleService {
     public List<RoleDTO> getAll() {
 
         // Récupère toutes les entités Role du repository
-        List<Role> roles = roleRepository.findAll();
+        List<Role> roles = referenceDataRegistry.roles().getAll();
 
         // Vérifie si la liste est vide
         if (roles.isEmpty()) {
@@ -80,7 +86,7 @@ public class RoleServiceImpl implements RoleService {
     public Optional<RoleDTO> getById(Integer id) {
 
         // Cherche une entité Role par son identifiant
-        Role findRole = roleRepository.findById(id)
+        Role findRole = referenceDataRegistry.roles().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found with ID: " + id));
 
         try {
@@ -110,6 +116,9 @@ public class RoleServiceImpl implements RoleService {
 
             // Sauvegarde l'entité Role mise à jour dans le repository
             Role updatedRole = roleRepository.save(roleToUpdate);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.ROLE);
+            // Les utilisateurs en cache pour l'authentification portent l'ancien libellé du rôle
+            userDetailsCache.invalidateAll();
 
             //Mappe l'entité Role mise à jour en DTO et la retourne (encapsulée) dans un Optional
             return Optional.of(RoleMapper.mapToRoleDTO(updatedRole));
@@ -131,6 +140,8 @@ public class RoleServiceImpl implements RoleService {
         try {
             // Supprime l'entité Role trouvée
             roleRepository.delete(role);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.ROLE);
+            userDetailsCache.invalidateAll();
 
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
@@ -0,0 +1,146 @@
+package com.afpa.hebergement.service.entity_service_impl;
+
+import com.afpa.hebergement.exception.NoContentException;
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import com.afpa.hebergement.model.dto.*;
+import com.afpa.hebergement.model.entity.*;
+import com.afpa.hebergement.model.repository.AfpaCenterRepository;
+import com.afpa.hebergement.model.repository.ParticipateRepository;
+import com.afpa.hebergement.model.repository.ReservationRepository;
+import com.afpa.hebergement.model.repository.RoomRepository;
+import com.afpa.hebergement.model.repository.SessionFormationRepository;
+import com.afpa.hebergement.service.availability.RoomAllocationSolver;
+import com.afpa.hebergement.service.availability.RoomAvailabilityEngine;
+import com.afpa.hebergement.service.entity_service.ReservationService;
+import com.afpa.hebergement.service.entity_service.RoomAllocationService;
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+@Service
+@AllArgsConstructor
+public class RoomAllocationServiceImpl implements RoomAllocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAllocationServiceImpl.class);
+
+    // Civilités (normalisées, sans accent ni point) correspondant à une femme
+    private static final Set<String> WOMAN_CIVILITIES = Set.of("mme", "madame", "mlle", "mademoiselle");
+
+    private final SessionFormationRepository sessionFormationRepository;
+    private final ParticipateRepository participateRepository;
+    private final AfpaCenterRepository afpaCenterRepository;
+    private final RoomRepository roomRepository;
+    private final ReservationRepository reservationRepository;
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
+    private final ReservationService reservationService;
+
+
+    @Override
+    public RoomAllocationResultDTO allocateSession(Integer idSession, Integer idAfpaCenter, Integer idReservationMotive, boolean dryRun) {
+
+        // Recherche de la session de formation et du centre Afpa
+        SessionFormation session = sessionFormationRepository.findById(idSession)
+                .orElseThrow(() -> new ResourceNotFoundException("Session formation ID not found: " + idSession));
+        AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
+                .orElseThrow(() -> new ResourceNotFoundException("Afpa Center ID not found: " + idAfpaCenter));
+
+        // Participants de la session avec leur civilité (une requête), une seule fois par utilisateur
+        Map<Integer, AppUser> users = new LinkedHashMap<>();
+        for (Participate participate : participateRepository.findWithUserByIdSession(session.getId())) {
+            users.putIfAbsent(participate.getIdUser().getId(), participate.getIdUser());
+        }
+
+        if (users.isEmpty()) {
+            throw new NoContentException("No participants found for the session");
+        }
+
+        // Participants déjà logés sur la période de la session (appel répété, autre session) : écartés de l'attribution (une requête)
+        List<Integer> alreadyReservedUserIds = reservationRepository.findOverlappingForUsers(users.keySet(),
+                        session.getStartDateSession(), session.getEndDateSession()).stream()
+                .map(reservation -> reservation.getIdUser().getId())
+                .distinct()
+                .toList();
+        alreadyReservedUserIds.forEach(users::remove);
+
+        long start = System.nanoTime();
+
+        // Chambres libres et utilisables sur toute la session (index de disponibilité en mémoire), avec leur étage (une requête)
+        Set<Integer> freeRoomIds = new HashSet<>(roomAvailabilityEngine.findFreeRoomIds(afpaCenter.getId(),
+                session.getStartDateSession(), session.getEndDateSession()));
+        Map<Integer, Room> rooms = roomRepository.findWithFloorByAfpaCenter(afpaCenter.getId()).stream()
+                .filter(room -> freeRoomIds.contains(room.getId()))
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+
+        List<RoomAllocationSolver.CandidateRoom> candidates = rooms.values().stream()
+                .map(room -> new RoomAllocationSolver.CandidateRoom(room.getId(), room.getIdFloor().getNumberFloor(),
+                        Boolean.TRUE.equals(room.getIdFloor().getIsForWomen())))
+                .toList();
+        List<RoomAllocationSolver.Occupant> occupants = users.values().stream()
+                .map(user -> new RoomAllocationSolver.Occupant(user.getId(), isWoman(user.getIdCivility())))
+                .toList();
+
+        // Attribution en mémoire
+        RoomAllocationSolver.Allocation allocation = RoomAllocationSolver.solve(occupants, candidates);
+
+        logger.info("Rooms allocated for session {} in {} ms: {} placed, {} unplaced", idSession,
+                (System.nanoTime() - start) / 1_000_000, allocation.assignments().size(), allocation.unplacedUserIds().size());
+
+        List<RoomAllocationDTO> allocations = allocation.assignments().stream()
+                .map(assignment -> {
+                    AppUser user = users.get(assignment.idUser());
+                    Room room = rooms.get(assignment.idRoom());
+                    return new RoomAllocationDTO(user.getId(), user.getName(), user.getFirstname(),
+                            room.getId(), room.getRoomNumber(), room.getIdFloor().getNumberFloor());
+                })
+                .toList();
+
+        // Création des réservations en un seul lot, sauf en simulation
+        List<ReservationBatchResultDTO> reservations = dryRun || allocations.isEmpty()
+                ? List.of()
+                : reservationService.createBatch(toReservations(allocations, session, idReservationMotive));
+
+        return new RoomAllocationResultDTO(session.getId(), session.getStartDateSession(), session.getEndDateSession(),
+                allocations, allocation.unplacedUserIds(), alreadyReservedUserIds, reservations);
+    }
+
+
+    // Une réservation par chambre attribuée, sur la période de la session (la date de fin est le jour de départ)
+    private static List<ReservationDTO> toReservations(List<RoomAllocationDTO> allocations, SessionFormation session, Integer idReservationMotive) {
+
+        ReservationMotiveDTO reservationMotive = new ReservationMotiveDTO();
+        reservationMotive.setId(idReservationMotive);
+
+        List<ReservationDTO> reservations = new ArrayList<>(allocations.size());
+        for (RoomAllocationDTO roomAllocation : allocations) {
+            RoomDTO room = new RoomDTO();
+            room.setId(roomAllocation.getIdRoom());
+
+            ReservationDTO reservation = new ReservationDTO();
+            reservation.setStartDate(session.getStartDateSession());
+            reservation.setEndDate(session.getEndDateSession());
+            reservation.setIdRoom(room);
+            reservation.setIdReservationMotive(reservationMotive);
+            reservation.setIdUser(roomAllocation.getIdUser());
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+
+
+    // Indique si la civilité correspond à une femme (Mme, Madame, Mlle, Mademoiselle)
+    static boolean isWoman(Civility civility) {
+        if (civility == null || civility.getWordingCivility() == null) {
+            return false;
+        }
+        String wording = StringUtils.stripAccents(civility.getWordingCivility()).replace(".", "").trim().toLowerCase(Locale.ROOT);
+        return WOMAN_CIVILITIES.contains(wording);
+    }
+
+}
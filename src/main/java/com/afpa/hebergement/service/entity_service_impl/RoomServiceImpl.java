@@ -3,10 +3,12 @@ package com.afpa.hebergement.service.entity_service_impl;
 import com.afpa.hebergement.exception.*;
 import com.afpa.hebergement.model.dto.RoomDTO;
 import com.afpa.hebergement.model.entity.*;
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
 import com.afpa.hebergement.model.mapper.RoomMapper;
 import com.afpa.hebergement.model.repository.AfpaCenterRepository;
 import com.afpa.hebergement.model.repository.FloorRepository;
 import com.afpa.hebergement.model.repository.RoomRepository;
+import com.afpa.hebergement.service.availability.RoomAvailabilityEngine;
 import com.afpa.hebergement.service.entity_service.RoomService;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -16,6 +18,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +32,7 @@ public class RoomServiceImpl implements RoomService {
     private final RoomRepository roomRepository;
     private final FloorRepository floorRepository;
     private final AfpaCenterRepository afpaCenterRepository;
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
 
 
     @Override
@@ -67,6 +71,9 @@ public class RoomServiceImpl implements RoomService {
             // Sauvegarde l'entité Room dans le repository
             Room savedRoom = roomRepository.save(room);
 
+            // La nouvelle chambre doit apparaître dans l'index de disponibilité du centre
+            roomAvailabilityEngine.invalidateCenter(afpaCenter.getId());
+
             // Mappe l'entité Room sauvegardée en DTO et la retourne
             return RoomMapper.mapToRoomDTO(savedRoom);
 
@@ -157,14 +164,21 @@ public class RoomServiceImpl implements RoomService {
     }
 
 
+    @Override
     public List<RoomDTO> getByReservedRoomAndIdAfpaCenter(Integer idAfpaCenter) {
+        return getByReservedRoomAndIdAfpaCenter(idAfpaCenter, LocalDate.now());
+    }
+
+
+    @Override
+    public List<RoomDTO> getByReservedRoomAndIdAfpaCenter(Integer idAfpaCenter, LocalDate day) {
 
         // Recherche de l'ID du centre Afpa dans le repository
         AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
                 .orElseThrow(() -> new ResourceNotFoundException(AFPA_CENTER_ID_NOT_FOUND + idAfpaCenter));
 
-        // Cherche les entités Room réservées par ID Afpa Center
-        List<Room> roomsList = roomRepository.findByIsReservedTrueAndIdFloor_IdAfpaCenter_Id(afpaCenter.getId());
+        // Cherche les chambres réservées ce jour-là dans la projection d'occupation (index centre/jour)
+        List<Room> roomsList = roomRepository.findOccupiedOnDay(afpaCenter.getId(), day, OccupancyType.RESERVATION);
 
         // Vérifie si la liste est vide
         if (roomsList.isEmpty()) {
@@ -185,14 +199,21 @@ public class RoomServiceImpl implements RoomService {
     }
 
 
+    @Override
     public List<RoomDTO> getByAvailableRoomAndIdAfpaCenter(Integer idAfpaCenter) {
+        return getByAvailableRoomAndIdAfpaCenter(idAfpaCenter, LocalDate.now());
+    }
+
+
+    @Override
+    public List<RoomDTO> getByAvailableRoomAndIdAfpaCenter(Integer idAfpaCenter, LocalDate day) {
 
         // Recherche de l'ID du centre Afpa dans le repository
         AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
                 .orElseThrow(() -> new ResourceNotFoundException(AFPA_CENTER_ID_NOT_FOUND + idAfpaCenter));
 
-        // Cherche les entités Room utilisables par ID Afpa Center
-        List<Room> roomsList = roomRepository.findByIsUsableTrueAndIdFloor_IdAfpaCenter_Id(afpaCenter.getId());
+        // Cherche les chambres utilisables sans réservation ni contrat de bail ce jour-là
+        List<Room> roomsList = roomRepository.findAvailableOnDay(afpaCenter.getId(), day);
 
         // Vérifie si la liste est vide
         if (roomsList.isEmpty()) {
@@ -213,6 +234,7 @@ public class RoomServiceImpl implements RoomService {
     }
 
 
+    @Override
     public List<RoomDTO> getByOccupiedRoomAndIdAfpaCenter(Integer idAfpaCenter) {
 
         // Recherche de l'ID du centre Afpa dans le repository
@@ -220,7 +242,7 @@ public class RoomServiceImpl implements RoomService {
                 .orElseThrow(() -> new ResourceNotFoundException(AFPA_CENTER_ID_NOT_FOUND + idAfpaCenter));
 
         // Cherche les entités Room non utilisables par ID Afpa Center
-        List<Room> roomsList = roomRepository. findByIsUsableFalseAndIdFloor_IdAfpaCenter_Id(afpaCenter.getId());
+        List<Room> roomsList = roomRepository.findByIsUsableFalseAndIdFloor_IdAfpaCenter_Id(afpaCenter.getId());
 
         // Vérifie si la liste est vide
         if (roomsList.isEmpty()) {
@@ -241,6 +263,41 @@ public class RoomServiceImpl implements RoomService {
     }
 
 
+    @Override
+    public List<RoomDTO> getByLeasedRoomAndIdAfpaCenter(Integer idAfpaCenter) {
+        return getByLeasedRoomAndIdAfpaCenter(idAfpaCenter, LocalDate.now());
+    }
+
+
+    @Override
+    public List<RoomDTO> getByLeasedRoomAndIdAfpaCenter(Integer idAfpaCenter, LocalDate day) {
+
+        // Recherche de l'ID du centre Afpa dans le repository
+        AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
+                .orElseThrow(() -> new ResourceNotFoundException(AFPA_CENTER_ID_NOT_FOUND + idAfpaCenter));
+
+        // Cherche les chambres occupées par un contrat de bail ce jour-là (projection d'occupation et contrats sans date de fin)
+        List<Room> roomsList = roomRepository.findLeasedOnDay(afpaCenter.getId(), day);
+
+        // Vérifie si la liste est vide
+        if (roomsList.isEmpty()) {
+            // Lance une NoContentException si aucune entité n'est trouvée
+            throw new NoContentException("No leased rooms found");
+        }
+
+        try {
+            // Mappe les entités Room en DTO et retourne la liste
+            return roomsList.stream()
+                    .map(RoomMapper::mapToRoomDTO)
+                    .toList();
+
+        } catch (Exception e) {
+            // Capture toute exception inattendue et lance une exception avec un message d'erreur
+            throw new InternalServerException("Error occurred while getting leased rooms by Afpa Center ID");
+        }
+    }
+
+
     public List<RoomDTO> getByWomanRoomAndIdAfpaCenter(Integer idAfpaCenter) {
 
         // Recherche de l'ID du centre Afpa dans le repository
@@ -269,6 +326,43 @@ public class RoomServiceImpl implements RoomService {
     }
 
 
+    @Override
+    public List<RoomDTO> getFreeRoomsByAfpaCenter(Integer idAfpaCenter, LocalDate startDate, LocalDate endDate) {
+
+        // Vérifier que les dates sont renseignées et que la date de début est antérieure à la date de fin
+        if (startDate == null || endDate == null) {
+            throw new BadRequestException("The start date and the end date are required");
+        }
+        if (!startDate.isBefore(endDate)) {
+            throw new BadRequestException("The start date must be earlier than the end date");
+        }
+
+        // Recherche de l'ID du centre Afpa dans le repository
+        AfpaCenter afpaCenter = afpaCenterRepository.findById(idAfpaCenter)
+                .orElseThrow(() -> new ResourceNotFoundException(AFPA_CENTER_ID_NOT_FOUND + idAfpaCenter));
+
+        // Recherche des chambres libres dans l'index de disponibilité (réservations, contrats de bail et travaux)
+        List<Integer> freeRoomIds = roomAvailabilityEngine.findFreeRoomIds(afpaCenter.getId(), startDate, endDate);
+
+        // Vérifie si la liste est vide
+        if (freeRoomIds.isEmpty()) {
+            // Lance une NoContentException si aucune chambre libre n'est trouvée
+            throw new NoContentException("No free rooms found for the given dates");
+        }
+
+        try {
+            // Charge les chambres libres et les mappe en DTO
+            return roomRepository.findAllWithRelationsByIdIn(freeRoomIds).stream()
+                    .map(RoomMapper::mapToRoomDTO)
+                    .toList();
+
+        } catch (Exception e) {
+            // Capture toute exception inattendue et lance une exception avec un message d'erreur
+            throw new InternalServerException("Error occurred while getting free rooms by Afpa Center ID");
+        }
+    }
+
+
     public Optional<RoomDTO> getByRoomNumberAndIdAfpaCenter(String roomNumber, Integer idAfpaCenter) {
 
         // Recherche de l'ID du centre Afpa dans le repository
@@ -320,6 +414,9 @@ public class RoomServiceImpl implements RoomService {
             // Sauvegarde l'entité Room mise à jour dans les
             Room updatedRoom = roomRepository.save(roomToUpdate);
 
+            // L'étage ou le statut utilisable ont pu changer : rafraîchir l'index de disponibilité
+            roomAvailabilityEngine.refreshRoom(updatedRoom);
+
             // Mappe l'entité Room mise à jour en DTO et la retourne (encapsulée) dans un Optional
             return Optional.of(RoomMapper.mapToRoomDTO(updatedRoom));
 
@@ -342,6 +439,9 @@ public class RoomServiceImpl implements RoomService {
             // Supprime l'entité Room trouvée
             roomRepository.deleteById(room.getId());
 
+            // Retirer la chambre de l'index de disponibilité
+            roomAvailabilityEngine.refreshRoom(room);
+
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
             throw new InternalServerException("An unexpected error occurred while deleting the room with id: " + id);
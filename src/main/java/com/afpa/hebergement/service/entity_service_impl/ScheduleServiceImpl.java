@@ -10,6 +10,7 @@ import com.afpa.hebergement.model.mapper.ScheduleMapper;
 import com.afpa.hebergement.model.repository.DayRepository;
 import com.afpa.hebergement.model.repository.IntendantRepository;
 import com.afpa.hebergement.model.repository.ScheduleRepository;
+import com.afpa.hebergement.service.appointment_slot.AppointmentSlotEngine;
 import com.afpa.hebergement.service.entity_service.ScheduleService;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -28,6 +29,7 @@ public class ScheduleServiceImpl implements ScheduleService {
     private final ScheduleRepository scheduleRepository;
     private final DayRepository dayRepository;
     private final IntendantRepository intendantRepository;
+    private final AppointmentSlotEngine appointmentSlotEngine;
 
 
     @Override
@@ -63,6 +65,9 @@ public class ScheduleServiceImpl implements ScheduleService {
             // Sauvegarde l'entité Schedule dans le repository
             Schedule savedSchedule = scheduleRepository.save(schedule);
 
+            // Recalcule les créneaux de l'intendant
+            appointmentSlotEngine.refreshIntendant(intendant.getId());
+
             // Mappe l'entité Schedule sauvegardée en DTO et la retourne
             return ScheduleMapper.mapToScheduleDTO(savedSchedule);
 
@@ -107,6 +112,9 @@ public class ScheduleServiceImpl implements ScheduleService {
             // Sauvegarde l'entité Schedule dans le repository
             Schedule savedSchedule = scheduleRepository.save(schedule);
 
+            // Recalcule les créneaux de l'intendant
+            appointmentSlotEngine.refreshIntendant(intendant.getId());
+
             // Mappe l'entité Schedule sauvegardée en DTO et la retourne
             return ScheduleMapper.mapToScheduleDTO(savedSchedule);
 
@@ -209,6 +217,9 @@ public class ScheduleServiceImpl implements ScheduleService {
             // Sauvegarde l'entité Schedule mise à jour dans le repository
             Schedule updatedSchedule = scheduleRepository.save(updateSchedule);
 
+            // Recalcule les créneaux de l'intendant
+            appointmentSlotEngine.refreshIntendant(updatedSchedule.getIdIntendant().getId());
+
             // Mappe l'entité Schedule mise à jour en DTO et la retourne (encapsulée) dans un Optional
             return Optional.of(ScheduleMapper.mapToScheduleDTO(updatedSchedule));
 
@@ -242,6 +253,9 @@ public class ScheduleServiceImpl implements ScheduleService {
             // Sauvegarde l'entité Schedule mise à jour dans le repository
             Schedule updatedSchedule = scheduleRepository.save(scheduleToUpdate);
 
+            // Recalcule les créneaux de l'intendant
+            appointmentSlotEngine.refreshIntendant(intendantId.getId());
+
             // Mappe l'entité Schedule mise à jour en DTO et la retourne (encapsulée) dans un Optional
             return Optional.of(ScheduleMapper.mapToScheduleDTO(updatedSchedule));
 
@@ -263,6 +277,9 @@ public class ScheduleServiceImpl implements ScheduleService {
             // Supprime l'entité Schedule trouvée
             scheduleRepository.delete(schedule);
 
+            // Recalcule les créneaux de l'intendant
+            appointmentSlotEngine.refreshIntendant(schedule.getIdIntendant().getId());
+
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
             throw new InternalServerException("An unexpected error occurred while deleting schedule with id: " + id);
@@ -289,6 +306,9 @@ public class ScheduleServiceImpl implements ScheduleService {
             // Supprime l'/les entité(s) Schedule trouvée(s)
             scheduleRepository.deleteByIdIntendant_Id(intendant.getId());
 
+            // Recalcule les créneaux de l'intendant
+            appointmentSlotEngine.refreshIntendant(intendant.getId());
+
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
             throw new InternalServerException("An unexpected error occurred while deleting schedule with id: " + idIntendant);
@@ -6,11 +6,13 @@ import com.afpa.hebergement.model.entity.AfpaCenter;
 import com.afpa.hebergement.model.entity.Room;
 import com.afpa.hebergement.model.entity.Work;
 import com.afpa.hebergement.model.entity.WorkType;
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
 import com.afpa.hebergement.model.mapper.WorkMapper;
 import com.afpa.hebergement.model.repository.AfpaCenterRepository;
 import com.afpa.hebergement.model.repository.RoomRepository;
 import com.afpa.hebergement.model.repository.WorkRepository;
 import com.afpa.hebergement.model.repository.WorkTypeRepository;
+import com.afpa.hebergement.service.availability.RoomAvailabilityEngine;
 import com.afpa.hebergement.service.entity_service.WorkService;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -37,6 +39,7 @@ public class WorkServiceImpl implements WorkService {
     private final WorkTypeRepository workTypeRepository;
     private final RoomRepository roomRepository;
     private final AfpaCenterRepository afpaCenterRepository;
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
 
 
     @Override
@@ -92,6 +95,9 @@ public class WorkServiceImpl implements WorkService {
             // Sauvegarde l'entité Work dans le repository
             Work savedWork = workRepository.save(work);
 
+            // Mettre à jour l'index de disponibilité des chambres
+            roomAvailabilityEngine.registerWork(savedWork, idRoom);
+
             // Mappe l'entité Work sauvegardée en DTO et la retourne
             return WorkMapper.mapToWorkDTO(savedWork);
 
@@ -256,6 +262,9 @@ public class WorkServiceImpl implements WorkService {
             // Sauvegarde l'entité Work mise à jour dans le repository
             Work updatedWork = workRepository.save(workToUpdate);
 
+            // Mettre à jour les dates des travaux dans l'index de disponibilité des chambres
+            roomAvailabilityEngine.registerWork(updatedWork, updatedWork.getIdRoom());
+
             // Mappe l'entité Work mise à jour en DTO et la retourne (encapsulée) dans un Optional
             return Optional.of(WorkMapper.mapToWorkDTO(updatedWork));
 
@@ -277,6 +286,9 @@ public class WorkServiceImpl implements WorkService {
             // Supprime l'entité Work trouvée
             workRepository.delete(work);
 
+            // Libérer la période dans l'index de disponibilité des chambres
+            roomAvailabilityEngine.release(OccupancyType.WORK, work.getId());
+
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
             throw new InternalServerException("An unexpected error occurred while deleting the work with id: " + id);
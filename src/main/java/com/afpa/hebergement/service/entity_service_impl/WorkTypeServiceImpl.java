@@ -6,6 +6,8 @@ import com.afpa.hebergement.model.entity.WorkType;
 import com.afpa.hebergement.model.mapper.WorkTypeMapper;
 import com.afpa.hebergement.model.repository.WorkTypeRepository;
 import com.afpa.hebergement.service.entity_service.WorkTypeService;
+import com.afpa.hebergement.service.reference.ReferenceDataRegistry;
+import com.afpa.hebergement.service.reference.ReferenceType;
 import lombok.AllArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -20,6 +22,7 @@ public class WorkTypeServiceImpl implements WorkTypeService {
 
 
     private final WorkTypeRepository workTypeRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
 
     @Override
@@ -39,6 +42,7 @@ public class WorkTypeServiceImpl implements WorkTypeService {
         try {
             // Sauvegarde l'entité WorkType dans le repository
             WorkType savedWorkType = workTypeRepository.save(workType);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.WORK_TYPE);
             // Mappe l'entité WorkType sauvegardée en DTO et la retourne
             return WorkTypeMapper.mapToWorkTypeDTO(savedWorkType);
 
@@ -53,7 +57,7 @@ public class WorkTypeServiceImpl implements WorkTypeService {
     public List<WorkTypeDTO> getAll() {
 
         // Récupère toutes les entités WorkType du repository
-        List<WorkType> workTypes = workTypeRepository.findAll();
+        List<WorkType> workTypes = referenceDataRegistry.workTypes().getAll();
 
         // Vérifie si la liste est vide
         if (workTypes.isEmpty()) {
@@ -78,7 +82,7 @@ public class WorkTypeServiceImpl implements WorkTypeService {
     public Optional<WorkTypeDTO> getById(Integer id) {
 
         // Cherche une entité WorkType par son identifiant
-        WorkType findWorkType = workTypeRepository.findById(id)
+        WorkType findWorkType = referenceDataRegistry.workTypes().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Work type not found with ID: " + id));
 
         try {
@@ -108,6 +112,7 @@ public class WorkTypeServiceImpl implements WorkTypeService {
 
             // Sauvegarde l'entité WorkType mise à jour dans le repository
             WorkType updatedWorkType = workTypeRepository.save(workTypeToUpdate);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.WORK_TYPE);
 
             // Mappe l'entité WorkType mise à jour en DTO et la retourne (encapsulée) dans un Optional
             return Optional.of(WorkTypeMapper.mapToWorkTypeDTO(updatedWorkType));
@@ -128,6 +133,7 @@ public class WorkTypeServiceImpl implements WorkTypeService {
         try {
             // Supprime l'entité WorkType trouvée
             workTypeRepository.delete(workType);
+            referenceDataRegistry.refreshAfterCommit(ReferenceType.WORK_TYPE);
 
         } catch (Exception e) {
             // Capture toute exception inattendue et lance une exception avec un message d'erreur
@@ -0,0 +1,169 @@
+package com.afpa.hebergement.service.export;
+
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import com.afpa.hebergement.model.entity.AppUser;
+import com.afpa.hebergement.model.entity.LeaseContract;
+import com.afpa.hebergement.model.entity.Reservation;
+import com.afpa.hebergement.model.repository.AfpaCenterRepository;
+import com.afpa.hebergement.model.repository.AppUserRepository;
+import com.afpa.hebergement.model.repository.LeaseContractRepository;
+import com.afpa.hebergement.model.repository.ReservationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Export des données d'un centre Afpa (utilisateurs, réservations, contrats de bail) en CSV ou NDJSON.
+ * Les lignes sont lues par curseur JDBC (fetch size) dans une transaction en lecture seule
+ * et écrites dans la réponse au fur et à mesure : la mémoire utilisée ne dépend pas du nombre de lignes.
+ */
+@Component
+public class CenterExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CenterExporter.class);
+
+    // Nombre de lignes écrites entre deux vidages du contexte de persistance et du flux de sortie (= fetch size des requêtes)
+    static final int FLUSH_EVERY = 500;
+
+    private static final List<ExportColumn<AppUser>> USER_COLUMNS = List.of(
+            new ExportColumn<>("id", AppUser::getId),
+            new ExportColumn<>("beneficiaryNumber", AppUser::getBeneficiaryNumber),
+            new ExportColumn<>("civility", user -> user.getIdCivility().getWordingCivility()),
+            new ExportColumn<>("name", AppUser::getName),
+            new ExportColumn<>("firstname", AppUser::getFirstname),
+            new ExportColumn<>("email", AppUser::getEmail),
+            new ExportColumn<>("phoneNumber", AppUser::getPhoneNumber),
+            new ExportColumn<>("birthdate", AppUser::getBirthdate),
+            new ExportColumn<>("registrationDate", AppUser::getRegistrationDate),
+            new ExportColumn<>("isBlacklisted", AppUser::getIsBlacklisted),
+            new ExportColumn<>("role", user -> user.getIdRole().getWordingRole())
+    );
+
+    private static final List<ExportColumn<Reservation>> RESERVATION_COLUMNS = List.of(
+            new ExportColumn<>("id", Reservation::getId),
+            new ExportColumn<>("startDate", Reservation::getStartDate),
+            new ExportColumn<>("endDate", Reservation::getEndDate),
+            new ExportColumn<>("reservationDate", Reservation::getReservationDate),
+            new ExportColumn<>("idRoom", reservation -> reservation.getIdRoom().getId()),
+            new ExportColumn<>("roomNumber", reservation -> reservation.getIdRoom().getRoomNumber()),
+            new ExportColumn<>("numberFloor", reservation -> reservation.getIdRoom().getIdFloor().getNumberFloor()),
+            new ExportColumn<>("motive", reservation -> reservation.getIdReservationMotive().getMotive())
+    );
+
+    private static final List<ExportColumn<LeaseContract>> LEASE_CONTRACT_COLUMNS = List.of(
+            new ExportColumn<>("id", LeaseContract::getId),
+            new ExportColumn<>("startDateLease", LeaseContract::getStartDateLease),
+            new ExportColumn<>("endDateLease", LeaseContract::getEndDateLease),
+            new ExportColumn<>("isPresent", LeaseContract::getIsPresent),
+            new ExportColumn<>("isSigned", LeaseContract::getIsSigned),
+            new ExportColumn<>("idUser", lease -> lease.getIdUser().getId()),
+            new ExportColumn<>("beneficiaryNumber", lease -> lease.getIdUser().getBeneficiaryNumber()),
+            new ExportColumn<>("name", lease -> lease.getIdUser().getName()),
+            new ExportColumn<>("firstname", lease -> lease.getIdUser().getFirstname()),
+            new ExportColumn<>("idRoom", lease -> lease.getIdRoom().getId()),
+            new ExportColumn<>("roomNumber", lease -> lease.getIdRoom().getRoomNumber()),
+            new ExportColumn<>("rentAmount", lease -> lease.getIdRent().getAmount()),
+            new ExportColumn<>("rentFrequency", lease -> lease.getIdRent().getFrequency())
+    );
+
+    private final AfpaCenterRepository afpaCenterRepository;
+    private final AppUserRepository appUserRepository;
+    private final ReservationRepository reservationRepository;
+    private final LeaseContractRepository leaseContractRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CenterExporter(AfpaCenterRepository afpaCenterRepository, AppUserRepository appUserRepository,
+                          ReservationRepository reservationRepository, LeaseContractRepository leaseContractRepository,
+                          PlatformTransactionManager transactionManager) {
+        this.afpaCenterRepository = afpaCenterRepository;
+        this.appUserRepository = appUserRepository;
+        this.reservationRepository = reservationRepository;
+        this.leaseContractRepository = leaseContractRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+
+    // Vérifie l'existence du centre Afpa avant de commencer à écrire la réponse (404 plutôt qu'un export vide)
+    public void checkAfpaCenter(Integer idAfpaCenter) {
+        if (!afpaCenterRepository.existsById(idAfpaCenter)) {
+            throw new ResourceNotFoundException("Afpa Center ID not found: " + idAfpaCenter);
+        }
+    }
+
+
+    public void exportUsers(Integer idAfpaCenter, ExportFormat format, OutputStream outputStream) throws IOException {
+        export("users", idAfpaCenter, format, USER_COLUMNS,
+                () -> appUserRepository.streamByIdAfpaCenter_IdOrderByIdAsc(idAfpaCenter), outputStream);
+    }
+
+
+    public void exportReservations(Integer idAfpaCenter, ExportFormat format, OutputStream outputStream) throws IOException {
+        export("reservations", idAfpaCenter, format, RESERVATION_COLUMNS,
+                () -> reservationRepository.streamByIdRoom_IdFloor_IdAfpaCenter_IdOrderByIdAsc(idAfpaCenter), outputStream);
+    }
+
+
+    public void exportLeaseContracts(Integer idAfpaCenter, ExportFormat format, OutputStream outputStream) throws IOException {
+        export("lease contracts", idAfpaCenter, format, LEASE_CONTRACT_COLUMNS,
+                () -> leaseContractRepository.streamByIdRoom_IdFloor_IdAfpaCenter_IdOrderByIdAsc(idAfpaCenter), outputStream);
+    }
+
+
+    private <E> void export(String label, Integer idAfpaCenter, ExportFormat format, List<ExportColumn<E>> columns,
+                            Supplier<Stream<E>> rows, OutputStream outputStream) throws IOException {
+
+        long start = System.nanoTime();
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ExportRowWriter<E> rowWriter = new ExportRowWriter<>(format, columns, writer);
+
+        Long count;
+        try {
+            // Le curseur n'est lisible que dans la transaction : elle est ouverte ici, dans le thread qui écrit la réponse
+            count = readOnlyTransaction.execute(status -> {
+                try (Stream<E> stream = rows.get()) {
+                    rowWriter.writeHeader();
+                    long written = 0;
+                    Iterator<E> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        rowWriter.writeRow(iterator.next());
+                        if (++written % FLUSH_EVERY == 0) {
+                            // Libère les entités déjà écrites et envoie le bloc au client
+                            entityManager.clear();
+                            rowWriter.flush();
+                        }
+                    }
+                    return written;
+                } catch (IOException e) {
+                    // Client déconnecté ou erreur d'écriture : la transaction est annulée et le curseur fermé
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rowWriter.flush();
+
+        logger.info("Exported {} {} of Afpa Center {} as {} in {} ms", count, label, idAfpaCenter, format,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+}
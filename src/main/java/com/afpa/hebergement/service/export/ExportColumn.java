@@ -0,0 +1,7 @@
+package com.afpa.hebergement.service.export;
+
+import java.util.function.Function;
+
+// Colonne d'export : nom (en-tête CSV ou clé JSON) et valeur extraite de l'entité
+public record ExportColumn<E>(String name, Function<E, Object> value) {
+}
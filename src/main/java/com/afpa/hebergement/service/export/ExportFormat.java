@@ -0,0 +1,41 @@
+package com.afpa.hebergement.service.export;
+
+import com.afpa.hebergement.exception.BadRequestException;
+
+import java.util.Locale;
+
+// Formats d'export ligne par ligne : CSV (séparateur virgule, en-tête) ou NDJSON (un objet JSON par ligne)
+public enum ExportFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // Convertit le paramètre de requête "format" (csv ou ndjson, insensible à la casse)
+    public static ExportFormat fromParameter(String format) {
+        if (format == null || format.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format: " + format);
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.afpa.hebergement.service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Écrit des lignes d'export au fil de l'eau, sans les conserver en mémoire.
+ * CSV : en-tête puis une ligne par entité, valeurs échappées selon la RFC 4180 ;
+ * les valeurs commençant par =, +, - ou @ sont préfixées d'une apostrophe pour ne pas être interprétées comme des formules par un tableur.
+ * NDJSON : un objet JSON par ligne, avec les noms de colonnes comme clés.
+ */
+public class ExportRowWriter<E> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ExportFormat format;
+    private final List<ExportColumn<E>> columns;
+    private final Writer writer;
+    private final JsonGenerator jsonGenerator;
+
+    public ExportRowWriter(ExportFormat format, List<ExportColumn<E>> columns, Writer writer) throws IOException {
+        this.format = format;
+        this.columns = columns;
+        this.writer = writer;
+        if (format == ExportFormat.NDJSON) {
+            this.jsonGenerator = JSON_FACTORY.createGenerator(writer);
+            // Les objets racines sont séparés par un retour à la ligne
+            this.jsonGenerator.setRootValueSeparator(null);
+            this.jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } else {
+            this.jsonGenerator = null;
+        }
+    }
+
+    // Écrit l'en-tête (CSV uniquement)
+    public void writeHeader() throws IOException {
+        if (format != ExportFormat.CSV) {
+            return;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(columns.get(i).name(), false));
+        }
+        writer.write("\r\n");
+    }
+
+    // Écrit une ligne pour l'entité
+    public void writeRow(E entity) throws IOException {
+        if (format == ExportFormat.CSV) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = columns.get(i).value().apply(entity);
+                writer.write(value == null ? "" : escapeCsv(value.toString(), value instanceof CharSequence));
+            }
+            writer.write("\r\n");
+        } else {
+            jsonGenerator.writeStartObject();
+            for (ExportColumn<E> column : columns) {
+                writeJsonField(column.name(), column.value().apply(entity));
+            }
+            jsonGenerator.writeEndObject();
+            jsonGenerator.flush();
+            writer.write('\n');
+        }
+    }
+
+    // Transmet les lignes déjà écrites au client
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeJsonField(String name, Object value) throws IOException {
+        if (value == null) {
+            jsonGenerator.writeNullField(name);
+        } else if (value instanceof Boolean bool) {
+            jsonGenerator.writeBooleanField(name, bool);
+        } else if (value instanceof Integer || value instanceof Long) {
+            jsonGenerator.writeNumberField(name, ((Number) value).longValue());
+        } else if (value instanceof BigDecimal decimal) {
+            jsonGenerator.writeNumberField(name, decimal);
+        } else {
+            jsonGenerator.writeStringField(name, value.toString());
+        }
+    }
+
+    // Échappe une valeur CSV ; seules les valeurs texte sont protégées contre l'interprétation en formule
+    static String escapeCsv(String value, boolean text) {
+        String safe = value;
+        if (text && !safe.isEmpty() && "=+-@".indexOf(safe.charAt(0)) >= 0) {
+            safe = "'" + safe;
+        }
+        if (safe.indexOf(',') >= 0 || safe.indexOf('"') >= 0 || safe.indexOf('\n') >= 0 || safe.indexOf('\r') >= 0) {
+            return '"' + safe.replace("\"", "\"\"") + '"';
+        }
+        return safe;
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.afpa.hebergement.service.full_text_search;
+
+import com.afpa.hebergement.exception.BadRequestException;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * Règles communes de la recherche plein texte des messages et des rendez-vous.
+ * La requête est analysée par PostgreSQL (websearch_to_tsquery, configuration française) : mots, "expression exacte",
+ * OR et -exclusion sont acceptés sans erreur de syntaxe. L'extrait (ts_headline) marque les termes trouvés avec
+ * des caractères de contrôle, remplacés par des balises après l'échappement HTML du texte saisi par les utilisateurs.
+ */
+public final class FullTextSearch {
+
+    public static final int MAX_QUERY_LENGTH = 200;
+
+    // Marqueurs des termes trouvés dans l'extrait, choisis hors du texte saisi (chr(2) et chr(3) côté SQL)
+    public static final String START_SEL = "\u0002";
+    public static final String STOP_SEL = "\u0003";
+
+    private FullTextSearch() {}
+
+    /**
+     * Requête saisie, sans caractères de contrôle ni espaces de bord.
+     * @throws BadRequestException si la requête est vide ou trop longue
+     */
+    public static String normalizeQuery(String query) {
+        String normalized = query == null ? "" : query.replaceAll("\\p{Cntrl}", " ").strip();
+        if (normalized.isEmpty()) {
+            throw new BadRequestException("Search query must not be empty");
+        }
+        if (normalized.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("Search query must not exceed " + MAX_QUERY_LENGTH + " characters");
+        }
+        return normalized;
+    }
+
+    // Extrait échappé en HTML, les termes trouvés entourés de <mark></mark>
+    public static String highlight(String headline) {
+        if (headline == null) {
+            return "";
+        }
+        return HtmlUtils.htmlEscape(headline)
+                .replace(START_SEL, "<mark>")
+                .replace(STOP_SEL, "</mark>");
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.afpa.hebergement.service.lease_creation;
+
+import com.afpa.hebergement.model.entity.AppService;
+import com.afpa.hebergement.model.entity.AppUser;
+import com.afpa.hebergement.model.entity.Rent;
+import com.afpa.hebergement.model.entity.Room;
+
+import java.util.List;
+
+/**
+ * Données nécessaires à la création d'un contrat de bail, chargées par {@link LeaseCreationContextLoader}.
+ * Les entités sont gérées par la transaction de création (relations de l'utilisateur et de la chambre déjà chargées).
+ * @param formationName formation de la dernière session suivie par l'utilisateur, vide s'il n'en a suivi aucune
+ */
+public record LeaseCreationContext(AppUser user, Room room, Rent rent, String formationName, List<AppService> services) {
+}
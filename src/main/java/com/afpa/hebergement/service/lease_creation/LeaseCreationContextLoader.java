@@ -0,0 +1,100 @@
+package com.afpa.hebergement.service.lease_creation;
+
+import com.afpa.hebergement.exception.DuplicateException;
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import com.afpa.hebergement.model.dto.LeaseContractFormDTO;
+import com.afpa.hebergement.model.entity.AppService;
+import com.afpa.hebergement.model.repository.AppServiceRepository;
+import com.afpa.hebergement.model.repository.AppUserRepository;
+import com.afpa.hebergement.model.repository.LeaseCreationRow;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Charge en deux requêtes tout ce dont la création d'un contrat de bail a besoin :
+ * <ul>
+ *     <li>l'utilisateur (nom, prénom, date de naissance) avec sa civilité, sa ville et son centre Afpa,
+ *     le centre, la chambre et le loyer demandés, et la formation de sa dernière session ;</li>
+ *     <li>les services demandés, recherchés ensemble par leurs libellés (IN).</li>
+ * </ul>
+ * Les erreurs sont les mêmes que celles des recherches une à une, dans le même ordre.
+ */
+@Component
+@AllArgsConstructor
+public class LeaseCreationContextLoader {
+
+    private final AppUserRepository appUserRepository;
+    private final AppServiceRepository appServiceRepository;
+
+
+    /**
+     * Contexte de création du contrat décrit par le formulaire, dans la transaction de création.
+     * @throws ResourceNotFoundException si l'utilisateur, le centre, la chambre, le loyer ou un service n'existe pas
+     * @throws DuplicateException        si plusieurs utilisateurs ont le même nom, prénom et date de naissance
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public LeaseCreationContext load(LeaseContractFormDTO leaseContractFormDto) {
+
+        // Plusieurs lignes si l'utilisateur a plusieurs financeurs pour sa dernière session : elles ne diffèrent pas
+        List<LeaseCreationRow> rows = appUserRepository.findLeaseCreationContext(
+                leaseContractFormDto.getName(),
+                leaseContractFormDto.getFirstname(),
+                leaseContractFormDto.getBirthdate(),
+                leaseContractFormDto.getCenterName(),
+                leaseContractFormDto.getRoomNumber(),
+                leaseContractFormDto.getFrequency());
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("User not found");
+        }
+
+        // Des lignes de plusieurs utilisateurs : l'utilisateur ne peut pas être choisi sans ambiguïté
+        LeaseCreationRow row = rows.get(0);
+        for (LeaseCreationRow other : rows) {
+            if (!Objects.equals(other.getUser().getId(), row.getUser().getId())) {
+                throw new DuplicateException("Several users found with name " + leaseContractFormDto.getName()
+                        + ", firstname " + leaseContractFormDto.getFirstname() + " and birthdate " + leaseContractFormDto.getBirthdate());
+            }
+        }
+
+        if (row.getIdAfpaCenter() == null) {
+            throw new ResourceNotFoundException("Afpa center not found with name " + leaseContractFormDto.getCenterName());
+        }
+        if (row.getRoom() == null) {
+            throw new ResourceNotFoundException("Room not found with room number: " + leaseContractFormDto.getRoomNumber() + " and id Afpa center: " + row.getIdAfpaCenter());
+        }
+        if (row.getRent() == null) {
+            throw new ResourceNotFoundException("Rent not found for : " + leaseContractFormDto.getCenterName());
+        }
+
+        List<AppService> services = services(leaseContractFormDto.getListService());
+        String formationName = row.getFormationName() == null ? "" : row.getFormationName();
+
+        return new LeaseCreationContext(row.getUser(), row.getRoom(), row.getRent(), formationName, services);
+    }
+
+
+    // Services demandés, en une requête ; le premier libellé inconnu est signalé
+    private List<AppService> services(List<String> listService) {
+        if (listService == null || listService.isEmpty()) {
+            return List.of();
+        }
+
+        List<AppService> services = appServiceRepository.findByWordingServiceIn(new LinkedHashSet<>(listService));
+        Set<String> found = new HashSet<>();
+        for (AppService service : services) {
+            found.add(service.getWordingService());
+        }
+
+        for (String serviceName : listService) {
+            if (!found.contains(serviceName)) {
+                throw new ResourceNotFoundException("Service not found with name: " + serviceName);
+            }
+        }
+        return services;
+    }
+
+}
@@ -0,0 +1,394 @@
+package com.afpa.hebergement.service.lease_document;
+
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Modèle DOCX analysé une seule fois et gardé en mémoire.
+ * Les champs du modèle ({{nom}} ou ${nom}) sont souvent découpés par Word sur plusieurs "runs" (correcteur
+ * orthographique, changement de mise en forme) : à la compilation, chaque champ est regroupé dans le texte de son
+ * premier run, puis chaque partie XML est découpée en fragments fixes (déjà encodés en UTF-8) séparés par les champs.
+ * Remplir le modèle revient alors à écrire les fragments et les valeurs, sans analyser de XML.
+ * Les paragraphes du corps du document sont aussi indexés (texte, champs, gras) pour la version PDF.
+ * Une instance est immuable et sert à tous les threads.
+ */
+final class DocxTemplate {
+
+    // Parties du document qui peuvent contenir des champs : corps, en-têtes, pieds de page et notes
+    private static final Pattern TEMPLATED_PART = Pattern.compile("word/(document|header\\d*|footer\\d*|footnotes|endnotes)\\.xml");
+    private static final String BODY_PART = "word/document.xml";
+
+    private static final Pattern TEXT_NODE = Pattern.compile("<w:t(\\s[^>]*)?>([^<]*)</w:t>");
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*(\\w+)\\s*}}|\\$\\{(\\w+)}");
+
+    // Balises lues pour la version PDF : paragraphes, runs, gras, tabulations, retours à la ligne et texte
+    private static final Pattern BODY_TOKEN = Pattern.compile(
+            "<w:p[\\s>]|<w:p/>|</w:p>|<w:r[\\s>]|<w:b/>|<w:b\\s([^>]*)/>|<w:tab/>|<w:br[\\s/]|<w:t(?:\\s[^>]*)?>([^<]*)</w:t>");
+
+    // Séparateur des champs dans le XML compilé (absent d'un document XML valide)
+    private static final char MARK = '\u0000';
+
+    private static final Font FONT;
+    private static final Font BOLD_FONT;
+
+    static {
+        try {
+            FONT = new Font(BaseFont.createFont(BaseFont.HELVETICA, BaseFont.CP1252, BaseFont.NOT_EMBEDDED), 10);
+            BOLD_FONT = new Font(BaseFont.createFont(BaseFont.HELVETICA_BOLD, BaseFont.CP1252, BaseFont.NOT_EMBEDDED), 10);
+        } catch (DocumentException | IOException e) {
+            throw new IllegalStateException("The lease document fonts are not available", e);
+        }
+    }
+
+    // Partie du zip : contenu fixe, ou fragments séparés par des champs (fragments.length == fields.length + 1)
+    private record Part(String name, byte[] content, byte[][] fragments, String[] fields) {
+    }
+
+    // Élément d'un paragraphe pour le PDF : texte fixe ou champ
+    record Item(String text, String field, boolean bold) {
+    }
+
+    private final List<Part> parts;
+    private final List<List<Item>> paragraphs;
+    private final Set<String> fields;
+
+
+    private DocxTemplate(List<Part> parts, List<List<Item>> paragraphs, Set<String> fields) {
+        this.parts = parts;
+        this.paragraphs = paragraphs;
+        this.fields = fields;
+    }
+
+
+    static DocxTemplate compile(InputStream docx) throws IOException {
+        List<Part> parts = new ArrayList<>();
+        List<List<Item>> paragraphs = List.of();
+        Set<String> fields = new TreeSet<>();
+
+        try (ZipInputStream zip = new ZipInputStream(docx)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                byte[] content = zip.readAllBytes();
+                if (!TEMPLATED_PART.matcher(entry.getName()).matches()) {
+                    parts.add(new Part(entry.getName(), content, null, null));
+                    continue;
+                }
+
+                String xml = groupPlaceholders(new String(content, StandardCharsets.UTF_8));
+                String[] pieces = xml.split(String.valueOf(MARK), -1);
+                byte[][] fragments = new byte[pieces.length / 2 + 1][];
+                String[] partFields = new String[pieces.length / 2];
+                for (int i = 0; i < pieces.length; i++) {
+                    if (i % 2 == 0) {
+                        fragments[i / 2] = pieces[i].getBytes(StandardCharsets.UTF_8);
+                    } else {
+                        partFields[i / 2] = pieces[i];
+                    }
+                }
+                fields.addAll(Arrays.asList(partFields));
+                parts.add(new Part(entry.getName(), null, fragments, partFields));
+
+                if (BODY_PART.equals(entry.getName())) {
+                    paragraphs = paragraphs(xml);
+                }
+            }
+        }
+        if (parts.stream().noneMatch(part -> BODY_PART.equals(part.name()))) {
+            throw new IOException("Not a DOCX document: " + BODY_PART + " is missing");
+        }
+        return new DocxTemplate(List.copyOf(parts), paragraphs, Collections.unmodifiableSet(fields));
+    }
+
+
+    // Noms des champs présents dans le modèle
+    Set<String> fields() {
+        return fields;
+    }
+
+
+    List<List<Item>> paragraphs() {
+        return paragraphs;
+    }
+
+
+    // Document DOCX rempli ; le flux n'est pas fermé
+    void writeDocx(Map<String, String> values, OutputStream outputStream) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        for (Part part : parts) {
+            zip.putNextEntry(new ZipEntry(part.name()));
+            if (part.content() != null) {
+                zip.write(part.content());
+            } else {
+                for (int i = 0; i < part.fields().length; i++) {
+                    zip.write(part.fragments()[i]);
+                    zip.write(escapeXml(values.getOrDefault(part.fields()[i], "")).getBytes(StandardCharsets.UTF_8));
+                }
+                zip.write(part.fragments()[part.fields().length]);
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+
+
+    // Version PDF du corps du document : un paragraphe par paragraphe Word, gras conservé ; le flux n'est pas fermé
+    void writePdf(Map<String, String> values, OutputStream outputStream) throws DocumentException {
+        Document document = new Document(PageSize.A4, 56, 56, 56, 56);
+        PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+        writer.setCloseStream(false);
+        document.open();
+        for (List<Item> items : paragraphs) {
+            Paragraph paragraph = new Paragraph();
+            paragraph.setLeading(13);
+            for (Item item : items) {
+                String text = item.field() != null ? values.getOrDefault(item.field(), "") : item.text();
+                paragraph.add(new Chunk(text, item.bold() ? BOLD_FONT : FONT));
+            }
+            if (paragraph.isEmpty()) {
+                paragraph.add(new Chunk(" ", FONT));
+            }
+            document.add(paragraph);
+        }
+        document.close();
+    }
+
+
+    /**
+     * Regroupe chaque champ dans un seul nœud de texte, entouré du séparateur MARK.
+     * Le texte des nœuds w:t est mis bout à bout pour trouver les champs ; un champ découpé est écrit dans son premier
+     * nœud et retiré des suivants. Les nœuds modifiés conservent les espaces (xml:space="preserve").
+     */
+    static String groupPlaceholders(String xml) {
+        List<TextNode> nodes = new ArrayList<>();
+        StringBuilder allText = new StringBuilder();
+        Matcher textMatcher = TEXT_NODE.matcher(xml);
+        while (textMatcher.find()) {
+            nodes.add(new TextNode(textMatcher.start(), textMatcher.end(), textMatcher.group(1), allText.length(),
+                    new StringBuilder(textMatcher.group(2))));
+            allText.append(textMatcher.group(2));
+        }
+
+        List<MatchResult> placeholders = PLACEHOLDER.matcher(allText).results().toList();
+        if (placeholders.isEmpty()) {
+            return xml;
+        }
+
+        // Du dernier au premier champ : les positions des champs précédents restent valables
+        for (int i = placeholders.size() - 1; i >= 0; i--) {
+            MatchResult placeholder = placeholders.get(i);
+            String field = placeholder.group(1) != null ? placeholder.group(1) : placeholder.group(2);
+            int first = nodeAt(nodes, placeholder.start());
+            int last = nodeAt(nodes, placeholder.end() - 1);
+            TextNode firstNode = nodes.get(first);
+            String marked = MARK + field + MARK;
+
+            if (first == last) {
+                firstNode.text.replace(placeholder.start() - firstNode.offset, placeholder.end() - firstNode.offset, marked);
+            } else {
+                TextNode lastNode = nodes.get(last);
+                lastNode.text.delete(0, placeholder.end() - lastNode.offset);
+                lastNode.modified = true;
+                for (int j = first + 1; j < last; j++) {
+                    nodes.get(j).text.setLength(0);
+                    nodes.get(j).modified = true;
+                }
+                firstNode.text.replace(placeholder.start() - firstNode.offset, firstNode.text.length(), marked);
+            }
+            firstNode.modified = true;
+        }
+
+        StringBuilder result = new StringBuilder(xml.length());
+        int position = 0;
+        for (TextNode node : nodes) {
+            result.append(xml, position, node.start);
+            if (node.modified) {
+                String attributes = node.attributes == null ? "" : node.attributes;
+                if (!attributes.contains("xml:space")) {
+                    attributes += " xml:space=\"preserve\"";
+                }
+                result.append("<w:t").append(attributes).append('>').append(node.text).append("</w:t>");
+            } else {
+                result.append(xml, node.start, node.end);
+            }
+            position = node.end;
+        }
+        result.append(xml, position, xml.length());
+        return result.toString();
+    }
+
+
+    // Paragraphes du corps (après regroupement des champs) : texte décodé, champs et gras de chaque run
+    static List<List<Item>> paragraphs(String xml) {
+        List<List<Item>> paragraphs = new ArrayList<>();
+        List<Item> current = null;
+        boolean bold = false;
+
+        Matcher matcher = BODY_TOKEN.matcher(xml);
+        while (matcher.find()) {
+            String token = matcher.group();
+            if (token.startsWith("<w:p")) {
+                // Début de paragraphe (y compris un paragraphe imbriqué) : le paragraphe en cours est terminé
+                if (current != null) {
+                    paragraphs.add(List.copyOf(current));
+                }
+                current = token.equals("<w:p/>") ? null : new ArrayList<>();
+                if (token.equals("<w:p/>")) {
+                    paragraphs.add(List.of());
+                }
+            } else if (token.equals("</w:p>")) {
+                if (current != null) {
+                    paragraphs.add(List.copyOf(current));
+                    current = null;
+                }
+            } else if (token.startsWith("<w:r")) {
+                bold = false;
+            } else if (token.startsWith("<w:b")) {
+                String attributes = matcher.group(1);
+                bold = attributes == null || !(attributes.contains("\"0\"") || attributes.contains("\"false\""));
+            } else {
+                if (current == null) {
+                    current = new ArrayList<>();
+                }
+                if (token.startsWith("<w:tab")) {
+                    current.add(new Item(" ", null, bold));
+                } else if (token.startsWith("<w:br")) {
+                    current.add(new Item("\n", null, bold));
+                } else {
+                    String[] pieces = matcher.group(2).split(String.valueOf(MARK), -1);
+                    for (int i = 0; i < pieces.length; i++) {
+                        if (i % 2 == 1) {
+                            current.add(new Item(null, pieces[i], bold));
+                        } else if (!pieces[i].isEmpty()) {
+                            current.add(new Item(pdfText(unescapeXml(pieces[i])), null, bold));
+                        }
+                    }
+                }
+            }
+        }
+        if (current != null) {
+            paragraphs.add(List.copyOf(current));
+        }
+        return List.copyOf(paragraphs);
+    }
+
+
+    // Case à cocher absente des polices standard du PDF
+    private static String pdfText(String text) {
+        return text.replace("☐", "[ ]");
+    }
+
+
+    private static int nodeAt(List<TextNode> nodes, int offset) {
+        int low = 0;
+        int high = nodes.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (nodes.get(middle).offset <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+
+    static String escapeXml(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&apos;");
+                default -> {
+                    // Caractères de contrôle interdits en XML (hors tabulation et retours à la ligne)
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+
+    static String unescapeXml(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        StringBuilder unescaped = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '&' ? text.indexOf(';', i) : -1;
+            if (end < 0) {
+                unescaped.append(c);
+                i++;
+                continue;
+            }
+            String entity = text.substring(i + 1, end);
+            switch (entity) {
+                case "amp" -> unescaped.append('&');
+                case "lt" -> unescaped.append('<');
+                case "gt" -> unescaped.append('>');
+                case "quot" -> unescaped.append('"');
+                case "apos" -> unescaped.append('\'');
+                default -> {
+                    if (entity.startsWith("#x")) {
+                        unescaped.appendCodePoint(Integer.parseInt(entity.substring(2), 16));
+                    } else if (entity.startsWith("#")) {
+                        unescaped.appendCodePoint(Integer.parseInt(entity.substring(1)));
+                    } else {
+                        unescaped.append(text, i, end + 1);
+                    }
+                }
+            }
+            i = end + 1;
+        }
+        return unescaped.toString();
+    }
+
+
+    // Nœud w:t du XML : position de la balise, attributs, position de son texte dans le texte mis bout à bout
+    private static final class TextNode {
+        private final int start;
+        private final int end;
+        private final String attributes;
+        private final int offset;
+        private final StringBuilder text;
+        private boolean modified;
+
+        private TextNode(int start, int end, String attributes, int offset, StringBuilder text) {
+            this.start = start;
+            this.end = end;
+            this.attributes = attributes;
+            this.offset = offset;
+            this.text = text;
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.afpa.hebergement.service.lease_document;
+
+/**
+ * Contrat de bail rendu, prêt à être envoyé.
+ * L'ETag change avec la version du contrat et avec les données du document (locataire, centre, loyer).
+ */
+public record LeaseDocument(byte[] content, String fileName, LeaseDocumentFormat format, String etag) {
+}
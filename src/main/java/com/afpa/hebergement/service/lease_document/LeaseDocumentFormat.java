@@ -0,0 +1,41 @@
+package com.afpa.hebergement.service.lease_document;
+
+import com.afpa.hebergement.exception.BadRequestException;
+
+import java.util.Locale;
+
+// Formats du contrat de bail : DOCX (modèle rempli) ou PDF
+public enum LeaseDocumentFormat {
+
+    DOCX("application/vnd.openxmlformats-officedocument.wordprocessingml.document", "docx"),
+    PDF("application/pdf", "pdf");
+
+    private final String mediaType;
+    private final String extension;
+
+    LeaseDocumentFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // Convertit le paramètre de requête "format" (docx ou pdf, insensible à la casse)
+    public static LeaseDocumentFormat fromParameter(String format) {
+        if (format == null || format.isBlank()) {
+            return DOCX;
+        }
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported lease document format: " + format);
+        }
+    }
+
+}
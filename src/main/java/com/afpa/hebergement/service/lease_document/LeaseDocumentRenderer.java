@@ -0,0 +1,190 @@
+package com.afpa.hebergement.service.lease_document;
+
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import com.afpa.hebergement.model.entity.*;
+import com.afpa.hebergement.model.repository.LeaseContractRepository;
+import com.afpa.hebergement.model.repository.ParticipateRepository;
+import com.itextpdf.text.DocumentException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Rendu du contrat de bail à partir du modèle DOCX livré avec l'application, en DOCX ou en PDF.
+ * Le modèle est analysé une fois au démarrage ({@link DocxTemplate}). Les documents rendus sont gardés dans un cache
+ * borné, par contrat, version du contrat et format : une réimpression ne refait pas le rendu.
+ * Les données du document sont relues à chaque demande (une requête) et comparées à celles du document en cache,
+ * qui est refait si le locataire, la chambre, le loyer ou le centre ont changé.
+ */
+@Component
+public class LeaseDocumentRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaseDocumentRenderer.class);
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private record Key(int idLease, int version, LeaseDocumentFormat format) {
+    }
+
+    private record Entry(Map<String, String> values, LeaseDocument document) {
+    }
+
+    private final LeaseContractRepository leaseContractRepository;
+    private final ParticipateRepository participateRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final DocxTemplate template;
+    private final int cacheMaxSize;
+
+    private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+
+
+    public LeaseDocumentRenderer(LeaseContractRepository leaseContractRepository,
+                                 ParticipateRepository participateRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${lease-document.template:documents/leaseContract/docx/contrat_bail.docx}") String templatePath,
+                                 @Value("${lease-document.cache.max-size:200}") int cacheMaxSize) throws IOException {
+        this.leaseContractRepository = leaseContractRepository;
+        this.participateRepository = participateRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.cacheMaxSize = cacheMaxSize;
+
+        try (InputStream docx = new ClassPathResource(templatePath).getInputStream()) {
+            this.template = DocxTemplate.compile(docx);
+        }
+        logger.info("Lease contract template {} compiled with fields {}", templatePath, template.fields());
+    }
+
+
+    /**
+     * Contrat de bail rempli avec les données du contrat, depuis le cache si elles n'ont pas changé.
+     * @throws ResourceNotFoundException si le contrat n'existe pas
+     */
+    public LeaseDocument render(Integer idLease, LeaseDocumentFormat format) {
+        LeaseData lease = readOnlyTransactionTemplate.execute(status -> load(idLease));
+        Key key = new Key(idLease, lease.version(), format);
+
+        Entry entry = cache.get(key);
+        if (entry != null && entry.values().equals(lease.values())) {
+            return entry.document();
+        }
+
+        long start = System.nanoTime();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024);
+        try {
+            if (format == LeaseDocumentFormat.PDF) {
+                template.writePdf(lease.values(), outputStream);
+            } else {
+                template.writeDocx(lease.values(), outputStream);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lease contract " + idLease + " cannot be rendered", e);
+        } catch (DocumentException e) {
+            throw new IllegalStateException("Lease contract " + idLease + " cannot be rendered", e);
+        }
+
+        String etag = "\"lease-" + idLease + "-" + lease.version() + "-" + format.getExtension() + "-"
+                + Integer.toHexString(lease.values().hashCode()) + "\"";
+        LeaseDocument document = new LeaseDocument(outputStream.toByteArray(),
+                "contrat_bail_" + idLease + "." + format.getExtension(), format, etag);
+
+        if (cache.size() >= cacheMaxSize) {
+            evict();
+        }
+        cache.put(key, new Entry(lease.values(), document));
+        logger.debug("Lease contract {} rendered as {} in {} ms", idLease, format, (System.nanoTime() - start) / 1_000_000);
+        return document;
+    }
+
+
+    int cacheSize() {
+        return cache.size();
+    }
+
+
+    // Données du document, lues dans une transaction courte ; le rendu se fait ensuite sans connexion
+    private LeaseData load(Integer idLease) {
+        LeaseContract lease = leaseContractRepository.findWithDocumentDataById(idLease)
+                .orElseThrow(() -> new ResourceNotFoundException("Lease contract not found with id: " + idLease));
+        String formationName = participateRepository.findFirstByIdUser_IdOrderByIdDesc(lease.getIdUser().getId())
+                .map(participate -> participate.getIdSession().getIdFormation().getFormationName())
+                .orElse("");
+        int version = lease.getVersion() == null ? 0 : lease.getVersion();
+        return new LeaseData(version, values(lease, formationName));
+    }
+
+
+    // Valeurs des champs du modèle ; le nombre de personnes et le dépôt de garantie ne sont pas enregistrés avec le contrat
+    static Map<String, String> values(LeaseContract lease, String formationName) {
+        AppUser user = lease.getIdUser();
+        Rent rent = lease.getIdRent();
+        AfpaCenter afpaCenter = rent.getIdAfpaCenter();
+
+        Map<String, String> values = new HashMap<>();
+        // Le contrat est daté de sa prise d'effet (la date de signature n'est pas enregistrée)
+        values.put("dayDate", date(lease.getStartDateLease()));
+        values.put("wordingCivility", text(user.getIdCivility() == null ? null : user.getIdCivility().getWordingCivility()));
+        values.put("name", text(user.getName()));
+        values.put("firstname", text(user.getFirstname()));
+        values.put("birthdate", date(user.getBirthdate()));
+        values.put("cityName", text(user.getIdCity() == null ? null : user.getIdCity().getCityName()));
+        values.put("formationName", text(formationName));
+        values.put("startDateLease", date(lease.getStartDateLease()));
+        values.put("endDateLease", date(lease.getEndDateLease()));
+        values.put("centerName", text(afpaCenter.getCenterName()));
+        values.put("centerManager", text(afpaCenter.getCenterManager()));
+        values.put("addressCenter", text(afpaCenter.getAddressCenter()));
+        values.put("centerPostcode", text(afpaCenter.getIdCity().getPostcode()));
+        values.put("centerCityName", text(afpaCenter.getIdCity().getCityName()));
+        values.put("roomNumber", text(lease.getIdRoom().getRoomNumber()));
+        values.put("numberOfPerson", "");
+        values.put("totalRent", text(rent.getAmount()));
+        values.put("frequency", text(rent.getFrequency()));
+        values.put("totalDeposit", "");
+        values.put("listService", afpaCenter.getAppServices().stream()
+                .map(AppService::getWordingService)
+                .filter(Objects::nonNull)
+                .sorted()
+                .collect(Collectors.joining(", ")));
+        return values;
+    }
+
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+
+    private static String date(LocalDate date) {
+        return date == null ? "" : date.format(DATE_FORMAT);
+    }
+
+
+    // Supprime des entrées quelconques tant que le cache est plein
+    private void evict() {
+        Iterator<Key> iterator = cache.keySet().iterator();
+        while (cache.size() >= cacheMaxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+
+    private record LeaseData(int version, Map<String, String> values) {
+    }
+
+}
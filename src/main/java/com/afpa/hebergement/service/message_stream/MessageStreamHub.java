@@ -0,0 +1,186 @@
+package com.afpa.hebergement.service.message_stream;
+
+import com.afpa.hebergement.exception.ServiceUnavailableException;
+import com.afpa.hebergement.model.dto.MessageDTO;
+import com.afpa.hebergement.model.entity.Message;
+import com.afpa.hebergement.model.mapper.MessageMapper;
+import com.afpa.hebergement.model.repository.MessageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diffusion en temps réel des nouveaux messages par Server-Sent Events, à la place de la relecture périodique des listes.
+ * Chaque utilisateur connecté (locataire ou intendant) reçoit les messages dont il est le destinataire ou l'auteur,
+ * publiés par le service des messages après la validation de leur création.
+ * Les connexions inactives ne tiennent aucun thread (requêtes asynchrones) ; les envois se font sur des threads virtuels,
+ * une file par connexion. Un client qui se reconnecte avec le dernier ID reçu (Last-Event-ID) reçoit d'abord
+ * les messages manqués, lus en base.
+ */
+@Component
+public class MessageStreamHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageStreamHub.class);
+
+    private final MessageRepository messageRepository;
+    private final long timeoutMs;
+    private final int maxSubscriptions;
+    private final int maxPending;
+    private final int replayLimit;
+
+    // Connexions ouvertes, par ID d'utilisateur
+    private final Map<Integer, Set<MessageSubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptionCount = new AtomicInteger();
+
+    // Envois et reprises : un thread virtuel par tâche
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Maintien des connexions inactives (commentaire SSE périodique, évite la coupure par les proxys)
+    private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+
+    public MessageStreamHub(MessageRepository messageRepository,
+                            @Value("${message-stream.timeout-ms:1800000}") long timeoutMs,
+                            @Value("${message-stream.heartbeat-seconds:25}") long heartbeatSeconds,
+                            @Value("${message-stream.max-connections:5000}") int maxSubscriptions,
+                            @Value("${message-stream.max-pending:256}") int maxPending,
+                            @Value("${message-stream.replay-limit:500}") int replayLimit) {
+        this.messageRepository = messageRepository;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscriptions = maxSubscriptions;
+        this.maxPending = maxPending;
+        this.replayLimit = replayLimit;
+        heartbeatScheduler.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+
+    /**
+     * Ouvre le flux de messages d'un utilisateur.
+     *
+     * @param lastEventId ID du dernier message reçu : les messages suivants sont envoyés d'abord, ou null
+     * @throws ServiceUnavailableException si le nombre maximal de connexions est atteint
+     */
+    public SseEmitter subscribe(Integer idUser, Integer lastEventId) {
+        if (subscriptionCount.incrementAndGet() > maxSubscriptions) {
+            subscriptionCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many message streams, retry later");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        MessageSubscription subscription = new MessageSubscription(emitter, executor, maxPending,
+                closed -> unsubscribe(idUser, closed));
+
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+
+        // Inscrit avant la reprise : un message publié pendant la lecture en base est gardé en file
+        subscriptions.compute(idUser, (id, userSubscriptions) -> {
+            Set<MessageSubscription> updated = userSubscriptions != null ? userSubscriptions : ConcurrentHashMap.newKeySet();
+            updated.add(subscription);
+            return updated;
+        });
+        executor.execute(() -> replay(subscription, idUser, lastEventId));
+        return emitter;
+    }
+
+
+    /**
+     * Publie un message créé à son destinataire et à l'intendant, après la validation de la transaction en cours.
+     *
+     * @param recipientIds ID des utilisateurs concernés (locataire et utilisateur de l'intendant)
+     */
+    public void publish(MessageDTO message, Integer... recipientIds) {
+        Set<Integer> recipients = new LinkedHashSet<>(List.of(recipientIds));
+        afterCommit(() -> {
+            for (Integer idUser : recipients) {
+                Set<MessageSubscription> userSubscriptions = subscriptions.get(idUser);
+                if (userSubscriptions != null) {
+                    userSubscriptions.forEach(subscription -> subscription.offer(message));
+                }
+            }
+        });
+    }
+
+
+    // Nombre de connexions ouvertes
+    public int getSubscriptionCount() {
+        return subscriptionCount.get();
+    }
+
+
+    private void unsubscribe(Integer idUser, MessageSubscription subscription) {
+        subscriptions.computeIfPresent(idUser, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+        subscriptionCount.decrementAndGet();
+    }
+
+
+    // Messages manqués depuis lastEventId, dans la limite de replayLimit par connexion
+    private void replay(MessageSubscription subscription, Integer idUser, Integer lastEventId) {
+        try {
+            if (lastEventId == null) {
+                subscription.replay(List.of(), false);
+                return;
+            }
+            List<Message> missed = messageRepository.findConversationAfter(idUser, lastEventId, Limit.of(replayLimit + 1));
+            boolean truncated = missed.size() > replayLimit;
+            List<MessageDTO> messages = missed.stream()
+                    .limit(replayLimit)
+                    .map(MessageMapper::mapToMessageDTO)
+                    .toList();
+            subscription.replay(messages, truncated);
+        } catch (Exception e) {
+            logger.warn("Message stream replay failed for user {}: {}", idUser, e.getMessage());
+            subscription.fail(e);
+        }
+    }
+
+
+    private void heartbeat() {
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(MessageSubscription::heartbeat));
+    }
+
+
+    // Applique une action après la validation de la transaction en cours (ou immédiatement hors transaction)
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+
+    @PreDestroy
+    void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        subscriptions.values().forEach(userSubscriptions -> List.copyOf(userSubscriptions).forEach(MessageSubscription::complete));
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.afpa.hebergement.service.message_stream;
+
+import com.afpa.hebergement.model.dto.MessageDTO;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Connexion SSE d'un utilisateur au flux de messages.
+ * Les événements publiés sont mis en file et envoyés dans l'ordre par une seule tâche à la fois (thread virtuel) :
+ * la publication ne bloque jamais sur une connexion lente. Une connexion qui accumule trop d'événements
+ * en attente est fermée ; le client se reconnecte avec le dernier ID reçu (Last-Event-ID) et reprend depuis la base.
+ */
+final class MessageSubscription {
+
+    static final String EVENT_NAME = "message";
+
+    // Événement en file : un message, ou un commentaire de maintien de connexion si message est null
+    private record Event(MessageDTO message) {
+    }
+
+    private static final Event HEARTBEAT = new Event(null);
+
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final int maxPending;
+    private final Consumer<MessageSubscription> onClose;
+
+    private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // Les événements en direct ne sont envoyés qu'après la reprise des messages manqués
+    private volatile boolean ready;
+
+    // Messages déjà envoyés par la reprise, ignorés s'ils arrivent aussi en direct
+    private final Set<Integer> replayed = new HashSet<>();
+
+
+    MessageSubscription(SseEmitter emitter, Executor executor, int maxPending, Consumer<MessageSubscription> onClose) {
+        this.emitter = emitter;
+        this.executor = executor;
+        this.maxPending = maxPending;
+        this.onClose = onClose;
+    }
+
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+
+    // Met un message en file (appelé par la publication, sans bloquer)
+    void offer(MessageDTO message) {
+        enqueue(new Event(message));
+    }
+
+
+    // Met en file un commentaire de maintien de connexion
+    void heartbeat() {
+        enqueue(HEARTBEAT);
+    }
+
+
+    /**
+     * Envoie les messages manqués depuis le dernier ID reçu, puis les événements en direct.
+     *
+     * @param truncated d'autres messages manqués restent à envoyer : la connexion est fermée après cette partie,
+     *                  le client se reconnecte avec le dernier ID reçu
+     */
+    void replay(List<MessageDTO> messages, boolean truncated) {
+        for (MessageDTO message : messages) {
+            if (!send(new Event(message))) {
+                return;
+            }
+            replayed.add(message.getId());
+        }
+        if (truncated) {
+            complete();
+            return;
+        }
+        ready = true;
+        schedule();
+    }
+
+
+    // Ferme la connexion normalement
+    void complete() {
+        if (close()) {
+            emitter.complete();
+        }
+    }
+
+
+    // Ferme la connexion sur une erreur
+    void fail(Throwable error) {
+        if (close()) {
+            emitter.completeWithError(error);
+        }
+    }
+
+
+    // Libère la connexion (fin, expiration ou erreur signalée par le conteneur) ; true au premier appel
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        pending.clear();
+        onClose.accept(this);
+        return true;
+    }
+
+
+    private void enqueue(Event event) {
+        if (closed.get()) {
+            return;
+        }
+        if (pendingCount.incrementAndGet() > maxPending) {
+            // Client trop lent : il reprendra depuis la base à sa reconnexion
+            complete();
+            return;
+        }
+        pending.add(event);
+        schedule();
+    }
+
+
+    private void schedule() {
+        if (ready && !pending.isEmpty() && draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+
+    // Envoie les événements en file, dans l'ordre ; une seule exécution à la fois par connexion
+    private void drain() {
+        Event event;
+        while ((event = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            if (!send(event)) {
+                return;
+            }
+        }
+        draining.set(false);
+        // Un événement a pu arriver entre la dernière lecture et la fin de l'envoi
+        schedule();
+    }
+
+
+    private boolean send(Event event) {
+        if (closed.get()) {
+            return false;
+        }
+        try {
+            if (event.message() == null) {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } else if (!replayed.contains(event.message().getId())) {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.message().getId()))
+                        .name(EVENT_NAME)
+                        .data(event.message(), MediaType.APPLICATION_JSON));
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté
+            fail(e);
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.afpa.hebergement.service.reference;
+
+import com.afpa.hebergement.model.entity.*;
+import com.afpa.hebergement.model.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registre en mémoire des petites tables de référence (rôles, civilités, jours, types de document, de caution,
+ * de paiement, de travaux, de garantie et motifs de réservation).
+ * Chaque table est chargée au démarrage, puis remplacée en bloc (copie à l'écriture) par un nouvel instantané
+ * quand son service CRUD la modifie : les recherches par ID ou par libellé et les listes ne font plus de requête.
+ */
+@Component
+public class ReferenceDataRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataRegistry.class);
+
+    private final Map<ReferenceType, Supplier<ReferenceTable<?>>> loaders = new EnumMap<>(ReferenceType.class);
+
+    // Instantané courant de chaque table (remplacé atomiquement)
+    private final Map<ReferenceType, ReferenceTable<?>> tables = new ConcurrentHashMap<>();
+
+
+    public ReferenceDataRegistry(RoleRepository roleRepository,
+                                 CivilityRepository civilityRepository,
+                                 DayRepository dayRepository,
+                                 DocumentTypeRepository documentTypeRepository,
+                                 DepositTypeRepository depositTypeRepository,
+                                 PaymentTypeRepository paymentTypeRepository,
+                                 WorkTypeRepository workTypeRepository,
+                                 ReservationMotiveRepository reservationMotiveRepository,
+                                 GuaranteeTypeRepository guaranteeTypeRepository) {
+
+        loaders.put(ReferenceType.ROLE, () -> ReferenceTable.of(ReferenceType.ROLE, roleRepository.findAll(),
+                Role::getId, role -> role.getWordingRole() == null ? null : role.getWordingRole().name()));
+        loaders.put(ReferenceType.CIVILITY, () -> ReferenceTable.of(ReferenceType.CIVILITY, civilityRepository.findAll(),
+                Civility::getId, Civility::getWordingCivility));
+        loaders.put(ReferenceType.DAY, () -> ReferenceTable.of(ReferenceType.DAY, dayRepository.findAll(),
+                Day::getId, Day::getWordingDay));
+        loaders.put(ReferenceType.DOCUMENT_TYPE, () -> ReferenceTable.of(ReferenceType.DOCUMENT_TYPE, documentTypeRepository.findAll(),
+                DocumentType::getId, DocumentType::getWordingDocumentType));
+        loaders.put(ReferenceType.DEPOSIT_TYPE, () -> ReferenceTable.of(ReferenceType.DEPOSIT_TYPE, depositTypeRepository.findAll(),
+                DepositType::getId, DepositType::getWordingDepositType));
+        loaders.put(ReferenceType.PAYMENT_TYPE, () -> ReferenceTable.of(ReferenceType.PAYMENT_TYPE, paymentTypeRepository.findAll(),
+                PaymentType::getId, PaymentType::getWordingPaymentType));
+        loaders.put(ReferenceType.WORK_TYPE, () -> ReferenceTable.of(ReferenceType.WORK_TYPE, workTypeRepository.findAll(),
+                WorkType::getId, WorkType::getWordingWorkType));
+        loaders.put(ReferenceType.RESERVATION_MOTIVE, () -> ReferenceTable.of(ReferenceType.RESERVATION_MOTIVE, reservationMotiveRepository.findAll(),
+                ReservationMotive::getId, ReservationMotive::getMotive));
+        loaders.put(ReferenceType.GUARANTEE_TYPE, () -> ReferenceTable.of(ReferenceType.GUARANTEE_TYPE, guaranteeTypeRepository.findAll(),
+                GuaranteeType::getId, GuaranteeType::getWordingGuaranteeType));
+    }
+
+
+    // Chargement de toutes les tables au démarrage de l'application
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        long start = System.nanoTime();
+        for (ReferenceType type : ReferenceType.values()) {
+            refresh(type);
+        }
+        logger.info("Reference data loaded in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+
+    public ReferenceTable<Role> roles() {
+        return table(ReferenceType.ROLE);
+    }
+
+    public ReferenceTable<Civility> civilities() {
+        return table(ReferenceType.CIVILITY);
+    }
+
+    public ReferenceTable<Day> days() {
+        return table(ReferenceType.DAY);
+    }
+
+    public ReferenceTable<DocumentType> documentTypes() {
+        return table(ReferenceType.DOCUMENT_TYPE);
+    }
+
+    public ReferenceTable<DepositType> depositTypes() {
+        return table(ReferenceType.DEPOSIT_TYPE);
+    }
+
+    public ReferenceTable<PaymentType> paymentTypes() {
+        return table(ReferenceType.PAYMENT_TYPE);
+    }
+
+    public ReferenceTable<WorkType> workTypes() {
+        return table(ReferenceType.WORK_TYPE);
+    }
+
+    public ReferenceTable<ReservationMotive> reservationMotives() {
+        return table(ReferenceType.RESERVATION_MOTIVE);
+    }
+
+    public ReferenceTable<GuaranteeType> guaranteeTypes() {
+        return table(ReferenceType.GUARANTEE_TYPE);
+    }
+
+
+    // Recharge la table depuis la base et remplace l'instantané courant
+    public void refresh(ReferenceType type) {
+        tables.put(type, loaders.get(type).get());
+    }
+
+
+    /**
+     * Recharge la table après une écriture : après la validation de la transaction en cours s'il y en a une
+     * (pour ne pas publier une donnée annulée), sinon immédiatement.
+     */
+    public void refreshAfterCommit(ReferenceType type) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(type);
+                }
+            });
+        } else {
+            refresh(type);
+        }
+    }
+
+
+    // Instantané courant, chargé à la première utilisation si le démarrage n'est pas terminé
+    @SuppressWarnings("unchecked")
+    private <E> ReferenceTable<E> table(ReferenceType type) {
+        return (ReferenceTable<E>) tables.computeIfAbsent(type, key -> loaders.get(key).get());
+    }
+
+}
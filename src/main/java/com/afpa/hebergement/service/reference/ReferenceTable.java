@@ -0,0 +1,81 @@
+package com.afpa.hebergement.service.reference;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Instantané immuable d'une table de référence : liste triée par ID, index par ID et par libellé.
+ * Un nouvel instantané est construit à chaque rafraîchissement, les lecteurs n'ont jamais besoin de verrou.
+ * Les entités sont détachées et partagées entre les threads : elles ne doivent pas être modifiées.
+ */
+public final class ReferenceTable<E> {
+
+    private final List<E> all;
+    private final Map<Integer, E> byId;
+    private final Map<String, E> byWording;
+    private final String etag;
+
+
+    private ReferenceTable(List<E> all, Map<Integer, E> byId, Map<String, E> byWording, String etag) {
+        this.all = all;
+        this.byId = byId;
+        this.byWording = byWording;
+        this.etag = etag;
+    }
+
+
+    /**
+     * Construit l'instantané.
+     * @param idOf      ID de la ligne
+     * @param wordingOf libellé de la ligne, recherché sans tenir compte de la casse ni des espaces autour
+     */
+    public static <E> ReferenceTable<E> of(ReferenceType type, Collection<E> rows, Function<E, Integer> idOf, Function<E, String> wordingOf) {
+        List<E> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(idOf, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        Map<Integer, E> byId = new HashMap<>();
+        Map<String, E> byWording = new HashMap<>();
+        int hash = 1;
+        for (E row : sorted) {
+            Integer id = idOf.apply(row);
+            String wording = wordingOf.apply(row);
+            byId.put(id, row);
+            if (wording != null) {
+                byWording.putIfAbsent(normalize(wording), row);
+            }
+            hash = 31 * hash + Objects.hash(id, wording);
+        }
+
+        // ETag fort calculé sur le contenu : identique entre deux instances de l'application tant que la table ne change pas
+        String etag = "\"" + type.name().toLowerCase(Locale.ROOT) + "-" + sorted.size() + "-" + Integer.toHexString(hash) + "\"";
+        return new ReferenceTable<>(List.copyOf(sorted), Map.copyOf(byId), Map.copyOf(byWording), etag);
+    }
+
+
+    public Optional<E> findById(Integer id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(byId.get(id));
+    }
+
+    public Optional<E> findByWording(String wording) {
+        return wording == null ? Optional.empty() : Optional.ofNullable(byWording.get(normalize(wording)));
+    }
+
+    // Toutes les lignes, triées par ID (liste non modifiable)
+    public List<E> getAll() {
+        return all;
+    }
+
+    public boolean isEmpty() {
+        return all.isEmpty();
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+
+    private static String normalize(String wording) {
+        return wording.trim().toLowerCase(Locale.ROOT);
+    }
+
+}
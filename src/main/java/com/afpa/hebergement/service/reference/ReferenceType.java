@@ -0,0 +1,14 @@
+package com.afpa.hebergement.service.reference;
+
+// Tables de référence chargées en mémoire par le ReferenceDataRegistry
+public enum ReferenceType {
+    ROLE,
+    CIVILITY,
+    DAY,
+    DOCUMENT_TYPE,
+    DEPOSIT_TYPE,
+    PAYMENT_TYPE,
+    WORK_TYPE,
+    RESERVATION_MOTIVE,
+    GUARANTEE_TYPE
+}
@@ -0,0 +1,157 @@
+package com.afpa.hebergement.service.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Contenus des documents dédoublonnés : un contenu identique (le même règlement déposé dans chaque centre Afpa)
+ * n'est enregistré qu'une fois, sous son empreinte SHA-256, et la table document_content compte les documents qui l'utilisent.
+ * Le fichier d'un contenu est supprimé quand plus aucun document ne l'utilise.
+ * Le verrou de la ligne du contenu, pris par la transaction qui ajoute ou retire une référence, sérialise l'écriture
+ * et la suppression d'un même contenu.
+ */
+@Component
+public class DocumentContentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentContentStore.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DocumentStore documentStore;
+
+
+    public DocumentContentStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, DocumentStore documentStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Suppression exécutée après la validation d'une autre transaction : elle doit avoir la sienne
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.documentStore = documentStore;
+    }
+
+
+    // Empreinte SHA-256 (hexadécimale) du fichier déposé, calculée en une seule lecture, sans copie
+    public String digest(MultipartFile file) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream inputStream = file.getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+
+    /**
+     * Ajoute une référence au contenu et enregistre son fichier s'il n'existe pas encore.
+     * Appelée dans la transaction qui enregistre le document : la ligne du contenu reste verrouillée jusqu'à la validation,
+     * un contenu ne peut donc pas être supprimé entre le comptage et l'écriture de son fichier.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acquire(String digest, MultipartFile file) throws IOException {
+        jdbcTemplate.update("""
+                INSERT INTO document_content (content_digest, content_size, ref_count) VALUES (?, ?, 1)
+                ON CONFLICT (content_digest) DO UPDATE SET ref_count = document_content.ref_count + 1
+                """, digest, file.getSize());
+
+        // Le fichier est écrit s'il manque, même si la ligne existait (fichier supprimé par une suppression annulée)
+        documentStore.putContent(digest, file);
+    }
+
+
+    /**
+     * Retire une référence au contenu, dans la transaction qui supprime ou modifie le document.
+     * Si plus aucun document ne l'utilise, le contenu est supprimé après la validation.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String digest) {
+        List<Integer> remaining = jdbcTemplate.queryForList("""
+                UPDATE document_content SET ref_count = ref_count - 1
+                WHERE content_digest = ? AND ref_count > 0
+                RETURNING ref_count
+                """, Integer.class, digest);
+
+        if (!remaining.isEmpty() && remaining.get(0) == 0) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reclaim(digest);
+                }
+            });
+        }
+    }
+
+
+    // Document déposé avant le stockage par empreinte : son fichier lui est propre et est supprimé après la validation
+    public void releaseLegacyFile(String documentCode) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    documentStore.delete(documentCode);
+                } catch (IOException e) {
+                    logger.warn("Legacy document file {} not deleted", documentCode, e);
+                }
+            }
+        });
+    }
+
+
+    // Fichier d'un document : son contenu partagé, ou le fichier à son code pour un document antérieur
+    public Path getFile(String digest, String documentCode) {
+        return digest != null ? documentStore.getContentFile(digest) : documentStore.getFile(documentCode);
+    }
+
+
+    /**
+     * Supprime le contenu s'il n'est toujours pas utilisé (une nouvelle référence a pu être ajoutée depuis).
+     * Le fichier est supprimé avant la validation, pendant que la ligne supprimée est verrouillée :
+     * un dépôt concurrent du même contenu attend la fin de la suppression puis réécrit le fichier.
+     */
+    void reclaim(String digest) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int deleted = jdbcTemplate.update("DELETE FROM document_content WHERE content_digest = ? AND ref_count = 0", digest);
+                if (deleted > 0) {
+                    try {
+                        documentStore.deleteContent(digest);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // Le contenu reste enregistré sans référence, jusqu'à un prochain dépôt du même contenu
+            logger.warn("Unused document content {} not deleted", digest, e);
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.afpa.hebergement.service.storage;
+
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage des fichiers des documents, dont le chemin se déduit sans parcourir de répertoire :
+ * - contenus partagés, adressés par leur empreinte SHA-256 : racine/sha256/ab/cd/empreinte ;
+ * - fichiers déposés avant le stockage par empreinte, adressés par le code du document :
+ *   racine/ab/cd/code, où "abcd" sont les 4 premiers caractères hexadécimaux du SHA-256 du code.
+ * Les répertoires restent petits (65 536 sous-répertoires au plus) quel que soit le nombre de fichiers.
+ * Un contenu est écrit dans un fichier temporaire du même répertoire renommé ensuite atomiquement :
+ * il n'est jamais lu à moitié écrit.
+ */
+@Component
+public class DocumentStore {
+
+    private static final Pattern CODE_PATTERN = Pattern.compile("[A-Za-z0-9]{1,64}");
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    // Répertoire des contenus adressés par empreinte
+    private static final String CONTENT_DIRECTORY = "sha256";
+
+    private final Path root;
+
+
+    public DocumentStore(@Value("${document-store.root:Documents-Center-Upload}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+
+    public Path getRoot() {
+        return root;
+    }
+
+
+    /**
+     * Enregistre le contenu d'un fichier déposé sous son empreinte, s'il n'y est pas déjà.
+     * Le fichier reçu est déplacé vers un fichier temporaire du répertoire cible (simple renommage quand le serveur
+     * l'a déjà mis sur disque), puis renommé atomiquement : le contenu n'est pas recopié.
+     * @return true si le contenu a été écrit, false s'il était déjà enregistré
+     */
+    public boolean putContent(String digest, MultipartFile file) throws IOException {
+        Path target = resolveContent(digest);
+        if (Files.exists(target)) {
+            return false;
+        }
+
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(digest + "-" + UUID.randomUUID() + ".tmp");
+        try {
+            file.transferTo(temporary.toFile());
+            move(temporary, target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        return true;
+    }
+
+
+    /**
+     * Fichier d'un contenu, lu directement à l'emplacement de son empreinte.
+     * @throws ResourceNotFoundException si aucun contenu n'est enregistré sous cette empreinte
+     */
+    public Path getContentFile(String digest) {
+        Path file = resolveContent(digest);
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("File not found");
+        }
+        return file;
+    }
+
+
+    // Supprime le fichier d'un contenu (sans erreur s'il n'existe plus)
+    public void deleteContent(String digest) throws IOException {
+        Files.deleteIfExists(resolveContent(digest));
+    }
+
+
+    /**
+     * Emplacement du fichier d'un contenu : racine/sha256/ab/cd/empreinte.
+     * @throws IllegalArgumentException si l'empreinte n'est pas un SHA-256 hexadécimal
+     */
+    public Path resolveContent(String digest) {
+        if (digest == null || !DIGEST_PATTERN.matcher(digest).matches()) {
+            throw new IllegalArgumentException("Invalid content digest");
+        }
+        return root.resolve(CONTENT_DIRECTORY).resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+
+    /**
+     * Fichier d'un document antérieur au stockage par empreinte, lu directement à l'emplacement de son code.
+     * @throws ResourceNotFoundException si aucun fichier n'est enregistré sous ce code
+     */
+    public Path getFile(String code) {
+        Path file = resolve(code);
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("File not found");
+        }
+        return file;
+    }
+
+
+    // Supprime le fichier d'un code (sans erreur s'il n'existe plus)
+    public void delete(String code) throws IOException {
+        Files.deleteIfExists(resolve(code));
+    }
+
+
+    /**
+     * Emplacement du fichier d'un code : racine/ab/cd/code.
+     * @throws IllegalArgumentException si le code n'est pas alphanumérique (pas de chemin relatif possible)
+     */
+    public Path resolve(String code) {
+        if (code == null || !CODE_PATTERN.matcher(code).matches()) {
+            throw new IllegalArgumentException("Invalid document code");
+        }
+        String shard = shardOf(code);
+        return root.resolve(shard.substring(0, 2)).resolve(shard.substring(2, 4)).resolve(code);
+    }
+
+
+    // Renommage atomique, ou simple remplacement si le système de fichiers ne le permet pas
+    static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+
+    private static String shardOf(String code) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest, 0, 2);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
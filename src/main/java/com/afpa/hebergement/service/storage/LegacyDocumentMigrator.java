@@ -0,0 +1,87 @@
+package com.afpa.hebergement.service.storage;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Migration des fichiers de l'ancien stockage à plat ("code-nomDuFichier" à la racine du répertoire des documents)
+ * vers le stockage par code du {@link DocumentStore}. Exécutée au démarrage, avant que l'application ne serve
+ * des requêtes ; sans effet quand il n'y a plus de fichier à la racine, et reprise sans risque après une interruption.
+ */
+@Component
+public class LegacyDocumentMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyDocumentMigrator.class);
+
+    private static final Pattern LEGACY_NAME = Pattern.compile("([A-Za-z0-9]{8})-.+");
+
+    private final DocumentStore documentStore;
+    private final boolean enabled;
+
+
+    public LegacyDocumentMigrator(DocumentStore documentStore,
+                                  @Value("${document-store.migrate-legacy-files:true}") boolean enabled) {
+        this.documentStore = documentStore;
+        this.enabled = enabled;
+    }
+
+
+    @PostConstruct
+    void migrateOnStartup() {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+
+    /**
+     * Déplace chaque fichier à plat vers l'emplacement de son code.
+     * Un fichier dont le code a déjà un fichier au nouvel emplacement est laissé en place et signalé.
+     * @return le nombre de fichiers déplacés
+     */
+    public int migrate() {
+        Path root = documentStore.getRoot();
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+
+        int moved = 0;
+        int skipped = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, Files::isRegularFile)) {
+            for (Path file : files) {
+                Matcher matcher = LEGACY_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                Path target = documentStore.resolve(matcher.group(1));
+                if (Files.exists(target)) {
+                    logger.warn("Legacy document {} not migrated: code {} already stored", file.getFileName(), matcher.group(1));
+                    skipped++;
+                    continue;
+                }
+                Files.createDirectories(target.getParent());
+                DocumentStore.move(file, target);
+                moved++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Legacy document migration failed", e);
+        }
+
+        if (moved > 0 || skipped > 0) {
+            logger.info("Legacy documents migrated: {} moved, {} skipped", moved, skipped);
+        }
+        return moved;
+    }
+
+}
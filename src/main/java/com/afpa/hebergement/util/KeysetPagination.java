@@ -0,0 +1,140 @@
+package com.afpa.hebergement.util;
+
+import com.afpa.hebergement.exception.BadRequestException;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Pagination par curseur (keyset) sur l'ID : WHERE id > :after ORDER BY id LIMIT :size + 1.
+ * Le coût d'une page ne dépend pas de sa position, contrairement à OFFSET, et le comptage total est optionnel.
+ * Le curseur est transmis au client sous forme de jeton opaque (Base64 URL de "k1:<id>").
+ * Les résultats classés par pertinence (recherche plein texte) utilisent un curseur (rang, id) : "r1:<rang>:<id>".
+ */
+public class KeysetPagination {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private static final String TOKEN_PREFIX = "k1:";
+    private static final String RANKED_TOKEN_PREFIX = "r1:";
+
+    /**
+     * Position dans des résultats triés par rang décroissant puis ID décroissant :
+     * la page suivante lit les lignes de rang inférieur, ou de même rang et d'ID inférieur.
+     */
+    public record RankedCursor(float rank, int id) {
+    }
+
+    // Curseur de la première page : avant tout résultat
+    public static final RankedCursor FIRST_RANKED = new RankedCursor(Float.MAX_VALUE, Integer.MAX_VALUE);
+
+    private KeysetPagination() {}
+
+    /**
+     * Décode le jeton de continuation.
+     * @param token jeton reçu dans le paramètre "after", ou null pour la première page
+     * @return le dernier ID déjà lu (0 pour la première page)
+     * @throws BadRequestException si le jeton est invalide
+     */
+    public static int decode(String token) {
+        if (token == null || token.isBlank()) {
+            return 0;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!value.startsWith(TOKEN_PREFIX)) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            return Integer.parseInt(value.substring(TOKEN_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // Jeton illisible (Base64, préfixe ou nombre invalide) : erreur du client
+            throw new BadRequestException("Invalid continuation token");
+        }
+    }
+
+    // Encode le dernier ID lu en jeton de continuation
+    public static String encode(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((TOKEN_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode le jeton de continuation d'une liste classée par rang.
+     * @param token jeton reçu dans le paramètre "after", ou null pour la première page
+     * @return la dernière position déjà lue ({@link #FIRST_RANKED} pour la première page)
+     * @throws BadRequestException si le jeton est invalide
+     */
+    public static RankedCursor decodeRanked(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST_RANKED;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split(":");
+            if (!value.startsWith(RANKED_TOKEN_PREFIX) || parts.length != 3) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            // Le rang est relu à l'identique (Float.toString / Float.parseFloat) pour la comparaison d'égalité en base
+            float rank = Float.parseFloat(parts[1]);
+            if (!Float.isFinite(rank)) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            return new RankedCursor(rank, Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // Jeton illisible (Base64, préfixe ou nombre invalide) : erreur du client
+            throw new BadRequestException("Invalid continuation token");
+        }
+    }
+
+    // Encode la dernière position lue d'une liste classée par rang
+    public static String encodeRanked(float rank, int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((RANKED_TOKEN_PREFIX + rank + ":" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Borne la taille de page demandée entre 1 et MAX_SIZE
+    public static int clampSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+
+    // Limite à passer au repository : une ligne de plus que la page pour savoir s'il existe une page suivante
+    public static Limit limitFor(int size) {
+        return Limit.of(size + 1);
+    }
+
+    /**
+     * Construit la page à partir des lignes lues (au plus size + 1, triées par ID croissant).
+     * @param count comptage total, appelé uniquement si withCount est vrai
+     */
+    public static <E, T> KeysetPageDTO<T> toPage(List<E> rows, int size, Function<E, Integer> idOf, Function<E, T> mapper,
+                                                  boolean withCount, LongSupplier count) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? encode(idOf.apply(pageRows.get(pageRows.size() - 1))) : null;
+        Long total = withCount ? count.getAsLong() : null;
+        return new KeysetPageDTO<>(pageRows.stream().map(mapper).toList(), next, hasNext, total);
+    }
+
+    /**
+     * Construit la page d'une liste classée par rang (au plus size + 1 lignes, triées par rang puis ID décroissants),
+     * sans comptage total.
+     */
+    public static <E, T> KeysetPageDTO<T> toRankedPage(List<E> rows, int size, Function<E, Float> rankOf, Function<E, Integer> idOf,
+                                                        Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        E last = hasNext ? pageRows.get(pageRows.size() - 1) : null;
+        String next = hasNext ? encodeRanked(rankOf.apply(last), idOf.apply(last)) : null;
+        return new KeysetPageDTO<>(pageRows.stream().map(mapper).toList(), next, hasNext, null);
+    }
+
+}
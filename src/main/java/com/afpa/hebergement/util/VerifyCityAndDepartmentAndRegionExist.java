@@ -6,19 +6,26 @@ import com.afpa.hebergement.model.entity.Region;
 import com.afpa.hebergement.model.repository.CityRepository;
 import com.afpa.hebergement.model.repository.DepartmentRepository;
 import com.afpa.hebergement.model.repository.RegionRepository;
+import com.afpa.hebergement.service.city_search.CityAutocompleteIndex;
+import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 
 @Service
+@AllArgsConstructor
 public class VerifyCityAndDepartmentAndRegionExist {
 
+    private final CityAutocompleteIndex cityAutocompleteIndex;
+
     public City manageCity(City city, CityRepository cityRepository, DepartmentRepository departmentRepository, RegionRepository regionRepository) {
         Optional<City> existingCity = cityRepository.findByInseeCodeAndPostcode(city.getInseeCode(), city.getPostcode());
         return existingCity.orElseGet(() -> {
             Department department = manageDepartment(city.getIdDepartment(), departmentRepository, regionRepository);
             city.setIdDepartment(department);
-            return cityRepository.save(city);
+            City savedCity = cityRepository.save(city);
+            cityAutocompleteIndex.refreshAfterCommit();
+            return savedCity;
         });
     }
 
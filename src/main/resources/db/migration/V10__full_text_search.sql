@@ -0,0 +1,15 @@
+-- Recherche plein texte (français) dans le contenu des messages et le motif des rendez-vous.
+-- Le vecteur de recherche est une colonne générée : PostgreSQL le calcule à l'insertion et à la mise à jour,
+-- sans trigger ni code applicatif. La recherche (search_vector @@ requête) est servie par l'index GIN.
+
+ALTER TABLE message
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+        GENERATED ALWAYS AS (to_tsvector('french', content)) STORED;
+
+CREATE INDEX IF NOT EXISTS message_search_vector_idx ON message USING GIN (search_vector);
+
+ALTER TABLE appointment
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+        GENERATED ALWAYS AS (to_tsvector('french', reason)) STORED;
+
+CREATE INDEX IF NOT EXISTS appointment_search_vector_idx ON appointment USING GIN (search_vector);
@@ -0,0 +1,11 @@
+-- Les contrats de bail sans date de fin ne sont plus projetés dans room_occupancy_day (la projection s'arrêtait
+-- à un an après le début) : les requêtes d'occupation les lisent directement dans lease_contract.
+DELETE
+FROM room_occupancy_day o
+    USING lease_contract lc
+WHERE o.occupancy_type = 'LEASE'
+  AND o.id_source = lc.id_lease
+  AND lc.end_date_lease IS NULL;
+
+-- Contrats en cours sans date de fin, par chambre
+CREATE INDEX IF NOT EXISTS lease_contract_open_room_idx ON lease_contract (id_room, start_date_lease) WHERE end_date_lease IS NULL;
@@ -0,0 +1,11 @@
+-- Occupant d'une réservation : renseigné par l'attribution des chambres d'une session, facultatif sinon
+ALTER TABLE reservation
+    ADD COLUMN IF NOT EXISTS id_user INTEGER;
+
+ALTER TABLE reservation
+    ADD CONSTRAINT reservation_app_user_fk FOREIGN KEY (id_user) REFERENCES app_user (id_user) ON DELETE SET NULL;
+
+-- Un occupant ne peut pas avoir deux réservations qui se chevauchent (l'index GiST sert aussi la recherche par occupant)
+ALTER TABLE reservation
+    ADD CONSTRAINT reservation_user_period_excl
+        EXCLUDE USING gist (id_user WITH =, daterange(start_date, end_date) WITH &&) WHERE (id_user IS NOT NULL);
@@ -0,0 +1,26 @@
+-- Un intendant ne peut avoir qu'un rendez-vous par créneau : garantit en base la vérification du moteur de créneaux
+-- (deux créations concurrentes sur le même créneau passent toutes deux la vérification en mémoire).
+
+-- Des rendez-vous en double (même intendant, même date/heure) ne peuvent pas être fusionnés ni supprimés automatiquement :
+-- ils concernent des utilisateurs différents. La migration s'arrête en les signalant ; à traiter à la main
+-- (déplacer ou supprimer l'un des rendez-vous) avant de relancer la migration :
+--   SELECT id_intendant, date_appointment, array_agg(id_appointment ORDER BY id_appointment)
+--   FROM appointment GROUP BY id_intendant, date_appointment HAVING count(*) > 1;
+DO
+$$
+DECLARE
+    duplicates TEXT;
+BEGIN
+    SELECT string_agg(format('intendant %s at %s: appointments %s', id_intendant, date_appointment, ids), '; ')
+    INTO duplicates
+    FROM (SELECT id_intendant, date_appointment, array_agg(id_appointment ORDER BY id_appointment) AS ids
+          FROM appointment
+          GROUP BY id_intendant, date_appointment
+          HAVING count(*) > 1) d;
+    IF duplicates IS NOT NULL THEN
+        RAISE EXCEPTION 'Duplicate appointment slots must be resolved before creating appointment_intendant_slot_uk: %', duplicates;
+    END IF;
+END;
+$$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS appointment_intendant_slot_uk ON appointment (id_intendant, date_appointment);
@@ -0,0 +1,9 @@
+-- Facturation en masse : numéros de facture sans recyclage, exécutions prises par une seule instance.
+
+-- bill_number_seq ne repart plus à 1 après 99999 : un numéro déjà attribué n'est jamais réutilisé,
+-- le lot qui dépasse la limite échoue et l'exécution passe à l'état FAILED avec l'erreur de la séquence
+ALTER SEQUENCE bill_number_seq NO CYCLE;
+
+-- Dernier signe de vie de l'instance qui exécute la facturation : une exécution en cours dont il n'avance plus
+-- (instance arrêtée) peut être reprise par une autre instance
+ALTER TABLE billing_run ADD COLUMN IF NOT EXISTS heartbeat_at TIMESTAMP;
@@ -0,0 +1,49 @@
+-- Pagination par curseur des messages et rendez-vous d'un centre Afpa :
+-- WHERE id_afpa_center = ? AND id > ? ORDER BY id LIMIT ? doit être servi par un index (colonne filtrée, puis ID).
+-- Le centre est porté par l'utilisateur : les index (id_user, id) de V4 ne servent pas ce parcours, la requête
+-- parcourait la clé primaire en filtrant par jointure les messages des autres centres.
+-- Le centre de l'utilisateur est donc recopié sur le message et le rendez-vous, et tenu à jour par des triggers.
+-- Les index (id_user, id) de V4 sont conservés : ils servent la conversation d'un utilisateur et la clé étrangère.
+
+ALTER TABLE message ADD COLUMN IF NOT EXISTS id_afpa_center INTEGER;
+ALTER TABLE appointment ADD COLUMN IF NOT EXISTS id_afpa_center INTEGER;
+
+UPDATE message m SET id_afpa_center = u.id_afpa_center FROM app_user u WHERE u.id_user = m.id_user;
+UPDATE appointment a SET id_afpa_center = u.id_afpa_center FROM app_user u WHERE u.id_user = a.id_user;
+
+-- Centre recopié depuis l'utilisateur à l'insertion, ou au changement d'utilisateur
+CREATE OR REPLACE FUNCTION copy_user_afpa_center() RETURNS trigger AS
+$$
+BEGIN
+    NEW.id_afpa_center := (SELECT u.id_afpa_center FROM app_user u WHERE u.id_user = NEW.id_user);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER message_afpa_center_trg
+    BEFORE INSERT OR UPDATE OF id_user ON message
+    FOR EACH ROW EXECUTE FUNCTION copy_user_afpa_center();
+
+CREATE TRIGGER appointment_afpa_center_trg
+    BEFORE INSERT OR UPDATE OF id_user ON appointment
+    FOR EACH ROW EXECUTE FUNCTION copy_user_afpa_center();
+
+-- Changement de centre d'un utilisateur : ses messages et rendez-vous suivent
+CREATE OR REPLACE FUNCTION propagate_user_afpa_center() RETURNS trigger AS
+$$
+BEGIN
+    UPDATE message SET id_afpa_center = NEW.id_afpa_center WHERE id_user = NEW.id_user;
+    UPDATE appointment SET id_afpa_center = NEW.id_afpa_center WHERE id_user = NEW.id_user;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER app_user_afpa_center_trg
+    AFTER UPDATE OF id_afpa_center ON app_user
+    FOR EACH ROW WHEN (OLD.id_afpa_center IS DISTINCT FROM NEW.id_afpa_center)
+    EXECUTE FUNCTION propagate_user_afpa_center();
+
+-- Plan attendu : Limit -> Index Scan using message_center_id_idx (id_afpa_center = ? AND id_message > ?),
+-- sans tri ; le comptage par centre est servi par le même index
+CREATE INDEX IF NOT EXISTS message_center_id_idx ON message (id_afpa_center, id_message);
+CREATE INDEX IF NOT EXISTS appointment_center_id_idx ON appointment (id_afpa_center, id_appointment);
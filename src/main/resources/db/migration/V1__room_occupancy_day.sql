@@ -0,0 +1,39 @@
+-- Projection journalière de l'occupation des chambres (réservations et contrats de bail)
+-- Une ligne par chambre, jour et source ; lue par centre et par jour.
+
+CREATE TABLE room_occupancy_day
+(
+    id_occupancy_day BIGSERIAL   NOT NULL,
+    occupancy_day    DATE        NOT NULL,
+    occupancy_type   VARCHAR(20) NOT NULL,
+    id_source        INTEGER     NOT NULL,
+    id_room          INTEGER     NOT NULL,
+    id_afpa_center   INTEGER     NOT NULL,
+    CONSTRAINT room_occupancy_day_pk PRIMARY KEY (id_occupancy_day),
+    CONSTRAINT room_occupancy_day_source_day_uk UNIQUE (occupancy_type, id_source, occupancy_day),
+    CONSTRAINT room_occupancy_day_room_fk FOREIGN KEY (id_room) REFERENCES room (id_room) ON DELETE CASCADE,
+    CONSTRAINT room_occupancy_day_afpa_center_fk FOREIGN KEY (id_afpa_center) REFERENCES afpa_center (id_afpa_center) ON DELETE CASCADE
+);
+
+CREATE INDEX room_occupancy_day_center_day_idx ON room_occupancy_day (id_afpa_center, occupancy_day, occupancy_type, id_room);
+
+-- Reprise des réservations existantes (la date de fin est le jour de départ)
+INSERT INTO room_occupancy_day (occupancy_day, occupancy_type, id_source, id_room, id_afpa_center)
+SELECT CAST(day AS DATE), 'RESERVATION', res.id_reservation, res.id_room, f.id_afpa_center
+FROM reservation res
+         JOIN room r ON r.id_room = res.id_room
+         JOIN floor f ON f.id_floor = r.id_floor
+         CROSS JOIN generate_series(res.start_date, res.end_date - 1, INTERVAL '1 day') AS day;
+
+-- Reprise des contrats de bail existants (horizon d'un an pour les contrats sans date de fin)
+INSERT INTO room_occupancy_day (occupancy_day, occupancy_type, id_source, id_room, id_afpa_center)
+SELECT CAST(day AS DATE), 'LEASE', lc.id_lease, lc.id_room, f.id_afpa_center
+FROM lease_contract lc
+         JOIN room r ON r.id_room = lc.id_room
+         JOIN floor f ON f.id_floor = r.id_floor
+         CROSS JOIN generate_series(lc.start_date_lease, COALESCE(lc.end_date_lease, lc.start_date_lease + 365) - 1, INTERVAL '1 day') AS day
+WHERE lc.start_date_lease IS NOT NULL;
+
+-- Le statut is_reserved de la chambre est désormais dérivé des réservations en cours ou à venir
+UPDATE room
+SET is_reserved = EXISTS (SELECT 1 FROM reservation res WHERE res.id_room = room.id_room AND res.end_date >= CURRENT_DATE);
@@ -0,0 +1,16 @@
+-- Interdiction des réservations qui se chevauchent sur une même chambre, garantie par la base.
+-- daterange(start_date, end_date) est semi-ouvert [start_date, end_date[ : le jour de départ peut être le jour d'arrivée suivant.
+-- Les réservations déjà en conflit doivent être corrigées avant l'application de cette migration.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE reservation
+    ADD CONSTRAINT reservation_room_period_excl
+        EXCLUDE USING gist (id_room WITH =, daterange(start_date, end_date) WITH &&);
+
+-- Verrouillage optimiste (colonnes @Version)
+ALTER TABLE reservation
+    ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE room
+    ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Les identifiants de réservation sont alloués par blocs de 50 (optimiseur pooled d'Hibernate),
+-- ce qui permet le traitement par lots JDBC des insertions (impossible avec IDENTITY).
+ALTER SEQUENCE reservation_id_reservation_seq INCREMENT BY 50;
@@ -0,0 +1,8 @@
+-- Index composites pour la pagination par curseur des listes par centre Afpa :
+-- WHERE id_afpa_center = ? AND id > ? ORDER BY id LIMIT ? est servi par un parcours d'index, sans tri ni OFFSET.
+CREATE INDEX IF NOT EXISTS app_user_center_id_idx ON app_user (id_afpa_center, id_user);
+CREATE INDEX IF NOT EXISTS document_center_center_id_idx ON document_center (id_afpa_center, id_document_center);
+
+-- Messages et rendez-vous sont rattachés au centre par leur utilisateur
+CREATE INDEX IF NOT EXISTS message_user_id_idx ON message (id_user, id_message);
+CREATE INDEX IF NOT EXISTS appointment_user_id_idx ON appointment (id_user, id_appointment);
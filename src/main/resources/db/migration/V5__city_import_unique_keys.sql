@@ -0,0 +1,30 @@
+-- Clés naturelles des villes, départements et régions : cibles des "upsert" (ON CONFLICT) de l'import des communes
+-- et garantie qu'un import relancé ne crée pas de doublons.
+
+-- Doublons saisis avant l'import, fusionnés avant la création des index (sinon la migration échoue) :
+-- la ligne de plus petit ID est conservée et les références sont reportées sur elle avant la suppression des autres.
+
+-- Régions de même nom (référencées par les départements)
+UPDATE department d SET id_region = k.keep_id
+FROM (SELECT id_region, MIN(id_region) OVER (PARTITION BY region_name) AS keep_id FROM region) k
+WHERE d.id_region = k.id_region AND k.id_region <> k.keep_id;
+DELETE FROM region r USING region k WHERE k.region_name = r.region_name AND k.id_region < r.id_region;
+
+-- Départements de même code (référencés par les villes)
+UPDATE city c SET id_department = k.keep_id
+FROM (SELECT id_department, MIN(id_department) OVER (PARTITION BY department_code) AS keep_id FROM department) k
+WHERE c.id_department = k.id_department AND k.id_department <> k.keep_id;
+DELETE FROM department d USING department k WHERE k.department_code = d.department_code AND k.id_department < d.id_department;
+
+-- Villes de même code INSEE et code postal (référencées par les centres Afpa et les utilisateurs)
+CREATE TEMPORARY TABLE city_merge ON COMMIT DROP AS
+SELECT id_city, keep_id
+FROM (SELECT id_city, MIN(id_city) OVER (PARTITION BY insee_code, postcode) AS keep_id FROM city) k
+WHERE id_city <> keep_id;
+UPDATE afpa_center a SET id_city = m.keep_id FROM city_merge m WHERE a.id_city = m.id_city;
+UPDATE app_user u SET id_city = m.keep_id FROM city_merge m WHERE u.id_city = m.id_city;
+DELETE FROM city c USING city_merge m WHERE c.id_city = m.id_city;
+
+CREATE UNIQUE INDEX IF NOT EXISTS region_name_uk ON region (region_name);
+CREATE UNIQUE INDEX IF NOT EXISTS department_code_uk ON department (department_code);
+CREATE UNIQUE INDEX IF NOT EXISTS city_insee_postcode_uk ON city (insee_code, postcode);
@@ -0,0 +1,16 @@
+-- Contenus des documents, enregistrés une seule fois par empreinte SHA-256 et partagés entre documents :
+-- ref_count compte les documents (document_center, document_user) qui utilisent le contenu,
+-- le fichier est supprimé quand il n'est plus utilisé.
+CREATE TABLE IF NOT EXISTS document_content (
+    content_digest VARCHAR(64) PRIMARY KEY,
+    content_size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0 CHECK (ref_count >= 0),
+    created_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Contenu de chaque document ; NULL pour les documents déposés avant le stockage par empreinte (fichier à leur code)
+ALTER TABLE document_center ADD COLUMN IF NOT EXISTS content_digest VARCHAR(64) REFERENCES document_content (content_digest);
+ALTER TABLE document_user ADD COLUMN IF NOT EXISTS content_digest VARCHAR(64) REFERENCES document_content (content_digest);
+
+CREATE INDEX IF NOT EXISTS document_center_content_idx ON document_center (content_digest);
+CREATE INDEX IF NOT EXISTS document_user_content_idx ON document_user (content_digest);
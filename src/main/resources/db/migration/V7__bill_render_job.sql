@@ -0,0 +1,28 @@
+-- Rendu des factures PDF en arrière-plan : état du PDF sur la facture et file durable des rendus à faire.
+
+-- Les factures existantes ont été rendues lors de leur création
+ALTER TABLE bill ADD COLUMN IF NOT EXISTS pdf_status VARCHAR(10) NOT NULL DEFAULT 'READY';
+ALTER TABLE bill ALTER COLUMN pdf_status SET DEFAULT 'PENDING';
+ALTER TABLE bill ADD COLUMN IF NOT EXISTS pdf_rendered_at TIMESTAMP;
+
+-- Une ligne par rendu demandé, enregistrée dans la transaction de la facture : elle survit à un redémarrage.
+-- Les rendus réussis sont supprimés, les rendus en échec définitif sont conservés avec leur erreur.
+CREATE TABLE bill_render_job
+(
+    id_job       BIGSERIAL     NOT NULL,
+    id_bill      INTEGER       NOT NULL,
+    status       VARCHAR(10)   NOT NULL DEFAULT 'QUEUED',
+    attempts     INTEGER       NOT NULL DEFAULT 0,
+    available_at TIMESTAMP     NOT NULL DEFAULT now(),
+    locked_at    TIMESTAMP,
+    last_error   VARCHAR(2000),
+    created_at   TIMESTAMP     NOT NULL DEFAULT now(),
+    CONSTRAINT bill_render_job_pk PRIMARY KEY (id_job),
+    CONSTRAINT bill_render_job_bill_fk FOREIGN KEY (id_bill) REFERENCES bill (id_bill) ON DELETE CASCADE
+);
+
+-- Un seul rendu en attente ou en cours par facture
+CREATE UNIQUE INDEX bill_render_job_active_uk ON bill_render_job (id_bill) WHERE status IN ('QUEUED', 'RUNNING');
+
+-- Recherche des prochains rendus à exécuter
+CREATE INDEX bill_render_job_status_idx ON bill_render_job (status, available_at, id_job);
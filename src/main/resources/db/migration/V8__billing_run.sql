@@ -0,0 +1,32 @@
+-- Facturation en masse : une facture par contrat et par mois, exécutions suivies en base.
+
+-- Mois facturé (premier jour du mois) ; vide pour les factures créées à l'unité
+ALTER TABLE bill ADD COLUMN IF NOT EXISTS billing_period DATE;
+
+-- Une seule facture par contrat et par mois facturé : une exécution relancée ne facture pas deux fois
+CREATE UNIQUE INDEX IF NOT EXISTS bill_lease_period_uk ON bill (id_lease, billing_period) WHERE billing_period IS NOT NULL;
+
+-- Numéros des factures générées : Q + AAMM + 5 chiffres (bill_number est limité à 10 caractères)
+CREATE SEQUENCE IF NOT EXISTS bill_number_seq MAXVALUE 99999 CYCLE;
+
+-- Exécutions de la facturation (tous les centres si id_afpa_center est vide) et leur bilan
+CREATE TABLE billing_run
+(
+    id_run                BIGSERIAL     NOT NULL,
+    id_afpa_center        INTEGER,
+    billing_period        DATE          NOT NULL,
+    status                VARCHAR(10)   NOT NULL DEFAULT 'PENDING',
+    leases_selected       INTEGER       NOT NULL DEFAULT 0,
+    leases_already_billed INTEGER       NOT NULL DEFAULT 0,
+    bills_created         INTEGER       NOT NULL DEFAULT 0,
+    leases_failed         INTEGER       NOT NULL DEFAULT 0,
+    started_at            TIMESTAMP,
+    finished_at           TIMESTAMP,
+    error                 VARCHAR(2000),
+    created_at            TIMESTAMP     NOT NULL DEFAULT now(),
+    CONSTRAINT billing_run_pk PRIMARY KEY (id_run),
+    CONSTRAINT billing_run_afpa_center_fk FOREIGN KEY (id_afpa_center) REFERENCES afpa_center (id_afpa_center) ON DELETE CASCADE
+);
+
+-- Recherche des exécutions à reprendre au démarrage
+CREATE INDEX billing_run_status_idx ON billing_run (status);
@@ -0,0 +1,3 @@
+-- Version des contrats de bail (verrouillage optimiste) : elle identifie aussi les documents de contrat en cache
+ALTER TABLE lease_contract
+    ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,96 @@
+package com.afpa.hebergement.benchmark;
+
+import com.afpa.hebergement.service.bill_render.BillPdfData;
+import com.afpa.hebergement.service.bill_render.BillPdfRenderer;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH du rendu d'une quittance de loyer en PDF.
+ * Compare le modèle compilé une fois ({@link BillPdfRenderer}) au rendu historique de BillServiceImpl.generateBillPdf,
+ * qui recréait les polices et tous les paragraphes fixes (dont la mention légale) pour chaque facture.
+ * Le PDF est écrit en mémoire : seul le coût du rendu est mesuré, pas celui du disque.
+ * Le profileur GC donne l'allocation par facture (gc.alloc.rate.norm, en octets par opération).
+ * Lancement : exécuter la méthode main depuis l'IDE ou la classe de test compilée.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BillPdfRenderBenchmark {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private BillPdfRenderer renderer;
+    private BillPdfData bill;
+
+    @Setup
+    public void setUp() {
+        renderer = new BillPdfRenderer();
+        bill = new BillPdfData(12, "Q240300042", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5),
+                new BigDecimal("450.000"), "afpa rouen", "12 rue des lilas", "76000", "rouen",
+                "Madame", "Martin", "Claire", List.of("Virement", "Chèque"));
+    }
+
+    @Benchmark
+    public int templateRender() throws DocumentException, IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(8 * 1024);
+        renderer.render(bill, outputStream);
+        return outputStream.size();
+    }
+
+    @Benchmark
+    public int legacyRender() throws DocumentException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(8 * 1024);
+        Document document = new Document();
+        PdfWriter.getInstance(document, outputStream);
+        document.open();
+
+        Font font = new Font(Font.FontFamily.TIMES_ROMAN, 12, Font.NORMAL);
+        Font boldFont = new Font(Font.FontFamily.TIMES_ROMAN, 12, Font.BOLD);
+
+        document.add(new Paragraph("Quittance de loyer", boldFont));
+        document.add(new Paragraph(bill.billDate().getMonth() + " " + bill.billDate().getYear(), font));
+        document.add(new Paragraph("CENTRE " + bill.centerName(), font));
+        document.add(new Paragraph(bill.centerAddress(), font));
+        document.add(new Paragraph(bill.centerPostcode() + " " + bill.centerCityName(), font));
+        document.add(new Paragraph("Fait à " + bill.centerCityName() + ", le " + bill.billDate().format(DATE_FORMAT), font));
+        document.add(new Paragraph("Reçu de : " + bill.civility() + " " + bill.userName() + " " + bill.userFirstname(), font));
+        document.add(new Paragraph("Détail du règlement :", boldFont));
+        document.add(new Paragraph("Quittance N° : " + bill.billNumber(), font));
+        document.add(new Paragraph("Total loyer : " + bill.totalAmount() + " euros", font));
+        document.add(new Paragraph("Mode de règlement : " + String.join(", ", bill.paymentTypes()), font));
+        document.add(new Paragraph("Date du paiement : le " + bill.paymentDate().format(DATE_FORMAT), font));
+        document.add(new Paragraph("Signature", font));
+        document.add(new Paragraph("(En bas de page) Cette quittance annule tous les reçus qui auraient pu être établis précédemment en cas de paiement partiel du montant du présent terme. Elle est à conserver pendant trois ans par le locataire (loi n° 89-462 du 6 juillet 1989 : art. 7-1).", font));
+
+        document.close();
+        return outputStream.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BillPdfRenderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+}
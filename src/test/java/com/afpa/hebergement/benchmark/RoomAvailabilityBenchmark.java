@@ -0,0 +1,113 @@
+package com.afpa.hebergement.benchmark;
+
+import com.afpa.hebergement.model.entity.Reservation;
+import com.afpa.hebergement.model.entity.Room;
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
+import com.afpa.hebergement.service.availability.CenterAvailability;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH du moteur de disponibilité des chambres.
+ * Compare la recherche des chambres libres d'un centre par l'index en mémoire ({@link CenterAvailability#findFreeRooms},
+ * appelé par RoomAvailabilityEngine.findFreeRoomIds) au parcours des réservations du centre avec le prédicat
+ * de chevauchement r.startDate < :endDate AND r.endDate > :startDate.
+ * Le parcours est fait en mémoire (sans aller-retour base) : il s'agit donc d'une borne basse de son coût.
+ * Lancement : exécuter la méthode main depuis l'IDE ou la classe de test compilée.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoomAvailabilityBenchmark {
+
+    private static final int ROOMS = 300;
+    private static final int RESERVATIONS_PER_ROOM = 40;
+    private static final LocalDate ORIGIN = LocalDate.of(2030, 1, 1);
+
+    private CenterAvailability center;
+    private List<Reservation> reservations;
+    private LocalDate[] queryStarts;
+    private int query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        center = new CenterAvailability(1);
+        reservations = new ArrayList<>(ROOMS * RESERVATIONS_PER_ROOM);
+
+        int reservationId = 0;
+        for (int idRoom = 1; idRoom <= ROOMS; idRoom++) {
+            Room room = new Room();
+            room.setId(idRoom);
+            center.addRoom(idRoom, true);
+
+            // Réservations successives de 2 à 14 nuits, espacées de 0 à 5 jours
+            LocalDate start = ORIGIN;
+            for (int i = 0; i < RESERVATIONS_PER_ROOM; i++) {
+                LocalDate end = start.plusDays(2 + random.nextInt(13));
+                Reservation reservation = new Reservation();
+                reservation.setId(++reservationId);
+                reservation.setStartDate(start);
+                reservation.setEndDate(end);
+                reservation.setIdRoom(room);
+                reservations.add(reservation);
+                center.occupy(idRoom, OccupancyType.RESERVATION, reservationId, start, end);
+                start = end.plusDays(random.nextInt(6));
+            }
+        }
+
+        queryStarts = new LocalDate[1024];
+        for (int i = 0; i < queryStarts.length; i++) {
+            queryStarts[i] = ORIGIN.plusDays(random.nextInt(400));
+        }
+    }
+
+    @Benchmark
+    public int indexedFreeRooms() {
+        int i = query++ & 1023;
+        return center.findFreeRooms(queryStarts[i], queryStarts[i].plusDays(7)).size();
+    }
+
+    @Benchmark
+    public int scanFreeRooms() {
+        int i = query++ & 1023;
+        LocalDate startDate = queryStarts[i];
+        LocalDate endDate = startDate.plusDays(7);
+
+        // r.startDate < :endDate AND r.endDate > :startDate
+        Set<Integer> occupiedRooms = new HashSet<>();
+        for (Reservation r : reservations) {
+            if (r.getStartDate().isBefore(endDate) && r.getEndDate().isAfter(startDate)) {
+                occupiedRooms.add(r.getIdRoom().getId());
+            }
+        }
+
+        List<Integer> freeRooms = new ArrayList<>();
+        for (int idRoom = 1; idRoom <= ROOMS; idRoom++) {
+            if (!occupiedRooms.contains(idRoom)) {
+                freeRooms.add(idRoom);
+            }
+        }
+        return freeRooms.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RoomAvailabilityBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.afpa.hebergement.persistence;
+
+import com.afpa.hebergement.model.dto.LeaseContractFormDTO;
+import com.afpa.hebergement.model.entity.AppService;
+import com.afpa.hebergement.model.entity.AppUser;
+import com.afpa.hebergement.model.entity.Rent;
+import com.afpa.hebergement.model.entity.Room;
+import com.afpa.hebergement.model.mapper.AppUserMapper;
+import com.afpa.hebergement.model.mapper.RoomMapper;
+import com.afpa.hebergement.model.repository.AppServiceRepository;
+import com.afpa.hebergement.model.repository.AppUserRepository;
+import com.afpa.hebergement.model.repository.RentRepository;
+import com.afpa.hebergement.model.repository.RoomRepository;
+import com.afpa.hebergement.service.lease_creation.LeaseCreationContext;
+import com.afpa.hebergement.service.lease_creation.LeaseCreationContextLoader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Vérifie le nombre de requêtes SQL du chargement du contexte de création d'un contrat de bail
+ * ({@link LeaseCreationContextLoader}) : une requête pour l'utilisateur, le centre, la chambre, le loyer et la formation,
+ * une pour les services, quel que soit le nombre de services demandés ; le mappage en DTO n'en ajoute aucune.
+ * Nécessite la base PostgreSQL de l'application (variable d'environnement JDBC_URL).
+ */
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfEnvironmentVariable(named = "JDBC_URL", matches = ".+")
+class LeaseCreationStatementCountTest {
+
+    private static final long CONTEXT_STATEMENTS = 2;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RentRepository rentRepository;
+
+    @Autowired
+    private AppServiceRepository appServiceRepository;
+
+    @Autowired
+    private LeaseCreationContextLoader leaseCreationContextLoader;
+
+    private StatementCounter statementCounter;
+    private LeaseContractFormDTO form;
+    private List<String> allServices;
+
+    @BeforeEach
+    void setUp() {
+        statementCounter = new StatementCounter(entityManagerFactory);
+
+        AppUser user = appUserRepository.findAll().stream().findFirst().orElse(null);
+        Room room = roomRepository.findAll().stream().findFirst().orElse(null);
+        assumeTrue(user != null && room != null, "No user or room in the database");
+
+        Integer idAfpaCenter = room.getIdFloor().getIdAfpaCenter().getId();
+        Rent rent = rentRepository.findAll().stream()
+                .filter(r -> r.getIdAfpaCenter().getId().equals(idAfpaCenter))
+                .findFirst().orElse(null);
+        assumeTrue(rent != null, "No rent for the room's Afpa center");
+
+        allServices = appServiceRepository.findAll().stream().map(AppService::getWordingService).toList();
+
+        form = new LeaseContractFormDTO();
+        form.setName(user.getName());
+        form.setFirstname(user.getFirstname());
+        form.setBirthdate(user.getBirthdate());
+        form.setCenterName(room.getIdFloor().getIdAfpaCenter().getCenterName());
+        form.setRoomNumber(room.getRoomNumber());
+        form.setFrequency(rent.getFrequency());
+    }
+
+    // Compte les requêtes avec un contexte de persistance vide, pour ne pas profiter des entités déjà chargées
+    private long count(Runnable action) {
+        entityManager.clear();
+        return statementCounter.count(action);
+    }
+
+    private long countLoad(List<String> services) {
+        form.setListService(services);
+        AtomicReference<LeaseCreationContext> context = new AtomicReference<>();
+        long statements = count(() -> {
+            context.set(leaseCreationContextLoader.load(form));
+            // Relations utilisées pour compléter le formulaire et pour la réponse : déjà chargées
+            AppUserMapper.mapToAppUserDTO(context.get().user());
+            RoomMapper.mapToRoomDTO(context.get().room());
+        });
+        assertNotNull(context.get().rent());
+        assertNotNull(context.get().formationName());
+        return statements;
+    }
+
+    @Test
+    void testLoadWithoutServices() {
+        assertTrue(countLoad(List.of()) <= CONTEXT_STATEMENTS - 1);
+    }
+
+    @Test
+    void testLoadDoesNotDependOnServiceCount() {
+        assumeTrue(!allServices.isEmpty(), "No service in the database");
+
+        long oneService = countLoad(allServices.subList(0, 1));
+        long everyService = countLoad(allServices);
+
+        assertTrue(oneService <= CONTEXT_STATEMENTS, "Issued " + oneService + " statements");
+        assertEquals(oneService, everyService);
+    }
+
+}
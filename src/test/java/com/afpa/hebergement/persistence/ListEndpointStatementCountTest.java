@@ -0,0 +1,115 @@
+package com.afpa.hebergement.persistence;
+
+import com.afpa.hebergement.model.entity.AfpaCenter;
+import com.afpa.hebergement.model.repository.AfpaCenterRepository;
+import com.afpa.hebergement.service.entity_service.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Vérifie le nombre de requêtes SQL des services derrière les endpoints de liste (chambres, utilisateurs,
+ * réservations, rendez-vous, messages) : il ne doit pas dépendre du nombre de lignes renvoyées (pas de N+1).
+ * Chaque service recherche le centre Afpa (1 requête), puis charge la liste avec ses relations (1 requête),
+ * plus une requête de comptage pour les pages.
+ * Nécessite la base PostgreSQL de l'application (variable d'environnement JDBC_URL).
+ */
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfEnvironmentVariable(named = "JDBC_URL", matches = ".+")
+class ListEndpointStatementCountTest {
+
+    private static final long LIST_STATEMENTS = 2;
+    private static final long PAGE_STATEMENTS = 3;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private AfpaCenterRepository afpaCenterRepository;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private AppUserService appUserService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private MessageService messageService;
+
+    private StatementCounter statementCounter;
+    private Integer idAfpaCenter;
+
+    @BeforeEach
+    void setUp() {
+        statementCounter = new StatementCounter(entityManagerFactory);
+        idAfpaCenter = afpaCenterRepository.findAll().stream().findFirst().map(AfpaCenter::getId).orElse(null);
+        assumeTrue(idAfpaCenter != null, "No Afpa center in the database");
+    }
+
+    // Compte les requêtes avec un contexte de persistance vide, pour ne pas profiter des entités déjà chargées
+    private long count(Runnable action) {
+        entityManager.clear();
+        return statementCounter.count(action);
+    }
+
+    private static void assertStatements(long expectedMax, long actual, String endpoint) {
+        assertTrue(actual <= expectedMax, endpoint + " issued " + actual + " statements, expected at most " + expectedMax);
+    }
+
+    @Test
+    void testRoomsByAfpaCenter() {
+        assertStatements(LIST_STATEMENTS, count(() -> roomService.getAllByAfpaCenter(idAfpaCenter)), "GET /api/rooms/afpa-center/{id}");
+        assertStatements(PAGE_STATEMENTS, count(() -> roomService.getAllByAfpaCenter(idAfpaCenter, 0, 50)), "GET /api/rooms/afpa-center/{id}/page");
+        assertStatements(LIST_STATEMENTS, count(() -> roomService.getByAvailableRoomAndIdAfpaCenter(idAfpaCenter)), "GET /api/rooms/available/afpa-center/{id}");
+        assertStatements(LIST_STATEMENTS, count(() -> roomService.getByWomanRoomAndIdAfpaCenter(idAfpaCenter)), "GET /api/rooms/women/afpa-center/{id}");
+    }
+
+    @Test
+    void testUsers() {
+        assertStatements(1, count(() -> appUserService.getAll()), "GET /api/users");
+        assertStatements(LIST_STATEMENTS, count(() -> appUserService.getAllByAfpaCenter(idAfpaCenter)), "GET /api/users/afpa-center/{id}");
+        assertStatements(PAGE_STATEMENTS, count(() -> appUserService.getAllByAfpaCenter(idAfpaCenter, 0, 50)), "GET /api/users/afpa-center/{id}/page");
+        assertStatements(LIST_STATEMENTS, count(() -> appUserService.scrollByAfpaCenter(idAfpaCenter, null, 50, false)), "GET /api/users/afpa-center/{id}/scroll");
+    }
+
+    @Test
+    void testReservationsByAfpaCenter() {
+        assertStatements(LIST_STATEMENTS, count(() -> reservationService.getReservationsByAfpaCenter(idAfpaCenter)), "GET /api/reservations/afpa-center/{id}");
+    }
+
+    @Test
+    void testAppointmentsByAfpaCenter() {
+        assertStatements(LIST_STATEMENTS, count(() -> appointmentService.getAllAppointmentsByAfpaCenter(idAfpaCenter)), "GET /api/appointments/afpa-center/{id}");
+        assertStatements(PAGE_STATEMENTS, count(() -> appointmentService.getAllAppointmentsByAfpaCenter(idAfpaCenter, 0, 50)), "GET /api/appointments/afpa-center/{id}/page");
+        assertStatements(LIST_STATEMENTS, count(() -> appointmentService.scrollAppointmentsByAfpaCenter(idAfpaCenter, null, 50, false)), "GET /api/appointments/afpa-center/{id}/scroll");
+    }
+
+    @Test
+    void testMessagesByAfpaCenter() {
+        assertStatements(LIST_STATEMENTS, count(() -> messageService.getAllMessagesByAfpaCenter(idAfpaCenter)), "GET /api/messages/afpa-center/{id}");
+        assertStatements(PAGE_STATEMENTS, count(() -> messageService.getAllMessagesByAfpaCenter(idAfpaCenter, 0, 50)), "GET /api/messages/afpa-center/{id}/page");
+        assertStatements(LIST_STATEMENTS, count(() -> messageService.scrollMessagesByAfpaCenter(idAfpaCenter, null, 50, false)), "GET /api/messages/afpa-center/{id}/scroll");
+    }
+
+}
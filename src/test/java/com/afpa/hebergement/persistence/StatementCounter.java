@@ -0,0 +1,37 @@
+package com.afpa.hebergement.persistence;
+
+import com.afpa.hebergement.exception.NoContentException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Compte les requêtes SQL préparées par Hibernate pendant une action, à partir des statistiques Hibernate
+ * (propriété hibernate.generate_statistics=true requise).
+ * Une action qui ne trouve aucune donnée (NoContentException) est comptée normalement.
+ */
+public class StatementCounter {
+
+    private final Statistics statistics;
+
+
+    public StatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Hibernate statistics are disabled (hibernate.generate_statistics)");
+        }
+    }
+
+
+    // Exécute l'action et renvoie le nombre de requêtes SQL préparées
+    public long count(Runnable action) {
+        statistics.clear();
+        try {
+            action.run();
+        } catch (NoContentException e) {
+            // Liste vide : le nombre de requêtes reste significatif
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.afpa.hebergement.security.jwt;
+
+import com.afpa.hebergement.security.service.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link JwtUtils} et {@link TokenRevocationList}.
+ * Vérifie la reconstruction du principal à partir des claims, la séparation des jetons d'accès et de rafraîchissement,
+ * et la révocation d'un jeton ou de tous les jetons d'un utilisateur.
+ */
+class JwtUtilsTest {
+
+    // Secret HS256 de test (38 octets encodés en Base64, au moins 256 bits)
+    private static final String SECRET = "dGVzdC1zZWNyZXQtZm9yLWp3dC11dGlscy10ZXN0cy0xMjM0NTY=";
+
+    private TokenRevocationList tokenRevocationList;
+    private JwtUtils jwtUtils;
+
+    private final UserDetailsImpl user = new UserDetailsImpl(7, "Jean Dupont", "hash", "jean@afpa.fr", "B123", 3,
+            new SimpleGrantedAuthority("ROLE_INTENDANT"));
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationList = new TokenRevocationList();
+        jwtUtils = new JwtUtils(tokenRevocationList);
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", 900_000);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpiration", 604_800_000L);
+        jwtUtils.init();
+    }
+
+    @Test
+    void testAccessToken_ShouldRebuildPrincipalFromClaims() {
+        Claims claims = jwtUtils.parseAccessToken(jwtUtils.generateAccessToken(user));
+
+        assertNotNull(claims);
+        UserDetailsImpl principal = jwtUtils.getPrincipalFromClaims(claims);
+        assertEquals(7, principal.getId());
+        assertEquals("B123", principal.getBeneficiaryNumber());
+        assertEquals(3, principal.getIdAfpaCenter());
+        assertEquals("ROLE_INTENDANT", principal.getAuthority().getAuthority());
+    }
+
+    @Test
+    void testTokenTypes_ShouldNotBeInterchangeable() {
+        String accessToken = jwtUtils.generateAccessToken(user);
+        String refreshToken = jwtUtils.generateRefreshToken(user);
+
+        assertNull(jwtUtils.parseAccessToken(refreshToken));
+        assertNull(jwtUtils.parseRefreshToken(accessToken));
+        assertNotNull(jwtUtils.parseRefreshToken(refreshToken));
+    }
+
+    @Test
+    void testRevoke_ShouldRejectOnlyTheRevokedToken() {
+        String refreshToken = jwtUtils.generateRefreshToken(user);
+        String otherRefreshToken = jwtUtils.generateRefreshToken(user);
+
+        jwtUtils.revoke(jwtUtils.parseRefreshToken(refreshToken));
+
+        assertNull(jwtUtils.parseRefreshToken(refreshToken));
+        assertNotNull(jwtUtils.parseRefreshToken(otherRefreshToken));
+    }
+
+    @Test
+    void testRevokeUser_ShouldRejectTokensAlreadyIssued() {
+        String accessToken = jwtUtils.generateAccessToken(user);
+
+        tokenRevocationList.revokeUser(user.getId());
+
+        assertNull(jwtUtils.parseAccessToken(accessToken));
+    }
+
+    @Test
+    void testRevokeUser_ShouldAcceptTokenIssuedLaterInTheSameSecond() {
+        tokenRevocationList.revokeUser(user.getId());
+
+        // Nouvelle connexion une milliseconde après la révocation, en général dans la même seconde
+        long revokedAt = System.currentTimeMillis();
+        while (System.currentTimeMillis() == revokedAt) {
+            Thread.onSpinWait();
+        }
+        String accessToken = jwtUtils.generateAccessToken(user);
+
+        assertNotNull(jwtUtils.parseAccessToken(accessToken));
+    }
+
+    @Test
+    void testRevokeUser_ShouldCompareIssueTimesToTheMillisecond() {
+        long now = System.currentTimeMillis();
+        tokenRevocationList.revokeUser(user.getId());
+
+        assertTrue(tokenRevocationList.isRevoked(null, user.getId(), now));
+        assertFalse(tokenRevocationList.isRevoked(null, user.getId(), System.currentTimeMillis() + 1));
+    }
+
+    @Test
+    void testParseAccessToken_WithInvalidSignature_ShouldReturnNull() {
+        String accessToken = jwtUtils.generateAccessToken(user);
+        String tampered = accessToken.substring(0, accessToken.length() - 2) + (accessToken.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(jwtUtils.parseAccessToken(tampered));
+    }
+
+}
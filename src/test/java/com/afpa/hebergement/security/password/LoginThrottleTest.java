@@ -0,0 +1,41 @@
+package com.afpa.hebergement.security.password;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link LoginThrottle}.
+ */
+class LoginThrottleTest {
+
+    @Test
+    void testRecordFailure_ShouldBlockAfterMaxFailures() {
+        LoginThrottle loginThrottle = new LoginThrottle(3, 900, 300);
+
+        loginThrottle.recordFailure("B123");
+        loginThrottle.recordFailure("B123");
+        assertEquals(0, loginThrottle.blockedForSeconds("B123"));
+
+        loginThrottle.recordFailure("B123");
+        long blockedFor = loginThrottle.blockedForSeconds("B123");
+        assertTrue(blockedFor > 0 && blockedFor <= 300);
+
+        // Les autres numéros ne sont pas concernés
+        assertEquals(0, loginThrottle.blockedForSeconds("B456"));
+    }
+
+    @Test
+    void testRecordSuccess_ShouldResetFailures() {
+        LoginThrottle loginThrottle = new LoginThrottle(3, 900, 300);
+
+        loginThrottle.recordFailure("B123");
+        loginThrottle.recordFailure("B123");
+        loginThrottle.recordSuccess("B123");
+        loginThrottle.recordFailure("B123");
+
+        assertEquals(0, loginThrottle.blockedForSeconds("B123"));
+        assertEquals(1, loginThrottle.size());
+    }
+
+}
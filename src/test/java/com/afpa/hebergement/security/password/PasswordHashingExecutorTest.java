@@ -0,0 +1,104 @@
+package com.afpa.hebergement.security.password;
+
+import com.afpa.hebergement.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link PasswordHashingExecutor} et {@link BoundedPasswordEncoder}.
+ * Vérifie le refus immédiat (503) quand le pool est saturé, le délai maximal d'attente,
+ * les métriques et la détection d'un facteur de coût obsolète.
+ */
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private PasswordHashingExecutor hashingExecutor;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (hashingExecutor != null) {
+            hashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void testExecute_ShouldReturnResultAndRecordDuration() {
+        hashingExecutor = new PasswordHashingExecutor(1, 1, 1000, meterRegistry);
+
+        assertEquals("hash", hashingExecutor.execute("encode", () -> "hash"));
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void testExecute_WhenQueueIsFull_ShouldRejectImmediately() throws InterruptedException {
+        hashingExecutor = new PasswordHashingExecutor(1, 1, 5000, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+
+        // Un calcul occupe l'unique thread, un second occupe l'unique place de la file
+        callers.submit(() -> hashingExecutor.execute("matches", () -> {
+            running.countDown();
+            return awaitQuietly(release);
+        }));
+        assertTrue(running.await(2, TimeUnit.SECONDS));
+        callers.submit(() -> hashingExecutor.execute("matches", () -> true));
+        waitForQueueSize(1);
+
+        long start = System.nanoTime();
+        assertThrows(ServiceUnavailableException.class, () -> hashingExecutor.execute("matches", () -> true));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "rejection should not wait");
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("password.hashing.queue").gauge().value());
+
+        release.countDown();
+    }
+
+    @Test
+    void testExecute_WhenResultIsLate_ShouldGiveUp() {
+        hashingExecutor = new PasswordHashingExecutor(1, 1, 50, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertThrows(ServiceUnavailableException.class,
+                () -> hashingExecutor.execute("encode", () -> awaitQuietly(release)));
+        release.countDown();
+    }
+
+    @Test
+    void testUpgradeEncoding_ShouldDetectOldCostFactor() {
+        hashingExecutor = new PasswordHashingExecutor(1, 4, 5000, meterRegistry);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), hashingExecutor);
+        String oldHash = new BCryptPasswordEncoder(4).encode("Secret1!");
+
+        assertTrue(encoder.matches("Secret1!", oldHash));
+        assertTrue(encoder.upgradeEncoding(oldHash));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("Secret1!")));
+    }
+
+    private void waitForQueueSize(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (hashingExecutor.queueSize() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+}
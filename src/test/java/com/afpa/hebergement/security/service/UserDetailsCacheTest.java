@@ -0,0 +1,73 @@
+package com.afpa.hebergement.security.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link UserDetailsCache}.
+ * Vérifie que la base n'est interrogée qu'une fois par utilisateur, l'invalidation, l'expiration et la taille maximale.
+ */
+class UserDetailsCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, UserDetailsImpl> loader = number -> {
+        loads.incrementAndGet();
+        return new UserDetailsImpl(number.hashCode(), "Jean Dupont", "hash", "jean@afpa.fr", number, 1,
+                new SimpleGrantedAuthority("ROLE_USER"));
+    };
+
+    @Test
+    void testGet_ShouldLoadOnlyOnce() {
+        UserDetailsCache cache = new UserDetailsCache(60, 100);
+
+        UserDetailsImpl first = cache.get("B123", loader);
+        UserDetailsImpl second = cache.get("B123", loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testInvalidate_ShouldReload() {
+        UserDetailsCache cache = new UserDetailsCache(60, 100);
+        cache.get("B123", loader);
+        cache.get("B456", loader);
+
+        cache.invalidate("B123");
+        cache.get("B123", loader);
+        cache.get("B456", loader);
+        assertEquals(3, loads.get());
+
+        cache.invalidateAll();
+        cache.get("B456", loader);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testGet_WithZeroTtl_ShouldAlwaysReload() {
+        UserDetailsCache cache = new UserDetailsCache(0, 100);
+
+        cache.get("B123", loader);
+        cache.get("B123", loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_ShouldStayBounded() {
+        UserDetailsCache cache = new UserDetailsCache(60, 10);
+
+        for (int i = 0; i < 100; i++) {
+            cache.get("B" + i, loader);
+        }
+
+        assertTrue(cache.size() <= 10);
+    }
+
+}
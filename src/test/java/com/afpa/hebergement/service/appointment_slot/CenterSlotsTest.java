@@ -0,0 +1,120 @@
+package com.afpa.hebergement.service.appointment_slot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link CenterSlots}.
+ */
+class CenterSlotsTest {
+
+    // Lundi
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    private final SlotGrid grid = new SlotGrid(30);
+    private CenterSlots center;
+
+    // Modèle avec les mêmes horaires le lundi et le mardi
+    private long[] weekly(LocalTime start, LocalTime end) {
+        long[] weekly = new long[7];
+        weekly[0] = grid.mask(start, end);
+        weekly[1] = weekly[0];
+        return weekly;
+    }
+
+    @BeforeEach
+    void setUp() {
+        center = new CenterSlots(1, grid);
+        // Intendant 10 : lundi et mardi 09:00 - 10:00 ; intendant 20 : lundi et mardi 09:30 - 10:30
+        center.putIntendant(10, weekly(LocalTime.of(9, 0), LocalTime.of(10, 0)), null, null);
+        center.putIntendant(20, weekly(LocalTime.of(9, 30), LocalTime.of(10, 30)), null, null);
+    }
+
+    @Test
+    void status_followsScheduleAndBookings() {
+        assertEquals(SlotStatus.FREE, center.status(10, MONDAY.atTime(9, 0), null));
+        assertEquals(SlotStatus.OUTSIDE_SCHEDULE, center.status(10, MONDAY.atTime(10, 0), null));
+        assertEquals(SlotStatus.OUTSIDE_SCHEDULE, center.status(10, MONDAY.plusDays(2).atTime(9, 0), null));
+        assertEquals(SlotStatus.OUTSIDE_SCHEDULE, center.status(99, MONDAY.atTime(9, 0), null));
+        assertEquals(SlotStatus.OFF_GRID, center.status(10, MONDAY.atTime(9, 10), null));
+
+        center.book(10, 1, MONDAY.atTime(9, 0));
+
+        assertEquals(SlotStatus.BOOKED, center.status(10, MONDAY.atTime(9, 0), null));
+        assertEquals(SlotStatus.FREE, center.status(10, MONDAY.atTime(9, 0), 1));
+        assertEquals(SlotStatus.FREE, center.status(10, MONDAY.plusDays(1).atTime(9, 0), null));
+    }
+
+    @Test
+    void status_respectsActivityPeriod() {
+        center.putIntendant(10, weekly(LocalTime.of(9, 0), LocalTime.of(10, 0)), MONDAY.plusDays(1), null);
+
+        assertEquals(SlotStatus.OUTSIDE_SCHEDULE, center.status(10, MONDAY.atTime(9, 0), null));
+        assertEquals(SlotStatus.FREE, center.status(10, MONDAY.plusDays(1).atTime(9, 0), null));
+    }
+
+    @Test
+    void book_movesAndReleasesAppointments() {
+        center.book(10, 1, MONDAY.atTime(9, 0));
+        center.book(10, 1, MONDAY.atTime(9, 30));
+
+        assertEquals(SlotStatus.FREE, center.status(10, MONDAY.atTime(9, 0), null));
+        assertEquals(SlotStatus.BOOKED, center.status(10, MONDAY.atTime(9, 30), null));
+
+        center.release(1);
+
+        assertEquals(SlotStatus.FREE, center.status(10, MONDAY.atTime(9, 30), null));
+    }
+
+    @Test
+    void release_keepsSlotSharedByOlderAppointments() {
+        // Deux rendez-vous dans le même créneau (données antérieures), l'un à une heure hors grille
+        center.book(10, 1, MONDAY.atTime(9, 0));
+        center.book(10, 2, MONDAY.atTime(9, 10));
+
+        center.release(1);
+        assertEquals(SlotStatus.BOOKED, center.status(10, MONDAY.atTime(9, 0), null));
+        assertEquals(SlotStatus.FREE, center.status(10, MONDAY.atTime(9, 0), 2));
+
+        center.release(2);
+        assertEquals(SlotStatus.FREE, center.status(10, MONDAY.atTime(9, 0), null));
+    }
+
+    @Test
+    void nextFreeSlots_sortedByTimeThenIntendant() {
+        center.book(20, 1, MONDAY.atTime(9, 30));
+
+        List<CenterSlots.FreeSlot> slots = center.nextFreeSlots(MONDAY.atTime(9, 0), MONDAY.plusDays(7), 4);
+
+        assertEquals(List.of(
+                new CenterSlots.FreeSlot(10, MONDAY.atTime(9, 0)),
+                new CenterSlots.FreeSlot(10, MONDAY.atTime(9, 30)),
+                new CenterSlots.FreeSlot(20, MONDAY.atTime(10, 0)),
+                new CenterSlots.FreeSlot(10, MONDAY.plusDays(1).atTime(9, 0))), slots);
+    }
+
+    @Test
+    void nextFreeSlots_skipsPastSlotsOfFirstDayAndStopsAtLastDay() {
+        List<CenterSlots.FreeSlot> slots = center.nextFreeSlots(MONDAY.atTime(9, 45), MONDAY, 10);
+
+        assertEquals(List.of(new CenterSlots.FreeSlot(20, MONDAY.atTime(10, 0))), slots);
+    }
+
+    @Test
+    void removeIntendant_dropsItsSlotsAndAppointments() {
+        center.book(10, 1, MONDAY.atTime(9, 0));
+        center.removeIntendant(10);
+
+        assertFalse(center.containsIntendant(10));
+        assertEquals(SlotStatus.OUTSIDE_SCHEDULE, center.status(10, MONDAY.atTime(9, 0), null));
+        assertTrue(center.nextFreeSlots(MONDAY.atTime(0, 0), MONDAY, 10).stream().allMatch(slot -> slot.idIntendant() == 20));
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.afpa.hebergement.service.appointment_slot;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link SlotGrid}.
+ */
+class SlotGridTest {
+
+    private final SlotGrid grid = new SlotGrid(30);
+
+    @Test
+    void constructor_rejectsDurationNotDividingTheDayInto64SlotsAtMost() {
+        assertThrows(IllegalArgumentException.class, () -> new SlotGrid(7));
+        assertThrows(IllegalArgumentException.class, () -> new SlotGrid(20));
+        assertEquals(24, new SlotGrid(60).slotsPerDay());
+    }
+
+    @Test
+    void mask_keepsSlotsEntirelyInsideTheRange() {
+        // 08:00 - 10:15 : créneaux de 08:00, 08:30, 09:00 et 09:30
+        long mask = grid.mask(LocalTime.of(8, 0), LocalTime.of(10, 15));
+
+        assertEquals(4, Long.bitCount(mask));
+        assertEquals(grid.indexOf(LocalTime.of(8, 0)), Long.numberOfTrailingZeros(mask));
+        assertEquals(0L, grid.mask(null, LocalTime.of(12, 0)));
+    }
+
+    @Test
+    void mask_endOfDay() {
+        assertEquals(1L << 47, grid.mask(LocalTime.of(23, 30), LocalTime.MIDNIGHT));
+        assertEquals(1L << 47, grid.mask(LocalTime.of(23, 30), LocalTime.of(23, 59)));
+    }
+
+    @Test
+    void slotStartAndIndexes() {
+        assertTrue(grid.isSlotStart(LocalTime.of(9, 30)));
+        assertFalse(grid.isSlotStart(LocalTime.of(9, 45)));
+        assertEquals(19, grid.indexOf(LocalTime.of(9, 45)));
+        assertEquals(19, grid.firstIndexFrom(LocalTime.of(9, 30)));
+        assertEquals(20, grid.firstIndexFrom(LocalTime.of(9, 31)));
+        assertEquals(LocalTime.of(9, 30), grid.startOf(19));
+    }
+
+    @Test
+    void dayOfWeek_readsFrenchAndEnglishWordings() {
+        assertEquals(DayOfWeek.MONDAY, SlotGrid.dayOfWeek("Lundi"));
+        assertEquals(DayOfWeek.WEDNESDAY, SlotGrid.dayOfWeek(" mercredi "));
+        assertEquals(DayOfWeek.FRIDAY, SlotGrid.dayOfWeek("friday"));
+        assertNull(SlotGrid.dayOfWeek("férié"));
+        assertNull(SlotGrid.dayOfWeek(null));
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.afpa.hebergement.service.availability;
+
+import com.afpa.hebergement.exception.DuplicateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Classe de test pour {@link BookingTransactionExecutor}.
+ * Vérifie la traduction de la contrainte d'exclusion en 409 et la politique de nouvelles tentatives bornée.
+ */
+class BookingTransactionExecutorTest {
+
+    private BookingTransactionExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        executor = new BookingTransactionExecutor(transactionManager);
+    }
+
+    @Test
+    void testExecute_WhenExclusionConstraintIsViolated_ShouldThrowDuplicateException() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        DuplicateException exception = assertThrows(DuplicateException.class, () -> executor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("insert failed",
+                    new SQLException("conflicting key value violates exclusion constraint \"reservation_room_period_excl\"", "23P01"));
+        }, "Reservation already exist"));
+
+        assertEquals("Reservation already exist", exception.getMessage());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testExecute_WhenUserExclusionConstraintIsViolated_ShouldThrowUserConflict() {
+        DuplicateException exception = assertThrows(DuplicateException.class, () -> executor.execute(() -> {
+            throw new DataIntegrityViolationException("insert failed", new ConstraintViolationException(
+                    "could not execute statement",
+                    new SQLException("conflicting key value violates exclusion constraint \"reservation_user_period_excl\"", "23P01"),
+                    "reservation_user_period_excl"));
+        }, "Reservation already exist"));
+
+        assertEquals(BookingTransactionExecutor.USER_ALREADY_HAS_A_RESERVATION, exception.getMessage());
+    }
+
+    @Test
+    void testExecute_WhenUnknownExclusionConstraintIsViolated_ShouldRethrowIt() {
+        assertThrows(DataIntegrityViolationException.class, () -> executor.execute(() -> {
+            throw new DataIntegrityViolationException("insert failed",
+                    new SQLException("conflicting key value violates exclusion constraint \"other_excl\"", "23P01"));
+        }, "conflict"));
+    }
+
+    @Test
+    void testExecute_WhenOtherIntegrityViolation_ShouldRethrowIt() {
+        assertThrows(DataIntegrityViolationException.class, () -> executor.execute(() -> {
+            throw new DataIntegrityViolationException("not null", new SQLException("null value", "23502"));
+        }, "conflict"));
+    }
+
+    @Test
+    void testExecute_WhenOptimisticLockFailsOnce_ShouldRetryAndSucceed() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException("Room", 1);
+            }
+            return "booked";
+        }, "conflict");
+
+        assertEquals("booked", result);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testExecute_WhenOptimisticLockKeepsFailing_ShouldStopAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DuplicateException.class, () -> executor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Room", 1);
+        }, "conflict"));
+
+        assertEquals(BookingTransactionExecutor.MAX_ATTEMPTS, attempts.get());
+    }
+
+}
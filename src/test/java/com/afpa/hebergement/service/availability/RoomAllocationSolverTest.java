@@ -0,0 +1,78 @@
+package com.afpa.hebergement.service.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link RoomAllocationSolver}.
+ * Vérifie le respect des étages réservés aux femmes, l'ordre de remplissage et le placement maximal.
+ */
+class RoomAllocationSolverTest {
+
+    private static RoomAllocationSolver.Occupant man(int idUser) {
+        return new RoomAllocationSolver.Occupant(idUser, false);
+    }
+
+    private static RoomAllocationSolver.Occupant woman(int idUser) {
+        return new RoomAllocationSolver.Occupant(idUser, true);
+    }
+
+    private static RoomAllocationSolver.CandidateRoom room(int idRoom, int numberFloor, boolean forWomen) {
+        return new RoomAllocationSolver.CandidateRoom(idRoom, numberFloor, forWomen);
+    }
+
+    @Test
+    void testSolve_ShouldNeverPlaceMenOnWomenFloors() {
+        RoomAllocationSolver.Allocation allocation = RoomAllocationSolver.solve(
+                List.of(man(1), man(2)),
+                List.of(room(10, 1, true), room(20, 2, false)));
+
+        assertEquals(List.of(new RoomAllocationSolver.Assignment(1, 20)), allocation.assignments());
+        assertEquals(List.of(2), allocation.unplacedUserIds());
+    }
+
+    @Test
+    void testSolve_ShouldPlaceWomenOnWomenFloorsFirstThenOnMixedFloors() {
+        RoomAllocationSolver.Allocation allocation = RoomAllocationSolver.solve(
+                List.of(woman(1), man(2), woman(3)),
+                List.of(room(20, 2, false), room(21, 2, false), room(10, 1, true)));
+
+        assertTrue(allocation.assignments().contains(new RoomAllocationSolver.Assignment(1, 10)));
+        assertTrue(allocation.assignments().contains(new RoomAllocationSolver.Assignment(2, 20)));
+        assertTrue(allocation.assignments().contains(new RoomAllocationSolver.Assignment(3, 21)));
+        assertTrue(allocation.unplacedUserIds().isEmpty());
+    }
+
+    @Test
+    void testSolve_ShouldFillLowerFloorsFirst() {
+        RoomAllocationSolver.Allocation allocation = RoomAllocationSolver.solve(
+                List.of(man(1), man(2)),
+                List.of(room(31, 3, false), room(12, 1, false), room(11, 1, false)));
+
+        assertEquals(List.of(new RoomAllocationSolver.Assignment(1, 11), new RoomAllocationSolver.Assignment(2, 12)),
+                allocation.assignments());
+    }
+
+    @Test
+    void testSolve_WithLargeCohort_ShouldUseEachRoomOnce() {
+        List<RoomAllocationSolver.Occupant> occupants = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            occupants.add(i % 3 == 0 ? woman(i) : man(i));
+        }
+        List<RoomAllocationSolver.CandidateRoom> rooms = new ArrayList<>();
+        for (int i = 1; i <= 220; i++) {
+            rooms.add(room(1000 + i, i / 20, i <= 40));
+        }
+
+        RoomAllocationSolver.Allocation allocation = RoomAllocationSolver.solve(occupants, rooms);
+
+        assertEquals(200, allocation.assignments().size());
+        assertEquals(200, allocation.assignments().stream().map(RoomAllocationSolver.Assignment::idRoom).distinct().count());
+        assertTrue(allocation.unplacedUserIds().isEmpty());
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.afpa.hebergement.service.availability;
+
+import com.afpa.hebergement.model.enum_occupancy.OccupancyType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link RoomOccupancy} et {@link CenterAvailability}.
+ * Vérifie la détection des chevauchements (intervalles semi-ouverts) et la recherche de chambres libres.
+ */
+class RoomOccupancyTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 10);
+
+    private RoomOccupancy occupancy;
+
+    @BeforeEach
+    void setUp() {
+        occupancy = new RoomOccupancy();
+        // Réservation du 10 au 15 (le 15 est le jour de départ)
+        occupancy.add(OccupancyType.RESERVATION, 1, DAY, DAY.plusDays(5));
+    }
+
+    @Test
+    void testOverlaps_WhenPeriodsIntersect_ShouldReturnTrue() {
+        assertTrue(occupancy.overlaps(DAY.minusDays(2), DAY.plusDays(1), null, null));
+        assertTrue(occupancy.overlaps(DAY.plusDays(4), DAY.plusDays(10), null, null));
+        assertTrue(occupancy.overlaps(DAY.plusDays(1), DAY.plusDays(2), null, null));
+    }
+
+    @Test
+    void testOverlaps_WhenPeriodsAreAdjacent_ShouldReturnFalse() {
+        // Arrivée le jour du départ de la réservation existante
+        assertFalse(occupancy.overlaps(DAY.plusDays(5), DAY.plusDays(8), null, null));
+        // Départ le jour de l'arrivée de la réservation existante
+        assertFalse(occupancy.overlaps(DAY.minusDays(3), DAY, null, null));
+    }
+
+    @Test
+    void testOverlaps_WhenSourceIsExcluded_ShouldIgnoreIt() {
+        assertFalse(occupancy.overlaps(DAY, DAY.plusDays(2), OccupancyType.RESERVATION, 1));
+    }
+
+    @Test
+    void testOverlaps_WhenTypeDiffers_ShouldIgnoreIt() {
+        occupancy.add(OccupancyType.WORK, 7, DAY.plusDays(20), DAY.plusDays(22));
+        assertFalse(occupancy.overlaps(DAY.plusDays(20), DAY.plusDays(21), OccupancyType.RESERVATION, null));
+        assertTrue(occupancy.overlaps(DAY.plusDays(20), DAY.plusDays(21), null, null));
+    }
+
+    @Test
+    void testOverlaps_WithLongPeriodStartingEarlier_ShouldReturnTrue() {
+        occupancy.add(OccupancyType.LEASE, 3, DAY.plusDays(30), DAY.plusDays(120));
+        assertTrue(occupancy.overlaps(DAY.plusDays(100), DAY.plusDays(101), null, null));
+    }
+
+    @Test
+    void testOverlaps_WithUnboundedPeriod_ShouldReturnTrueAfterStart() {
+        occupancy.add(OccupancyType.WORK, 4, DAY.plusDays(50), null);
+        assertTrue(occupancy.overlaps(DAY.plusDays(400), DAY.plusDays(401), null, null));
+        assertFalse(occupancy.overlaps(DAY.plusDays(10), DAY.plusDays(50), null, null));
+    }
+
+    @Test
+    void testAdd_WithSameSource_ShouldReplacePreviousPeriod() {
+        occupancy.add(OccupancyType.RESERVATION, 1, DAY.plusDays(10), DAY.plusDays(12));
+        assertFalse(occupancy.overlaps(DAY, DAY.plusDays(5), null, null));
+        assertTrue(occupancy.overlaps(DAY.plusDays(11), DAY.plusDays(12), null, null));
+        assertEquals(1, occupancy.size());
+    }
+
+    @Test
+    void testRemove_ShouldFreeThePeriod() {
+        assertTrue(occupancy.remove(OccupancyType.RESERVATION, 1));
+        assertFalse(occupancy.overlaps(DAY, DAY.plusDays(5), null, null));
+        assertFalse(occupancy.remove(OccupancyType.RESERVATION, 1));
+    }
+
+    @Test
+    void testFindFreeRooms_ShouldSkipOccupiedAndUnusableRooms() {
+        CenterAvailability center = new CenterAvailability(1);
+        center.addRoom(10, true);
+        center.addRoom(11, true);
+        center.addRoom(12, false);
+        center.occupy(10, OccupancyType.RESERVATION, 1, DAY, DAY.plusDays(5));
+
+        assertEquals(List.of(11), center.findFreeRooms(DAY.plusDays(1), DAY.plusDays(3)));
+        assertEquals(List.of(10, 11), center.findFreeRooms(DAY.plusDays(5), DAY.plusDays(7)));
+
+        // Déplacement de la réservation sur une autre chambre
+        center.occupy(11, OccupancyType.RESERVATION, 1, DAY, DAY.plusDays(5));
+        assertEquals(List.of(10), center.findFreeRooms(DAY.plusDays(1), DAY.plusDays(3)));
+
+        center.release(OccupancyType.RESERVATION, 1);
+        assertEquals(List.of(10, 11), center.findFreeRooms(DAY.plusDays(1), DAY.plusDays(3)));
+    }
+
+}
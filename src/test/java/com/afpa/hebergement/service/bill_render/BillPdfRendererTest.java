@@ -0,0 +1,149 @@
+package com.afpa.hebergement.service.bill_render;
+
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.ImageRenderInfo;
+import com.itextpdf.text.pdf.parser.PdfReaderContentParser;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import com.itextpdf.text.pdf.parser.RenderListener;
+import com.itextpdf.text.pdf.parser.TextRenderInfo;
+import com.itextpdf.text.pdf.parser.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link BillPdfRenderer}.
+ */
+class BillPdfRendererTest {
+
+    private final BillPdfRenderer billPdfRenderer = new BillPdfRenderer();
+
+    private static BillPdfData bill(LocalDate paymentDate, List<String> paymentTypes) {
+        return new BillPdfData(12, "F-0012", LocalDate.of(2024, 3, 1), paymentDate, new BigDecimal("450.000"),
+                "afpa rouen", "12 rue des lilas", "76000", "rouen",
+                "Madame", "Martin", "Claire", paymentTypes);
+    }
+
+    private static byte[] renderBytes(BillPdfRenderer renderer, BillPdfData bill) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        renderer.render(bill, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static String render(BillPdfRenderer renderer, BillPdfData bill) throws Exception {
+        return new String(renderBytes(renderer, bill), StandardCharsets.ISO_8859_1);
+    }
+
+    private static String text(byte[] pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            return PdfTextExtractor.getTextFromPage(reader, 1);
+        } finally {
+            reader.close();
+        }
+    }
+
+    // Abscisse la plus à droite atteinte par le texte de la première page
+    private static float rightmostX(byte[] pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            float[] rightmost = {0};
+            new PdfReaderContentParser(reader).processContent(1, new RenderListener() {
+                @Override
+                public void renderText(TextRenderInfo renderInfo) {
+                    rightmost[0] = Math.max(rightmost[0], renderInfo.getBaseline().getEndPoint().get(Vector.I1));
+                }
+
+                @Override
+                public void beginTextBlock() {
+                }
+
+                @Override
+                public void endTextBlock() {
+                }
+
+                @Override
+                public void renderImage(ImageRenderInfo renderInfo) {
+                }
+            });
+            return rightmost[0];
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void render_writesPdfDocument() throws Exception {
+        String pdf = render(billPdfRenderer, bill(LocalDate.of(2024, 3, 5), List.of("Virement", "Chèque")));
+
+        assertTrue(pdf.startsWith("%PDF"));
+        assertTrue(pdf.contains("%%EOF"));
+    }
+
+    @Test
+    void render_fillsTemplateWithBillFields() throws Exception {
+        String text = text(renderBytes(billPdfRenderer, bill(LocalDate.of(2024, 3, 5), List.of("Virement", "Chèque"))));
+
+        assertTrue(text.contains("Quittance de loyer"));
+        assertTrue(text.contains("MARCH 2024"));
+        assertTrue(text.contains("afpa rouen"));
+        assertTrue(text.contains("Madame Martin Claire"));
+        assertTrue(text.contains("F-0012"));
+        assertTrue(text.contains("450.000 euros"));
+        assertTrue(text.contains("Virement, Chèque"));
+        assertTrue(text.contains("le 05/03/2024"));
+        assertTrue(text.contains("Cette quittance annule"));
+    }
+
+    @Test
+    void render_reusesTemplateForSeveralBills() throws Exception {
+        String first = text(renderBytes(billPdfRenderer, bill(null, List.of())));
+        String second = text(renderBytes(billPdfRenderer, new BillPdfData(13, "F-0013", LocalDate.of(2024, 4, 1), null,
+                new BigDecimal("90.000"), "afpa caen", "1 rue du port", "14000", "caen", "Monsieur", "Durand", "Paul", List.of())));
+
+        assertTrue(first.contains("F-0012"));
+        assertFalse(first.contains("F-0013"));
+        assertTrue(second.contains("F-0013"));
+        assertFalse(second.contains("F-0012"));
+    }
+
+    @Test
+    void render_wrapsLongFieldsWithinRightMargin() throws Exception {
+        String address = "centre de formation professionnelle pour adultes, bâtiment C, aile nord, "
+                + "entrée par le parking des visiteurs, 1250 avenue du général de gaulle prolongée";
+        byte[] pdf = renderBytes(billPdfRenderer, new BillPdfData(14, "F-0014", LocalDate.of(2024, 3, 1), null,
+                new BigDecimal("450.000"), "afpa rouen", address, "76000", "rouen",
+                "Madame", "Martin-Delacroix-Fontaine de la Roche-Beaulieu", "Claire-Marie-Amandine-Ségolène-Bérénice",
+                List.of("Virement bancaire", "Chèque", "Espèces", "Prélèvement automatique", "Carte bancaire", "Mandat cash")));
+
+        assertTrue(rightmostX(pdf) <= PageSize.A4.getWidth() - 36 + 1);
+
+        String text = text(pdf);
+        assertTrue(text.contains("prolongée"));
+        assertTrue(text.contains("76000 rouen"));
+        assertTrue(text.contains("Bérénice"));
+        assertTrue(text.contains("Mandat cash"));
+        assertTrue(text.contains("F-0014"));
+    }
+
+    @Test
+    void render_withoutPaymentDateOrPaymentType() throws Exception {
+        String pdf = render(billPdfRenderer, bill(null, List.of()));
+
+        assertTrue(pdf.startsWith("%PDF"));
+    }
+
+    @Test
+    void pdfPath_isNamedAfterBill() {
+        assertEquals(Path.of("documents", "bills", "bill_12.pdf"), BillPdfRenderer.pdfPath(12));
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.afpa.hebergement.service.billing_run;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link RentAmounts} et les numéros de facture de {@link BillingRunner}.
+ */
+class RentAmountsTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("15.500");
+
+    @Test
+    void totalAmount_dependsOnFrequency() {
+        assertEquals(new BigDecimal("15.500"), RentAmounts.totalAmount(AMOUNT, "daily"));
+        assertEquals(new BigDecimal("108.500"), RentAmounts.totalAmount(AMOUNT, "weekly"));
+        assertEquals(new BigDecimal("465.000"), RentAmounts.totalAmount(AMOUNT, "monthly"));
+    }
+
+    @Test
+    void totalAmount_ignoresCaseAndDefaultsToBaseAmount() {
+        assertEquals(new BigDecimal("465.000"), RentAmounts.totalAmount(AMOUNT, "Monthly"));
+        assertEquals(AMOUNT, RentAmounts.totalAmount(AMOUNT, "yearly"));
+    }
+
+    @Test
+    void billNumberPrefix_leavesFiveCharactersForTheSequence() {
+        String prefix = BillingRunner.billNumberPrefix(YearMonth.of(2024, 3));
+
+        assertEquals("Q2403", prefix);
+        assertEquals(10, (prefix + "00042").length());
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.afpa.hebergement.service.city_import;
+
+import com.afpa.hebergement.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link InseeCsvReader}.
+ * Vérifie le repérage des colonnes, la normalisation des codes et des libellés et le rejet des lignes mal formées.
+ */
+class InseeCsvReaderTest {
+
+    private static final String HEADER = "code_commune_INSEE,nom_commune_postal,code_postal,libelle_acheminement,ligne_5,"
+            + "code_commune,nom_commune_complet,code_departement,nom_departement,nom_region\n";
+
+    private static List<InseeCsvReader.Row> readAll(InseeCsvReader reader) throws IOException {
+        List<InseeCsvReader.Row> rows = new ArrayList<>();
+        InseeCsvReader.Row row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    void testNext_ShouldReadColumnsByHeaderName() throws IOException {
+        String csv = HEADER + "01001,L ABERGEMENT CLEMENCIAT,01400,L ABERGEMENT CLEMENCIAT,,1,L'Abergement-Clémenciat,01,Ain,Auvergne-Rhône-Alpes\n";
+
+        try (InseeCsvReader reader = new InseeCsvReader(new StringReader(csv))) {
+            List<InseeCsvReader.Row> rows = readAll(reader);
+
+            assertEquals(List.of(new InseeCsvReader.Row("01001", "01400", "l'abergement-clémenciat", "01", "ain", "auvergne-rhône-alpes")), rows);
+            assertEquals(0, reader.getRejectedRows());
+        }
+    }
+
+    @Test
+    void testNext_ShouldPadCodesAndDeriveMissingDepartmentCode() throws IOException {
+        String csv = "\uFEFFcode_postal;code_commune_insee;nom_commune;nom_departement;nom_region\n"
+                + "1400;1001;L'Abergement-Clémenciat;Ain;Auvergne-Rhône-Alpes\n"
+                + "97110;97120;Pointe-à-Pitre;Guadeloupe;Guadeloupe\n"
+                + "20000;2a004;Ajaccio;Corse-du-Sud;Corse\n";
+
+        try (InseeCsvReader reader = new InseeCsvReader(new StringReader(csv))) {
+            List<InseeCsvReader.Row> rows = readAll(reader);
+
+            assertEquals(3, rows.size());
+            assertEquals("01001", rows.get(0).inseeCode());
+            assertEquals("01400", rows.get(0).postcode());
+            assertEquals("01", rows.get(0).departmentCode());
+            assertEquals("971", rows.get(1).departmentCode());
+            assertEquals("2A004", rows.get(2).inseeCode());
+            assertEquals("2A", rows.get(2).departmentCode());
+        }
+    }
+
+    @Test
+    void testNext_ShouldSkipAndCountInvalidRows() throws IOException {
+        String csv = HEADER
+                + "01001,X,ABCDE,X,,1,Bad postcode,01,Ain,Auvergne-Rhône-Alpes\n"
+                + "01002,X,01640,X,,2,No region,01,Ain,\n"
+                + "\n"
+                + "01004,X,01500,X,,4,\"Ambérieu, en-Bugey\",01,Ain,Auvergne-Rhône-Alpes\n";
+
+        try (InseeCsvReader reader = new InseeCsvReader(new StringReader(csv))) {
+            List<InseeCsvReader.Row> rows = readAll(reader);
+
+            assertEquals(1, rows.size());
+            assertEquals("ambérieu, en-bugey", rows.get(0).cityName());
+            assertEquals(2, reader.getRejectedRows());
+        }
+    }
+
+    @Test
+    void testConstructor_WithMissingColumn_ShouldThrow() {
+        String csv = "code_commune_insee,code_postal,nom_commune\n01001,01400,Test\n";
+
+        assertThrows(BadRequestException.class, () -> new InseeCsvReader(new StringReader(csv)));
+        assertThrows(BadRequestException.class, () -> new InseeCsvReader(new StringReader("")));
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.afpa.hebergement.service.city_search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link CityPrefixIndex}.
+ * Vérifie la recherche par début de nom, de mot ou de code postal, l'ordre des résultats et la limite.
+ */
+class CityPrefixIndexTest {
+
+    private static final CityPrefixIndex INDEX = CityPrefixIndex.build(List.of(
+            new CityPrefixIndex.Entry(1, "SAINT-ÉTIENNE", "42000", "42218", "42", "LOIRE", "AUVERGNE-RHÔNE-ALPES"),
+            new CityPrefixIndex.Entry(2, "PARIS", "75002", "75102", "75", "PARIS", "ÎLE-DE-FRANCE"),
+            new CityPrefixIndex.Entry(3, "PARIS", "75001", "75101", "75", "PARIS", "ÎLE-DE-FRANCE"),
+            new CityPrefixIndex.Entry(4, "PARISOT", "81310", "81201", "81", "TARN", "OCCITANIE"),
+            new CityPrefixIndex.Entry(5, "ÉTIOLLES", "91450", "91225", "91", "ESSONNE", "ÎLE-DE-FRANCE"),
+            new CityPrefixIndex.Entry(6, "L'ÎLE-D'YEU", "85350", "85113", "85", "VENDÉE", "PAYS DE LA LOIRE")));
+
+    private static List<Integer> ids(List<CityPrefixIndex.Entry> entries) {
+        return entries.stream().map(CityPrefixIndex.Entry::id).toList();
+    }
+
+    @Test
+    void testSearch_ByNamePrefix_ShouldListExactNamesFirstOrderedByPostcode() {
+        assertEquals(List.of(3, 2, 4), ids(INDEX.search("par", 10)));
+    }
+
+    @Test
+    void testSearch_ShouldIgnoreAccentsCaseAndSeparators() {
+        assertEquals(List.of(1), ids(INDEX.search("saint etienne", 10)));
+        assertEquals(List.of(1), ids(INDEX.search("St-Étienne", 10)));
+        assertEquals(List.of(6), ids(INDEX.search("l ile d", 10)));
+    }
+
+    @Test
+    void testSearch_ShouldMatchInnerWordsAfterNameStarts() {
+        assertEquals(List.of(5, 1), ids(INDEX.search("eti", 10)));
+    }
+
+    @Test
+    void testSearch_ByPostcodePrefix() {
+        assertEquals(List.of(3, 2), ids(INDEX.search("750", 10)));
+        assertEquals(List.of(6), ids(INDEX.search("85350", 10)));
+    }
+
+    @Test
+    void testSearch_ShouldRespectLimit() {
+        assertEquals(List.of(3), ids(INDEX.search("paris", 1)));
+        assertTrue(INDEX.search("paris", 0).isEmpty());
+    }
+
+    @Test
+    void testSearch_WithBlankOrUnknownQuery_ShouldReturnEmptyList() {
+        assertTrue(INDEX.search("  ", 10).isEmpty());
+        assertTrue(INDEX.search(null, 10).isEmpty());
+        assertTrue(INDEX.search("zzz", 10).isEmpty());
+        assertTrue(CityPrefixIndex.empty().search("par", 10).isEmpty());
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.afpa.hebergement.service.download;
+
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link FileDownloader} et {@link ByteRange}.
+ * Vérifie les réponses complètes, partielles (Range, If-Range) et conditionnelles (If-None-Match).
+ */
+class FileDownloaderTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private FileDownloader fileDownloader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(directory.resolve("bill_1.pdf"), CONTENT);
+        fileDownloader = new FileDownloader(new ContentDigestCache(100));
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        fileDownloader.send(file, "bill_1.pdf", MediaType.APPLICATION_PDF, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/factures/1/pdf");
+    }
+
+    @Test
+    void testSend_ShouldReturnWholeFileWithStrongEtag() throws IOException {
+        MockHttpServletResponse response = send(get());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(CONTENT.length(), response.getContentLengthLong());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertEquals("\"" + ContentDigestCache.compute(file) + "\"", etag);
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void testSend_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws IOException {
+        String etag = send(get()).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void testSend_AfterFileChanged_ShouldReturnNewEtag() throws IOException {
+        String etag = send(get()).getHeader(HttpHeaders.ETAG);
+        Files.writeString(file, "new content");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("new content", response.getContentAsString());
+        assertNotEquals(etag, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testSend_WithRange_ShouldReturnPartialContent() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("56789", response.getContentAsString());
+        assertEquals(5, response.getContentLengthLong());
+        assertEquals("bytes 5-9/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testSend_WithSuffixRange_ShouldReturnLastBytes() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("hij", response.getContentAsString());
+    }
+
+    @Test
+    void testSend_WithRangeBeyondFile_ShouldReturnRangeNotSatisfiable() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testSend_WithStaleIfRange_ShouldReturnWholeFile() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"old-version\"");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    void testSend_WithTomcatSendfile_ShouldDelegateLargeFiles() throws IOException {
+        file = Files.write(directory.resolve("large.pdf"), new byte[100_000]);
+        MockHttpServletRequest request = get();
+        request.setAttribute(FileDownloader.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=1000-");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute(FileDownloader.SENDFILE_FILENAME));
+        assertEquals(1000L, request.getAttribute(FileDownloader.SENDFILE_START));
+        assertEquals(100_000L, request.getAttribute(FileDownloader.SENDFILE_END));
+    }
+
+    @Test
+    void testSend_WhenFileDoesNotExist_ShouldThrowResourceNotFoundException() {
+        file = directory.resolve("missing.pdf");
+        assertThrows(ResourceNotFoundException.class, () -> send(get()));
+    }
+
+    @Test
+    void testParse_ShouldIgnoreMalformedOrMultipleRanges() {
+        assertNull(ByteRange.parse(null, 20));
+        assertNull(ByteRange.parse("items=0-5", 20));
+        assertNull(ByteRange.parse("bytes=0-5,10-15", 20));
+        assertNull(ByteRange.parse("bytes=9-5", 20));
+        assertNull(ByteRange.parse("bytes=a-b", 20));
+        assertEquals(new ByteRange(10, 19), ByteRange.parse("bytes=10-100", 20));
+        assertEquals(new ByteRange(0, 19), ByteRange.parse("bytes=-50", 20));
+    }
+
+}
@@ -5,6 +5,7 @@ import com.afpa.hebergement.exception.DuplicateException;
 import com.afpa.hebergement.exception.InternalServerException;
 import com.afpa.hebergement.exception.ResourceNotFoundException;
 import com.afpa.hebergement.model.dto.CityDTO;
+import com.afpa.hebergement.model.dto.CitySuggestionDTO;
 import com.afpa.hebergement.model.dto.DepartmentDTO;
 import com.afpa.hebergement.model.dto.RegionDTO;
 import com.afpa.hebergement.model.entity.City;
@@ -12,6 +13,8 @@ import com.afpa.hebergement.model.entity.Department;
 import com.afpa.hebergement.model.entity.Region;
 import com.afpa.hebergement.model.mapper.CityMapper;
 import com.afpa.hebergement.model.repository.CityRepository;
+import com.afpa.hebergement.service.city_search.CityAutocompleteIndex;
+import com.afpa.hebergement.service.city_search.CityPrefixIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +23,7 @@ import org.mockito.Mock;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -36,6 +40,9 @@ class CityAppServiceImplTest {
     @Mock
     private CityRepository cityRepository;
 
+    @Mock
+    private CityAutocompleteIndex cityAutocompleteIndex;
+
     @InjectMocks
     private CityServiceImpl cityService;
 
@@ -132,6 +139,7 @@ class CityAppServiceImplTest {
         expectedCityDto.getIdDepartment().getIdRegion().setRegionName(expectedCityDto.getIdDepartment().getIdRegion().getRegionName().toUpperCase());
 
         assertThat(savedCityDto).usingRecursiveComparison().isEqualTo(expectedCityDto);
+        verify(cityAutocompleteIndex).refreshAfterCommit();
     }
 
     /**
@@ -184,4 +192,19 @@ class CityAppServiceImplTest {
         String postCode = city.getPostcode();
         assertThrows(ResourceNotFoundException.class, () -> cityService.getByInseeCodeAndPostCode(inseeCode, postCode));
     }
+
+    /**
+     * Vérifie que l'autocomplétion renvoie les villes de l'index avec leur département et leur région.
+     */
+    @Test
+    void testAutocomplete_ShouldMapIndexEntries() {
+        when(cityAutocompleteIndex.search("lil", 5)).thenReturn(List.of(
+                new CityPrefixIndex.Entry(1, "LILLE", "59000", "59350", "59", "NORD", "HAUTS-DE-FRANCE")));
+
+        List<CitySuggestionDTO> suggestions = cityService.autocomplete("lil", 5);
+
+        assertEquals(1, suggestions.size());
+        assertThat(suggestions.get(0)).usingRecursiveComparison()
+                .isEqualTo(new CitySuggestionDTO(1, "LILLE", "59000", "59350", "59", "NORD", "HAUTS-DE-FRANCE"));
+    }
 }
@@ -0,0 +1,227 @@
+package com.afpa.hebergement.service.entity_service_impl;
+
+import com.afpa.hebergement.exception.BadRequestException;
+import com.afpa.hebergement.model.dto.ReservationBatchResultDTO;
+import com.afpa.hebergement.model.dto.ReservationDTO;
+import com.afpa.hebergement.model.dto.ReservationMotiveDTO;
+import com.afpa.hebergement.model.dto.RoomDTO;
+import com.afpa.hebergement.model.entity.*;
+import com.afpa.hebergement.model.repository.AfpaCenterRepository;
+import com.afpa.hebergement.model.repository.AppUserRepository;
+import com.afpa.hebergement.model.repository.ReservationMotiveRepository;
+import com.afpa.hebergement.model.repository.ReservationRepository;
+import com.afpa.hebergement.model.repository.RoomRepository;
+import com.afpa.hebergement.service.availability.BookingTransactionExecutor;
+import com.afpa.hebergement.service.availability.RoomAvailabilityEngine;
+import com.afpa.hebergement.service.availability.RoomOccupancyProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Classe de test pour {@link ReservationServiceImpl}.
+ * Elle vérifie la création d'un lot de réservations : un résultat par réservation et un nombre constant de requêtes.
+ */
+@ExtendWith(SpringExtension.class)
+class ReservationAppServiceImplTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private ReservationMotiveRepository reservationMotiveRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private AfpaCenterRepository afpaCenterRepository;
+
+    @Mock
+    private AppUserRepository appUserRepository;
+
+    @Mock
+    private RoomAvailabilityEngine roomAvailabilityEngine;
+
+    @Mock
+    private RoomOccupancyProjection roomOccupancyProjection;
+
+    @Mock
+    private BookingTransactionExecutor bookingTransactionExecutor;
+
+    @InjectMocks
+    private ReservationServiceImpl reservationService;
+
+    private Room room;
+    private ReservationMotive reservationMotive;
+    private LocalDate start;
+
+    /**
+     * Méthode de configuration exécutée avant chaque test.
+     * Initialise une chambre, un motif de réservation et un exécuteur qui lance directement l'écriture.
+     */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        Region region = new Region();
+        region.setId(1);
+        region.setRegionName("hauts-de-france");
+
+        Department department = new Department();
+        department.setId(1);
+        department.setDepartmentName("nord");
+        department.setDepartmentCode("59");
+        department.setIdRegion(region);
+
+        City city = new City();
+        city.setId(1);
+        city.setCityName("roubaix");
+        city.setPostcode("59100");
+        city.setInseeCode("59512");
+        city.setIdDepartment(department);
+
+        AfpaCenter afpaCenter = new AfpaCenter();
+        afpaCenter.setId(1);
+        afpaCenter.setCenterName("afpa roubaix");
+        afpaCenter.setAddressCenter("20 rue du luxembourg");
+        afpaCenter.setSiren("123456789");
+        afpaCenter.setTvaNumber("fr12345678901");
+        afpaCenter.setCenterManager("dupont");
+        afpaCenter.setIdCity(city);
+
+        Floor floor = new Floor();
+        floor.setId(1);
+        floor.setNumberFloor(1);
+        floor.setIdAfpaCenter(afpaCenter);
+
+        room = new Room();
+        room.setId(1);
+        room.setRoomNumber("101");
+        room.setIsUsable(true);
+        room.setIdFloor(floor);
+
+        reservationMotive = new ReservationMotive();
+        reservationMotive.setId(1);
+        reservationMotive.setMotive("formation");
+
+        start = LocalDate.now().plusDays(10);
+
+        when(bookingTransactionExecutor.execute(any(Supplier.class), anyString()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(roomRepository.findAllById(anySet())).thenReturn(List.of(room));
+        when(reservationMotiveRepository.findAllById(anySet())).thenReturn(List.of(reservationMotive));
+
+        // Identifiants alloués par la séquence lors de l'insertion
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Reservation> saved = new ArrayList<>(invocation.<List<Reservation>>getArgument(0));
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setId(100 + i);
+            }
+            return saved;
+        });
+    }
+
+    /**
+     * Vérifie qu'un lot renvoie un résultat par réservation : créée, en conflit avec une réservation du même lot,
+     * ou chambre introuvable, avec une seule requête de chargement et de vérification des chevauchements.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateBatch_ShouldReturnOneResultPerReservation() {
+        when(reservationRepository.findOverlappingForRooms(anySet(), any(), any())).thenReturn(List.of());
+
+        List<ReservationBatchResultDTO> results = reservationService.createBatch(List.of(
+                reservationDto(1, start, start.plusDays(4)),
+                reservationDto(1, start.plusDays(1), start.plusDays(3)),
+                reservationDto(99, start, start.plusDays(4))));
+
+        assertEquals(3, results.size());
+        assertEquals(ReservationBatchResultDTO.Status.CREATED, results.get(0).getStatus());
+        assertEquals(100, results.get(0).getReservation().getId());
+        assertEquals(ReservationBatchResultDTO.Status.CONFLICT, results.get(1).getStatus());
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals(ReservationBatchResultDTO.Status.NOT_FOUND, results.get(2).getStatus());
+
+        ArgumentCaptor<List<Reservation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(reservationRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
+        verify(roomRepository, times(1)).findAllById(anySet());
+        verify(reservationRepository, times(1)).findOverlappingForRooms(anySet(), eq(start), eq(start.plusDays(4)));
+        verify(roomOccupancyProjection).projectNewReservations(anyList());
+        verify(roomAvailabilityEngine).registerReservation(any(Reservation.class), eq(room));
+    }
+
+    /**
+     * Vérifie qu'une réservation qui chevauche une réservation existante de la chambre est refusée sans insertion.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateBatch_WhenReservationOverlapsExistingOne_ShouldReturnConflict() {
+        Reservation existing = new Reservation();
+        existing.setId(50);
+        existing.setStartDate(start.plusDays(2));
+        existing.setEndDate(start.plusDays(6));
+        existing.setIdRoom(room);
+        when(reservationRepository.findOverlappingForRooms(anySet(), any(), any())).thenReturn(List.of(existing));
+
+        List<ReservationBatchResultDTO> results = reservationService.createBatch(List.of(reservationDto(1, start, start.plusDays(4))));
+
+        assertEquals(ReservationBatchResultDTO.Status.CONFLICT, results.get(0).getStatus());
+        assertEquals(ReservationServiceImpl.RESERVATION_ALREADY_EXIST_FOR_THE_GIVEN_ROOM_AND_DATES, results.get(0).getMessage());
+
+        ArgumentCaptor<List<Reservation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(reservationRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).isEmpty();
+    }
+
+    /**
+     * Vérifie qu'une réservation aux dates incohérentes est refusée sans aucune requête.
+     */
+    @Test
+    void testCreateBatch_WhenDatesAreInvalid_ShouldReturnInvalid() {
+        List<ReservationBatchResultDTO> results = reservationService.createBatch(List.of(reservationDto(1, start.plusDays(4), start)));
+
+        assertEquals(ReservationBatchResultDTO.Status.INVALID, results.get(0).getStatus());
+        verifyNoInteractions(roomRepository, reservationMotiveRepository, reservationRepository);
+    }
+
+    /**
+     * Vérifie qu'un lot vide déclenche une {@link BadRequestException}.
+     */
+    @Test
+    void testCreateBatch_WhenBatchIsEmpty_ShouldThrowBadRequestException() {
+        assertThrows(BadRequestException.class, () -> reservationService.createBatch(List.of()));
+        verifyNoInteractions(bookingTransactionExecutor);
+    }
+
+
+    private ReservationDTO reservationDto(Integer idRoom, LocalDate startDate, LocalDate endDate) {
+        RoomDTO roomDto = new RoomDTO();
+        roomDto.setId(idRoom);
+
+        ReservationMotiveDTO reservationMotiveDto = new ReservationMotiveDTO();
+        reservationMotiveDto.setId(reservationMotive.getId());
+
+        ReservationDTO reservationDto = new ReservationDTO();
+        reservationDto.setStartDate(startDate);
+        reservationDto.setEndDate(endDate);
+        reservationDto.setIdRoom(roomDto);
+        reservationDto.setIdReservationMotive(reservationMotiveDto);
+        return reservationDto;
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.afpa.hebergement.service.entity_service_impl;
+
+import com.afpa.hebergement.model.dto.ReservationBatchResultDTO;
+import com.afpa.hebergement.model.dto.ReservationDTO;
+import com.afpa.hebergement.model.dto.RoomAllocationResultDTO;
+import com.afpa.hebergement.model.entity.*;
+import com.afpa.hebergement.model.repository.AfpaCenterRepository;
+import com.afpa.hebergement.model.repository.ParticipateRepository;
+import com.afpa.hebergement.model.repository.ReservationRepository;
+import com.afpa.hebergement.model.repository.RoomRepository;
+import com.afpa.hebergement.model.repository.SessionFormationRepository;
+import com.afpa.hebergement.service.availability.RoomAvailabilityEngine;
+import com.afpa.hebergement.service.entity_service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Classe de test pour {@link RoomAllocationServiceImpl}.
+ * Elle vérifie que les participants déjà logés sur la période de la session ne reçoivent pas une seconde chambre.
+ */
+@ExtendWith(SpringExtension.class)
+class RoomAllocationAppServiceImplTest {
+
+    @Mock
+    private SessionFormationRepository sessionFormationRepository;
+
+    @Mock
+    private ParticipateRepository participateRepository;
+
+    @Mock
+    private AfpaCenterRepository afpaCenterRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private RoomAvailabilityEngine roomAvailabilityEngine;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @InjectMocks
+    private RoomAllocationServiceImpl roomAllocationService;
+
+    private SessionFormation session;
+    private AppUser firstUser;
+    private AppUser secondUser;
+
+    /**
+     * Méthode de configuration exécutée avant chaque test.
+     * Initialise une session de deux participants et un centre de deux chambres libres.
+     */
+    @BeforeEach
+    void setUp() {
+        session = new SessionFormation();
+        session.setId(1);
+        session.setStartDateSession(LocalDate.now().plusDays(10));
+        session.setEndDateSession(LocalDate.now().plusDays(40));
+
+        AfpaCenter afpaCenter = new AfpaCenter();
+        afpaCenter.setId(1);
+
+        firstUser = user(1, "dupont");
+        secondUser = user(2, "martin");
+
+        Floor floor = new Floor();
+        floor.setId(1);
+        floor.setNumberFloor(1);
+        floor.setIsForWomen(false);
+
+        when(sessionFormationRepository.findById(1)).thenReturn(Optional.of(session));
+        when(afpaCenterRepository.findById(1)).thenReturn(Optional.of(afpaCenter));
+        when(participateRepository.findWithUserByIdSession(1)).thenReturn(List.of(participate(firstUser), participate(secondUser)));
+        when(roomAvailabilityEngine.findFreeRoomIds(eq(1), any(), any())).thenReturn(List.of(10, 11));
+        when(roomRepository.findWithFloorByAfpaCenter(1)).thenReturn(List.of(room(10, floor), room(11, floor)));
+    }
+
+    /**
+     * Vérifie qu'un second appel pour la même session ne crée aucune réservation
+     * lorsque tous les participants sont déjà logés sur la période.
+     */
+    @Test
+    void testAllocateSession_WhenCalledTwice_ShouldNotBookParticipantsAgain() {
+        when(reservationRepository.findOverlappingForUsers(anyCollection(), eq(session.getStartDateSession()), eq(session.getEndDateSession())))
+                .thenReturn(List.of(reservation(100, firstUser), reservation(101, secondUser)));
+
+        RoomAllocationResultDTO result = roomAllocationService.allocateSession(1, 1, 1, false);
+
+        assertThat(result.getAllocations()).isEmpty();
+        assertThat(result.getAlreadyReservedUserIds()).containsExactly(1, 2);
+        assertThat(result.getReservations()).isEmpty();
+        verify(reservationService, never()).createBatch(anyList());
+    }
+
+    /**
+     * Vérifie que seuls les participants sans réservation sur la période reçoivent une chambre,
+     * et que la réservation créée porte l'occupant.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAllocateSession_WhenOneParticipantIsAlreadyReserved_ShouldBookOnlyTheOther() {
+        when(reservationRepository.findOverlappingForUsers(anyCollection(), any(), any()))
+                .thenReturn(List.of(reservation(100, firstUser)));
+        when(reservationService.createBatch(anyList()))
+                .thenReturn(List.of(new ReservationBatchResultDTO(0, ReservationBatchResultDTO.Status.CREATED, new ReservationDTO(), null)));
+
+        RoomAllocationResultDTO result = roomAllocationService.allocateSession(1, 1, 1, false);
+
+        assertThat(result.getAlreadyReservedUserIds()).containsExactly(1);
+        assertThat(result.getAllocations()).hasSize(1);
+        assertThat(result.getAllocations().get(0).getIdUser()).isEqualTo(2);
+
+        ArgumentCaptor<List<ReservationDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(reservationService).createBatch(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
+        assertThat(captor.getValue().get(0).getIdUser()).isEqualTo(2);
+    }
+
+
+    private static AppUser user(Integer id, String name) {
+        AppUser user = new AppUser();
+        user.setId(id);
+        user.setName(name);
+        user.setFirstname("jean");
+        return user;
+    }
+
+    private static Participate participate(AppUser user) {
+        Participate participate = new Participate();
+        participate.setIdUser(user);
+        return participate;
+    }
+
+    private static Room room(Integer id, Floor floor) {
+        Room room = new Room();
+        room.setId(id);
+        room.setRoomNumber(String.valueOf(id));
+        room.setIdFloor(floor);
+        room.setIsUsable(true);
+        return room;
+    }
+
+    private Reservation reservation(Integer id, AppUser user) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setStartDate(session.getStartDateSession());
+        reservation.setEndDate(session.getEndDateSession());
+        reservation.setIdUser(user);
+        return reservation;
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.afpa.hebergement.service.export;
+
+import com.afpa.hebergement.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link ExportRowWriter}.
+ * Vérifie l'échappement CSV, la protection contre les formules et le format NDJSON (un objet par ligne).
+ */
+class ExportRowWriterTest {
+
+    private record Row(Integer id, String name, LocalDate date, Boolean active, BigDecimal amount) {
+    }
+
+    private static final List<ExportColumn<Row>> COLUMNS = List.of(
+            new ExportColumn<>("id", Row::id),
+            new ExportColumn<>("name", Row::name),
+            new ExportColumn<>("date", Row::date),
+            new ExportColumn<>("active", Row::active),
+            new ExportColumn<>("amount", Row::amount)
+    );
+
+    private static String write(ExportFormat format, Row... rows) throws IOException {
+        StringWriter out = new StringWriter();
+        ExportRowWriter<Row> writer = new ExportRowWriter<>(format, COLUMNS, out);
+        writer.writeHeader();
+        for (Row row : rows) {
+            writer.writeRow(row);
+        }
+        writer.flush();
+        return out.toString();
+    }
+
+    @Test
+    void testCsv_ShouldWriteHeaderAndEscapeValues() throws IOException {
+        String csv = write(ExportFormat.CSV,
+                new Row(1, "Dupont, \"Jean\"", LocalDate.of(2024, 9, 2), true, new BigDecimal("350.50")),
+                new Row(2, null, null, false, null));
+
+        assertEquals("id,name,date,active,amount\r\n"
+                + "1,\"Dupont, \"\"Jean\"\"\",2024-09-02,true,350.50\r\n"
+                + "2,,,false,\r\n", csv);
+    }
+
+    @Test
+    void testCsv_ShouldNeutralizeFormulas() throws IOException {
+        String csv = write(ExportFormat.CSV, new Row(-3, "=HYPERLINK(\"x\")", null, null, new BigDecimal("-1")));
+
+        assertTrue(csv.endsWith("-3,\"'=HYPERLINK(\"\"x\"\")\",,,-1\r\n"));
+    }
+
+    @Test
+    void testNdjson_ShouldWriteOneObjectPerLine() throws IOException {
+        String ndjson = write(ExportFormat.NDJSON,
+                new Row(1, "Line\nbreak", LocalDate.of(2024, 9, 2), true, new BigDecimal("350.50")),
+                new Row(2, null, null, false, null));
+
+        assertEquals("{\"id\":1,\"name\":\"Line\\nbreak\",\"date\":\"2024-09-02\",\"active\":true,\"amount\":350.50}\n"
+                + "{\"id\":2,\"name\":null,\"date\":null,\"active\":false,\"amount\":null}\n", ndjson);
+    }
+
+    @Test
+    void testFromParameter() {
+        assertEquals(ExportFormat.CSV, ExportFormat.fromParameter(null));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.fromParameter("NdJson"));
+        assertThrows(BadRequestException.class, () -> ExportFormat.fromParameter("xml"));
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.afpa.hebergement.service.full_text_search;
+
+import com.afpa.hebergement.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link FullTextSearch}.
+ */
+class FullTextSearchTest {
+
+    @Test
+    void normalizeQuery_stripsSpacesAndControlCharacters() {
+        assertEquals("chauffage \"salle de bain\"", FullTextSearch.normalizeQuery("  chauffage \"salle de bain\"\n"));
+        assertEquals("clé  perdue", FullTextSearch.normalizeQuery("clé\u0002\u0003perdue"));
+    }
+
+    @Test
+    void normalizeQuery_rejectsEmptyQuery() {
+        assertThrows(BadRequestException.class, () -> FullTextSearch.normalizeQuery(null));
+        assertThrows(BadRequestException.class, () -> FullTextSearch.normalizeQuery("   "));
+        assertThrows(BadRequestException.class, () -> FullTextSearch.normalizeQuery("\t\r\n"));
+    }
+
+    @Test
+    void normalizeQuery_rejectsTooLongQuery() {
+        String longest = "a".repeat(FullTextSearch.MAX_QUERY_LENGTH);
+
+        assertEquals(longest, FullTextSearch.normalizeQuery(longest));
+        assertThrows(BadRequestException.class, () -> FullTextSearch.normalizeQuery(longest + "a"));
+    }
+
+    @Test
+    void highlight_marksFoundTerms() {
+        String headline = "Le " + FullTextSearch.START_SEL + "chauffage" + FullTextSearch.STOP_SEL + " ne fonctionne plus";
+
+        assertEquals("Le <mark>chauffage</mark> ne fonctionne plus", FullTextSearch.highlight(headline));
+    }
+
+    @Test
+    void highlight_escapesUserText() {
+        String headline = "<script>alert(1)</script> " + FullTextSearch.START_SEL + "fuite" + FullTextSearch.STOP_SEL + " & eau";
+
+        assertEquals("&lt;script&gt;alert(1)&lt;/script&gt; <mark>fuite</mark> &amp; eau", FullTextSearch.highlight(headline));
+    }
+
+    @Test
+    void highlight_nullHeadline() {
+        assertEquals("", FullTextSearch.highlight(null));
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.afpa.hebergement.service.lease_creation;
+
+import com.afpa.hebergement.exception.DuplicateException;
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import com.afpa.hebergement.model.dto.LeaseContractFormDTO;
+import com.afpa.hebergement.model.entity.AppUser;
+import com.afpa.hebergement.model.entity.Rent;
+import com.afpa.hebergement.model.entity.Room;
+import com.afpa.hebergement.model.repository.AppServiceRepository;
+import com.afpa.hebergement.model.repository.AppUserRepository;
+import com.afpa.hebergement.model.repository.LeaseCreationRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Classe de test pour {@link LeaseCreationContextLoader}.
+ * Vérifie le choix de l'utilisateur parmi les lignes renvoyées par la recherche du contexte de création.
+ */
+@ExtendWith(SpringExtension.class)
+class LeaseCreationContextLoaderTest {
+
+    @Mock
+    private AppUserRepository appUserRepository;
+
+    @Mock
+    private AppServiceRepository appServiceRepository;
+
+    @InjectMocks
+    private LeaseCreationContextLoader leaseCreationContextLoader;
+
+    private LeaseContractFormDTO form;
+    private Room room;
+    private Rent rent;
+
+    @BeforeEach
+    void setUp() {
+        form = new LeaseContractFormDTO();
+        form.setName("martin");
+        form.setFirstname("claire");
+        form.setBirthdate(LocalDate.of(1990, 5, 12));
+        form.setCenterName("afpa rouen");
+        form.setRoomNumber("101");
+        form.setFrequency("monthly");
+
+        room = new Room();
+        room.setId(1);
+        rent = new Rent();
+        rent.setId(1);
+    }
+
+    /**
+     * Vérifie que plusieurs lignes du même utilisateur (plusieurs financeurs de sa dernière session) sont acceptées.
+     */
+    @Test
+    void testLoad_WhenRowsBelongToTheSameUser_ShouldReturnContext() {
+        AppUser user = user(7);
+        List<LeaseCreationRow> rows = List.of(row(user), row(user));
+        when(appUserRepository.findLeaseCreationContext(any(), any(), any(), any(), any(), any())).thenReturn(rows);
+
+        LeaseCreationContext context = leaseCreationContextLoader.load(form);
+
+        assertSame(user, context.user());
+        assertSame(room, context.room());
+        assertEquals("developpeur", context.formationName());
+    }
+
+    /**
+     * Vérifie qu'une recherche qui correspond à plusieurs utilisateurs est refusée au lieu d'en choisir un.
+     */
+    @Test
+    void testLoad_WhenRowsBelongToSeveralUsers_ShouldThrowDuplicateException() {
+        List<LeaseCreationRow> rows = List.of(row(user(7)), row(user(8)));
+        when(appUserRepository.findLeaseCreationContext(any(), any(), any(), any(), any(), any())).thenReturn(rows);
+
+        assertThrows(DuplicateException.class, () -> leaseCreationContextLoader.load(form));
+    }
+
+    /**
+     * Vérifie qu'une recherche sans résultat déclenche une {@link ResourceNotFoundException}.
+     */
+    @Test
+    void testLoad_WhenNoUserMatches_ShouldThrowResourceNotFoundException() {
+        when(appUserRepository.findLeaseCreationContext(any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> leaseCreationContextLoader.load(form));
+    }
+
+
+    private static AppUser user(Integer id) {
+        AppUser user = new AppUser();
+        user.setId(id);
+        return user;
+    }
+
+    private LeaseCreationRow row(AppUser user) {
+        LeaseCreationRow row = mock(LeaseCreationRow.class);
+        when(row.getUser()).thenReturn(user);
+        when(row.getIdAfpaCenter()).thenReturn(1);
+        when(row.getRoom()).thenReturn(room);
+        when(row.getRent()).thenReturn(rent);
+        when(row.getFormationName()).thenReturn("developpeur");
+        return row;
+    }
+
+}
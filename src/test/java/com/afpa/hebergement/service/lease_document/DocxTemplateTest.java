@@ -0,0 +1,119 @@
+package com.afpa.hebergement.service.lease_document;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link DocxTemplate}, sur le modèle de contrat de bail livré avec l'application.
+ */
+class DocxTemplateTest {
+
+    private static DocxTemplate template;
+
+    @BeforeAll
+    static void compile() throws IOException {
+        try (InputStream docx = new ClassPathResource("documents/leaseContract/docx/contrat_bail.docx").getInputStream()) {
+            template = DocxTemplate.compile(docx);
+        }
+    }
+
+    private static Map<String, String> values() {
+        Map<String, String> values = new HashMap<>();
+        for (String field : template.fields()) {
+            values.put(field, "valeur-" + field);
+        }
+        values.put("name", "Durand & Fils <SARL>");
+        return values;
+    }
+
+    private static String readEntry(byte[] docx, String name) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(docx))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().equals(name)) {
+                    return new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void compile_findsFieldsSplitAcrossRuns() {
+        assertTrue(template.fields().containsAll(List.of("name", "firstname", "centerName", "startDateLease",
+                "endDateLease", "totalRent", "frequency", "listService", "dayDate")));
+    }
+
+    @Test
+    void writeDocx_fillsEveryFieldAndEscapesValues() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        template.writeDocx(values(), outputStream);
+
+        String document = readEntry(outputStream.toByteArray(), "word/document.xml");
+        assertNotNull(document);
+        assertFalse(document.contains("{{"));
+        assertFalse(document.contains("\u0000"));
+        assertTrue(document.contains("valeur-centerManager"));
+        assertTrue(document.contains("Durand &amp; Fils &lt;SARL&gt;"));
+
+        // L'en-tête contient aussi un champ (date du contrat)
+        assertTrue(readEntry(outputStream.toByteArray(), "word/header1.xml").contains("valeur-dayDate"));
+        // Les autres parties sont copiées telles quelles
+        assertNotNull(readEntry(outputStream.toByteArray(), "word/styles.xml"));
+    }
+
+    @Test
+    void writeDocx_missingValueIsEmpty() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        template.writeDocx(Map.of(), outputStream);
+
+        String document = readEntry(outputStream.toByteArray(), "word/document.xml");
+        assertFalse(document.contains("{{"));
+        assertTrue(document.contains("Représentée par"));
+    }
+
+    @Test
+    void writePdf_writesPdfDocument() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        template.writePdf(values(), outputStream);
+
+        assertTrue(new String(outputStream.toByteArray(), StandardCharsets.ISO_8859_1).startsWith("%PDF"));
+    }
+
+    @Test
+    void groupPlaceholders_mergesRunsAndPreservesSpaces() {
+        String xml = "<w:p><w:r><w:t>Né(e) {{</w:t></w:r><w:r><w:t>birth</w:t></w:r><w:r><w:t xml:space=\"preserve\">date}} à </w:t></w:r>"
+                + "<w:r><w:t>${city}</w:t></w:r></w:p>";
+
+        String grouped = DocxTemplate.groupPlaceholders(xml);
+
+        assertEquals("<w:p><w:r><w:t xml:space=\"preserve\">Né(e) \u0000birthdate\u0000</w:t></w:r><w:r><w:t xml:space=\"preserve\"></w:t></w:r>"
+                + "<w:r><w:t xml:space=\"preserve\"> à </w:t></w:r><w:r><w:t xml:space=\"preserve\">\u0000city\u0000</w:t></w:r></w:p>", grouped);
+    }
+
+    @Test
+    void paragraphs_keepTextFieldsAndBold() {
+        List<List<DocxTemplate.Item>> paragraphs = DocxTemplate.paragraphs(
+                "<w:p><w:r><w:rPr><w:b/></w:rPr><w:t>Article 1 &amp; 2</w:t></w:r><w:r><w:t>\u0000name\u0000</w:t></w:r></w:p><w:p/>");
+
+        assertEquals(2, paragraphs.size());
+        assertEquals(List.of(new DocxTemplate.Item("Article 1 & 2", null, true), new DocxTemplate.Item(null, "name", false)),
+                paragraphs.get(0));
+        assertTrue(paragraphs.get(1).isEmpty());
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.afpa.hebergement.service.message_stream;
+
+import com.afpa.hebergement.model.dto.MessageDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link MessageSubscription}.
+ */
+class MessageSubscriptionTest {
+
+    // Emetteur qui garde les événements envoyés : "message:ID" ou "comment"
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            String event = "comment";
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof MessageDTO message) {
+                    event = "message:" + message.getId();
+                }
+            }
+            events.add(event);
+        }
+    }
+
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final AtomicInteger closeCount = new AtomicInteger();
+
+    private MessageSubscription subscription(int maxPending) {
+        // Envois exécutés immédiatement dans le thread appelant
+        return new MessageSubscription(emitter, Runnable::run, maxPending, closed -> closeCount.incrementAndGet());
+    }
+
+    private static MessageDTO message(int id) {
+        MessageDTO message = new MessageDTO();
+        message.setId(id);
+        message.setContent("Message " + id);
+        return message;
+    }
+
+    @Test
+    void replay_sendsMissedMessagesThenQueuedLiveMessagesOnce() {
+        MessageSubscription subscription = subscription(10);
+
+        // Publiés pendant la lecture en base : le message 2 est aussi lu par la reprise
+        subscription.offer(message(2));
+        subscription.offer(message(3));
+        assertTrue(emitter.events.isEmpty());
+
+        subscription.replay(List.of(message(1), message(2)), false);
+        subscription.offer(message(4));
+
+        assertEquals(List.of("message:1", "message:2", "message:3", "message:4"), emitter.events);
+    }
+
+    @Test
+    void heartbeat_sendsComment() {
+        MessageSubscription subscription = subscription(10);
+        subscription.replay(List.of(), false);
+
+        subscription.heartbeat();
+
+        assertEquals(List.of("comment"), emitter.events);
+    }
+
+    @Test
+    void replay_truncatedClosesSoClientResumes() {
+        MessageSubscription subscription = subscription(10);
+
+        subscription.replay(List.of(message(1)), true);
+        subscription.offer(message(2));
+
+        assertTrue(subscription.isClosed());
+        assertEquals(List.of("message:1"), emitter.events);
+        assertEquals(1, closeCount.get());
+    }
+
+    @Test
+    void offer_closesSlowClient() {
+        MessageSubscription subscription = subscription(2);
+
+        subscription.offer(message(1));
+        subscription.offer(message(2));
+        subscription.offer(message(3));
+
+        assertTrue(subscription.isClosed());
+        assertEquals(1, closeCount.get());
+
+        subscription.replay(List.of(), false);
+        assertTrue(emitter.events.isEmpty());
+    }
+
+    @Test
+    void send_failureClosesOnce() {
+        MessageSubscription subscription = subscription(10);
+        subscription.replay(List.of(), false);
+        emitter.failing = true;
+
+        subscription.offer(message(1));
+        subscription.offer(message(2));
+        subscription.close();
+
+        assertTrue(subscription.isClosed());
+        assertEquals(1, closeCount.get());
+    }
+
+}
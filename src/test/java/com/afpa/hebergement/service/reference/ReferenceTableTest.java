@@ -0,0 +1,66 @@
+package com.afpa.hebergement.service.reference;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link ReferenceTable}.
+ * Vérifie l'ordre des lignes, les recherches par ID et par libellé et la stabilité de l'ETag.
+ */
+class ReferenceTableTest {
+
+    private record Wording(Integer id, String wording) {
+    }
+
+    private static ReferenceTable<Wording> table(Wording... rows) {
+        return ReferenceTable.of(ReferenceType.CIVILITY, List.of(rows), Wording::id, Wording::wording);
+    }
+
+    @Test
+    void testGetAll_ShouldBeSortedByIdAndUnmodifiable() {
+        ReferenceTable<Wording> table = table(new Wording(2, "Mme"), new Wording(1, "M."));
+
+        assertEquals(List.of(1, 2), table.getAll().stream().map(Wording::id).toList());
+        assertThrows(UnsupportedOperationException.class, () -> table.getAll().add(new Wording(3, "Mlle")));
+    }
+
+    @Test
+    void testFindById_ShouldReturnRowOrEmpty() {
+        ReferenceTable<Wording> table = table(new Wording(1, "M."), new Wording(2, "Mme"));
+
+        assertEquals("Mme", table.findById(2).map(Wording::wording).orElseThrow());
+        assertTrue(table.findById(3).isEmpty());
+        assertTrue(table.findById(null).isEmpty());
+    }
+
+    @Test
+    void testFindByWording_ShouldIgnoreCaseAndSurroundingSpaces() {
+        ReferenceTable<Wording> table = table(new Wording(1, "M."), new Wording(2, "Mme"));
+
+        assertEquals(2, table.findByWording("  mme ").map(Wording::id).orElseThrow());
+        assertTrue(table.findByWording("Mlle").isEmpty());
+        assertTrue(table.findByWording(null).isEmpty());
+    }
+
+    @Test
+    void testEtag_ShouldDependOnContentOnly() {
+        String etag = table(new Wording(1, "M."), new Wording(2, "Mme")).getEtag();
+
+        assertEquals(etag, table(new Wording(2, "Mme"), new Wording(1, "M.")).getEtag());
+        assertNotEquals(etag, table(new Wording(1, "M."), new Wording(2, "Madame")).getEtag());
+        assertNotEquals(etag, table(new Wording(1, "M.")).getEtag());
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+    }
+
+    @Test
+    void testEmptyTable() {
+        ReferenceTable<Wording> table = table();
+
+        assertTrue(table.isEmpty());
+        assertTrue(table.getAll().isEmpty());
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.afpa.hebergement.service.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Classe de test pour {@link DocumentContentStore}.
+ * Vérifie l'empreinte des contenus, leur enregistrement unique et leur suppression à la dernière référence.
+ */
+class DocumentContentStoreTest {
+
+    // SHA-256 de "Test content"
+    private static final String DIGEST = "9d9595c5d94fb65b824f56e9999527dba9542481580d69feb89056aabaa0aa87";
+
+    @TempDir
+    Path root;
+
+    private JdbcTemplate jdbcTemplate;
+    private DocumentStore documentStore;
+    private DocumentContentStore documentContentStore;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        documentStore = new DocumentStore(root.toString());
+        documentContentStore = new DocumentContentStore(jdbcTemplate, mock(PlatformTransactionManager.class), documentStore);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static MockMultipartFile file(String text) {
+        return new MockMultipartFile("file", "reglement.pdf", "application/pdf", text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Simule la validation de la transaction en cours
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    @Test
+    void testDigest_ShouldReturnSha256OfContent() throws IOException {
+        assertEquals(DIGEST, documentContentStore.digest(file("Test content")));
+    }
+
+    @Test
+    void testAcquire_SameContentTwice_ShouldStoreOneFileAndCountTwoReferences() throws IOException {
+        documentContentStore.acquire(DIGEST, file("Test content"));
+        documentContentStore.acquire(DIGEST, file("Test content"));
+
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO document_content"), eq(DIGEST), eq(12L));
+        assertEquals("Test content", Files.readString(documentContentStore.getFile(DIGEST, null)));
+        try (var files = Files.list(documentStore.resolveContent(DIGEST).getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testRelease_WhenLastReference_ShouldDeleteContentAfterCommit() throws IOException {
+        documentContentStore.acquire(DIGEST, file("Test content"));
+        when(jdbcTemplate.queryForList(startsWith("UPDATE document_content"), eq(Integer.class), eq(DIGEST))).thenReturn(List.of(0));
+        when(jdbcTemplate.update(startsWith("DELETE FROM document_content"), eq(DIGEST))).thenReturn(1);
+
+        documentContentStore.release(DIGEST);
+
+        // Le fichier n'est supprimé qu'après la validation
+        assertTrue(Files.exists(documentStore.resolveContent(DIGEST)));
+        commit();
+        assertFalse(Files.exists(documentStore.resolveContent(DIGEST)));
+    }
+
+    @Test
+    void testRelease_WhenStillReferenced_ShouldKeepContent() throws IOException {
+        documentContentStore.acquire(DIGEST, file("Test content"));
+        when(jdbcTemplate.queryForList(startsWith("UPDATE document_content"), eq(Integer.class), eq(DIGEST))).thenReturn(List.of(1));
+
+        documentContentStore.release(DIGEST);
+        commit();
+
+        assertTrue(Files.exists(documentStore.resolveContent(DIGEST)));
+        verify(jdbcTemplate, never()).update(startsWith("DELETE FROM document_content"), any(Object[].class));
+    }
+
+    @Test
+    void testReclaim_WhenReferencedAgainMeanwhile_ShouldKeepContent() throws IOException {
+        documentContentStore.acquire(DIGEST, file("Test content"));
+        when(jdbcTemplate.update(startsWith("DELETE FROM document_content"), eq(DIGEST))).thenReturn(0);
+
+        documentContentStore.reclaim(DIGEST);
+
+        assertTrue(Files.exists(documentStore.resolveContent(DIGEST)));
+    }
+
+}
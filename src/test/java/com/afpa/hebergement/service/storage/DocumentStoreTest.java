@@ -0,0 +1,143 @@
+package com.afpa.hebergement.service.storage;
+
+import com.afpa.hebergement.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour {@link DocumentStore} et {@link LegacyDocumentMigrator}.
+ */
+class DocumentStoreTest {
+
+    private static final String DIGEST = "abcd" + "0".repeat(60);
+
+    @TempDir
+    Path root;
+
+    private DocumentStore documentStore;
+
+    @BeforeEach
+    void setUp() {
+        documentStore = new DocumentStore(root.toString());
+    }
+
+    private static MockMultipartFile file(String text) {
+        return new MockMultipartFile("file", "bail.pdf", "application/pdf", text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws IOException {
+        return Files.readString(file);
+    }
+
+    @Test
+    void testPutContent_ShouldWriteFileInShardedDirectory() throws IOException {
+        boolean written = documentStore.putContent(DIGEST, file("Test content"));
+
+        assertTrue(written);
+        Path file = documentStore.getContentFile(DIGEST);
+        assertEquals(root.resolve("sha256").resolve("ab").resolve("cd").resolve(DIGEST), file);
+        assertEquals("Test content", read(file));
+    }
+
+    @Test
+    void testPutContent_WhenAlreadyStored_ShouldNotRewriteFile() throws IOException {
+        documentStore.putContent(DIGEST, file("Test content"));
+
+        boolean written = documentStore.putContent(DIGEST, file("Other content"));
+
+        assertFalse(written);
+        assertEquals("Test content", read(documentStore.getContentFile(DIGEST)));
+        // Aucun fichier temporaire ne reste dans le répertoire
+        try (var files = Files.list(documentStore.resolveContent(DIGEST).getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testDeleteContent_ShouldRemoveFile() throws IOException {
+        documentStore.putContent(DIGEST, file("Test content"));
+
+        documentStore.deleteContent(DIGEST);
+
+        assertFalse(Files.exists(documentStore.resolveContent(DIGEST)));
+        // Sans erreur si le fichier n'existe plus
+        assertDoesNotThrow(() -> documentStore.deleteContent(DIGEST));
+    }
+
+    @Test
+    void testResolveContent_WithInvalidDigest_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> documentStore.resolveContent("../secret"));
+        assertThrows(IllegalArgumentException.class, () -> documentStore.resolveContent(DIGEST.toUpperCase()));
+        assertThrows(IllegalArgumentException.class, () -> documentStore.resolveContent(null));
+    }
+
+    @Test
+    void testGetFile_ShouldReadLegacyFileAtItsCode() throws IOException {
+        Files.createDirectories(documentStore.resolve("abcd1234").getParent());
+        Files.writeString(documentStore.resolve("abcd1234"), "Legacy content");
+
+        Path file = documentStore.getFile("abcd1234");
+
+        assertEquals(root, file.getParent().getParent().getParent());
+        assertEquals("Legacy content", read(file));
+    }
+
+    @Test
+    void testGetFile_WhenFileDoesNotExist_ShouldThrowResourceNotFoundException() {
+        assertThrows(ResourceNotFoundException.class, () -> documentStore.getFile("abcd1234"));
+    }
+
+    @Test
+    void testResolve_WithPathCharacters_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> documentStore.resolve("../secret"));
+        assertThrows(IllegalArgumentException.class, () -> documentStore.resolve(""));
+        assertThrows(IllegalArgumentException.class, () -> documentStore.resolve(null));
+    }
+
+    @Test
+    void testDelete_ShouldRemoveLegacyFile() throws IOException {
+        Files.createDirectories(documentStore.resolve("abcd1234").getParent());
+        Files.writeString(documentStore.resolve("abcd1234"), "Legacy content");
+
+        documentStore.delete("abcd1234");
+
+        assertFalse(Files.exists(documentStore.resolve("abcd1234")));
+        assertDoesNotThrow(() -> documentStore.delete("abcd1234"));
+    }
+
+    @Test
+    void testMigrate_ShouldMoveLegacyFilesToTheirCodeLocation() throws IOException {
+        Files.writeString(root.resolve("abcd1234-bail.pdf"), "Legacy content");
+        Files.writeString(root.resolve("notes.txt"), "Not a document");
+
+        int moved = new LegacyDocumentMigrator(documentStore, false).migrate();
+
+        assertEquals(1, moved);
+        assertFalse(Files.exists(root.resolve("abcd1234-bail.pdf")));
+        assertTrue(Files.exists(root.resolve("notes.txt")));
+        assertEquals("Legacy content", read(documentStore.getFile("abcd1234")));
+    }
+
+    @Test
+    void testMigrate_WhenCodeAlreadyStored_ShouldLeaveLegacyFileInPlace() throws IOException {
+        Files.createDirectories(documentStore.resolve("abcd1234").getParent());
+        Files.writeString(documentStore.resolve("abcd1234"), "Current content");
+        Files.writeString(root.resolve("abcd1234-bail.pdf"), "Legacy content");
+
+        int moved = new LegacyDocumentMigrator(documentStore, false).migrate();
+
+        assertEquals(0, moved);
+        assertTrue(Files.exists(root.resolve("abcd1234-bail.pdf")));
+        assertEquals("Current content", read(documentStore.getFile("abcd1234")));
+    }
+
+}
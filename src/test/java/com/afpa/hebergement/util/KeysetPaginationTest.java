@@ -0,0 +1,131 @@
+package com.afpa.hebergement.util;
+
+import com.afpa.hebergement.exception.BadRequestException;
+import com.afpa.hebergement.model.dto.KeysetPageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPaginationTest {
+
+/** TEST DECODE / ENCODE */
+
+    @Test
+    void testDecodeNullOrBlankToken() {
+        assertEquals(0, KeysetPagination.decode(null));
+        assertEquals(0, KeysetPagination.decode(""));
+        assertEquals(0, KeysetPagination.decode("  "));
+    }
+
+    @Test
+    void testEncodeThenDecode() {
+        assertEquals(42, KeysetPagination.decode(KeysetPagination.encode(42)));
+        assertEquals(Integer.MAX_VALUE, KeysetPagination.decode(KeysetPagination.encode(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void testDecodeInvalidToken() {
+        assertThrows(BadRequestException.class, () -> KeysetPagination.decode("not a token"));
+        assertThrows(BadRequestException.class, () -> KeysetPagination.decode("MTIz"));
+    }
+
+/** TEST DECODE / ENCODE RANKED */
+
+    @Test
+    void testDecodeRankedNullOrBlankToken() {
+        assertEquals(KeysetPagination.FIRST_RANKED, KeysetPagination.decodeRanked(null));
+        assertEquals(KeysetPagination.FIRST_RANKED, KeysetPagination.decodeRanked(" "));
+    }
+
+    @Test
+    void testEncodeThenDecodeRanked() {
+        float rank = 0.0607927f;
+        KeysetPagination.RankedCursor cursor = KeysetPagination.decodeRanked(KeysetPagination.encodeRanked(rank, 42));
+
+        // Le rang doit être relu à l'identique pour la comparaison d'égalité en base
+        assertEquals(Float.floatToIntBits(rank), Float.floatToIntBits(cursor.rank()));
+        assertEquals(42, cursor.id());
+        assertEquals(1.0E-20f, KeysetPagination.decodeRanked(KeysetPagination.encodeRanked(1.0E-20f, 7)).rank());
+    }
+
+    @Test
+    void testDecodeRankedInvalidToken() {
+        assertThrows(BadRequestException.class, () -> KeysetPagination.decodeRanked("not a token"));
+        // Jeton de pagination par ID
+        assertThrows(BadRequestException.class, () -> KeysetPagination.decodeRanked(KeysetPagination.encode(42)));
+        // Rang non fini
+        assertThrows(BadRequestException.class, () -> KeysetPagination.decodeRanked(KeysetPagination.encodeRanked(Float.NaN, 1)));
+    }
+
+/** TEST CLAMP SIZE */
+
+    @Test
+    void testClampSize() {
+        assertEquals(KeysetPagination.DEFAULT_SIZE, KeysetPagination.clampSize(null));
+        assertEquals(1, KeysetPagination.clampSize(0));
+        assertEquals(50, KeysetPagination.clampSize(50));
+        assertEquals(KeysetPagination.MAX_SIZE, KeysetPagination.clampSize(10_000));
+    }
+
+/** TEST TO PAGE */
+
+    @Test
+    void testToPageWithNextPage() {
+        KeysetPageDTO<String> page = KeysetPagination.toPage(List.of(1, 2, 3), 2, Function.identity(), String::valueOf,
+                false, () -> fail("count should not be called"));
+
+        assertEquals(List.of("1", "2"), page.getContent());
+        assertTrue(page.isHasNext());
+        assertEquals(2, KeysetPagination.decode(page.getNext()));
+        assertNull(page.getTotalElements());
+    }
+
+    @Test
+    void testToPageLastPageWithCount() {
+        KeysetPageDTO<String> page = KeysetPagination.toPage(List.of(5), 2, Function.identity(), String::valueOf,
+                true, () -> 5L);
+
+        assertEquals(List.of("5"), page.getContent());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNext());
+        assertEquals(5L, page.getTotalElements());
+    }
+
+    @Test
+    void testToPageEmpty() {
+        KeysetPageDTO<String> page = KeysetPagination.toPage(List.<Integer>of(), 20, Function.identity(), String::valueOf,
+                false, () -> 0L);
+
+        assertTrue(page.getContent().isEmpty());
+        assertFalse(page.isHasNext());
+    }
+
+/** TEST TO RANKED PAGE */
+
+    @Test
+    void testToRankedPageWithNextPage() {
+        List<float[]> rows = List.of(new float[]{0.9f, 5}, new float[]{0.5f, 8}, new float[]{0.5f, 3});
+
+        KeysetPageDTO<Integer> page = KeysetPagination.toRankedPage(rows, 2, row -> row[0], row -> (int) row[1], row -> (int) row[1]);
+
+        assertEquals(List.of(5, 8), page.getContent());
+        assertTrue(page.isHasNext());
+        assertEquals(new KeysetPagination.RankedCursor(0.5f, 8), KeysetPagination.decodeRanked(page.getNext()));
+        assertNull(page.getTotalElements());
+    }
+
+    @Test
+    void testToRankedPageLastPage() {
+        List<float[]> rows = List.<float[]>of(new float[]{0.1f, 1});
+
+        KeysetPageDTO<Integer> page = KeysetPagination.toRankedPage(rows, 2, row -> row[0], row -> (int) row[1], row -> (int) row[1]);
+
+        assertEquals(List.of(1), page.getContent());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNext());
+    }
+
+}